@@ -1,15 +1,17 @@
 package com.dji.sdk.sample.demo.battery;
 
 import android.content.Context;
+import android.support.annotation.NonNull;
 import com.dji.sdk.sample.R;
 import com.dji.sdk.sample.internal.view.BasePushDataView;
-import com.dji.sdk.sample.internal.controller.DJISampleApplication;
+import com.dji.sdk.sample.internal.controller.TelemetryHub;
 import dji.common.battery.BatteryState;
 
 /**
  * Class for getting the battery information.
  */
 public class PushBatteryDataView extends BasePushDataView {
+
     public PushBatteryDataView(Context context) {
         super(context);
     }
@@ -18,37 +20,20 @@ public class PushBatteryDataView extends BasePushDataView {
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
 
-        try {
-            DJISampleApplication.getProductInstance().getBattery().setStateCallback(new BatteryState.Callback() {
-                @Override
-                public void onUpdate(BatteryState djiBatteryState) {
-                    stringBuffer.delete(0, stringBuffer.length());
-
-                    stringBuffer.append("BatteryEnergyRemainingPercent: ").
-                        append(djiBatteryState.getChargeRemainingInPercent()).
-                                    append("%\n");
-                    stringBuffer.append("CurrentVoltage: ").
-                        append(djiBatteryState.getVoltage()).append("mV\n");
-                    stringBuffer.append("CurrentCurrent: ").
-                        append(djiBatteryState.getCurrent()).append("mA\n");
-
-                    showStringBufferResult();
+        throttle(TelemetryHub.getInstance().subscribeBattery(new TelemetryHub.BatteryStateListener() {
+            @Override
+            public void onUpdate(@NonNull BatteryState djiBatteryState) {
+                synchronized (textFormatter) {
+                    textFormatter.clear();
+                    textFormatter.label("BatteryEnergyRemainingPercent")
+                                 .append(djiBatteryState.getChargeRemainingInPercent())
+                                 .append("%\n");
+                    textFormatter.label("CurrentVoltage").append(djiBatteryState.getVoltage()).append("mV\n");
+                    textFormatter.label("CurrentCurrent").append(djiBatteryState.getCurrent()).append("mA\n");
+                    showFormattedText();
                 }
-            });
-        } catch (Exception ignored) {
-
-        }
-    }
-
-    @Override
-    protected void onDetachedFromWindow() {
-        super.onDetachedFromWindow();
-
-        try {
-            DJISampleApplication.getProductInstance().getBattery().setStateCallback(null);
-        } catch (Exception ignored) {
-
-        }
+            }
+        }, 0, null));
     }
 
     @Override
@@ -0,0 +1,344 @@
+package com.dji.sdk.sample.demo.camera;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.BaseAdapter;
+import android.widget.Button;
+import android.widget.ImageView;
+import android.widget.ListView;
+import android.widget.TextView;
+import com.dji.sdk.sample.R;
+import dji.common.error.DJIError;
+import dji.sdk.camera.MediaFile;
+import dji.sdk.camera.MediaManager;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The media files of the camera with their thumbnails, for a ListView.
+ *
+ * The files are handed to the ListView a page at a time: the next page is added when the list scrolls within the
+ * lookahead window of its end, so a full SD card does not put thousands of rows behind the scroll bar at once. Rows
+ * have stable IDs, the IDs of the files, and one click listener serves the play buttons of all rows, finding the
+ * file through the tag of the button.
+ *
+ * Thumbnails are fetched for the visible rows plus the lookahead window in the direction of the scroll, one at a
+ * time as the camera serves downloads one after the other. When the list scrolls, the queued fetches that left the
+ * window are cancelled. The fetch in flight cannot be cancelled with the MediaManager, its thumbnail still goes to
+ * the cache, and the next fetch waits for it even if the files were replaced meanwhile. Fetched thumbnails are kept
+ * in a cache bounded in bytes and set on the row showing the file, if any, without binding the other rows again.
+ * A file whose thumbnail could not be fetched is not tried again until the files are replaced.
+ *
+ * Main thread only.
+ */
+public class MediaFileListAdapter extends BaseAdapter implements AbsListView.OnScrollListener {
+
+    private static final String TAG = MediaFileListAdapter.class.getName();
+
+    private static final int PAGE_SIZE = 50;
+    // Rows past the visible ones that get their thumbnails ahead of time
+    private static final int LOOKAHEAD = 8;
+
+    /**
+     * Plays a video file, called when the play button of its row is clicked.
+     */
+    public interface OnPlayListener {
+        void onPlay(@NonNull MediaFile media);
+    }
+
+    private static final class ItemHolder {
+        private ImageView thumbnail;
+        private TextView fileName;
+        private Button btnPlayVideo;
+        private MediaFile media;
+    }
+
+    private final Context context;
+    private final OnPlayListener playListener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final LruCache<Long, Bitmap> thumbnails;
+    private ListView listView;
+
+    private MediaManager mediaManager;
+    private MediaFile[] files = new MediaFile[0];
+    private int shownCount;
+    // Changed with the files, tells fetches for earlier files apart
+    private int generation;
+
+    private final ArrayList<MediaFile> pendingFetches = new ArrayList<>();
+    // Until its callback ran, whatever generation it belongs to
+    private MediaFile fetching;
+    private final Set<Long> failedIds = new HashSet<>();
+    private int firstVisible;
+    private int visibleCount;
+    private boolean scrollingUp;
+    private int fetchedCount;
+    private int cancelledCount;
+
+    private final View.OnClickListener playClickListener = new View.OnClickListener() {
+        @Override
+        public void onClick(View v) {
+            playListener.onPlay((MediaFile) v.getTag());
+        }
+    };
+
+    private final Runnable showNextPageRunnable = new Runnable() {
+        @Override
+        public void run() {
+            shownCount = Math.min(files.length, shownCount + PAGE_SIZE);
+            notifyDataSetChanged();
+        }
+    };
+
+    public MediaFileListAdapter(@NonNull Context context, @NonNull OnPlayListener playListener) {
+        this.context = context;
+        this.playListener = playListener;
+        // A 64th of the heap, an eighth of the memory budget of the view stack on most devices
+        thumbnails = new LruCache<Long, Bitmap>((int) (Runtime.getRuntime().maxMemory() / 64)) {
+            @Override
+            protected int sizeOf(Long key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+    }
+
+    /**
+     * Shows the files in a list view and fetches thumbnails as it scrolls.
+     */
+    public void attach(@NonNull ListView listView) {
+        this.listView = listView;
+        listView.setAdapter(this);
+        listView.setOnScrollListener(this);
+    }
+
+    /**
+     * Replaces the files shown, starting over from the first page.
+     *
+     * @param mediaManager the manager the thumbnails are fetched with, null if there is none
+     */
+    public void setFiles(@Nullable MediaManager mediaManager, @NonNull List<MediaFile> files) {
+        this.mediaManager = mediaManager;
+        this.files = files.toArray(new MediaFile[files.size()]);
+        shownCount = Math.min(this.files.length, PAGE_SIZE);
+        generation++;
+        cancelledCount += pendingFetches.size();
+        pendingFetches.clear();
+        failedIds.clear();
+        thumbnails.evictAll();
+        mainHandler.removeCallbacks(showNextPageRunnable);
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Drops the files, their thumbnails and the pending fetches.
+     */
+    public void clear() {
+        if (files.length > 0) {
+            Log.d(TAG, "Fetched " + fetchedCount + " thumbnails, cancelled " + cancelledCount + " of "
+                + files.length + " files");
+        }
+        setFiles(null, new ArrayList<MediaFile>());
+    }
+
+    /**
+     * @return thumbnails fetched so far
+     */
+    public int getFetchedCount() {
+        return fetchedCount;
+    }
+
+    /**
+     * @return thumbnail fetches dropped before they started, as their rows scrolled out of the window
+     */
+    public int getCancelledCount() {
+        return cancelledCount;
+    }
+
+    @Override
+    public int getCount() {
+        return shownCount;
+    }
+
+    @Override
+    public MediaFile getItem(int position) {
+        return files[position];
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return files[position].getID();
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return true;
+    }
+
+    @SuppressLint("InflateParams")
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        ItemHolder holder;
+        if (convertView == null) {
+            convertView = LayoutInflater.from(context).inflate(R.layout.media_info_item, null);
+            holder = new ItemHolder();
+            holder.thumbnail = (ImageView) convertView.findViewById(R.id.thumbnail);
+            holder.fileName = (TextView) convertView.findViewById(R.id.filename);
+            holder.btnPlayVideo = (Button) convertView.findViewById(R.id.btn_PlayVideo);
+            holder.btnPlayVideo.setOnClickListener(playClickListener);
+            convertView.setTag(holder);
+        } else {
+            holder = (ItemHolder) convertView.getTag();
+        }
+
+        MediaFile media = files[position];
+        holder.media = media;
+        holder.fileName.setText(media.getFileName());
+        holder.thumbnail.setImageBitmap(thumbnails.get(getItemId(position)));
+        holder.btnPlayVideo.setTag(media);
+        if (media.getMediaType() != MediaFile.MediaType.M4V
+            && media.getMediaType() != MediaFile.MediaType.MOV
+            && media.getMediaType() != MediaFile.MediaType.MP4) {
+            holder.btnPlayVideo.setVisibility(View.GONE);
+        } else {
+            holder.btnPlayVideo.setVisibility(View.VISIBLE);
+        }
+        return convertView;
+    }
+
+    @Override
+    public void onScrollStateChanged(AbsListView view, int scrollState) {
+        // the window follows the rows, see onScroll
+    }
+
+    @Override
+    public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+        if (firstVisibleItem == firstVisible && visibleItemCount == visibleCount) return;
+        if (firstVisibleItem != firstVisible) {
+            scrollingUp = firstVisibleItem < firstVisible;
+        }
+        firstVisible = firstVisibleItem;
+        visibleCount = visibleItemCount;
+
+        if (shownCount < files.length && firstVisible + visibleCount + LOOKAHEAD >= shownCount) {
+            // not while the list lays out the rows
+            mainHandler.removeCallbacks(showNextPageRunnable);
+            mainHandler.post(showNextPageRunnable);
+        }
+        updatePrefetch();
+    }
+
+    /**
+     * Queues the thumbnails missing from the visible rows and the lookahead window, nearest first, and cancels the
+     * queued ones out of it.
+     */
+    private void updatePrefetch() {
+        ArrayList<MediaFile> wanted = new ArrayList<>();
+        int end = Math.min(firstVisible + visibleCount, files.length);
+        for (int i = firstVisible; i < end; i++) {
+            want(wanted, i);
+        }
+        for (int i = 1; i <= LOOKAHEAD; i++) {
+            int position = scrollingUp ? firstVisible - i : end - 1 + i;
+            if (position >= 0 && position < files.length) {
+                want(wanted, position);
+            }
+        }
+        for (MediaFile queued : pendingFetches) {
+            if (!wanted.contains(queued)) {
+                cancelledCount++;
+            }
+        }
+        pendingFetches.clear();
+        pendingFetches.addAll(wanted);
+        fetchNext();
+    }
+
+    private void want(List<MediaFile> wanted, int position) {
+        MediaFile media = files[position];
+        long id = getItemId(position);
+        if (media != fetching && !failedIds.contains(id) && thumbnails.get(id) == null) {
+            wanted.add(media);
+        }
+    }
+
+    private void fetchNext() {
+        if (fetching != null || pendingFetches.isEmpty() || mediaManager == null) return;
+        final MediaFile media = pendingFetches.remove(0);
+        final int fetchGeneration = generation;
+        fetching = media;
+        mediaManager.fetchThumbnail(media, new MediaManager.DownloadListener<Bitmap>() {
+            @Override
+            public void onStart() {
+            }
+
+            @Override
+            public void onRateUpdate(long total, long current, long persize) {
+            }
+
+            @Override
+            public void onProgress(long total, long current) {
+            }
+
+            @Override
+            public void onSuccess(final Bitmap bitmap) {
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onThumbnailFetched(media, bitmap, fetchGeneration);
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(final DJIError error) {
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        Log.e(TAG, "Cannot fetch the thumbnail of " + media.getFileName() + ": "
+                            + error.getDescription());
+                        onThumbnailFetched(media, null, fetchGeneration);
+                    }
+                });
+            }
+        });
+    }
+
+    private void onThumbnailFetched(MediaFile media, Bitmap bitmap, int fetchGeneration) {
+        fetching = null;
+        // the files were not replaced in the meantime
+        if (fetchGeneration == generation) {
+            if (bitmap != null) {
+                fetchedCount++;
+                thumbnails.put((long) media.getID(), bitmap);
+                showThumbnail(media, bitmap);
+            } else {
+                failedIds.add((long) media.getID());
+            }
+        }
+        fetchNext();
+    }
+
+    private void showThumbnail(MediaFile media, Bitmap bitmap) {
+        if (listView == null) return;
+        for (int i = 0; i < listView.getChildCount(); i++) {
+            ItemHolder holder = (ItemHolder) listView.getChildAt(i).getTag();
+            if (holder != null && holder.media == media) {
+                holder.thumbnail.setImageBitmap(bitmap);
+                return;
+            }
+        }
+    }
+}
@@ -1,9 +1,7 @@
 package com.dji.sdk.sample.demo.camera;
 
-import android.annotation.SuppressLint;
 import android.app.AlertDialog;
 import android.app.ProgressDialog;
-import android.app.Service;
 import android.content.Context;
 import android.content.DialogInterface;
 import android.os.Handler;
@@ -13,8 +11,6 @@ import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
-import android.view.ViewGroup;
-import android.widget.BaseAdapter;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.LinearLayout;
@@ -23,6 +19,7 @@ import android.widget.TextView;
 import com.dji.sdk.sample.R;
 import com.dji.sdk.sample.internal.controller.DJISampleApplication;
 import com.dji.sdk.sample.internal.controller.MainActivity;
+import com.dji.sdk.sample.internal.controller.ViewWarmPool;
 import com.dji.sdk.sample.internal.utils.ToastUtils;
 import com.dji.sdk.sample.internal.view.PresentableView;
 import dji.common.camera.SettingsDefinitions;
@@ -39,11 +36,10 @@ public class MediaPlaybackView extends LinearLayout
     private static final String TAG = MediaPlaybackView.class.getName();
 
     private MediaManager mediaManager;
-    private List<MediaFile> DJIMediaList = new ArrayList<>();
 
     private boolean isDialogAllowable = false;
 
-    private FileListAdapter listAdapter;
+    private MediaFileListAdapter listAdapter;
     private ProgressDialog dialog;
 
     public TextView tv_playbackInfo;
@@ -58,10 +54,10 @@ public class MediaPlaybackView extends LinearLayout
     private final int HIDE_PROGRESS_DIALOG = 3;
     private final int FETCH_FILE_LIST = 6;
     private final int NEED_REFRESH_FILE_LIST = 7;
-    private final int GET_THUMBNAILS = 8;
 
     private Handler handler = new Handler(new Handler.Callback() {
 
+        @SuppressWarnings("unchecked")
         @Override
         public boolean handleMessage(Message msg) {
             switch (msg.what) {
@@ -78,8 +74,7 @@ public class MediaPlaybackView extends LinearLayout
                     getFileList();
                     break;
                 case NEED_REFRESH_FILE_LIST:
-                    listAdapter.notifyDataSetChanged();
-
+                    listAdapter.setFiles(mediaManager, (List<MediaFile>) msg.obj);
                     break;
                 default:
                     break;
@@ -116,7 +111,6 @@ public class MediaPlaybackView extends LinearLayout
     }
 
     private void getFileList() {
-        DJIMediaList.clear();
         mediaManager = DJISampleApplication.getProductInstance().getCamera().getMediaManager();
         if (mediaManager != null) {
 
@@ -149,14 +143,8 @@ public class MediaPlaybackView extends LinearLayout
                 public void onSuccess(List<MediaFile> medias) {
                     Log.d(TAG, "fetchMediaList onSuccess");
                     handler.sendMessage(handler.obtainMessage(HIDE_PROGRESS_DIALOG, null));
-                    if (DJIMediaList != null) {
-                        DJIMediaList.clear();
-                    }
-                    for (MediaFile media : medias) {
-                        DJIMediaList.add(media);
-                    }
-                    handler.sendMessage(handler.obtainMessage(NEED_REFRESH_FILE_LIST, null));
-                    handler.removeMessages(GET_THUMBNAILS);
+                    // handed over to the main thread, the adapter keeps its own copy
+                    handler.sendMessage(handler.obtainMessage(NEED_REFRESH_FILE_LIST, new ArrayList<>(medias)));
                 }
             });
         }
@@ -165,13 +153,24 @@ public class MediaPlaybackView extends LinearLayout
     private void initUI(Context context) {
 
         setOrientation(HORIZONTAL);
-        LayoutInflater layoutInflater = (LayoutInflater) context.getSystemService(Service.LAYOUT_INFLATER_SERVICE);
-
-        layoutInflater.inflate(R.layout.media_playback, this, true);
+        ViewWarmPool.getInstance().inflate(R.layout.media_playback, this);
 
-        ListView listView = (ListView) findViewById(R.id.filelistView);
-        listAdapter = new FileListAdapter();
-        listView.setAdapter(listAdapter);
+        listAdapter = new MediaFileListAdapter(context, new MediaFileListAdapter.OnPlayListener() {
+            @Override
+            public void onPlay(@NonNull MediaFile media) {
+                mediaManager.playVideoMediaFile(media, new CommonCallbacks.CompletionCallback() {
+                    @Override
+                    public void onResult(DJIError error) {
+                        if (null != error) {
+                            handler.sendMessage(handler.obtainMessage(SHOW_TOAST, error.getDescription()));
+                        } else {
+                            Log.e(TAG, "Play Video");
+                        }
+                    }
+                });
+            }
+        });
+        listAdapter.attach((ListView) findViewById(R.id.filelistView));
 
         createProgressDialog();
 
@@ -295,8 +294,7 @@ public class MediaPlaybackView extends LinearLayout
             product = null;
         }
         if (product == null) {
-            DJIMediaList.clear();
-            listAdapter.notifyDataSetChanged();
+            listAdapter.clear();
             ToastUtils.setResultToToast(getContext().getResources().getString(R.string.playback_disconnected));
             return false;
         } else {
@@ -377,9 +375,7 @@ public class MediaPlaybackView extends LinearLayout
         } catch (Exception e) {
             e.printStackTrace();
         }
-        if (DJIMediaList != null) {
-            DJIMediaList.clear();
-        }
+        listAdapter.clear();
 
         super.onDetachedFromWindow();
     }
@@ -400,92 +396,6 @@ public class MediaPlaybackView extends LinearLayout
         return R.string.camera_listview_media_playback;
     }
 
-    private class FileListAdapter extends BaseAdapter {
-
-        class ItemHolder {
-            TextView file_name;
-            Button btnPlayVideo;
-        }
-
-        public FileListAdapter() {
-            super();
-        }
-
-        @SuppressLint("InflateParams")
-        @Override
-        public View getView(final int index, View convertView, ViewGroup parent) {
-
-            final ItemHolder mItemHolder;
-
-            if (convertView == null) {
-                convertView = LayoutInflater.from(getContext()).inflate(R.layout.media_info_item, null);
-
-                mItemHolder = new ItemHolder();
-                mItemHolder.file_name = (TextView) convertView.findViewById(R.id.filename);
-                mItemHolder.btnPlayVideo = (Button) convertView.findViewById(R.id.btn_PlayVideo);
-                convertView.setTag(mItemHolder);
-            } else {
-                mItemHolder = (ItemHolder) convertView.getTag();
-            }
-
-            if (DJIMediaList.size() != 0) {
-                final MediaFile media = DJIMediaList.get(index);
-
-                if (media.getMediaType() != MediaFile.MediaType.M4V
-                    && media.getMediaType() != MediaFile.MediaType.MOV
-                    && media.getMediaType() != MediaFile.MediaType.MP4) {
-                    mItemHolder.btnPlayVideo.setVisibility(View.GONE);
-                } else {
-                    mItemHolder.btnPlayVideo.setVisibility(View.VISIBLE);
-                }
-
-                mItemHolder.file_name.setText(DJIMediaList.get(index).getFileName());
-
-                mItemHolder.btnPlayVideo.setOnClickListener(new OnClickListener() {
-                    @Override
-                    public void onClick(View v) {
-                        mediaManager.playVideoMediaFile(DJIMediaList.get(index),
-                                                        new CommonCallbacks.CompletionCallback() {
-                                                            @Override
-                                                            public void onResult(DJIError error) {
-                                                                if (null != error) {
-                                                                    handler.sendMessage(handler.obtainMessage(SHOW_TOAST,
-                                                                                                              error.getDescription()));
-                                                                } else {
-                                                                    Log.e(TAG, "Play Video");
-                                                                }
-                                                            }
-                                                        });
-                    }
-                });
-            } else {
-                mItemHolder.file_name.setText("");
-            }
-            return convertView;
-        }
-
-        @Override
-        public int getCount() {
-            if (null != DJIMediaList) {
-                return DJIMediaList.size();
-            }
-            return 0;
-        }
-
-        @Override
-        public Object getItem(int index) {
-            if (DJIMediaList.size() > index) {
-                return DJIMediaList.get(index);
-            }
-            return null;
-        }
-
-        @Override
-        public long getItemId(int id) {
-            return id;
-        }
-    }
-
     private void updateTextView(MediaManager.VideoPlaybackState currentVideoPlaybackState) {
         final StringBuilder pushInfo = new StringBuilder();
 
@@ -40,9 +40,10 @@ public class PlaybackPushInfoView extends BasePushDataView {
                                          });
         }
         if (!ModuleVerificationUtil.isPlaybackAvailable()) {
-            stringBuffer.delete(0, stringBuffer.length());
-            stringBuffer.append("This product does not support Playback function");
-            showStringBufferResult();
+            synchronized (textFormatter) {
+                textFormatter.clear().append("This product does not support Playback function");
+                showFormattedText();
+            }
             ToastUtils.setResultToToast("Not support");
         }
     }
@@ -75,29 +76,24 @@ public class PlaybackPushInfoView extends BasePushDataView {
                                 .setPlaybackStateCallback(new PlaybackManager.PlaybackState.CallBack() {
                                     @Override
                                     public void onUpdate(PlaybackManager.PlaybackState djiCameraPlaybackState) {
-                                        stringBuffer.delete(0, stringBuffer.length());
-
-                                        stringBuffer.append("CurrentSelectedFileIndex: ")
-                                                    .append(djiCameraPlaybackState.getCurrentSelectedFileIndex())
-                                                    .append("\n");
-                                        stringBuffer.append("MediaFileType: ")
-                                                    .append(djiCameraPlaybackState.getFileType())
-                                                    .append("\n");
-                                        stringBuffer.append("NumberOfMediaFiles").
-                                            append(djiCameraPlaybackState.getNumberOfMediaFiles()).append("\n");
-                                        stringBuffer.append("PlaybackMode: ")
-                                                    .append(djiCameraPlaybackState.getPlaybackMode())
-                                                    .append("\n");
-                                        stringBuffer.append("NumbersOfSelected: ")
-                                                    .append(djiCameraPlaybackState.getSelectedFileCount())
-                                                    .append("\n");
-
-                                        showStringBufferResult();
+                                        updatePlaybackState(djiCameraPlaybackState);
                                     }
                                 });
         }
     }
 
+    private void updatePlaybackState(PlaybackManager.PlaybackState state) {
+        synchronized (textFormatter) {
+            textFormatter.clear();
+            textFormatter.label("CurrentSelectedFileIndex").append(state.getCurrentSelectedFileIndex()).newLine();
+            textFormatter.label("MediaFileType").append(state.getFileType()).newLine();
+            textFormatter.append("NumberOfMediaFiles").append(state.getNumberOfMediaFiles()).newLine();
+            textFormatter.label("PlaybackMode").append(state.getPlaybackMode()).newLine();
+            textFormatter.label("NumbersOfSelected").append(state.getSelectedFileCount()).newLine();
+            showFormattedText();
+        }
+    }
+
     @Override
     public int getDescription() {
         return R.string.camera_listview_playback_push_info_description;
@@ -1,9 +1,11 @@
 package com.dji.sdk.sample.demo.camera;
 
 import android.content.Context;
+import android.support.annotation.NonNull;
 import com.dji.sdk.sample.R;
 import com.dji.sdk.sample.internal.view.BasePushDataView;
 import com.dji.sdk.sample.internal.controller.DJISampleApplication;
+import com.dji.sdk.sample.internal.controller.TelemetryHub;
 import dji.common.camera.SystemState;
 import dji.sdk.camera.Camera;
 
@@ -20,27 +22,21 @@ public class PushCameraDataView extends BasePushDataView {
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
 
-        try {
-            DJISampleApplication.getProductInstance().getCamera().setSystemStateCallback(new SystemState.Callback() {
-                @Override
-                public void onUpdate(SystemState cameraSystemState) {
-                    if (null != cameraSystemState) {
-                        stringBuffer.delete(0, stringBuffer.length());
-
-                        stringBuffer.append("CameraMode: ").append(cameraSystemState.getMode()).append("\n");
-                        stringBuffer.append("isRecord: ").append(cameraSystemState.isRecording()).append("\n");
-                        stringBuffer.append("isStoringPhoto: ").append(cameraSystemState.isStoringPhoto()).append("\n");
-                        stringBuffer.append("isCameraOverHeated: ")
-                                    .append(cameraSystemState.isOverheating())
-                                    .append("\n\n");
-
-                        showStringBufferResult();
-                    }
+        throttle(TelemetryHub.getInstance().subscribeCamera(new TelemetryHub.CameraSystemStateListener() {
+            @Override
+            public void onUpdate(@NonNull SystemState cameraSystemState) {
+                synchronized (textFormatter) {
+                    textFormatter.clear();
+                    textFormatter.label("CameraMode").append(cameraSystemState.getMode()).newLine();
+                    textFormatter.label("isRecord").append(cameraSystemState.isRecording()).newLine();
+                    textFormatter.label("isStoringPhoto").append(cameraSystemState.isStoringPhoto()).newLine();
+                    textFormatter.label("isCameraOverHeated")
+                                 .append(cameraSystemState.isOverheating())
+                                 .append("\n\n");
+                    showFormattedText();
                 }
-            });
-        } catch (Exception exception) {
-            //do something
-        }
+            }
+        }, 0, null));
 
         //Get Thermal Camera Temperature
         try {
@@ -52,9 +48,12 @@ public class PushCameraDataView extends BasePushDataView {
                                         .setThermalTemperatureCallback(new Camera.TemperatureDataCallback() {
                                             @Override
                                             public void onUpdate(float temperature) {
-
-                                                stringBuffer.append("Temperature: ").append(temperature).append("\n");
-                                                showStringBufferResult();
+                                                synchronized (textFormatter) {
+                                                    textFormatter.label("Temperature")
+                                                                 .append(temperature, 1)
+                                                                 .newLine();
+                                                    showFormattedText();
+                                                }
                                             }
                                         });
                 }
@@ -69,7 +68,9 @@ public class PushCameraDataView extends BasePushDataView {
         super.onDetachedFromWindow();
 
         try {
-            DJISampleApplication.getProductInstance().getCamera().setSystemStateCallback(null);
+            if (DJISampleApplication.getProductInstance().getCamera().isThermalCamera()) {
+                DJISampleApplication.getProductInstance().getCamera().setThermalTemperatureCallback(null);
+            }
         } catch (Exception exception) {
 
         }
@@ -5,6 +5,7 @@ import android.support.annotation.NonNull;
 import com.dji.sdk.sample.R;
 import com.dji.sdk.sample.internal.view.BaseThreeBtnView;
 import com.dji.sdk.sample.internal.controller.DJISampleApplication;
+import com.dji.sdk.sample.internal.controller.TelemetryHub;
 import com.dji.sdk.sample.internal.utils.ModuleVerificationUtil;
 import dji.common.error.DJIError;
 import dji.common.flightcontroller.FlightControllerState;
@@ -19,6 +20,7 @@ import dji.sdk.products.Aircraft;
 public class CompassCalibrationView extends BaseThreeBtnView {
 
     private Compass compass;
+    private TelemetryHub.Subscription stateSubscription;
 
     public CompassCalibrationView(Context context) {
         super(context);
@@ -32,7 +34,7 @@ public class CompassCalibrationView extends BaseThreeBtnView {
             FlightController flightController =
                 ((Aircraft) DJISampleApplication.getProductInstance()).getFlightController();
 
-            flightController.setStateCallback(new FlightControllerState.Callback() {
+            stateSubscription = TelemetryHub.getInstance().subscribe(new TelemetryHub.StateListener() {
                 @Override
                 public void onUpdate(@NonNull FlightControllerState djiFlightControllerCurrentState) {
                     if (null != compass) {
@@ -53,6 +55,8 @@ public class CompassCalibrationView extends BaseThreeBtnView {
 
     @Override
     protected void onDetachedFromWindow() {
+        TelemetryHub.getInstance().unsubscribe(stateSubscription);
+        stateSubscription = null;
         super.onDetachedFromWindow();
     }
 
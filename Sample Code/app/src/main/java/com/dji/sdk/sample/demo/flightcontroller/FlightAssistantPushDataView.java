@@ -1,23 +1,38 @@
 package com.dji.sdk.sample.demo.flightcontroller;
 
 import android.content.Context;
-import android.support.annotation.NonNull;
 import android.util.Log;
 import com.dji.sdk.sample.R;
 import com.dji.sdk.sample.internal.controller.DJISampleApplication;
+import com.dji.sdk.sample.internal.controller.ObstacleTracker;
+import com.dji.sdk.sample.internal.controller.TelemetryHub;
 import com.dji.sdk.sample.internal.utils.ModuleVerificationUtil;
 import com.dji.sdk.sample.internal.view.BaseThreeBtnView;
 import dji.common.flightcontroller.ObstacleDetectionSector;
 import dji.common.flightcontroller.VisionDetectionState;
-import dji.sdk.flightcontroller.FlightAssistant;
-import dji.sdk.flightcontroller.FlightController;
-import dji.sdk.products.Aircraft;
+import dji.common.flightcontroller.VisionSensorPosition;
 
 /**
  * Class that retrieves the push data for Intelligent Flight Assistant
  */
 public class FlightAssistantPushDataView extends BaseThreeBtnView {
 
+    private static final long REFRESH_INTERVAL_MILLIS = 100;
+
+    private final StringBuilder stringBuilder = new StringBuilder();
+
+    // The tracker keeps the history at the full update rate, the text only needs to follow at a readable pace.
+    private final Runnable refreshRunnable = new Runnable() {
+        @Override
+        public void run() {
+            VisionDetectionState visionDetectionState = TelemetryHub.getInstance().getLatestVisionDetectionState();
+            if (visionDetectionState != null) {
+                changeDescription(describe(visionDetectionState));
+            }
+            postDelayed(this, REFRESH_INTERVAL_MILLIS);
+        }
+    };
+
     public FlightAssistantPushDataView(Context context) {
         super(context);
     }
@@ -25,57 +40,64 @@ public class FlightAssistantPushDataView extends BaseThreeBtnView {
     @Override
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
-
-        if (ModuleVerificationUtil.isFlightControllerAvailable()) {
-            FlightController flightController =
-                ((Aircraft) DJISampleApplication.getProductInstance()).getFlightController();
-
-            FlightAssistant intelligentFlightAssistant = flightController.getFlightAssistant();
-
-            if (intelligentFlightAssistant != null) {
-
-                intelligentFlightAssistant.setVisionDetectionStateUpdatedCallback(new VisionDetectionState.Callback() {
-                    @Override
-                    public void onUpdate(@NonNull VisionDetectionState visionDetectionState) {
-                        StringBuilder stringBuilder = new StringBuilder();
-
-                        ObstacleDetectionSector[] visionDetectionSectorArray =
-                            visionDetectionState.getDetectionSectors();
-
-                        for (ObstacleDetectionSector visionDetectionSector : visionDetectionSectorArray) {
-
-                            visionDetectionSector.getObstacleDistanceInMeters();
-                            visionDetectionSector.getWarningLevel();
-
-                            stringBuilder.append("Obstacle distance: ")
-                                        .append(visionDetectionSector.getObstacleDistanceInMeters())
-                                        .append("\n");
-                            stringBuilder.append("Distance warning: ")
-                                        .append(visionDetectionSector.getWarningLevel())
-                                        .append("\n");
-                        }
-
-                        stringBuilder.append("WarningLevel: ")
-                                    .append(visionDetectionState.getSystemWarning().name())
-                                    .append("\n");
-                        stringBuilder.append("Sensor state: ")
-                                    .append(visionDetectionState.isSensorBeingUsed())
-                                    .append("\n");
-
-                        changeDescription(stringBuilder.toString());
-                    }
-                });
-            }
-        } else {
+        if (!ModuleVerificationUtil.isFlightControllerAvailable()) {
             Log.i(DJISampleApplication.TAG, "onAttachedToWindow FC NOT Available");
         }
+        ObstacleTracker.getInstance().start();
+        post(refreshRunnable);
     }
 
     @Override
     protected void onDetachedFromWindow() {
+        removeCallbacks(refreshRunnable);
+        ObstacleTracker.getInstance().stop();
         super.onDetachedFromWindow();
     }
 
+    private String describe(VisionDetectionState visionDetectionState) {
+        ObstacleTracker tracker = ObstacleTracker.getInstance();
+        VisionSensorPosition position = visionDetectionState.getPosition();
+        ObstacleDetectionSector[] visionDetectionSectorArray = visionDetectionState.getDetectionSectors();
+
+        stringBuilder.setLength(0);
+        if (position != null && visionDetectionSectorArray != null) {
+            int sectorCount = Math.min(visionDetectionSectorArray.length, ObstacleTracker.MAX_SECTORS);
+            for (int i = 0; i < sectorCount; i++) {
+                stringBuilder.append("Obstacle distance: ")
+                             .append(tracker.getDistance(position, i))
+                             .append("\n");
+                stringBuilder.append("Closing speed: ")
+                             .append(tracker.getClosingSpeed(position, i))
+                             .append(" Time to collision: ")
+                             .append(tracker.getTimeToCollision(position, i))
+                             .append("\n");
+                stringBuilder.append("Distance warning: ")
+                             .append(visionDetectionSectorArray[i].getWarningLevel())
+                             .append("\n");
+            }
+        }
+
+        stringBuilder.append("Nearest threat: ");
+        if (tracker.getNearestPosition() == null) {
+            stringBuilder.append("none");
+        } else {
+            stringBuilder.append(tracker.getNearestPosition())
+                         .append(" sector ")
+                         .append(tracker.getNearestSector())
+                         .append(" in ")
+                         .append(tracker.getNearestTimeToCollision())
+                         .append("s");
+        }
+        stringBuilder.append("\n");
+        stringBuilder.append("WarningLevel: ")
+                     .append(visionDetectionState.getSystemWarning().name())
+                     .append("\n");
+        stringBuilder.append("Sensor state: ")
+                     .append(visionDetectionState.isSensorBeingUsed())
+                     .append("\n");
+        return stringBuilder.toString();
+    }
+
     @Override
     protected int getDescriptionResourceId() {
         return R.string.intelligent_flight_assistant_description;
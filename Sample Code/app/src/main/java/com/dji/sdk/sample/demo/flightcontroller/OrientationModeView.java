@@ -4,6 +4,7 @@ import android.content.Context;
 import android.support.annotation.NonNull;
 import com.dji.sdk.sample.R;
 import com.dji.sdk.sample.internal.controller.DJISampleApplication;
+import com.dji.sdk.sample.internal.controller.TelemetryHub;
 import com.dji.sdk.sample.internal.utils.ModuleVerificationUtil;
 import com.dji.sdk.sample.internal.utils.ToastUtils;
 import com.dji.sdk.sample.internal.view.BaseThreeBtnView;
@@ -22,6 +23,8 @@ public class OrientationModeView extends BaseThreeBtnView {
 
     private String orientationMode;
 
+    private TelemetryHub.Subscription stateSubscription;
+
     public OrientationModeView(Context context) {
         super(context);
     }
@@ -33,7 +36,7 @@ public class OrientationModeView extends BaseThreeBtnView {
         if (ModuleVerificationUtil.isFlightControllerAvailable()) {
             flightController = DJISampleApplication.getAircraftInstance().getFlightController();
 
-            flightController.setStateCallback(new FlightControllerState.Callback() {
+            stateSubscription = TelemetryHub.getInstance().subscribe(new TelemetryHub.StateListener() {
                 @Override
                 public void onUpdate(@NonNull FlightControllerState flightControllerState) {
                     orientationMode = flightControllerState.getOrientationMode().name();
@@ -44,6 +47,13 @@ public class OrientationModeView extends BaseThreeBtnView {
         }
     }
 
+    @Override
+    protected void onDetachedFromWindow() {
+        TelemetryHub.getInstance().unsubscribe(stateSubscription);
+        stateSubscription = null;
+        super.onDetachedFromWindow();
+    }
+
     @Override
     protected int getMiddleBtnTextResourceId() {
         return R.string.orientation_mode_home_lock;
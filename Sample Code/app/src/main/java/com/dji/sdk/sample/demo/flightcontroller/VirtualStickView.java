@@ -1,11 +1,10 @@
 package com.dji.sdk.sample.demo.flightcontroller;
 
-import android.app.Service;
 import android.content.Context;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
-import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.Button;
 import android.widget.CompoundButton;
@@ -13,7 +12,14 @@ import android.widget.RelativeLayout;
 import android.widget.TextView;
 import android.widget.ToggleButton;
 import com.dji.sdk.sample.R;
+import com.dji.sdk.sample.internal.controller.AircraftStateStore;
 import com.dji.sdk.sample.internal.controller.DJISampleApplication;
+import com.dji.sdk.sample.internal.controller.LinkLatencyEstimator;
+import com.dji.sdk.sample.internal.controller.ObstacleTracker;
+import com.dji.sdk.sample.internal.controller.TelemetryHub;
+import com.dji.sdk.sample.internal.controller.ViewWarmPool;
+import com.dji.sdk.sample.internal.model.AircraftEvent;
+import com.dji.sdk.sample.internal.model.AircraftSnapshot;
 import com.dji.sdk.sample.internal.utils.DialogUtils;
 import com.dji.sdk.sample.internal.utils.ModuleVerificationUtil;
 import com.dji.sdk.sample.internal.utils.OnScreenJoystick;
@@ -39,6 +45,9 @@ import java.util.TimerTask;
  */
 public class VirtualStickView extends RelativeLayout implements View.OnClickListener, PresentableView {
 
+    // Horizontal sticks are held at zero while an obstacle is closer than this in seconds
+    private static final float BRAKE_TIME_TO_COLLISION = 2f;
+
     private boolean yawControlModeFlag = true;
     private boolean rollPitchControlModeFlag = true;
     private boolean verticalControlModeFlag = true;
@@ -61,10 +70,7 @@ public class VirtualStickView extends RelativeLayout implements View.OnClickList
     private Timer sendVirtualStickDataTimer;
     private SendVirtualStickDataTask sendVirtualStickDataTask;
 
-    private float pitch;
-    private float roll;
-    private float yaw;
-    private float throttle;
+    private TelemetryHub.Subscription simulatorSubscription;
 
     public VirtualStickView(Context context) {
         super(context);
@@ -77,8 +83,42 @@ public class VirtualStickView extends RelativeLayout implements View.OnClickList
         return this.getClass().getSimpleName() + ".java";
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        // the store outlives the view, do not pick up the sticks where an earlier view left them
+        centerSticks();
+        simulatorSubscription =
+            TelemetryHub.getInstance().subscribeSimulator(new TelemetryHub.SimulatorStateListener() {
+                @Override
+                public void onUpdate(@NonNull SimulatorState simulatorState) {
+                    textView.setText("Yaw : "
+                                         + simulatorState.getYaw()
+                                         + ","
+                                         + "X : "
+                                         + simulatorState.getPositionX()
+                                         + "\n"
+                                         + "Y : "
+                                         + simulatorState.getPositionY()
+                                         + ","
+                                         + "Z : "
+                                         + simulatorState.getPositionZ()
+                                         + "\n"
+                                         + "Link delay : "
+                                         + LinkLatencyEstimator.getInstance().getOneWayDelayNanos() / 1000000
+                                         + " ms");
+                }
+            }, 0, new Handler(Looper.getMainLooper()));
+        ObstacleTracker.getInstance().start();
+        LinkLatencyEstimator.getInstance().start();
+    }
+
     @Override
     protected void onDetachedFromWindow() {
+        TelemetryHub.getInstance().unsubscribe(simulatorSubscription);
+        simulatorSubscription = null;
+        ObstacleTracker.getInstance().stop();
+        LinkLatencyEstimator.getInstance().stop();
         if (null != sendVirtualStickDataTimer) {
             sendVirtualStickDataTask.cancel();
             sendVirtualStickDataTask = null;
@@ -86,13 +126,20 @@ public class VirtualStickView extends RelativeLayout implements View.OnClickList
             sendVirtualStickDataTimer.purge();
             sendVirtualStickDataTimer = null;
         }
+        centerSticks();
         super.onDetachedFromWindow();
     }
 
-    private void initUI(Context context) {
-        LayoutInflater layoutInflater = (LayoutInflater) context.getSystemService(Service.LAYOUT_INFLATER_SERVICE);
+    private void centerSticks() {
+        AircraftStateStore.getInstance().dispatch(new AircraftEvent.SticksMoved(SystemClock.elapsedRealtimeNanos(),
+                                                                                0,
+                                                                                0,
+                                                                                0,
+                                                                                0));
+    }
 
-        layoutInflater.inflate(R.layout.view_virtual_stick, this, true);
+    private void initUI(Context context) {
+        ViewWarmPool.getInstance().inflate(R.layout.view_virtual_stick, this);
 
         btnEnableVirtualStick = (Button) findViewById(R.id.btn_enable_virtual_stick);
         btnDisableVirtualStick = (Button) findViewById(R.id.btn_disable_virtual_stick);
@@ -153,35 +200,9 @@ public class VirtualStickView extends RelativeLayout implements View.OnClickList
             }
         });
 
-        if (DJISampleApplication.getAircraftInstance() != null
-            && DJISampleApplication.getAircraftInstance().getFlightController() != null
-            && DJISampleApplication.getAircraftInstance().getFlightController().getSimulator() != null) {
-            DJISampleApplication.getAircraftInstance()
-                                .getFlightController()
-                                .getSimulator()
-                                .setStateCallback(new SimulatorState.Callback() {
-                                    @Override
-                                    public void onUpdate(@NonNull final SimulatorState simulatorState) {
-                                        new Handler(Looper.getMainLooper()).post(new Runnable() {
-
-                                            @Override
-                                            public void run() {
-                                                textView.setText("Yaw : "
-                                                                     + simulatorState.getYaw()
-                                                                     + ","
-                                                                     + "X : "
-                                                                     + simulatorState.getPositionX()
-                                                                     + "\n"
-                                                                     + "Y : "
-                                                                     + simulatorState.getPositionY()
-                                                                     + ","
-                                                                     + "Z : "
-                                                                     + simulatorState.getPositionZ());
-                                            }
-                                        });
-                                    }
-                                });
-        } else {
+        if (DJISampleApplication.getAircraftInstance() == null
+            || DJISampleApplication.getAircraftInstance().getFlightController() == null
+            || DJISampleApplication.getAircraftInstance().getFlightController().getSimulator() == null) {
             ToastUtils.setResultToToast("Disconnected!");
         }
         screenJoystickLeft.setJoystickListener(new OnScreenJoystickListener() {
@@ -198,9 +219,13 @@ public class VirtualStickView extends RelativeLayout implements View.OnClickList
                 float pitchJoyControlMaxSpeed = 10;
                 float rollJoyControlMaxSpeed = 10;
 
-                pitch = (float) (pitchJoyControlMaxSpeed * pY);
-
-                roll = (float) (rollJoyControlMaxSpeed * pX);
+                AircraftStateStore store = AircraftStateStore.getInstance();
+                AircraftSnapshot sticks = store.getSnapshot();
+                store.dispatch(new AircraftEvent.SticksMoved(SystemClock.elapsedRealtimeNanos(),
+                                                             pitchJoyControlMaxSpeed * pY,
+                                                             rollJoyControlMaxSpeed * pX,
+                                                             sticks.getYaw(),
+                                                             sticks.getThrottle()));
 
                 if (null == sendVirtualStickDataTimer) {
                     sendVirtualStickDataTask = new SendVirtualStickDataTask();
@@ -224,8 +249,13 @@ public class VirtualStickView extends RelativeLayout implements View.OnClickList
                 float verticalJoyControlMaxSpeed = 2;
                 float yawJoyControlMaxSpeed = 3;
 
-                yaw = yawJoyControlMaxSpeed * pX;
-                throttle = verticalJoyControlMaxSpeed * pY;
+                AircraftStateStore store = AircraftStateStore.getInstance();
+                AircraftSnapshot sticks = store.getSnapshot();
+                store.dispatch(new AircraftEvent.SticksMoved(SystemClock.elapsedRealtimeNanos(),
+                                                             sticks.getPitch(),
+                                                             sticks.getRoll(),
+                                                             yawJoyControlMaxSpeed * pX,
+                                                             verticalJoyControlMaxSpeed * pY));
 
                 if (null == sendVirtualStickDataTimer) {
                     sendVirtualStickDataTask = new SendVirtualStickDataTask();
@@ -244,22 +274,24 @@ public class VirtualStickView extends RelativeLayout implements View.OnClickList
         switch (v.getId()) {
             case R.id.btn_enable_virtual_stick:
                 DJISampleApplication.getAircraftInstance().
-                    getFlightController().setVirtualStickModeEnabled(true, new CommonCallbacks.CompletionCallback() {
-                    @Override
-                    public void onResult(DJIError djiError) {
-                        DialogUtils.showDialogBasedOnError(getContext(), djiError);
-                    }
-                });
+                    getFlightController().setVirtualStickModeEnabled(true, AircraftStateStore.getInstance()
+                    .issue("setVirtualStickModeEnabled(true)", new CommonCallbacks.CompletionCallback() {
+                        @Override
+                        public void onResult(DJIError djiError) {
+                            DialogUtils.showDialogBasedOnError(getContext(), djiError);
+                        }
+                    }));
                 break;
 
             case R.id.btn_disable_virtual_stick:
                 DJISampleApplication.getAircraftInstance().
-                    getFlightController().setVirtualStickModeEnabled(false, new CommonCallbacks.CompletionCallback() {
-                    @Override
-                    public void onResult(DJIError djiError) {
-                        DialogUtils.showDialogBasedOnError(getContext(), djiError);
-                    }
-                });
+                    getFlightController().setVirtualStickModeEnabled(false, AircraftStateStore.getInstance()
+                    .issue("setVirtualStickModeEnabled(false)", new CommonCallbacks.CompletionCallback() {
+                        @Override
+                        public void onResult(DJIError djiError) {
+                            DialogUtils.showDialogBasedOnError(getContext(), djiError);
+                        }
+                    }));
                 break;
 
             case R.id.btn_roll_pitch_control_mode:
@@ -337,14 +369,16 @@ public class VirtualStickView extends RelativeLayout implements View.OnClickList
 
             case R.id.btn_take_off:
 
+                CommonCallbacks.CompletionCallback takeOffCallback = new CommonCallbacks.CompletionCallback() {
+                    @Override
+                    public void onResult(DJIError djiError) {
+                        DialogUtils.showDialogBasedOnError(getContext(), djiError);
+                    }
+                };
                 DJISampleApplication.getAircraftInstance()
                                     .getFlightController()
-                                    .startTakeoff(new CommonCallbacks.CompletionCallback() {
-                                        @Override
-                                        public void onResult(DJIError djiError) {
-                                            DialogUtils.showDialogBasedOnError(getContext(), djiError);
-                                        }
-                                    });
+                                    .startTakeoff(AircraftStateStore.getInstance()
+                                                                    .issue("startTakeoff", takeOffCallback));
 
                 break;
 
@@ -363,18 +397,20 @@ public class VirtualStickView extends RelativeLayout implements View.OnClickList
         @Override
         public void run() {
             if (ModuleVerificationUtil.isFlightControllerAvailable()) {
+                // once stopped the obstacle no longer closes in, and a threat the sensors stopped confirming goes
+                // stale, so the sticks work again, moving away included
+                boolean brake = ObstacleTracker.getInstance().getNearestTimeToCollision() < BRAKE_TIME_TO_COLLISION;
+                // one snapshot, so the four axes always come from the same stick input
+                AircraftSnapshot sticks = AircraftStateStore.getInstance().getSnapshot();
+                FlightControlData data = new FlightControlData(brake ? 0 : sticks.getPitch(),
+                                                               brake ? 0 : sticks.getRoll(),
+                                                               sticks.getYaw(),
+                                                               sticks.getThrottle());
                 DJISampleApplication.getAircraftInstance()
                                     .getFlightController()
-                                    .sendVirtualStickFlightControlData(new FlightControlData(pitch,
-                                                                                             roll,
-                                                                                             yaw,
-                                                                                             throttle),
-                                                                       new CommonCallbacks.CompletionCallback() {
-                                                                           @Override
-                                                                           public void onResult(DJIError djiError) {
-
-                                                                           }
-                                                                       });
+                                    .sendVirtualStickFlightControlData(data,
+                                                                       // the stick data round trips time the link
+                                                                       LinkLatencyEstimator.getInstance().timed(null));
             }
         }
     }
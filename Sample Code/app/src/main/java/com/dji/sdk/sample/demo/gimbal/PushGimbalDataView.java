@@ -4,8 +4,9 @@ import android.content.Context;
 import android.support.annotation.NonNull;
 import com.dji.sdk.sample.R;
 import com.dji.sdk.sample.internal.view.BasePushDataView;
-import com.dji.sdk.sample.internal.controller.DJISampleApplication;
+import com.dji.sdk.sample.internal.controller.TelemetryHub;
 import com.dji.sdk.sample.internal.utils.ModuleVerificationUtil;
+import dji.common.gimbal.Attitude;
 import dji.common.gimbal.GimbalState;
 
 /**
@@ -22,30 +23,19 @@ public class PushGimbalDataView extends BasePushDataView {
         super.onAttachedToWindow();
 
         if (ModuleVerificationUtil.isGimbalModuleAvailable()) {
-            DJISampleApplication.getProductInstance().getGimbal().setStateCallback(new GimbalState.Callback() {
+            throttle(TelemetryHub.getInstance().subscribeGimbal(new TelemetryHub.GimbalStateListener() {
                 @Override
                 public void onUpdate(@NonNull GimbalState gimbalState) {
-                    stringBuffer.delete(0, stringBuffer.length());
-
-                    stringBuffer.append("PitchInDegrees: ").
-                        append(gimbalState.getAttitudeInDegrees().getPitch()).append("\n");
-                    stringBuffer.append("RollInDegrees: ").
-                        append(gimbalState.getAttitudeInDegrees().getRoll()).append("\n");
-                    stringBuffer.append("YawInDegrees: ").
-                        append(gimbalState.getAttitudeInDegrees().getYaw()).append("\n");
-
-                    showStringBufferResult();
+                    Attitude attitude = gimbalState.getAttitudeInDegrees();
+                    synchronized (textFormatter) {
+                        textFormatter.clear();
+                        textFormatter.label("PitchInDegrees").append(attitude.getPitch(), 1).newLine();
+                        textFormatter.label("RollInDegrees").append(attitude.getRoll(), 1).newLine();
+                        textFormatter.label("YawInDegrees").append(attitude.getYaw(), 1).newLine();
+                        showFormattedText();
+                    }
                 }
-            });
-        }
-    }
-
-    @Override
-    protected void onDetachedFromWindow() {
-        super.onDetachedFromWindow();
-
-        if (ModuleVerificationUtil.isGimbalModuleAvailable()) {
-            DJISampleApplication.getProductInstance().getGimbal().setStateCallback(null);
+            }, 0, null));
         }
     }
 
@@ -1,10 +1,9 @@
 package com.dji.sdk.sample.demo.ihs;
 
-import android.app.Service;
 import android.content.Context;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.util.Log;
-import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.Button;
 import android.widget.CompoundButton;
@@ -15,12 +14,22 @@ import android.widget.ToggleButton;
 
 import com.dji.sdk.sample.R;
 import com.dji.sdk.sample.internal.controller.DJISampleApplication;
+import com.dji.sdk.sample.internal.controller.FlightLogger;
+import com.dji.sdk.sample.internal.controller.FlightRecorder;
+import com.dji.sdk.sample.internal.controller.ObstacleTracker;
+import com.dji.sdk.sample.internal.controller.PositionEstimator;
+import com.dji.sdk.sample.internal.controller.TelemetryAnomalyDetector;
+import com.dji.sdk.sample.internal.controller.ViewWarmPool;
+import com.dji.sdk.sample.internal.utils.TextRenderScheduler;
 import com.dji.sdk.sample.internal.utils.ToastUtils;
 import com.dji.sdk.sample.internal.view.PresentableView;
 
+import com.squareup.otto.Subscribe;
+
 import dji.common.camera.SettingsDefinitions;
 import dji.common.error.DJIError;
 import dji.common.flightcontroller.LocationCoordinate3D;
+import dji.common.flightcontroller.VisionSensorPosition;
 import dji.common.mission.hotpoint.HotpointHeading;
 import dji.common.mission.hotpoint.HotpointMission;
 import dji.common.mission.hotpoint.HotpointStartPoint;
@@ -36,6 +45,8 @@ import dji.sdk.mission.MissionControl;
 import dji.sdk.mission.hotpoint.HotpointMissionOperator;
 import dji.sdk.products.Aircraft;
 
+import java.util.Locale;
+
 /**
  * Class for basic manager view in mission manager
  */
@@ -50,6 +61,9 @@ public class IHSView extends LinearLayout implements PresentableView {
     private SeekBar circleSeekBar;
 
     private final int circleRadius = 5;
+    // the circle is abandoned when an obstacle is closer than this in seconds
+    private final float circleAbortTimeToCollision = 3;
+    private volatile boolean circling;
     private int maxVelocity = (int) HotpointMissionOperator.maxAngularVelocityForRadius(circleRadius);
 
     private FlightController flightController;
@@ -63,6 +77,25 @@ public class IHSView extends LinearLayout implements PresentableView {
         }
     };
 
+    // stop circling before we run into something, checked on every vision update
+    private ObstacleTracker.ThreatListener threatListener = new ObstacleTracker.ThreatListener() {
+        @Override
+        public void onThreat(VisionSensorPosition position, int sector, float distance, float closingSpeed,
+                             float timeToCollision) {
+            if (circling && timeToCollision < circleAbortTimeToCollision) {
+                circling = false;
+                hotpointMissionOperator.stop(logCallback);
+                ToastUtils.setResultToToast("Obstacle ahead, circle stopped");
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        circleBtn.setChecked(false);
+                    }
+                });
+            }
+        }
+    };
+
     public IHSView(Context context) {
         super(context);
         initUI(context);
@@ -80,6 +113,16 @@ public class IHSView extends LinearLayout implements PresentableView {
         // initialize our SDK controller and operator objects
         flightController = ((Aircraft) DJISampleApplication.getProductInstance()).getFlightController();
         hotpointMissionOperator = MissionControl.getInstance().getHotpointMissionOperator();
+        // record the whole flight so we can look back at it during and after the mission
+        FlightRecorder.getInstance().start();
+        // and persist it to storage so it survives the app being killed mid-flight
+        FlightLogger.getInstance().start();
+        // and warn about anything going wrong while it happens
+        TelemetryAnomalyDetector.getInstance().start();
+        DJISampleApplication.getEventBus().register(this);
+        ObstacleTracker.getInstance().addThreatListener(threatListener);
+        ObstacleTracker.getInstance().start();
+        PositionEstimator.getInstance().start();
         setUpListeners();
         configureSettings();
     }
@@ -106,9 +149,22 @@ public class IHSView extends LinearLayout implements PresentableView {
 
     @Override
     protected void onDetachedFromWindow() {
+        FlightRecorder.getInstance().stop();
+        FlightLogger.getInstance().stop();
+        DJISampleApplication.getEventBus().unregister(this);
+        TelemetryAnomalyDetector.getInstance().stop();
+        ObstacleTracker.getInstance().removeThreatListener(threatListener);
+        ObstacleTracker.getInstance().stop();
+        PositionEstimator.getInstance().stop();
         super.onDetachedFromWindow();
     }
 
+    @Subscribe
+    public void onAnomaly(TelemetryAnomalyDetector.AnomalyEvent event) {
+        ToastUtils.setResultToToast(String.format(Locale.US, "%s: %.1f, normally %.1f",
+                                                  event.getAnomaly(), event.getValue(), event.getBaseline()));
+    }
+
     private void setUpListeners() {
 
         // this listener is triggered when the "take off" button is clicked
@@ -142,17 +198,26 @@ public class IHSView extends LinearLayout implements PresentableView {
         circleBtn.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
             @Override
             public void onCheckedChanged(CompoundButton compoundButton, boolean startCircling) {
+                circling = startCircling;
                 if (startCircling) { // we just tapped start circle
 
                     // find our current location.  we'll center the circle here.
-                    LocationCoordinate3D droneLocation = flightController.getState().getAircraftLocation();
+                    // the estimate is smoothed and not as late as the raw GPS, use it once it is there
+                    LocationCoordinate2D center;
+                    PositionEstimator.Pose pose = new PositionEstimator.Pose();
+                    if (PositionEstimator.getInstance().getPose(SystemClock.elapsedRealtimeNanos(), pose)) {
+                        center = new LocationCoordinate2D(pose.getLatitude(), pose.getLongitude());
+                    } else {
+                        LocationCoordinate3D droneLocation = flightController.getState().getAircraftLocation();
+                        center = new LocationCoordinate2D(droneLocation.getLatitude(), droneLocation.getLongitude());
+                    }
 
                     // determine if we want to go clockwise or not
                     boolean clockwise = getAngVelocity() < 0;
 
                     // create a mission, using the lat/long of our current location and some other values we choose.
                     HotpointMission mission = new HotpointMission(
-                            new LocationCoordinate2D(droneLocation.getLatitude(), droneLocation.getLongitude()), // 2D point to circle around
+                            center, // 2D point to circle around
                             5, // altitude in meters (~16ft)
                             circleRadius, // radius of circle in meters (~16ft)
                             18, // angular velocity in degrees per second (full rotation in ~20 seconds)
@@ -197,9 +262,7 @@ public class IHSView extends LinearLayout implements PresentableView {
     //region Helper Method
     private void initUI(Context context) {
         setOrientation(VERTICAL);
-        LayoutInflater layoutInflater = (LayoutInflater) context.getSystemService(Service.LAYOUT_INFLATER_SERVICE);
-
-        layoutInflater.inflate(R.layout.view_ihs, this, true);
+        ViewWarmPool.getInstance().inflate(R.layout.view_ihs, this);
 
         // obtain a reference to the buttons we defined in the view .xml
         takeOffBtn = (Button) findViewById(R.id.ihs_take_off_btn);
@@ -234,13 +297,7 @@ public class IHSView extends LinearLayout implements PresentableView {
     }
 
     private void setText(final TextView tv, final String text) {
-        tv.post(new Runnable() {
-            @Override
-            public void run() {
-
-                tv.setText(text);
-            }
-        });
+        TextRenderScheduler.getInstance().setText(tv, text);
     }
 
     @Override
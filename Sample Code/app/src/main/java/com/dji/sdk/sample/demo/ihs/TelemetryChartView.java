@@ -0,0 +1,448 @@
+package com.dji.sdk.sample.demo.ihs;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+import android.view.View;
+import com.dji.sdk.sample.R;
+import com.dji.sdk.sample.internal.controller.TelemetryHub;
+import com.dji.sdk.sample.internal.utils.LttbDownsampler;
+import com.dji.sdk.sample.internal.view.PresentableView;
+import dji.common.battery.BatteryState;
+import dji.common.flightcontroller.FlightControllerState;
+import dji.common.flightcontroller.LocationCoordinate3D;
+import dji.common.gimbal.GimbalState;
+
+/**
+ * Plots altitude, horizontal speed, battery charge and gimbal pitch over the last minute, or since the view was
+ * opened after a tap.
+ *
+ * Samples are stored by the SDK callback threads into per series ring buffers. Every frame the new samples are
+ * appended to long lived Paths in time coordinates and the canvas is shifted so the newest time sits at the right
+ * edge, so a frame costs only the samples that arrived since the previous one. The line of a series is cut into
+ * paths of a quarter window each, and the oldest one is reused once it has scrolled out, so the chart never draws
+ * more than a window and a quarter. The paths are rebuilt from the ring when the value range grows or when the
+ * view is resized.
+ *
+ * Every series also streams its new samples into an LttbDownsampler, which keeps the shape of the whole flight,
+ * peaks included, in at most {@link #HISTORY_POINTS} points. The whole flight view redraws those points every frame,
+ * so its cost stays the same however long the flight, and no sample is processed twice.
+ */
+public class TelemetryChartView extends View implements PresentableView {
+
+    private static final float WINDOW_SECONDS = 60;
+    private static final float PATH_SECONDS = WINDOW_SECONDS / 4;
+    // Enough quarter window paths to cover the window whatever part of the current one is filled
+    private static final int PATHS = 5;
+    // A power of two holding a window at 50 Hz with room to spare
+    private static final int CAPACITY = 4096;
+    private static final int MASK = CAPACITY - 1;
+    // A point per two or three pixels across a phone screen in landscape
+    private static final int HISTORY_POINTS = 512;
+    private static final char[] HISTORY_SUFFIX = " (flight)".toCharArray();
+
+    private static final int SERIES_ALTITUDE = 0;
+    private static final int SERIES_SPEED = 1;
+    private static final int SERIES_BATTERY = 2;
+    private static final int SERIES_GIMBAL_PITCH = 3;
+
+    private final Series[] series = {
+        new Series("Altitude", "m", 0, 30, Color.rgb(0x31, 0x42, 0x68)),
+        new Series("Speed", "m/s", 0, 10, Color.rgb(0x2E, 0x7D, 0x32)),
+        new Series("Battery", "%", 0, 100, Color.rgb(0xEF, 0x6C, 0x00)),
+        new Series("Gimbal pitch", "°", -90, 30, Color.rgb(0x6A, 0x1B, 0x9A))
+    };
+
+    private final long epochNanos = SystemClock.elapsedRealtimeNanos();
+    private final Paint gridPaint = new Paint();
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final char[] text = new char[56];
+
+    private TelemetryHub.Subscription stateSubscription;
+    private TelemetryHub.Subscription gimbalSubscription;
+    private TelemetryHub.Subscription batterySubscription;
+    private boolean attached;
+    private boolean wholeFlight;
+
+    private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (!attached) return;
+            if (hasSamples()) {
+                invalidate();
+            }
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    };
+
+    public TelemetryChartView(Context context) {
+        super(context);
+        setClickable(true);
+        setBackgroundColor(context.getResources().getColor(R.color.white));
+        gridPaint.setColor(context.getResources().getColor(R.color.light_gray));
+        gridPaint.setStrokeWidth(2);
+        textPaint.setColor(context.getResources().getColor(R.color.title_dark));
+        textPaint.setTextSize(14 * getResources().getDisplayMetrics().scaledDensity);
+        float strokeWidth = 2 * getResources().getDisplayMetrics().density;
+        for (Series s : series) {
+            s.paint.setStrokeWidth(strokeWidth);
+        }
+        setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                wholeFlight = !wholeFlight;
+                for (Series s : series) {
+                    // the window paths were not kept up to date meanwhile
+                    s.rebuild = true;
+                }
+                invalidate();
+            }
+        });
+    }
+
+    @NonNull
+    @Override
+    public String getHint() {
+        return this.getClass().getSimpleName() + ".java";
+    }
+
+    @Override
+    public int getDescription() {
+        return R.string.ihs_telemetry_chart_title;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        attached = true;
+        TelemetryHub hub = TelemetryHub.getInstance();
+        stateSubscription = hub.subscribe(new TelemetryHub.StateListener() {
+            @Override
+            public void onUpdate(@NonNull FlightControllerState state) {
+                float time = now();
+                LocationCoordinate3D location = state.getAircraftLocation();
+                series[SERIES_ALTITUDE].add(time, location == null ? Float.NaN : location.getAltitude());
+                float vx = state.getVelocityX();
+                float vy = state.getVelocityY();
+                series[SERIES_SPEED].add(time, (float) Math.sqrt(vx * vx + vy * vy));
+            }
+        });
+        gimbalSubscription = hub.subscribeGimbal(new TelemetryHub.GimbalStateListener() {
+            @Override
+            public void onUpdate(@NonNull GimbalState state) {
+                series[SERIES_GIMBAL_PITCH].add(now(), state.getAttitudeInDegrees() == null
+                                                       ? Float.NaN
+                                                       : state.getAttitudeInDegrees().getPitch());
+            }
+        }, 0, null);
+        batterySubscription = hub.subscribeBattery(new TelemetryHub.BatteryStateListener() {
+            @Override
+            public void onUpdate(@NonNull BatteryState state) {
+                series[SERIES_BATTERY].add(now(), state.getChargeRemainingInPercent());
+            }
+        }, 0, null);
+        Choreographer.getInstance().postFrameCallback(frameCallback);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        attached = false;
+        Choreographer.getInstance().removeFrameCallback(frameCallback);
+        TelemetryHub hub = TelemetryHub.getInstance();
+        hub.unsubscribe(stateSubscription);
+        hub.unsubscribe(gimbalSubscription);
+        hub.unsubscribe(batterySubscription);
+        stateSubscription = null;
+        gimbalSubscription = null;
+        batterySubscription = null;
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        for (Series s : series) {
+            s.rebuild = true;
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        float now = now();
+        int width = getWidth();
+        float stripHeight = (float) getHeight() / series.length;
+        float pixelsPerSecond = width / WINDOW_SECONDS;
+        for (int i = 0; i < series.length; i++) {
+            float top = i * stripHeight;
+            if (i > 0) {
+                canvas.drawLine(0, top, width, top, gridPaint);
+            }
+            drawSeries(canvas, series[i], top, stripHeight, now, pixelsPerSecond);
+        }
+    }
+
+    private void drawSeries(Canvas canvas, Series s, float top, float height, float now, float pixelsPerSecond) {
+        float textHeight = textPaint.getTextSize();
+        // keep the line clear of the label and the strip borders
+        float plotTop = top + textHeight * 1.5f;
+        float plotHeight = height - textHeight * 2;
+
+        long written = s.writeCount;
+        updateHistory(s, written);
+        if (wholeFlight) {
+            drawHistory(canvas, s, top, height, plotTop, plotHeight, now);
+        } else {
+            drawWindow(canvas, s, top, height, plotTop, plotHeight, now, pixelsPerSecond, written);
+        }
+
+        int length = s.label.length();
+        s.label.getChars(0, length, text, 0);
+        text[length++] = ' ';
+        length = appendDecimal(text, length, s.latest);
+        text[length++] = ' ';
+        s.unit.getChars(0, s.unit.length(), text, length);
+        length += s.unit.length();
+        if (wholeFlight) {
+            System.arraycopy(HISTORY_SUFFIX, 0, text, length, HISTORY_SUFFIX.length);
+            length += HISTORY_SUFFIX.length;
+        }
+        canvas.drawText(text, 0, length, textHeight * 0.5f, top + textHeight * 1.2f, textPaint);
+    }
+
+    /**
+     * Feeds the samples that arrived since the previous frame to the downsampler of the whole flight and widens the
+     * value range to them.
+     */
+    private static void updateHistory(Series s, long written) {
+        // samples overwritten in the ring before a frame came are lost to the history too
+        for (long n = Math.max(s.historyConsumed, written - (CAPACITY - 1)); n < written; n++) {
+            int index = (int) (n & MASK);
+            float value = s.values[index];
+            if (s.include(value)) {
+                s.rebuild = true;
+            }
+            s.history.add(s.times[index], value);
+            if (!Float.isNaN(value)) {
+                s.latest = value;
+            }
+        }
+        s.historyConsumed = written;
+    }
+
+    private void drawHistory(Canvas canvas, Series s, float top, float height, float plotTop, float plotHeight,
+                             float now) {
+        int count = s.history.copyTo(s.historyTimes, s.historyValues);
+        if (count == 0) return;
+        double startTime = s.historyTimes[0];
+        double pixelsPerSecond = getWidth() / Math.max(now - startTime, 1);
+        float scale = plotHeight / (s.max - s.min);
+        Path path = s.historyPath;
+        path.rewind();
+        boolean penDown = false;
+        for (int i = 0; i < count; i++) {
+            double value = s.historyValues[i];
+            if (Double.isNaN(value)) {
+                penDown = false;
+                continue;
+            }
+            float x = (float) ((s.historyTimes[i] - startTime) * pixelsPerSecond);
+            float y = (float) (plotTop + plotHeight - (value - s.min) * scale);
+            if (penDown) {
+                path.lineTo(x, y);
+            } else {
+                path.moveTo(x, y);
+                penDown = true;
+            }
+        }
+        canvas.save();
+        canvas.clipRect(0, top, getWidth(), top + height);
+        canvas.drawPath(path, s.paint);
+        canvas.restore();
+    }
+
+    private void drawWindow(Canvas canvas, Series s, float top, float height, float plotTop, float plotHeight,
+                            float now, float pixelsPerSecond, long written) {
+        long start = s.consumed;
+        if (written - start > CAPACITY - 1) {
+            s.rebuild = true;
+        }
+        if (s.rebuild) {
+            s.rebuild = false;
+            for (Path path : s.paths) {
+                path.rewind();
+            }
+            s.penDown = false;
+            s.pathStartTime = Float.NaN;
+            start = Math.max(0, written - (CAPACITY - 1));
+            // skip what scrolled out, but keep the sample the visible line starts from
+            while (start + 1 < written && s.times[(int) ((start + 1) & MASK)] < now - WINDOW_SECONDS) {
+                start++;
+            }
+        }
+
+        float scale = plotHeight / (s.max - s.min);
+        for (long n = start; n < written; n++) {
+            int index = (int) (n & MASK);
+            float time = s.times[index];
+            float value = s.values[index];
+            if (Float.isNaN(value)) {
+                s.penDown = false;
+                continue;
+            }
+            if (Float.isNaN(s.pathStartTime) || time - s.pathStartTime >= PATH_SECONDS) {
+                s.startPath(time, pixelsPerSecond);
+            }
+            Path path = s.paths[s.current];
+            float x = (time - s.pathStartTime) * pixelsPerSecond;
+            float y = plotTop + plotHeight - (value - s.min) * scale;
+            if (s.penDown) {
+                path.lineTo(x, y);
+            } else {
+                path.moveTo(x, y);
+                s.penDown = true;
+            }
+            s.lastTime = time;
+            s.lastY = y;
+        }
+        s.consumed = written;
+
+        canvas.save();
+        canvas.clipRect(0, top, getWidth(), top + height);
+        for (int i = 0; i < PATHS; i++) {
+            float dx = getWidth() - (now - s.pathStartTimes[i]) * pixelsPerSecond;
+            canvas.translate(dx, 0);
+            canvas.drawPath(s.paths[i], s.paint);
+            canvas.translate(-dx, 0);
+        }
+        canvas.restore();
+    }
+
+    private boolean hasSamples() {
+        for (Series s : series) {
+            if (s.writeCount > 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return seconds since the view was created, the time axis of every series
+     */
+    private float now() {
+        return (SystemClock.elapsedRealtimeNanos() - epochNanos) / 1e9f;
+    }
+
+    /**
+     * Writes a value with one decimal without allocating, a dash for a missing value.
+     */
+    private static int appendDecimal(char[] buffer, int position, float value) {
+        if (Float.isNaN(value)) {
+            buffer[position++] = '-';
+            return position;
+        }
+        int tenths = Math.round(value * 10);
+        if (tenths < 0) {
+            buffer[position++] = '-';
+            tenths = -tenths;
+        }
+        int whole = tenths / 10;
+        int start = position;
+        do {
+            buffer[position++] = (char) ('0' + whole % 10);
+            whole /= 10;
+        } while (whole > 0);
+        for (int i = start, j = position - 1; i < j; i++, j--) {
+            char swap = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = swap;
+        }
+        buffer[position++] = '.';
+        buffer[position++] = (char) ('0' + tenths % 10);
+        return position;
+    }
+
+    /**
+     * Samples of one plotted value. Written by a single SDK callback thread, read on the UI thread.
+     */
+    private static final class Series {
+
+        private final String label;
+        private final String unit;
+        private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        private final float[] times = new float[CAPACITY];
+        private final float[] values = new float[CAPACITY];
+        private volatile long writeCount;
+
+        // UI thread only
+        private final Path[] paths = new Path[PATHS];
+        // Time at x = 0 of each path
+        private final float[] pathStartTimes = new float[PATHS];
+        private int current;
+        private float min;
+        private float max;
+        private long consumed;
+        private boolean rebuild = true;
+        private boolean penDown;
+        private float pathStartTime = Float.NaN;
+        private float lastTime;
+        private float lastY;
+        private float latest = Float.NaN;
+        private final LttbDownsampler history = new LttbDownsampler(1, HISTORY_POINTS);
+        private final double[] historyTimes = new double[HISTORY_POINTS + 3];
+        private final double[] historyValues = new double[HISTORY_POINTS + 3];
+        private final Path historyPath = new Path();
+        private long historyConsumed;
+
+        private Series(String label, String unit, float min, float max, int color) {
+            this.label = label;
+            this.unit = unit;
+            this.min = min;
+            this.max = max;
+            paint.setColor(color);
+            paint.setStyle(Paint.Style.STROKE);
+            paint.setStrokeJoin(Paint.Join.ROUND);
+            for (int i = 0; i < PATHS; i++) {
+                paths[i] = new Path();
+            }
+        }
+
+        /**
+         * Continues the line in the path of the oldest quarter window, which has scrolled out by now.
+         */
+        private void startPath(float time, float pixelsPerSecond) {
+            current = (current + 1) % PATHS;
+            paths[current].rewind();
+            pathStartTimes[current] = time;
+            pathStartTime = time;
+            if (penDown) {
+                paths[current].moveTo((lastTime - time) * pixelsPerSecond, lastY);
+            }
+        }
+
+        private void add(float time, float value) {
+            long count = writeCount;
+            int index = (int) (count & MASK);
+            times[index] = time;
+            values[index] = value;
+            writeCount = count + 1;
+        }
+
+        /**
+         * Widens the value range to hold a value.
+         *
+         * @return true if the range changed
+         */
+        private boolean include(float value) {
+            if (Float.isNaN(value) || (value >= min && value <= max)) return false;
+            float margin = (max - min) * 0.25f;
+            if (value < min) min = value - margin;
+            if (value > max) max = value + margin;
+            return true;
+        }
+    }
+}
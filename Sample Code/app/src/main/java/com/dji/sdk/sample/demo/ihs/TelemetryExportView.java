@@ -0,0 +1,176 @@
+package com.dji.sdk.sample.demo.ihs;
+
+import android.app.AlertDialog;
+import android.content.Context;
+import android.content.DialogInterface;
+import com.dji.sdk.sample.R;
+import com.dji.sdk.sample.internal.controller.FlightLogger;
+import com.dji.sdk.sample.internal.controller.TelemetryExporter;
+import com.dji.sdk.sample.internal.utils.FlightLogWriter;
+import com.dji.sdk.sample.internal.utils.ToastUtils;
+import com.dji.sdk.sample.internal.view.BaseThreeBtnView;
+import java.io.File;
+import java.io.IOException;
+import java.text.DateFormat;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Exports a recorded flight, picked from the finished sessions, to CSV or to the binary export format, next to the
+ * flight log. The session FlightLogger is writing is not offered.
+ * The export keeps running after leaving this view.
+ */
+public class TelemetryExportView extends BaseThreeBtnView {
+
+    private static final long STATUS_INTERVAL_MILLIS = 500;
+
+    // Outlives the view on purpose, see the class comment.
+    private static TelemetryExporter exporter;
+
+    private static final TelemetryExporter.Listener LISTENER = new TelemetryExporter.Listener() {
+        @Override
+        public void onProgress(TelemetryExporter exporter, float progress) {
+        }
+
+        @Override
+        public void onExportEnded(TelemetryExporter exporter, IOException error) {
+            ToastUtils.setResultToToast(error == null
+                                        ? "Exported to " + exporter.getOutput().getPath()
+                                        : "Export failed: " + error.getMessage());
+        }
+    };
+
+    private final Runnable statusRunnable = new Runnable() {
+        @Override
+        public void run() {
+            changeDescription(getStatus());
+            postDelayed(this, STATUS_INTERVAL_MILLIS);
+        }
+    };
+
+    public TelemetryExportView(Context context) {
+        super(context);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        post(statusRunnable);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        removeCallbacks(statusRunnable);
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected int getMiddleBtnTextResourceId() {
+        return R.string.telemetry_export_binary;
+    }
+
+    @Override
+    protected int getLeftBtnTextResourceId() {
+        return R.string.telemetry_export_csv;
+    }
+
+    @Override
+    protected int getRightBtnTextResourceId() {
+        return R.string.telemetry_export_cancel;
+    }
+
+    @Override
+    protected int getDescriptionResourceId() {
+        return R.string.telemetry_export_description;
+    }
+
+    @Override
+    protected void handleMiddleBtnClick() {
+        export(TelemetryExporter.Format.BINARY);
+    }
+
+    @Override
+    protected void handleLeftBtnClick() {
+        export(TelemetryExporter.Format.CSV);
+    }
+
+    @Override
+    protected void handleRightBtnClick() {
+        if (exporter != null) {
+            exporter.cancel();
+        }
+    }
+
+    private void export(final TelemetryExporter.Format format) {
+        if (isExporting()) return;
+        final File directory = FlightLogger.getLogDirectory();
+        final long[] sessions = listFinishedSessions(directory);
+        if (sessions.length == 0) {
+            ToastUtils.setResultToToast("No finished flight log yet");
+            return;
+        }
+        // newest first, session ids are the wall clock time they started at
+        String[] names = new String[sessions.length];
+        DateFormat dateFormat = DateFormat.getDateTimeInstance();
+        for (int i = 0; i < sessions.length; i++) {
+            names[i] = dateFormat.format(new Date(sessions[sessions.length - 1 - i]));
+        }
+        AlertDialog.Builder builder = new AlertDialog.Builder(getContext());
+        builder.setTitle("Export flight").setItems(names, new DialogInterface.OnClickListener() {
+            @Override
+            public void onClick(DialogInterface dialog, int which) {
+                export(directory, sessions[sessions.length - 1 - which], format);
+            }
+        }).setNegativeButton("Cancel", null);
+        builder.create().show();
+    }
+
+    private void export(File directory, long sessionId, TelemetryExporter.Format format) {
+        if (isExporting()) return;
+        exporter = TelemetryExporter.ofSession(directory, sessionId, format);
+        exporter.setListener(LISTENER);
+        exporter.start();
+        changeDescription(getStatus());
+    }
+
+    private static boolean isExporting() {
+        if (exporter != null && exporter.isRunning()) {
+            ToastUtils.setResultToToast("An export is running");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the sessions in the directory, oldest first, without the one being written
+     */
+    private static long[] listFinishedSessions(File directory) {
+        long[] sessions = FlightLogWriter.listSessions(directory);
+        long recording = FlightLogger.getInstance().getRecordingSessionId();
+        int count = 0;
+        for (long session : sessions) {
+            if (session != recording) {
+                sessions[count++] = session;
+            }
+        }
+        return Arrays.copyOf(sessions, count);
+    }
+
+    private String getStatus() {
+        if (exporter == null || !exporter.isRunning()) {
+            return getContext().getString(R.string.telemetry_export_description);
+        }
+        return "Exporting "
+            + exporter.getOutput().getName()
+            + "\n"
+            + (int) (exporter.getProgress() * 100)
+            + "%, "
+            + exporter.getRecordCount()
+            + " records";
+    }
+
+    @Override
+    public int getDescription() {
+        return R.string.ihs_telemetry_export_title;
+    }
+}
@@ -0,0 +1,125 @@
+package com.dji.sdk.sample.demo.ihs;
+
+import android.content.Context;
+import com.dji.sdk.sample.R;
+import com.dji.sdk.sample.internal.controller.FlightLogger;
+import com.dji.sdk.sample.internal.controller.TelemetryReplay;
+import com.dji.sdk.sample.internal.utils.ToastUtils;
+import com.dji.sdk.sample.internal.view.BaseThreeBtnView;
+
+/**
+ * Controls a replay of the last recorded flight. The replay keeps running after leaving this view,
+ * so the other demos can be opened and fed with the recorded states.
+ */
+public class TelemetryReplayView extends BaseThreeBtnView {
+
+    private static final float[] SPEEDS = { 1, 10, TelemetryReplay.MAX_SPEED, TelemetryReplay.UNLIMITED_SPEED };
+    private static final long STATUS_INTERVAL_MILLIS = 500;
+
+    // Outlives the view on purpose, see the class comment.
+    private static TelemetryReplay replay;
+    private static int speedIndex;
+
+    private final Runnable statusRunnable = new Runnable() {
+        @Override
+        public void run() {
+            changeDescription(getStatus());
+            postDelayed(this, STATUS_INTERVAL_MILLIS);
+        }
+    };
+
+    public TelemetryReplayView(Context context) {
+        super(context);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        post(statusRunnable);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        removeCallbacks(statusRunnable);
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected int getMiddleBtnTextResourceId() {
+        return R.string.telemetry_replay_speed;
+    }
+
+    @Override
+    protected int getLeftBtnTextResourceId() {
+        return R.string.telemetry_replay_play;
+    }
+
+    @Override
+    protected int getRightBtnTextResourceId() {
+        return R.string.telemetry_replay_stop;
+    }
+
+    @Override
+    protected int getDescriptionResourceId() {
+        return R.string.telemetry_replay_description;
+    }
+
+    @Override
+    protected void handleMiddleBtnClick() {
+        speedIndex = (speedIndex + 1) % SPEEDS.length;
+        if (replay != null) {
+            replay.setSpeed(SPEEDS[speedIndex]);
+        }
+        changeDescription(getStatus());
+    }
+
+    @Override
+    protected void handleLeftBtnClick() {
+        if (replay != null && replay.isRunning()) {
+            if (replay.isPaused()) {
+                replay.resume();
+            } else {
+                replay.pause();
+            }
+        } else {
+            replay = TelemetryReplay.ofLatestSession(FlightLogger.getLogDirectory());
+            if (replay == null) {
+                ToastUtils.setResultToToast("No flight log recorded yet");
+                return;
+            }
+            replay.setSpeed(SPEEDS[speedIndex]);
+            replay.start();
+        }
+        changeDescription(getStatus());
+    }
+
+    @Override
+    protected void handleRightBtnClick() {
+        if (replay != null) {
+            replay.stop();
+            replay = null;
+        }
+        changeDescription(getStatus());
+    }
+
+    private String getStatus() {
+        float speed = SPEEDS[speedIndex];
+        String speedText = speed == TelemetryReplay.UNLIMITED_SPEED ? "max" : (int) speed + "x";
+        if (replay == null || !replay.isRunning()) {
+            return getContext().getString(R.string.telemetry_replay_description) + "\nSpeed: " + speedText;
+        }
+        long position = Math.max(0, replay.getPositionNanos()) / 1000000000L;
+        long duration = Math.max(0, replay.getDurationNanos()) / 1000000000L;
+        return (replay.isPaused() ? "Paused " : "Replaying ")
+            + position
+            + "s / "
+            + duration
+            + "s\nSpeed: "
+            + speedText;
+    }
+
+    @Override
+    public int getDescription() {
+        return R.string.ihs_telemetry_replay_title;
+    }
+}
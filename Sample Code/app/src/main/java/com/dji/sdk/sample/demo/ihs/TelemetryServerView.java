@@ -0,0 +1,146 @@
+package com.dji.sdk.sample.demo.ihs;
+
+import android.content.Context;
+import com.dji.sdk.sample.R;
+import com.dji.sdk.sample.internal.controller.TelemetryServer;
+import com.dji.sdk.sample.internal.view.BaseThreeBtnView;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Starts and stops the telemetry WebSocket server and shows where clients can connect.
+ * The server keeps running after leaving this view.
+ *
+ * The local addresses are looked up in the background when the view is shown and when the server starts, not with
+ * every status update.
+ */
+public class TelemetryServerView extends BaseThreeBtnView {
+
+    private static final long STATUS_INTERVAL_MILLIS = 1000;
+
+    private List<String> localAddresses = Collections.emptyList();
+
+    private final Runnable statusRunnable = new Runnable() {
+        @Override
+        public void run() {
+            changeDescription(getStatus());
+            postDelayed(this, STATUS_INTERVAL_MILLIS);
+        }
+    };
+
+    public TelemetryServerView(Context context) {
+        super(context);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        refreshLocalAddresses();
+        post(statusRunnable);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        removeCallbacks(statusRunnable);
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected int getMiddleBtnTextResourceId() {
+        return DISABLE;
+    }
+
+    @Override
+    protected int getLeftBtnTextResourceId() {
+        return R.string.telemetry_server_start;
+    }
+
+    @Override
+    protected int getRightBtnTextResourceId() {
+        return R.string.telemetry_server_stop;
+    }
+
+    @Override
+    protected int getDescriptionResourceId() {
+        return R.string.telemetry_server_description;
+    }
+
+    @Override
+    protected void handleMiddleBtnClick() {
+    }
+
+    @Override
+    protected void handleLeftBtnClick() {
+        TelemetryServer server = TelemetryServer.getInstance();
+        if (server.getFailure() != null) {
+            server.stop();
+        }
+        server.start(TelemetryServer.DEFAULT_PORT);
+        refreshLocalAddresses();
+        changeDescription(getStatus());
+    }
+
+    @Override
+    protected void handleRightBtnClick() {
+        TelemetryServer.getInstance().stop();
+        changeDescription(getStatus());
+    }
+
+    private String getStatus() {
+        TelemetryServer server = TelemetryServer.getInstance();
+        if (!server.isRunning()) {
+            return getContext().getString(R.string.telemetry_server_description);
+        }
+        if (server.getFailure() != null) {
+            return "Server failed: " + server.getFailure().getMessage();
+        }
+        StringBuilder status = new StringBuilder("Listening on port ").append(server.getPort());
+        for (String address : localAddresses) {
+            status.append("\nws://").append(address).append(':').append(server.getPort());
+        }
+        return status.append("\nClients: ").append(server.getClientCount()).toString();
+    }
+
+    private void refreshLocalAddresses() {
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                final List<String> addresses = getLocalAddresses();
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        localAddresses = addresses;
+                        changeDescription(getStatus());
+                    }
+                });
+            }
+        }, "TelemetryServerAddresses").start();
+    }
+
+    private static List<String> getLocalAddresses() {
+        List<String> addresses = new ArrayList<>();
+        try {
+            for (NetworkInterface networkInterface : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+                if (!networkInterface.isUp() || networkInterface.isLoopback()) continue;
+                for (InetAddress address : Collections.list(networkInterface.getInetAddresses())) {
+                    if (address instanceof Inet4Address) {
+                        addresses.add(address.getHostAddress());
+                    }
+                }
+            }
+        } catch (SocketException e) {
+            // leave the list empty, the port is still shown
+        }
+        return addresses;
+    }
+
+    @Override
+    public int getDescription() {
+        return R.string.ihs_telemetry_server_title;
+    }
+}
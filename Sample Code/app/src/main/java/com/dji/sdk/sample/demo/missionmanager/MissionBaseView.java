@@ -10,11 +10,13 @@ import android.widget.ProgressBar;
 import android.widget.RelativeLayout;
 import android.widget.TextView;
 import com.dji.sdk.sample.R;
+import com.dji.sdk.sample.internal.controller.AircraftStateStore;
 import com.dji.sdk.sample.internal.controller.DJISampleApplication;
+import com.dji.sdk.sample.internal.controller.TelemetryHub;
+import com.dji.sdk.sample.internal.model.AircraftSnapshot;
 import com.dji.sdk.sample.internal.utils.ToastUtils;
 import com.dji.sdk.sample.internal.view.PresentableView;
 import dji.common.flightcontroller.FlightControllerState;
-import dji.common.flightcontroller.FlightMode;
 import dji.sdk.base.BaseProduct;
 import dji.sdk.flightcontroller.FlightController;
 import dji.sdk.products.Aircraft;
@@ -38,9 +40,7 @@ public abstract class MissionBaseView extends RelativeLayout implements View.OnC
     protected TextView FCPushInfoTV;
     protected ProgressBar progressBar;
 
-    protected double homeLatitude = 181;
-    protected double homeLongitude = 181;
-    protected FlightMode flightState = null;
+    private TelemetryHub.Subscription stateSubscription;
 
     public MissionBaseView(Context context) {
         super(context);
@@ -53,39 +53,55 @@ public abstract class MissionBaseView extends RelativeLayout implements View.OnC
         BaseProduct product = DJISampleApplication.getProductInstance();
 
         if (product == null || !product.isConnected()) {
-            ToastUtils.setResultToToast("Disconnect");
-            flightController = null;
-        } else {
-            if (product instanceof Aircraft) {
-                flightController = ((Aircraft) product).getFlightController();
+            if (!TelemetryHub.getInstance().isReplaying()) {
+                ToastUtils.setResultToToast("Disconnect");
             }
+            flightController = null;
+        } else if (product instanceof Aircraft) {
+            flightController = ((Aircraft) product).getFlightController();
+        }
 
-            if (flightController != null) {
-
-                flightController.setStateCallback(new FlightControllerState.Callback() {
-                    @Override
-                    public void onUpdate(@NonNull FlightControllerState flightControllerState) {
-                        homeLatitude = flightControllerState.getHomeLocation().getLatitude();
-                        homeLongitude = flightControllerState.getHomeLocation().getLongitude();
-                        flightState = flightControllerState.getFlightMode();
+        // whatever the product, the hub also delivers a replayed flight
+        if (stateSubscription == null) {
+            // started first, so the store has applied each state by the time it gets here
+            AircraftStateStore.getInstance().start();
+            stateSubscription = TelemetryHub.getInstance().subscribe(new TelemetryHub.StateListener() {
+                @Override
+                public void onUpdate(@NonNull FlightControllerState flightControllerState) {
+                    onFlightControllerStateUpdate(flightControllerState);
+                }
+            });
+        }
+    }
 
-                        showLongitudeLatitude();
-                    }
-                });
-            }
+    @Override
+    protected void onDetachedFromWindow() {
+        if (stateSubscription != null) {
+            TelemetryHub.getInstance().unsubscribe(stateSubscription);
+            stateSubscription = null;
+            AircraftStateStore.getInstance().stop();
         }
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * Called for every flight controller state update once {@link AircraftStateStore} has applied it.
+     */
+    protected void onFlightControllerStateUpdate(@NonNull FlightControllerState flightControllerState) {
+        showLongitudeLatitude();
     }
 
     private void showLongitudeLatitude() {
+        AircraftSnapshot snapshot = AircraftStateStore.getInstance().getSnapshot();
         ToastUtils.setResultToText(FCPushInfoTV,
                                    "Home point latitude: "
-                                       + homeLatitude
+                                       + snapshot.getHomeLatitude()
                                        + "\n"
                                        + "Home point longitude: "
-                                       + homeLongitude
+                                       + snapshot.getHomeLongitude()
                                        + "\n"
                                        + "Flight state: "
-                                       + (flightState == null ? "" : flightState.name()));
+                                       + (snapshot.getFlightMode() == null ? "" : snapshot.getFlightMode().name()));
     }
 
     private void initUI(Context context) {
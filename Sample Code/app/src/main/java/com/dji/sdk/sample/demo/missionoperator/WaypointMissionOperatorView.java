@@ -1,13 +1,17 @@
 package com.dji.sdk.sample.demo.missionoperator;
 
 import android.content.Context;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.Log;
 import android.view.View;
 import com.dji.sdk.sample.R;
 import com.dji.sdk.sample.demo.missionmanager.MissionBaseView;
+import com.dji.sdk.sample.internal.controller.AircraftStateStore;
 import com.dji.sdk.sample.internal.controller.DJISampleApplication;
+import com.dji.sdk.sample.internal.model.AircraftEvent;
+import com.dji.sdk.sample.internal.model.AircraftSnapshot;
 import com.dji.sdk.sample.internal.utils.ToastUtils;
 import dji.common.error.DJIError;
 import dji.common.flightcontroller.FlightControllerState;
@@ -160,35 +164,6 @@ public class WaypointMissionOperatorView extends MissionBaseView {
 
             if (flightController != null) {
 
-                flightController.setStateCallback(new FlightControllerState.Callback() {
-                    @Override
-                    public void onUpdate(@NonNull FlightControllerState flightControllerState) {
-                        homeLatitude = flightControllerState.getHomeLocation().getLatitude();
-                        homeLongitude = flightControllerState.getHomeLocation().getLongitude();
-                        flightState = flightControllerState.getFlightMode();
-
-                        if (waypointMissionOperator != null && waypointMissionOperator.getCurrentState() != null) {
-                            ToastUtils.setResultToText(FCPushInfoTV,
-                                                       "home point latitude: "
-                                                           + homeLatitude
-                                                           + "\nhome point longitude: "
-                                                           + homeLongitude
-                                                           + "\nFlight state: "
-                                                           + flightState.name()
-                                                           + "\nCurrent Waypointmission state"
-                                                           + waypointMissionOperator.getCurrentState().getName());
-                        } else {
-                            ToastUtils.setResultToText(FCPushInfoTV,
-                                                       "home point latitude: "
-                                                           + homeLatitude
-                                                           + "\nhome point longitude: "
-                                                           + homeLongitude
-                                                           + "\nFlight state: "
-                                                           + flightState.name());
-                        }
-                    }
-                });
-
                 flightController.getSimulator()
                                 .start(InitializationData.createInstance(new LocationCoordinate2D(22, 113), 10, 10),
                                        null);
@@ -199,6 +174,31 @@ public class WaypointMissionOperatorView extends MissionBaseView {
         setUpListener();
     }
 
+    @Override
+    protected void onFlightControllerStateUpdate(@NonNull FlightControllerState flightControllerState) {
+        AircraftSnapshot snapshot = AircraftStateStore.getInstance().getSnapshot();
+        String flightState = snapshot.getFlightMode() == null ? "" : snapshot.getFlightMode().name();
+        if (waypointMissionOperator != null && waypointMissionOperator.getCurrentState() != null) {
+            ToastUtils.setResultToText(FCPushInfoTV,
+                                       "home point latitude: "
+                                           + snapshot.getHomeLatitude()
+                                           + "\nhome point longitude: "
+                                           + snapshot.getHomeLongitude()
+                                           + "\nFlight state: "
+                                           + flightState
+                                           + "\nCurrent Waypointmission state"
+                                           + waypointMissionOperator.getCurrentState().getName());
+        } else {
+            ToastUtils.setResultToText(FCPushInfoTV,
+                                       "home point latitude: "
+                                           + snapshot.getHomeLatitude()
+                                           + "\nhome point longitude: "
+                                           + snapshot.getHomeLongitude()
+                                           + "\nFlight state: "
+                                           + flightState);
+        }
+    }
+
     @Override
     protected void onDetachedFromWindow() {
         tearDownListener();
@@ -327,16 +327,25 @@ public class WaypointMissionOperatorView extends MissionBaseView {
 
             @Override
             public void onExecutionStart() {
+                dispatchMissionEvent("Waypoint mission started");
                 ToastUtils.setResultToToast("Execution started!");
             }
 
             @Override
             public void onExecutionFinish(@Nullable DJIError djiError) {
+                dispatchMissionEvent(djiError == null
+                                     ? "Waypoint mission finished"
+                                     : "Waypoint mission failed: " + djiError.getDescription());
                 ToastUtils.setResultToToast("Execution finished!");
             }
         };
     }
 
+    private static void dispatchMissionEvent(String description) {
+        AircraftStateStore.getInstance()
+                          .dispatch(new AircraftEvent.MissionEvent(SystemClock.elapsedRealtimeNanos(), description));
+    }
+
     private void tearDownListener() {
         if (waypointMissionOperator != null) {
             // Example of removing listeners
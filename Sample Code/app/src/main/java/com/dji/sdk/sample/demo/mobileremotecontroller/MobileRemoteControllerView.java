@@ -14,6 +14,7 @@ import android.widget.TextView;
 import android.widget.ToggleButton;
 import com.dji.sdk.sample.R;
 import com.dji.sdk.sample.internal.controller.DJISampleApplication;
+import com.dji.sdk.sample.internal.controller.TelemetryHub;
 import com.dji.sdk.sample.internal.utils.DialogUtils;
 import com.dji.sdk.sample.internal.utils.ModuleVerificationUtil;
 import com.dji.sdk.sample.internal.utils.OnScreenJoystick;
@@ -43,6 +44,7 @@ public class MobileRemoteControllerView extends RelativeLayout implements View.O
     private OnScreenJoystick screenJoystickRight;
     private OnScreenJoystick screenJoystickLeft;
     private MobileRemoteController mobileRemoteController;
+    private TelemetryHub.Subscription simulatorSubscription;
 
     public MobileRemoteControllerView(Context context) {
         super(context);
@@ -55,6 +57,35 @@ public class MobileRemoteControllerView extends RelativeLayout implements View.O
         return this.getClass().getSimpleName() + ".java";
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        simulatorSubscription =
+            TelemetryHub.getInstance().subscribeSimulator(new TelemetryHub.SimulatorStateListener() {
+                @Override
+                public void onUpdate(@NonNull SimulatorState djiSimulatorStateData) {
+                    textView.setText("Yaw : "
+                                         + djiSimulatorStateData.getYaw()
+                                         + ","
+                                         + "X : "
+                                         + djiSimulatorStateData.getPositionX()
+                                         + "\n"
+                                         + "Y : "
+                                         + djiSimulatorStateData.getPositionY()
+                                         + ","
+                                         + "Z : "
+                                         + djiSimulatorStateData.getPositionZ());
+                }
+            }, 0, new Handler(Looper.getMainLooper()));
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        TelemetryHub.getInstance().unsubscribe(simulatorSubscription);
+        simulatorSubscription = null;
+        super.onDetachedFromWindow();
+    }
+
     private void initUI(Context context) {
         setClickable(true);
         LayoutInflater layoutInflater = (LayoutInflater) context.getSystemService(Service.LAYOUT_INFLATER_SERVICE);
@@ -110,35 +141,9 @@ public class MobileRemoteControllerView extends RelativeLayout implements View.O
             }
         });
 
-        if (DJISampleApplication.getAircraftInstance() != null
-            && DJISampleApplication.getAircraftInstance().getFlightController() != null
-            && DJISampleApplication.getAircraftInstance().getFlightController().getSimulator() != null) {
-            DJISampleApplication.getAircraftInstance()
-                                .getFlightController()
-                                .getSimulator()
-                                .setStateCallback(new SimulatorState.Callback() {
-                                    @Override
-                                    public void onUpdate(final SimulatorState djiSimulatorStateData) {
-                                        new Handler(Looper.getMainLooper()).post(new Runnable() {
-
-                                            @Override
-                                            public void run() {
-                                                textView.setText("Yaw : "
-                                                                     + djiSimulatorStateData.getYaw()
-                                                                     + ","
-                                                                     + "X : "
-                                                                     + djiSimulatorStateData.getPositionX()
-                                                                     + "\n"
-                                                                     + "Y : "
-                                                                     + djiSimulatorStateData.getPositionY()
-                                                                     + ","
-                                                                     + "Z : "
-                                                                     + djiSimulatorStateData.getPositionZ());
-                                            }
-                                        });
-                                    }
-                                });
-        } else {
+        if (DJISampleApplication.getAircraftInstance() == null
+            || DJISampleApplication.getAircraftInstance().getFlightController() == null
+            || DJISampleApplication.getAircraftInstance().getFlightController().getSimulator() == null) {
             ToastUtils.setResultToToast("Disconnected!");
         }
         try {
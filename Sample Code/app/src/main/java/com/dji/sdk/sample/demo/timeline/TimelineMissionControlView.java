@@ -1,22 +1,21 @@
 package com.dji.sdk.sample.demo.timeline;
 
 import android.app.Activity;
-import android.app.Service;
 import android.content.Context;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.AttributeSet;
-import android.view.LayoutInflater;
 import android.view.View;
 import android.view.View.OnClickListener;
 import android.widget.Button;
 import android.widget.LinearLayout;
 import android.widget.ProgressBar;
 import android.widget.TextView;
-import android.widget.Toast;
 import com.dji.sdk.sample.R;
 import com.dji.sdk.sample.internal.controller.DJISampleApplication;
+import com.dji.sdk.sample.internal.controller.ViewWarmPool;
 import com.dji.sdk.sample.internal.utils.GeneralUtils;
+import com.dji.sdk.sample.internal.utils.TextRenderScheduler;
 import com.dji.sdk.sample.internal.utils.ToastUtils;
 import com.dji.sdk.sample.internal.view.PresentableView;
 import dji.common.error.DJIError;
@@ -93,30 +92,19 @@ public class TimelineMissionControlView extends LinearLayout implements OnClickL
     }
 
     private void setRunningResultToText(final String s) {
-        post(new Runnable() {
-            @Override
-            public void run() {
-                if (runningInfoTV == null) {
-                    Toast.makeText(getContext(), "textview = null", Toast.LENGTH_SHORT).show();
-                } else {
-                    runningInfoTV.append(s + "\n");
-                }
-            }
-        });
+        if (runningInfoTV == null) {
+            ToastUtils.setResultToToast("textview = null");
+        } else {
+            TextRenderScheduler.getInstance().append(runningInfoTV, s + "\n");
+        }
     }
 
     private void setTimelinePlanToText(final String s) {
-
-        post(new Runnable() {
-            @Override
-            public void run() {
-                if (timelineInfoTV == null) {
-                    Toast.makeText(getContext(), "textview = null", Toast.LENGTH_SHORT).show();
-                } else {
-                    timelineInfoTV.append(s + "\n");
-                }
-            }
-        });
+        if (timelineInfoTV == null) {
+            ToastUtils.setResultToToast("textview = null");
+        } else {
+            TextRenderScheduler.getInstance().append(timelineInfoTV, s + "\n");
+        }
     }
 
     private void initTimeline() {
@@ -288,8 +276,9 @@ public class TimelineMissionControlView extends LinearLayout implements OnClickL
             missionControl.unscheduleEverything();
             missionControl.removeAllListeners();
         }
-        runningInfoTV.setText("");
-        timelineInfoTV.setText("");
+        // through the scheduler too, so lines still pending are cleared rather than shown afterwards
+        TextRenderScheduler.getInstance().setText(runningInfoTV, "");
+        TextRenderScheduler.getInstance().setText(timelineInfoTV, "");
     }
 
 
@@ -313,8 +302,7 @@ public class TimelineMissionControlView extends LinearLayout implements OnClickL
 
     private void initUI(Context context) {
         setClickable(true);
-        LayoutInflater layoutInflater = (LayoutInflater) context.getSystemService(Service.LAYOUT_INFLATER_SERVICE);
-        layoutInflater.inflate(R.layout.view_timeline, this, true);
+        ViewWarmPool.getInstance().inflate(R.layout.view_timeline, this);
 
         timelineInfoTV = (TextView) findViewById(R.id.tv_timeline_info);
         runningInfoTV = (TextView) findViewById(R.id.tv_running_info);
@@ -0,0 +1,151 @@
+package com.dji.sdk.sample.internal.controller;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.dji.sdk.sample.internal.model.AircraftEvent;
+import com.dji.sdk.sample.internal.model.AircraftSnapshot;
+import dji.common.error.DJIError;
+import dji.common.flightcontroller.FlightControllerState;
+import dji.common.util.CommonCallbacks;
+
+/**
+ * Single source of the aircraft state for the demos. Every change is an AircraftEvent applied to the current
+ * immutable AircraftSnapshot, giving the next one. {@link #getSnapshot()} is a single volatile read, so any thread
+ * gets a consistent snapshot without locking; only writers are serialized.
+ *
+ * The recent events are kept in a log with a snapshot every {@link #CHECKPOINT_INTERVAL} events, so an earlier
+ * state is rebuilt by replaying at most that many events, see {@link #getSnapshot(long)}.
+ *
+ * While started, flight controller states from the TelemetryHub are applied as they arrive. Sticks, commands and
+ * missions are dispatched by whoever drives them.
+ */
+public class AircraftStateStore {
+
+    public static final int CHECKPOINT_INTERVAL = 64;
+    // A power of two, as is the checkpoint interval
+    private static final int LOG_CAPACITY = 1024;
+    private static final int LOG_MASK = LOG_CAPACITY - 1;
+    private static final int CHECKPOINTS = LOG_CAPACITY / CHECKPOINT_INTERVAL;
+
+    private static AircraftStateStore instance;
+
+    private volatile AircraftSnapshot snapshot = AircraftSnapshot.EMPTY;
+
+    // Guarded by this, the event of sequence s is at s & LOG_MASK
+    private final AircraftEvent[] log = new AircraftEvent[LOG_CAPACITY];
+    private final AircraftSnapshot[] checkpoints = new AircraftSnapshot[CHECKPOINTS];
+
+    private TelemetryHub.Subscription subscription;
+    private int startCount;
+
+    private final TelemetryHub.StateListener stateListener = new TelemetryHub.StateListener() {
+        @Override
+        public void onUpdate(@NonNull FlightControllerState state) {
+            dispatch(new AircraftEvent.StateUpdate(SystemClock.elapsedRealtimeNanos(), state));
+        }
+    };
+
+    public static synchronized AircraftStateStore getInstance() {
+        if (null == instance) {
+            instance = new AircraftStateStore();
+        }
+        return instance;
+    }
+
+    private AircraftStateStore() {
+        checkpoints[0] = AircraftSnapshot.EMPTY;
+    }
+
+    /**
+     * Starts applying the flight controller states. Every call needs a matching {@link #stop()}, they are applied
+     * until the last one. Subscribe to the hub after starting to see each state in the snapshot when it arrives.
+     */
+    public synchronized void start() {
+        if (startCount++ == 0) {
+            subscription = TelemetryHub.getInstance().subscribe(stateListener);
+        }
+    }
+
+    public synchronized void stop() {
+        if (startCount == 0) return;
+        if (--startCount == 0) {
+            TelemetryHub.getInstance().unsubscribe(subscription);
+            subscription = null;
+        }
+    }
+
+    /**
+     * @return the latest snapshot, never null
+     */
+    @NonNull
+    public AircraftSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Applies an event, from any thread.
+     *
+     * @return the snapshot the event led to
+     */
+    @NonNull
+    public synchronized AircraftSnapshot dispatch(@NonNull AircraftEvent event) {
+        long sequence = snapshot.getSequence() + 1;
+        AircraftSnapshot next = apply(snapshot, event, sequence);
+        log[(int) (sequence & LOG_MASK)] = event;
+        if (sequence % CHECKPOINT_INTERVAL == 0) {
+            checkpoints[(int) (sequence / CHECKPOINT_INTERVAL % CHECKPOINTS)] = next;
+        }
+        snapshot = next;
+        return next;
+    }
+
+    /**
+     * Rebuilds the snapshot as it was after an earlier event from the nearest checkpoint before it and the log.
+     *
+     * @return null if the event is no longer in the log or did not happen yet
+     */
+    @Nullable
+    public synchronized AircraftSnapshot getSnapshot(long sequence) {
+        long latest = snapshot.getSequence();
+        if (sequence == latest) return snapshot;
+        long checkpointSequence = sequence - sequence % CHECKPOINT_INTERVAL;
+        // the log slots after the checkpoint must not have been reused yet
+        if (sequence < 0 || sequence > latest || latest - checkpointSequence >= LOG_CAPACITY) return null;
+
+        AircraftSnapshot rebuilt = checkpoints[(int) (checkpointSequence / CHECKPOINT_INTERVAL % CHECKPOINTS)];
+        if (rebuilt == null || rebuilt.getSequence() != checkpointSequence) return null;
+        for (long s = checkpointSequence + 1; s <= sequence; s++) {
+            rebuilt = apply(rebuilt, log[(int) (s & LOG_MASK)], s);
+        }
+        return rebuilt;
+    }
+
+    /**
+     * Wraps a command callback so the command shows in the snapshots: issued now, acknowledged with its result.
+     *
+     * @param command name of the command, e.g. the SDK method
+     * @param callback called as usual once the result arrives, may be null
+     */
+    @NonNull
+    public CommonCallbacks.CompletionCallback issue(@NonNull String command,
+                                                    @Nullable final CommonCallbacks.CompletionCallback callback) {
+        dispatch(new AircraftEvent.CommandIssued(SystemClock.elapsedRealtimeNanos(), command));
+        return new CommonCallbacks.CompletionCallback() {
+            @Override
+            public void onResult(DJIError djiError) {
+                dispatch(new AircraftEvent.CommandAcknowledged(SystemClock.elapsedRealtimeNanos(),
+                                                               djiError == null ? null : djiError.getDescription()));
+                if (callback != null) {
+                    callback.onResult(djiError);
+                }
+            }
+        };
+    }
+
+    private static AircraftSnapshot apply(AircraftSnapshot snapshot, AircraftEvent event, long sequence) {
+        AircraftSnapshot.Builder builder = new AircraftSnapshot.Builder(snapshot);
+        event.applyTo(builder);
+        return builder.sequence(sequence, event.getTimeNanos()).build();
+    }
+}
@@ -4,6 +4,7 @@ import android.app.Application;
 import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.support.v4.content.ContextCompat;
 import android.util.Log;
 import android.widget.Toast;
@@ -19,6 +20,11 @@ import dji.sdk.products.Aircraft;
 import dji.sdk.products.HandHeld;
 import dji.sdk.sdkmanager.BluetoothProductConnector;
 import dji.sdk.sdkmanager.DJISDKManager;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Main application
@@ -27,11 +33,31 @@ public class DJISampleApplication extends Application {
 
     public static final String TAG = DJISampleApplication.class.getName();
 
+    // The SDK reports a connection as a burst of changes, published once no change came for the quiet time but at
+    // most the max delay after the first one
+    private static final long TOPOLOGY_QUIET_MILLIS = 250;
+    private static final long TOPOLOGY_MAX_DELAY_MILLIS = 1000;
+
     private static BaseProduct product;
     private static BluetoothProductConnector bluetoothConnector = null;
     private static Bus bus = new Bus(ThreadEnforcer.ANY);
     private static DJISampleApplication instance;
 
+    private final Handler topologyHandler = new Handler(Looper.getMainLooper());
+    private final Object topologyLock = new Object();
+    // Guarded by topologyLock
+    private long firstPendingChangeMillis = -1;
+    private int pendingChangeCount;
+    // Main thread only, the connected product and components by name as of the last event
+    private Map<String, Object> topology = new HashMap<>();
+
+    private final Runnable publishTopologyRunnable = new Runnable() {
+        @Override
+        public void run() {
+            publishTopologyChange();
+        }
+    };
+
     /**
      * Gets instance of the specific product connected after the
      * API KEY is successfully validated. Please make sure the
@@ -92,6 +118,88 @@ public class DJISampleApplication extends Application {
         return bus;
     }
 
+    /**
+     * Publishes the changes reported since the last event once they settle, from any thread.
+     */
+    private void scheduleTopologyChange() {
+        synchronized (topologyLock) {
+            long now = SystemClock.uptimeMillis();
+            if (firstPendingChangeMillis < 0) {
+                firstPendingChangeMillis = now;
+            }
+            pendingChangeCount++;
+            topologyHandler.removeCallbacks(publishTopologyRunnable);
+            topologyHandler.postAtTime(publishTopologyRunnable,
+                                       Math.min(now + TOPOLOGY_QUIET_MILLIS,
+                                                firstPendingChangeMillis + TOPOLOGY_MAX_DELAY_MILLIS));
+        }
+    }
+
+    private void publishTopologyChange() {
+        int changeCount;
+        synchronized (topologyLock) {
+            changeCount = pendingChangeCount;
+            pendingChangeCount = 0;
+            firstPendingChangeMillis = -1;
+        }
+        Map<String, Object> current = snapshotTopology();
+        Set<String> appeared = new HashSet<>();
+        Set<String> disappeared = new HashSet<>();
+        Set<String> replaced = new HashSet<>();
+        for (Map.Entry<String, Object> entry : current.entrySet()) {
+            Object previous = topology.get(entry.getKey());
+            if (previous == null) {
+                appeared.add(entry.getKey());
+            } else if (previous != entry.getValue()) {
+                replaced.add(entry.getKey());
+            }
+        }
+        for (String name : topology.keySet()) {
+            if (!current.containsKey(name)) {
+                disappeared.add(name);
+            }
+        }
+        topology = current;
+
+        // posted even if the same objects are connected, what they report, such as the model, may have changed
+        ProductTopologyChangeEvent event = new ProductTopologyChangeEvent(appeared, disappeared, replaced, changeCount);
+        Log.d(TAG, event.toString());
+        bus.post(event);
+    }
+
+    /**
+     * @return the product and its components that are connected, by name
+     */
+    private static Map<String, Object> snapshotTopology() {
+        Map<String, Object> components = new HashMap<>();
+        BaseProduct current = getProductInstance();
+        if (current == null || !current.isConnected()) return components;
+        components.put(ProductTopologyChangeEvent.PRODUCT, current);
+        putConnected(components, ProductTopologyChangeEvent.CAMERA, current.getCamera());
+        putConnected(components, ProductTopologyChangeEvent.GIMBAL, current.getGimbal());
+        putConnected(components, ProductTopologyChangeEvent.BATTERY, current.getBattery());
+        putConnected(components, ProductTopologyChangeEvent.AIR_LINK, current.getAirLink());
+        if (current instanceof Aircraft) {
+            putConnected(components,
+                         ProductTopologyChangeEvent.FLIGHT_CONTROLLER,
+                         ((Aircraft) current).getFlightController());
+            putConnected(components,
+                         ProductTopologyChangeEvent.REMOTE_CONTROLLER,
+                         ((Aircraft) current).getRemoteController());
+        } else if (current instanceof HandHeld) {
+            putConnected(components,
+                         ProductTopologyChangeEvent.HANDHELD_CONTROLLER,
+                         ((HandHeld) current).getHandheldController());
+        }
+        return components;
+    }
+
+    private static void putConnected(Map<String, Object> components, String name, BaseComponent component) {
+        if (component != null && component.isConnected()) {
+            components.put(name, component);
+        }
+    }
+
     private DJISDKManager.SDKManagerCallback mDJISDKManagerCallback = new DJISDKManager.SDKManagerCallback() {
 
         @Override
@@ -163,10 +271,86 @@ public class DJISampleApplication extends Application {
         };
 
         private void notifyStatusChange() {
-            bus.post(new ConnectivityChangeEvent());
+            scheduleTopologyChange();
         }
     };
 
-    public static class ConnectivityChangeEvent {
+    /**
+     * Posted on the main thread once a burst of product, component and connectivity changes settles. The connected
+     * product and components may be the same as at the last event while their state, such as the model or the
+     * firmware version, was filled in since.
+     */
+    public static class ProductTopologyChangeEvent {
+        public static final String PRODUCT = "Product";
+        public static final String CAMERA = "Camera";
+        public static final String GIMBAL = "Gimbal";
+        public static final String BATTERY = "Battery";
+        public static final String AIR_LINK = "AirLink";
+        public static final String FLIGHT_CONTROLLER = "FlightController";
+        public static final String REMOTE_CONTROLLER = "RemoteController";
+        public static final String HANDHELD_CONTROLLER = "HandheldController";
+
+        private final Set<String> appeared;
+        private final Set<String> disappeared;
+        private final Set<String> replaced;
+        private final int changeCount;
+
+        public ProductTopologyChangeEvent(Set<String> appeared,
+                                          Set<String> disappeared,
+                                          Set<String> replaced,
+                                          int changeCount) {
+            this.appeared = Collections.unmodifiableSet(appeared);
+            this.disappeared = Collections.unmodifiableSet(disappeared);
+            this.replaced = Collections.unmodifiableSet(replaced);
+            this.changeCount = changeCount;
+        }
+
+        /**
+         * @return names of what got connected
+         */
+        public Set<String> getAppeared() {
+            return appeared;
+        }
+
+        /**
+         * @return names of what got disconnected
+         */
+        public Set<String> getDisappeared() {
+            return disappeared;
+        }
+
+        /**
+         * @return names of what is still connected, but is another instance now
+         */
+        public Set<String> getReplaced() {
+            return replaced;
+        }
+
+        /**
+         * @return whether a product or component of that name appeared, disappeared or was replaced
+         */
+        public boolean concerns(String name) {
+            return appeared.contains(name) || disappeared.contains(name) || replaced.contains(name);
+        }
+
+        /**
+         * @return whether anything appeared, disappeared or was replaced
+         */
+        public boolean isTopologyChanged() {
+            return !appeared.isEmpty() || !disappeared.isEmpty() || !replaced.isEmpty();
+        }
+
+        /**
+         * @return SDK callbacks this event stands for
+         */
+        public int getChangeCount() {
+            return changeCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Topology changed, appeared: " + appeared + ", disappeared: " + disappeared + ", replaced: "
+                + replaced + ", from " + changeCount + " callbacks";
+        }
     }
 }
@@ -0,0 +1,102 @@
+package com.dji.sdk.sample.internal.controller;
+
+import android.content.res.Resources;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.LongSparseArray;
+import com.dji.sdk.sample.internal.model.GroupHeader;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Finds the demo list titles that contain a query, ignoring case.
+ *
+ * The titles are resolved and lowercased once. Every group title and item title is an entry: a group is followed by
+ * its items, see {@link #getGroupEntry(int)} and {@link #getItemEntry(int, int)}. For each trigram of the titles the
+ * index keeps the set of entries having it. A query of three characters or more is then an intersection of the sets
+ * of its trigrams, checked against the titles since having all the trigrams does not mean having them in order.
+ * Shorter queries check every title.
+ */
+public class DemoSearchIndex {
+
+    private final String[] titles;
+    private final int[] groupEntries;
+    private final LongSparseArray<BitSet> trigrams = new LongSparseArray<>();
+
+    public DemoSearchIndex(@NonNull Resources resources, @NonNull List<GroupHeader> groups) {
+        int count = 0;
+        for (GroupHeader group : groups) {
+            count += 1 + group.getGroupItems().length;
+        }
+        titles = new String[count];
+        groupEntries = new int[groups.size()];
+
+        int entry = 0;
+        for (int g = 0; g < groups.size(); g++) {
+            GroupHeader group = groups.get(g);
+            groupEntries[g] = entry;
+            add(entry++, resources.getString(group.getTitleStringId()));
+            for (int i = 0; i < group.getGroupItems().length; i++) {
+                add(entry++, resources.getString(group.getGroupItems()[i].getTitleStringId()));
+            }
+        }
+    }
+
+    public int getGroupEntry(int groupPosition) {
+        return groupEntries[groupPosition];
+    }
+
+    public int getItemEntry(int groupPosition, int childPosition) {
+        return groupEntries[groupPosition] + 1 + childPosition;
+    }
+
+    /**
+     * @return the entries whose title contains the query, null for an empty query, which matches everything
+     */
+    @Nullable
+    public BitSet search(@NonNull String query) {
+        query = query.toLowerCase();
+        if (query.isEmpty()) return null;
+
+        BitSet matches;
+        if (query.length() < 3) {
+            matches = new BitSet(titles.length);
+            matches.set(0, titles.length);
+        } else {
+            matches = null;
+            for (int i = 0; i + 3 <= query.length(); i++) {
+                BitSet entries = trigrams.get(trigram(query, i));
+                if (entries == null) return new BitSet();
+                if (matches == null) {
+                    matches = (BitSet) entries.clone();
+                } else {
+                    matches.and(entries);
+                }
+            }
+        }
+        for (int entry = matches.nextSetBit(0); entry >= 0; entry = matches.nextSetBit(entry + 1)) {
+            if (!titles[entry].contains(query)) {
+                matches.clear(entry);
+            }
+        }
+        return matches;
+    }
+
+    private void add(int entry, String title) {
+        title = title.toLowerCase();
+        titles[entry] = title;
+        for (int i = 0; i + 3 <= title.length(); i++) {
+            long key = trigram(title, i);
+            BitSet entries = trigrams.get(key);
+            if (entries == null) {
+                entries = new BitSet(titles.length);
+                trigrams.put(key, entries);
+            }
+            entries.set(entry);
+        }
+    }
+
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+}
@@ -2,6 +2,7 @@ package com.dji.sdk.sample.internal.controller;
 
 import android.content.Context;
 import android.graphics.Typeface;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -14,8 +15,8 @@ import com.dji.sdk.sample.internal.model.GroupHeader;
 import com.dji.sdk.sample.internal.model.GroupItem;
 import com.dji.sdk.sample.internal.model.SingleItem;
 import com.dji.sdk.sample.internal.view.PresentableView;
-import java.lang.reflect.Constructor;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -28,12 +29,29 @@ public class ExpandableListAdapter extends BaseExpandableListAdapter {
 
     private List<GroupHeader> itemList;
     private final List<GroupHeader> backupList;
+    private final DemoSearchIndex searchIndex;
+    // Entries of the search index shown, null for all
+    private BitSet currentMatches;
     private final Context context;
     private LayoutInflater layoutInflater;
 
+    // Shared by all rows, the item of a row is its tag
+    private final View.OnClickListener itemClickListener = new View.OnClickListener() {
+        @Override
+        public void onClick(View v) {
+            Object item = v.getTag();
+            if (item instanceof SingleItem) {
+                showLinkedView(((SingleItem) item).getViewFactory(), ((SingleItem) item).getTitleStringId());
+            } else if (item instanceof GroupItem) {
+                showLinkedView(((GroupItem) item).getViewFactory(), ((GroupItem) item).getTitleStringId());
+            }
+        }
+    };
+
     public ExpandableListAdapter(@NonNull Context context, @NonNull List<GroupHeader> itemList) {
         this.itemList = itemList;
         backupList = new ArrayList<>(itemList);
+        searchIndex = new DemoSearchIndex(context.getResources(), backupList);
         this.context = context;
         layoutInflater = (LayoutInflater) context.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
     }
@@ -95,23 +113,10 @@ public class ExpandableListAdapter extends BaseExpandableListAdapter {
             rightArrowText.setVisibility(View.VISIBLE);
             titleText.setTypeface(Typeface.DEFAULT);
             titleText.setTextColor(context.getResources().getColor(R.color.gray));
-            convertView.setOnClickListener(new View.OnClickListener() {
-                @Override
-                public void onClick(View v) {
-                    try {
-                        Constructor<? extends PresentableView> cons =
-                            ((SingleItem) item).getLinkedViewClass().getConstructor(Context.class);
-                        PresentableView linkedView = cons.newInstance(context);
-                        DJISampleApplication.getEventBus()
-                                            .post(new ViewWrapper((View) linkedView, item.getTitleStringId()));
-                    } catch (Exception e) {
-                        throw new RuntimeException("Class "
-                                                       + ((SingleItem) item).getLinkedViewClass().getSimpleName()
-                                                       + " is missing a constructor that takes Context");
-                    }
-                }
-            });
+            convertView.setTag(item);
+            convertView.setOnClickListener(itemClickListener);
         } else {
+            convertView.setTag(null);
             convertView.setClickable(false);
             arrowText.setVisibility(View.VISIBLE);
             rightArrowText.setVisibility(View.INVISIBLE);
@@ -143,22 +148,8 @@ public class ExpandableListAdapter extends BaseExpandableListAdapter {
             final TextView titleText = (TextView) convertView.findViewById(R.id.expandable_item_title);
             titleText.setText(context.getResources().getString(item.getTitleStringId()));
 
-            convertView.setOnClickListener(new View.OnClickListener() {
-                @Override
-                public void onClick(View v) {
-                    try {
-                        Constructor<? extends PresentableView> cons =
-                            (item.getLinkedViewClass().getConstructor(Context.class));
-                        PresentableView linkedView = cons.newInstance(context);
-                        DJISampleApplication.getEventBus()
-                                            .post(new ViewWrapper((View) linkedView, item.getTitleStringId()));
-                    } catch (Exception e) {
-                        throw new RuntimeException("Class "
-                                                       + (item).getLinkedViewClass().getSimpleName()
-                                                       + " is missing a constructor that takes Context");
-                    }
-                }
-            });
+            convertView.setTag(item);
+            convertView.setOnClickListener(itemClickListener);
             return convertView;
         }
     }
@@ -171,39 +162,65 @@ public class ExpandableListAdapter extends BaseExpandableListAdapter {
     /**
      * Filters list item by a string.
      * If the item's title has the string, immediately keep that item.
-     * If not, searches through it's children and only keep the child whose title has the string
+     * If not, searches through it's children and only keep the child whose title has the string.
+     * Groups whose items all match are kept as they are, and the list is only refreshed if the matches changed.
+     *
+     * @return true if the items changed
      */
-    public void filterData(String query) {
-        query = query.toLowerCase();
+    public boolean filterData(String query) {
+        BitSet matches = searchIndex.search(query);
+        if (matches == null ? currentMatches == null : matches.equals(currentMatches)) {
+            return false;
+        }
+        currentMatches = matches;
         itemList.clear();
 
-        if (query.isEmpty()) {
+        if (matches == null) {
             itemList.addAll(backupList);
         } else {
-
-            for (GroupHeader eachItem : backupList) {
-                final String groupTitle = context.getResources().getString(eachItem.getTitleStringId());
-                if (groupTitle.toLowerCase().contains(query)) {
+            for (int g = 0; g < backupList.size(); g++) {
+                GroupHeader eachItem = backupList.get(g);
+                GroupItem[] allItems = eachItem.getGroupItems();
+                if (matches.get(searchIndex.getGroupEntry(g))) {
                     itemList.add(eachItem);
-                } else {
-                    GroupItem[] allItems = eachItem.getGroupItems();
-                    List<GroupItem> filteredItems = new ArrayList<>();
-                    for (GroupItem eachGroupItem : allItems) {
-                        final String itemTitle = context.getResources().getString(eachGroupItem.getTitleStringId());
-                        if (itemTitle.toLowerCase().contains(query)) {
-                            filteredItems.add(eachGroupItem);
+                    continue;
+                }
+                int first = searchIndex.getItemEntry(g, 0);
+                int matchCount = matches.get(first, first + allItems.length).cardinality();
+                if (matchCount == allItems.length && matchCount > 0) {
+                    itemList.add(eachItem);
+                } else if (matchCount > 0) {
+                    GroupItem[] filteredItems = new GroupItem[matchCount];
+                    int filteredCount = 0;
+                    for (int i = 0; i < allItems.length; i++) {
+                        if (matches.get(first + i)) {
+                            filteredItems[filteredCount++] = allItems[i];
                         }
                     }
-                    if (!filteredItems.isEmpty()) {
-                        final GroupHeader groupHeader = new GroupHeader(eachItem.getTitleStringId(),
-                                                                        filteredItems.toArray(new GroupItem[filteredItems.size()]));
-                        itemList.add(groupHeader);
-                    }
+                    itemList.add(new GroupHeader(eachItem.getTitleStringId(), filteredItems));
                 }
             }
         }
 
         notifyDataSetChanged();
+        return true;
+    }
+
+    /**
+     * Creates the view of a tapped item and pushes it, tracking the time to its first frame.
+     */
+    private void showLinkedView(final PresentableView.Factory factory, int titleStringId) {
+        long tapNanos = SystemClock.elapsedRealtimeNanos();
+        View linkedView = (View) factory.create(context);
+        ViewLaunchTracker.getInstance().track(linkedView, tapNanos);
+        ViewWrapper.Factory wrapperFactory = new ViewWrapper.Factory() {
+            @NonNull
+            @Override
+            public View create(@NonNull Context context) {
+                return (View) factory.create(context);
+            }
+        };
+        DJISampleApplication.getEventBus().post(new ViewWrapper(linkedView, titleStringId, wrapperFactory));
     }
 
     /**
@@ -0,0 +1,242 @@
+package com.dji.sdk.sample.internal.controller;
+
+import android.os.Environment;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.util.Log;
+import com.dji.sdk.sample.internal.utils.FlightArchiveCodec;
+import com.dji.sdk.sample.internal.utils.FlightArchiveWriter;
+import com.dji.sdk.sample.internal.utils.FlightLogWriter;
+import dji.common.battery.BatteryState;
+import dji.common.flightcontroller.Attitude;
+import dji.common.flightcontroller.FlightControllerState;
+import dji.common.flightcontroller.LocationCoordinate3D;
+import dji.common.flightcontroller.simulator.SimulatorState;
+import dji.common.gimbal.GimbalState;
+import dji.common.model.LocationCoordinate2D;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Persists flight controller, gimbal, battery and simulator state to flight log segments while started.
+ * Records are written on the SDK callback threads, the mapping is forced to storage every
+ * {@link #FLUSH_INTERVAL_MILLIS} on a background thread.
+ */
+public class FlightLogger {
+
+    public static final String TAG = FlightLogger.class.getName();
+
+    /** Returned by {@link #getRecordingSessionId()} while no session is being written */
+    public static final long NO_SESSION = -1;
+
+    private static final long FLUSH_INTERVAL_MILLIS = 200;
+
+    private static FlightLogger instance;
+
+    private final HandlerThread handlerThread = new HandlerThread("FlightLogger");
+    private final Handler handler;
+
+    private volatile FlightLogWriter writer;
+    private volatile long recordingSessionId = NO_SESSION;
+    private TelemetryHub.Subscription stateSubscription;
+    private TelemetryHub.Subscription gimbalSubscription;
+    private TelemetryHub.Subscription batterySubscription;
+    private TelemetryHub.Subscription simulatorSubscription;
+    private int startCount;
+
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            FlightLogWriter current = writer;
+            if (current != null) {
+                current.flush();
+                handler.postDelayed(this, FLUSH_INTERVAL_MILLIS);
+            }
+        }
+    };
+
+    public static synchronized FlightLogger getInstance() {
+        if (null == instance) {
+            instance = new FlightLogger();
+        }
+        return instance;
+    }
+
+    private FlightLogger() {
+        handlerThread.start();
+        handler = new Handler(handlerThread.getLooper());
+    }
+
+    /**
+     * Directory holding the flight log segments, next to the media downloaded by the camera demos.
+     */
+    public static File getLogDirectory() {
+        return new File(Environment.getExternalStorageDirectory().getPath() + "/Dji_Sdk_Test_FlightLogs/");
+    }
+
+    /**
+     * Starts logging. Every call needs a matching {@link #stop()}, logging goes on until the last one.
+     * Segments left open by a previous crash are repaired first.
+     */
+    public synchronized void start() {
+        if (startCount++ > 0) return;
+
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                File directory = getLogDirectory();
+                FlightLogWriter.recover(directory);
+                try {
+                    writer = new FlightLogWriter(directory, FlightLogWriter.DEFAULT_SEGMENT_SIZE);
+                    recordingSessionId = writer.getSessionId();
+                } catch (IOException e) {
+                    Log.e(TAG, "Cannot start flight log", e);
+                    return;
+                }
+                handler.postDelayed(flushRunnable, FLUSH_INTERVAL_MILLIS);
+            }
+        });
+
+        TelemetryHub hub = TelemetryHub.getInstance();
+        stateSubscription = hub.subscribe(new TelemetryHub.StateListener() {
+            @Override
+            public void onUpdate(@NonNull FlightControllerState state) {
+                writeFlightState(state);
+            }
+        });
+        gimbalSubscription = hub.subscribeGimbal(new TelemetryHub.GimbalStateListener() {
+            @Override
+            public void onUpdate(@NonNull GimbalState state) {
+                FlightLogWriter current = recordingWriter();
+                if (current != null && state.getAttitudeInDegrees() != null) {
+                    current.writeGimbalSample(SystemClock.elapsedRealtimeNanos(),
+                                              state.getAttitudeInDegrees().getPitch(),
+                                              state.getAttitudeInDegrees().getRoll(),
+                                              state.getAttitudeInDegrees().getYaw());
+                }
+            }
+        }, 0, null);
+        batterySubscription = hub.subscribeBattery(new TelemetryHub.BatteryStateListener() {
+            @Override
+            public void onUpdate(@NonNull BatteryState state) {
+                FlightLogWriter current = recordingWriter();
+                if (current != null) {
+                    current.writeBatterySample(SystemClock.elapsedRealtimeNanos(),
+                                               state.getChargeRemainingInPercent(),
+                                               state.getVoltage(),
+                                               state.getCurrent(),
+                                               state.getTemperature());
+                }
+            }
+        }, 0, null);
+        simulatorSubscription = hub.subscribeSimulator(new TelemetryHub.SimulatorStateListener() {
+            @Override
+            public void onUpdate(@NonNull SimulatorState state) {
+                FlightLogWriter current = recordingWriter();
+                if (current != null) {
+                    LocationCoordinate2D location = state.getLocation();
+                    current.writeSimulatorSample(SystemClock.elapsedRealtimeNanos(),
+                                                 state.getPitch(),
+                                                 state.getRoll(),
+                                                 state.getYaw(),
+                                                 state.getPositionX(),
+                                                 state.getPositionY(),
+                                                 state.getPositionZ(),
+                                                 location == null ? Double.NaN : location.getLatitude(),
+                                                 location == null ? Double.NaN : location.getLongitude(),
+                                                 state.isFlying(),
+                                                 state.areMotorsOn());
+                }
+            }
+        }, 0, null);
+    }
+
+    public synchronized void stop() {
+        if (startCount == 0 || --startCount > 0) return;
+
+        TelemetryHub hub = TelemetryHub.getInstance();
+        hub.unsubscribe(stateSubscription);
+        hub.unsubscribe(gimbalSubscription);
+        hub.unsubscribe(batterySubscription);
+        hub.unsubscribe(simulatorSubscription);
+        stateSubscription = null;
+        gimbalSubscription = null;
+        batterySubscription = null;
+        simulatorSubscription = null;
+
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                FlightLogWriter current = writer;
+                writer = null;
+                handler.removeCallbacks(flushRunnable);
+                if (current != null) {
+                    current.close();
+                    archiveSession(current.getDirectory(), current.getSessionId());
+                }
+                recordingSessionId = NO_SESSION;
+            }
+        });
+    }
+
+    /**
+     * Gets the archive of a session, written next to its segments when logging stops.
+     */
+    public static File getArchiveFile(File directory, long sessionId) {
+        return new File(directory, "flight_" + sessionId + FlightArchiveCodec.FILE_EXTENSION);
+    }
+
+    private static void archiveSession(File directory, long sessionId) {
+        File archive = getArchiveFile(directory, sessionId);
+        try {
+            FlightArchiveWriter.archive(FlightLogWriter.listSessionSegments(directory, sessionId), archive);
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot archive flight log", e);
+            archive.delete();
+        }
+    }
+
+    public synchronized boolean isLogging() {
+        return startCount > 0;
+    }
+
+    /**
+     * @return the session whose segments are being written, until they are sealed and archived after logging stops,
+     * or {@link #NO_SESSION}
+     */
+    public long getRecordingSessionId() {
+        return recordingSessionId;
+    }
+
+    /**
+     * @return the writer, or null while nothing should be recorded. Replayed states are never recorded again.
+     */
+    private FlightLogWriter recordingWriter() {
+        return TelemetryHub.getInstance().isReplaying() ? null : writer;
+    }
+
+    private void writeFlightState(FlightControllerState state) {
+        FlightLogWriter current = recordingWriter();
+        if (current == null) return;
+
+        LocationCoordinate3D location = state.getAircraftLocation();
+        Attitude attitude = state.getAttitude();
+        LocationCoordinate2D home = state.getHomeLocation();
+
+        current.writeFlightSample(SystemClock.elapsedRealtimeNanos(),
+                                  location == null ? Double.NaN : location.getLatitude(),
+                                  location == null ? Double.NaN : location.getLongitude(),
+                                  location == null ? Float.NaN : location.getAltitude(),
+                                  attitude == null ? Float.NaN : (float) attitude.pitch,
+                                  attitude == null ? Float.NaN : (float) attitude.roll,
+                                  attitude == null ? Float.NaN : (float) attitude.yaw,
+                                  state.getVelocityX(),
+                                  state.getVelocityY(),
+                                  state.getVelocityZ(),
+                                  state.getFlightMode() == null ? -1 : (byte) state.getFlightMode().ordinal(),
+                                  home == null ? Double.NaN : home.getLatitude(),
+                                  home == null ? Double.NaN : home.getLongitude());
+    }
+}
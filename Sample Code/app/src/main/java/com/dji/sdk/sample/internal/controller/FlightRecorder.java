@@ -0,0 +1,86 @@
+package com.dji.sdk.sample.internal.controller;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import com.dji.sdk.sample.internal.utils.FlightRecordRing;
+import dji.common.flightcontroller.Attitude;
+import dji.common.flightcontroller.FlightControllerState;
+import dji.common.flightcontroller.LocationCoordinate3D;
+import dji.common.model.LocationCoordinate2D;
+
+/**
+ * Records every flight controller state update into a FlightRecordRing while started.
+ * Samples are written on the SDK callback thread straight from the state object, so recording does not allocate.
+ */
+public class FlightRecorder implements TelemetryHub.StateListener {
+
+    // 10 minutes of history at the 50Hz state rate
+    private static final int DEFAULT_CAPACITY = 50 * 60 * 10;
+
+    private static FlightRecorder instance;
+
+    private final FlightRecordRing ring;
+    private TelemetryHub.Subscription subscription;
+    private int startCount;
+
+    public static synchronized FlightRecorder getInstance() {
+        if (null == instance) {
+            instance = new FlightRecorder(DEFAULT_CAPACITY);
+        }
+        return instance;
+    }
+
+    private FlightRecorder(int capacity) {
+        ring = new FlightRecordRing(capacity);
+    }
+
+    /**
+     * Starts recording. Every call needs a matching {@link #stop()}, recording goes on until the last one.
+     */
+    public synchronized void start() {
+        if (startCount++ == 0) {
+            subscription = TelemetryHub.getInstance().subscribe(this);
+        }
+    }
+
+    public synchronized void stop() {
+        if (startCount == 0) return;
+        if (--startCount == 0) {
+            TelemetryHub.getInstance().unsubscribe(subscription);
+            subscription = null;
+        }
+    }
+
+    public synchronized boolean isRecording() {
+        return startCount > 0;
+    }
+
+    /**
+     * @return the recorded history. Read it from any thread through a FlightRecordRing.Snapshot.
+     */
+    @NonNull
+    public FlightRecordRing getRing() {
+        return ring;
+    }
+
+    @Override
+    public void onUpdate(@NonNull FlightControllerState state) {
+        LocationCoordinate3D location = state.getAircraftLocation();
+        Attitude attitude = state.getAttitude();
+        LocationCoordinate2D home = state.getHomeLocation();
+
+        ring.append(SystemClock.elapsedRealtimeNanos(),
+                    location == null ? Double.NaN : location.getLatitude(),
+                    location == null ? Double.NaN : location.getLongitude(),
+                    location == null ? Float.NaN : location.getAltitude(),
+                    attitude == null ? Float.NaN : (float) attitude.pitch,
+                    attitude == null ? Float.NaN : (float) attitude.roll,
+                    attitude == null ? Float.NaN : (float) attitude.yaw,
+                    state.getVelocityX(),
+                    state.getVelocityY(),
+                    state.getVelocityZ(),
+                    state.getFlightMode(),
+                    home == null ? Double.NaN : home.getLatitude(),
+                    home == null ? Double.NaN : home.getLongitude());
+    }
+}
@@ -0,0 +1,318 @@
+package com.dji.sdk.sample.internal.controller;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import dji.common.error.DJIError;
+import dji.common.flightcontroller.FlightControllerState;
+import dji.common.util.CommonCallbacks;
+import java.util.Arrays;
+
+/**
+ * Estimates how old the aircraft state is when it reaches us.
+ *
+ * The one way delay comes from command round trips: wrap a command callback with
+ * {@link #timed(CommonCallbacks.CompletionCallback)} and the time to its result is recorded. The minimum over the
+ * recent round trips, halved, is the delay of an unloaded link.
+ *
+ * The aircraft sends its flight controller state on its own clock at a fixed period, so the arrivals would line
+ * up on a regular grid if the link added no jitter. The grid is fitted to the recent arrivals by least squares
+ * and then moved to their earliest phase by a min filter, which skips the few earliest phases as those are most
+ * likely states taken for their successor. How late a state arrives behind the grid is its jitter, and its age is
+ * the one way delay plus that jitter. The grid mapped back by the one way delay is the aircraft clock expressed
+ * in elapsed realtime, see {@link #toSampleTimeNanos(long)}.
+ *
+ * Round trips and jitters are also counted in histograms of {@link #HISTOGRAM_BIN_NANOS} wide bins.
+ * Recording does not allocate, apart from the callback wrappers.
+ */
+public class LinkLatencyEstimator {
+
+    public static final long HISTOGRAM_BIN_NANOS = 5000000L;
+    public static final int HISTOGRAM_BINS = 200;
+
+    // Round trips kept for the min filter
+    private static final int ROUND_TRIP_WINDOW = 32;
+    // State arrivals kept for the grid fit, ten seconds at the 10 Hz state rate
+    private static final int ARRIVAL_WINDOW = 100;
+    // Arrivals needed before the grid is fitted, until then states are assumed at the nominal 10 Hz
+    private static final int MIN_ARRIVALS = 10;
+    private static final double NOMINAL_PERIOD_NANOS = 100000000;
+    // Skipping more states than this counts as a new stream, e.g. after reconnecting
+    private static final int MAX_SKIPPED_STATES = 50;
+    // Share of the earliest phases the min filter skips
+    private static final int MIN_FILTER_SKIPPED_PERCENT = 5;
+
+    private static LinkLatencyEstimator instance;
+
+    private final long[] roundTrips = new long[ROUND_TRIP_WINDOW];
+    private int roundTripCount;
+    private final int[] roundTripHistogram = new int[HISTOGRAM_BINS];
+
+    private final long[] arrivals = new long[ARRIVAL_WINDOW];
+    private final long[] indices = new long[ARRIVAL_WINDOW];
+    private final double[] phases = new double[ARRIVAL_WINDOW];
+    private int arrivalCount;
+    private final int[] jitterHistogram = new int[HISTOGRAM_BINS];
+
+    // Published estimates, the period is 0 while there is no grid
+    private long oneWayDelayNanos = -1;
+    private double periodNanos;
+    // Grid time of state index 0 by least squares, which states are matched against
+    private double meanOriginNanos;
+    // The same at the earliest phase of the window
+    private double gridOriginNanos;
+    private long lastJitterNanos;
+
+    private TelemetryHub.Subscription subscription;
+    private int startCount;
+
+    private final TelemetryHub.StateListener stateListener = new TelemetryHub.StateListener() {
+        @Override
+        public void onUpdate(@NonNull FlightControllerState state) {
+            recordStateArrival(SystemClock.elapsedRealtimeNanos());
+        }
+    };
+
+    public static synchronized LinkLatencyEstimator getInstance() {
+        if (null == instance) {
+            instance = new LinkLatencyEstimator();
+        }
+        return instance;
+    }
+
+    private LinkLatencyEstimator() {
+    }
+
+    /**
+     * Starts watching the state arrivals. Every call needs a matching {@link #stop()}, watching goes on until the
+     * last one. Round trips are recorded regardless.
+     */
+    public synchronized void start() {
+        if (startCount++ == 0) {
+            subscription = TelemetryHub.getInstance().subscribe(stateListener);
+        }
+    }
+
+    public synchronized void stop() {
+        if (startCount == 0) return;
+        if (--startCount == 0) {
+            TelemetryHub.getInstance().unsubscribe(subscription);
+            subscription = null;
+            arrivalCount = 0;
+            periodNanos = 0;
+        }
+    }
+
+    /**
+     * Wraps a command callback to record the round trip of the command, call it right before sending.
+     *
+     * @param callback called as usual once the result arrives, may be null
+     */
+    @NonNull
+    public CommonCallbacks.CompletionCallback timed(@Nullable final CommonCallbacks.CompletionCallback callback) {
+        final long sentNanos = SystemClock.elapsedRealtimeNanos();
+        return new CommonCallbacks.CompletionCallback() {
+            @Override
+            public void onResult(DJIError djiError) {
+                // a failure may come from the app side without a round trip
+                if (djiError == null) {
+                    recordRoundTrip(SystemClock.elapsedRealtimeNanos() - sentNanos);
+                }
+                if (callback != null) {
+                    callback.onResult(djiError);
+                }
+            }
+        };
+    }
+
+    public synchronized void recordRoundTrip(long roundTripNanos) {
+        if (roundTripNanos < 0) return;
+        roundTrips[roundTripCount++ % ROUND_TRIP_WINDOW] = roundTripNanos;
+        roundTripHistogram[bin(roundTripNanos)]++;
+
+        long min = Long.MAX_VALUE;
+        for (int i = Math.min(roundTripCount, ROUND_TRIP_WINDOW) - 1; i >= 0; i--) {
+            min = Math.min(min, roundTrips[i]);
+        }
+        oneWayDelayNanos = min / 2;
+    }
+
+    /**
+     * Records the arrival of a flight controller state.
+     */
+    public synchronized void recordStateArrival(long arrivalNanos) {
+        long index;
+        if (arrivalCount == 0) {
+            index = 0;
+        } else {
+            int last = (arrivalCount - 1) % ARRIVAL_WINDOW;
+            long elapsed = arrivalNanos - arrivals[last];
+            if (periodNanos > 0) {
+                // A state queued behind a late one arrives right after it, so the spacing of the arrivals says
+                // little. The nearest point of the fitted grid does, even if a state later than half a period
+                // takes the index of the next one now and then.
+                index = Math.max(indices[last], indexAt(arrivalNanos));
+            } else {
+                index = indices[last] + Math.max(1, Math.round(elapsed / NOMINAL_PERIOD_NANOS));
+            }
+            if (elapsed < 0 || index - indices[last] > MAX_SKIPPED_STATES) {
+                arrivalCount = 0;
+                periodNanos = 0;
+                index = 0;
+            }
+        }
+        int slot = arrivalCount++ % ARRIVAL_WINDOW;
+        arrivals[slot] = arrivalNanos;
+        indices[slot] = index;
+        fitGrid();
+        if (periodNanos > 0) {
+            lastJitterNanos = jitterAt(arrivalNanos);
+            jitterHistogram[bin(lastJitterNanos)]++;
+        }
+    }
+
+    /**
+     * @return the one way delay of the unloaded link, -1 before the first round trip
+     */
+    public synchronized long getOneWayDelayNanos() {
+        return oneWayDelayNanos;
+    }
+
+    /**
+     * @return the state period of the aircraft clock, 0 until a few states arrived
+     */
+    public synchronized long getStatePeriodNanos() {
+        return Math.round(periodNanos);
+    }
+
+    /**
+     * @return how late the last state arrived behind the grid
+     */
+    public synchronized long getLastJitterNanos() {
+        return lastJitterNanos;
+    }
+
+    public synchronized boolean hasEstimate() {
+        return oneWayDelayNanos >= 0 && periodNanos > 0;
+    }
+
+    /**
+     * Offset of the aircraft state clock: state n of the current stream was sampled at
+     * offset + n * {@link #getStatePeriodNanos()} in elapsed realtime.
+     *
+     * @return 0 without an estimate
+     */
+    public synchronized long getClockOffsetNanos() {
+        return hasEstimate() ? Math.round(gridOriginNanos) - oneWayDelayNanos : 0;
+    }
+
+    /**
+     * @return how old a state arriving at a time is, the one way delay plus its jitter.
+     * Without a grid only the delay, without any estimate 0.
+     */
+    public synchronized long getStateAgeNanos(long arrivalNanos) {
+        long delay = Math.max(0, oneWayDelayNanos);
+        return periodNanos > 0 ? delay + jitterAt(arrivalNanos) : delay;
+    }
+
+    /**
+     * Maps the arrival time of a state to the time the aircraft sampled it, both in elapsed realtime.
+     */
+    public long toSampleTimeNanos(long arrivalNanos) {
+        return arrivalNanos - getStateAgeNanos(arrivalNanos);
+    }
+
+    /**
+     * @return the round trip that the given percent of the recorded ones did not exceed, from the histogram.
+     * The upper edge of its bin, -1 if nothing was recorded.
+     */
+    public synchronized long getRoundTripPercentileNanos(double percent) {
+        return percentile(roundTripHistogram, percent);
+    }
+
+    public synchronized long getJitterPercentileNanos(double percent) {
+        return percentile(jitterHistogram, percent);
+    }
+
+    /**
+     * Copies the round trip counts per bin, the last bin counting everything above the range.
+     */
+    public synchronized void copyRoundTripHistogram(@NonNull int[] out) {
+        System.arraycopy(roundTripHistogram, 0, out, 0, HISTOGRAM_BINS);
+    }
+
+    public synchronized void copyJitterHistogram(@NonNull int[] out) {
+        System.arraycopy(jitterHistogram, 0, out, 0, HISTOGRAM_BINS);
+    }
+
+    /**
+     * Fits the arrival grid of the window: the period and the mean origin by least squares of arrival over state
+     * index, the earliest origin by the min filter over the phases around it.
+     */
+    private void fitGrid() {
+        int n = Math.min(arrivalCount, ARRIVAL_WINDOW);
+        if (n < MIN_ARRIVALS) return;
+        // relative to the newest arrival to keep the precision
+        int newest = (arrivalCount - 1) % ARRIVAL_WINDOW;
+        long baseTime = arrivals[newest];
+        long baseIndex = indices[newest];
+        double sumK = 0;
+        double sumT = 0;
+        double sumKK = 0;
+        double sumKT = 0;
+        for (int i = 0; i < n; i++) {
+            double k = indices[i] - baseIndex;
+            double t = arrivals[i] - baseTime;
+            sumK += k;
+            sumT += t;
+            sumKK += k * k;
+            sumKT += k * t;
+        }
+        double denominator = n * sumKK - sumK * sumK;
+        if (denominator <= 0) return;
+        double period = (n * sumKT - sumK * sumT) / denominator;
+        if (period <= 0) return;
+
+        double intercept = (sumT - period * sumK) / n;
+
+        for (int i = 0; i < n; i++) {
+            phases[i] = (arrivals[i] - baseTime) - (indices[i] - baseIndex) * period - intercept;
+        }
+        Arrays.sort(phases, 0, n);
+        double minPhase = phases[n * MIN_FILTER_SKIPPED_PERCENT / 100];
+        periodNanos = period;
+        meanOriginNanos = baseTime + intercept - baseIndex * period;
+        gridOriginNanos = meanOriginNanos + minPhase;
+    }
+
+    private long indexAt(long arrivalNanos) {
+        return Math.round((arrivalNanos - meanOriginNanos) / periodNanos);
+    }
+
+    /**
+     * @return how late a state arriving at a time is behind the grid, at most a period
+     */
+    private long jitterAt(long arrivalNanos) {
+        double jitter = arrivalNanos - gridOriginNanos - indexAt(arrivalNanos) * periodNanos;
+        return Math.round(Math.max(0, Math.min(periodNanos, jitter)));
+    }
+
+    private static int bin(long nanos) {
+        return (int) Math.min(HISTOGRAM_BINS - 1, nanos / HISTOGRAM_BIN_NANOS);
+    }
+
+    private static long percentile(int[] histogram, double percent) {
+        long total = 0;
+        for (int count : histogram) {
+            total += count;
+        }
+        if (total == 0) return -1;
+        long rank = Math.max(1, (long) Math.ceil(percent / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= rank) return (i + 1) * HISTOGRAM_BIN_NANOS;
+        }
+        return histogram.length * HISTOGRAM_BIN_NANOS;
+    }
+}
@@ -1,9 +1,12 @@
 package com.dji.sdk.sample.internal.controller;
 
 import android.Manifest;
+import android.animation.Animator;
 import android.animation.AnimatorInflater;
+import android.animation.AnimatorListenerAdapter;
 import android.animation.LayoutTransition;
 import android.animation.ObjectAnimator;
+import android.app.ActivityManager;
 import android.app.SearchManager;
 import android.content.Context;
 import android.content.pm.ActivityInfo;
@@ -33,8 +36,6 @@ import dji.log.DJILog;
 import dji.sdk.base.BaseProduct;
 import dji.sdk.sdkmanager.DJISDKManager;
 
-import java.util.Stack;
-
 public class MainActivity extends AppCompatActivity {
 
     private FrameLayout contentFrameLayout;
@@ -44,7 +45,7 @@ public class MainActivity extends AppCompatActivity {
     private ObjectAnimator popInAnimator;
     private LayoutTransition popOutTransition;
 
-    private Stack<ViewWrapper> stack;
+    private ViewStackManager stack;
 
     private TextView titleTextView;
     private SearchView searchView;
@@ -83,6 +84,7 @@ public class MainActivity extends AppCompatActivity {
         contentFrameLayout = (FrameLayout) findViewById(R.id.framelayout_content);
 
         initParams();
+        initWarmPool();
     }
 
     @Override
@@ -105,6 +107,7 @@ public class MainActivity extends AppCompatActivity {
 
     @Override
     protected void onDestroy() {
+        ViewWarmPool.getInstance().stop();
         DJISampleApplication.getEventBus().unregister(this);
         super.onDestroy();
     }
@@ -127,6 +130,20 @@ public class MainActivity extends AppCompatActivity {
             (ObjectAnimator) AnimatorInflater.loadAnimator(this, R.animator.slide_out_right);
 
         pushOutAnimator.setStartDelay(100);
+        pushOutAnimator.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                // hide the covered view for good, so it neither draws nor renders its updates at the full rate
+                Object target = pushOutAnimator.getTarget();
+                if (target instanceof View && stack.size() > 0 && stack.peek().getView() != target) {
+                    ((View) target).setVisibility(View.INVISIBLE);
+                    // covered views over the memory budget go away for good until they are uncovered
+                    stack.trim();
+                    // the animator would otherwise keep a hibernated view
+                    pushOutAnimator.setTarget(null);
+                }
+            }
+        });
 
         popOutTransition = new LayoutTransition();
         popOutTransition.setAnimator(LayoutTransition.DISAPPEARING, popOutAnimator);
@@ -136,11 +153,26 @@ public class MainActivity extends AppCompatActivity {
     private void initParams() {
         setupInAnimations();
 
-        stack = new Stack<ViewWrapper>();
+        // an eighth of the heap the app may use
+        ActivityManager activityManager = (ActivityManager) getSystemService(Context.ACTIVITY_SERVICE);
+        stack = new ViewStackManager(contentFrameLayout, activityManager.getMemoryClass() * 1024L * 1024L / 8);
         View view = contentFrameLayout.getChildAt(0);
         stack.push(new ViewWrapper(view, R.string.activity_component_list));
     }
 
+    /**
+     * Inflates the heaviest demo layouts while the app is idle. The virtual stick and media playback layouts hold
+     * views bound to the thread that creates them, so they are inflated on the main thread.
+     */
+    private void initWarmPool() {
+        ViewWarmPool pool = ViewWarmPool.getInstance();
+        pool.register(R.layout.view_ihs, ViewWarmPool.LINEAR_LAYOUT, 1, true);
+        pool.register(R.layout.view_timeline, ViewWarmPool.LINEAR_LAYOUT, 1, true);
+        pool.register(R.layout.view_virtual_stick, ViewWarmPool.RELATIVE_LAYOUT, 1, false);
+        pool.register(R.layout.media_playback, ViewWarmPool.LINEAR_LAYOUT, 1, false);
+        pool.start(this);
+    }
+
     private void pushView(ViewWrapper wrapper) {
         if (stack.size() <= 0) return;
 
@@ -188,12 +220,13 @@ public class MainActivity extends AppCompatActivity {
 
         ViewWrapper removeWrapper = stack.pop();
 
-        View showView = stack.peek().getView();
         View removeView = removeWrapper.getView();
+        View showView = stack.wake(contentFrameLayout.indexOfChild(removeView));
 
         contentFrameLayout.setLayoutTransition(popOutTransition);
         contentFrameLayout.removeView(removeView);
 
+        showView.setVisibility(View.VISIBLE);
         popInAnimator.setTarget(showView);
         popInAnimator.start();
 
@@ -317,12 +350,7 @@ public class MainActivity extends AppCompatActivity {
     }
 
     @Subscribe
-    public void onConnectivityChange(DJISampleApplication.ConnectivityChangeEvent event) {
-        runOnUiThread(new Runnable() {
-            @Override
-            public void run() {
-                refreshTitle();
-            }
-        });
+    public void onProductTopologyChange(DJISampleApplication.ProductTopologyChangeEvent event) {
+        refreshTitle();
     }
 }
@@ -0,0 +1,294 @@
+package com.dji.sdk.sample.internal.controller;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import dji.common.flightcontroller.ObstacleDetectionSector;
+import dji.common.flightcontroller.VisionDetectionState;
+import dji.common.flightcontroller.VisionSensorPosition;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tracks the obstacles reported by the vision sensors and estimates how soon the aircraft would reach each of them.
+ *
+ * Every sector of every sensor keeps its recent distances in a primitive ring. The closing speed is the least
+ * squares slope of the distances over the last {@link #SPEED_WINDOW_NANOS}, and the time to collision the distance
+ * divided by it. After each update the nearest threat, the sector with the shortest time to collision, goes to the
+ * ThreatListeners on the SDK callback thread. Nothing is allocated per update.
+ */
+public class ObstacleTracker {
+
+    /**
+     * Receives the nearest threat after every vision update, on the SDK callback thread.
+     */
+    public interface ThreatListener {
+        /**
+         * @param position sensor seeing the threat, null if no obstacle is closing in
+         * @param sector index in the detection sectors of that sensor, -1 if none
+         * @param distance distance to the obstacle in meters
+         * @param closingSpeed speed towards the obstacle in m/s
+         * @param timeToCollision seconds until reaching the obstacle at the current closing speed,
+         *                        positive infinity if none is closing in
+         */
+        void onThreat(@Nullable VisionSensorPosition position, int sector, float distance, float closingSpeed,
+                      float timeToCollision);
+    }
+
+    // Longest detection sector array of the supported aircraft
+    public static final int MAX_SECTORS = 8;
+
+    private static final long SPEED_WINDOW_NANOS = 500000000L;
+    // Older tracks are no threat, their sensor stopped reporting
+    private static final long STALE_NANOS = 1000000000L;
+    // Slower than this counts as hovering next to the obstacle
+    private static final float MIN_CLOSING_SPEED = 0.1f;
+    // A power of two holding the speed window at the fastest update rate
+    private static final int HISTORY = 16;
+    private static final int MASK = HISTORY - 1;
+
+    private static final VisionSensorPosition[] POSITIONS = VisionSensorPosition.values();
+    private static final ThreatListener[] NO_LISTENERS = new ThreatListener[0];
+
+    private static ObstacleTracker instance;
+
+    // Indexed by track, position ordinal * MAX_SECTORS + sector. SDK callback thread only.
+    private final long[][] times = new long[POSITIONS.length * MAX_SECTORS][HISTORY];
+    private final float[][] distances = new float[POSITIONS.length * MAX_SECTORS][HISTORY];
+    private final int[] counts = new int[POSITIONS.length * MAX_SECTORS];
+    private final float[] closingSpeeds = new float[POSITIONS.length * MAX_SECTORS];
+    private final long[] updateTimes = new long[POSITIONS.length * MAX_SECTORS];
+
+    private final AtomicReference<ThreatListener[]> listeners = new AtomicReference<>(NO_LISTENERS);
+
+    private volatile VisionSensorPosition nearestPosition;
+    private volatile int nearestSector = -1;
+    private volatile float nearestDistance = Float.NaN;
+    private volatile float nearestClosingSpeed;
+    private volatile float nearestTimeToCollision = Float.POSITIVE_INFINITY;
+    // When the nearest threat was last computed, written after it
+    private volatile long nearestUpdateNanos;
+
+    private TelemetryHub.Subscription subscription;
+    private int startCount;
+
+    private final TelemetryHub.VisionDetectionStateListener visionListener =
+        new TelemetryHub.VisionDetectionStateListener() {
+            @Override
+            public void onUpdate(@NonNull VisionDetectionState state) {
+                track(state);
+            }
+        };
+
+    public static synchronized ObstacleTracker getInstance() {
+        if (null == instance) {
+            instance = new ObstacleTracker();
+        }
+        return instance;
+    }
+
+    private ObstacleTracker() {
+    }
+
+    /**
+     * Starts tracking. Every call needs a matching {@link #stop()}, tracking goes on until the last one.
+     */
+    public synchronized void start() {
+        if (startCount++ == 0) {
+            subscription = TelemetryHub.getInstance().subscribeVision(visionListener, 0, null);
+        }
+    }
+
+    public synchronized void stop() {
+        if (startCount == 0) return;
+        if (--startCount == 0) {
+            TelemetryHub.getInstance().unsubscribe(subscription);
+            subscription = null;
+            nearestPosition = null;
+            nearestSector = -1;
+            nearestDistance = Float.NaN;
+            nearestClosingSpeed = 0;
+            nearestTimeToCollision = Float.POSITIVE_INFINITY;
+            nearestUpdateNanos = 0;
+        }
+    }
+
+    public synchronized boolean isStarted() {
+        return startCount > 0;
+    }
+
+    public void addThreatListener(@NonNull ThreatListener listener) {
+        ThreatListener[] current;
+        ThreatListener[] updated;
+        do {
+            current = listeners.get();
+            updated = new ThreatListener[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = listener;
+        } while (!listeners.compareAndSet(current, updated));
+    }
+
+    public void removeThreatListener(@NonNull ThreatListener listener) {
+        ThreatListener[] current;
+        ThreatListener[] updated;
+        do {
+            current = listeners.get();
+            int index = -1;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == listener) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) return;
+            updated = new ThreatListener[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        } while (!listeners.compareAndSet(current, updated));
+    }
+
+    //region Latest nearest threat, each value read on its own
+    @Nullable
+    public VisionSensorPosition getNearestPosition() {
+        return nearestPosition;
+    }
+
+    public int getNearestSector() {
+        return nearestSector;
+    }
+
+    public float getNearestDistance() {
+        return nearestDistance;
+    }
+
+    public float getNearestClosingSpeed() {
+        return nearestClosingSpeed;
+    }
+
+    /**
+     * @return seconds until reaching the nearest threat, positive infinity if nothing is closing in or if the vision
+     * updates stopped for longer than {@link #STALE_NANOS}, as a threat nothing confirms any more must not hold the
+     * sticks
+     */
+    public float getNearestTimeToCollision() {
+        long updateNanos = nearestUpdateNanos;
+        float timeToCollision = nearestTimeToCollision;
+        if (SystemClock.elapsedRealtimeNanos() - updateNanos > STALE_NANOS) {
+            return Float.POSITIVE_INFINITY;
+        }
+        return timeToCollision;
+    }
+    //endregion
+
+    //region Per sector estimates, for display; they are written on the SDK callback thread and may lag an update
+    /**
+     * @return latest distance in meters, NaN if the sector sees nothing
+     */
+    public float getDistance(@NonNull VisionSensorPosition position, int sector) {
+        int track = position.ordinal() * MAX_SECTORS + sector;
+        return counts[track] == 0 ? Float.NaN : latestDistance(track);
+    }
+
+    /**
+     * @return speed towards the obstacle in m/s, negative while moving away
+     */
+    public float getClosingSpeed(@NonNull VisionSensorPosition position, int sector) {
+        return closingSpeeds[position.ordinal() * MAX_SECTORS + sector];
+    }
+
+    /**
+     * @return seconds until reaching the obstacle, positive infinity if it is not closing in
+     */
+    public float getTimeToCollision(@NonNull VisionSensorPosition position, int sector) {
+        int track = position.ordinal() * MAX_SECTORS + sector;
+        float speed = closingSpeeds[track];
+        return counts[track] == 0 || speed < MIN_CLOSING_SPEED
+               ? Float.POSITIVE_INFINITY
+               : latestDistance(track) / speed;
+    }
+    //endregion
+
+    private void track(VisionDetectionState state) {
+        long now = SystemClock.elapsedRealtimeNanos();
+        VisionSensorPosition position = state.getPosition();
+        ObstacleDetectionSector[] sectors = state.getDetectionSectors();
+        if (position != null && sectors != null) {
+            int sectorCount = Math.min(sectors.length, MAX_SECTORS);
+            for (int i = 0; i < sectorCount; i++) {
+                int track = position.ordinal() * MAX_SECTORS + i;
+                float distance = sectors[i] == null ? Float.NaN : sectors[i].getObstacleDistanceInMeters();
+                add(track, now, distance);
+            }
+        }
+
+        int nearest = -1;
+        float nearestTime = Float.POSITIVE_INFINITY;
+        for (int track = 0; track < counts.length; track++) {
+            if (counts[track] == 0 || now - updateTimes[track] > STALE_NANOS) continue;
+            float speed = closingSpeeds[track];
+            if (speed < MIN_CLOSING_SPEED) continue;
+            float time = latestDistance(track) / speed;
+            if (time < nearestTime) {
+                nearestTime = time;
+                nearest = track;
+            }
+        }
+
+        VisionSensorPosition threatPosition = nearest < 0 ? null : POSITIONS[nearest / MAX_SECTORS];
+        int threatSector = nearest < 0 ? -1 : nearest % MAX_SECTORS;
+        float threatDistance = nearest < 0 ? Float.NaN : latestDistance(nearest);
+        float threatSpeed = nearest < 0 ? 0 : closingSpeeds[nearest];
+        nearestPosition = threatPosition;
+        nearestSector = threatSector;
+        nearestDistance = threatDistance;
+        nearestClosingSpeed = threatSpeed;
+        nearestTimeToCollision = nearestTime;
+        nearestUpdateNanos = now;
+        for (ThreatListener listener : listeners.get()) {
+            listener.onThreat(threatPosition, threatSector, threatDistance, threatSpeed, nearestTime);
+        }
+    }
+
+    /**
+     * Adds a distance to a track and refreshes its closing speed. A missing or invalid distance, which the sensors
+     * report when nothing is in range, clears the track.
+     */
+    private void add(int track, long timeNanos, float distance) {
+        updateTimes[track] = timeNanos;
+        if (Float.isNaN(distance) || distance <= 0) {
+            counts[track] = 0;
+            closingSpeeds[track] = 0;
+            return;
+        }
+        int count = counts[track];
+        times[track][count & MASK] = timeNanos;
+        distances[track][count & MASK] = distance;
+        counts[track] = ++count;
+
+        // least squares slope over the window, times relative to the newest sample to keep the precision
+        long[] trackTimes = times[track];
+        float[] trackDistances = distances[track];
+        int n = 0;
+        double sumT = 0;
+        double sumD = 0;
+        double sumTT = 0;
+        double sumTD = 0;
+        for (int i = count - 1; i >= 0 && i >= count - HISTORY; i--) {
+            long age = timeNanos - trackTimes[i & MASK];
+            if (age > SPEED_WINDOW_NANOS) break;
+            double t = -age / 1e9;
+            double d = trackDistances[i & MASK];
+            n++;
+            sumT += t;
+            sumD += d;
+            sumTT += t * t;
+            sumTD += t * d;
+        }
+        double denominator = n * sumTT - sumT * sumT;
+        // the distance shrinks while closing in, so the closing speed is the negated slope
+        closingSpeeds[track] = n < 2 || denominator <= 0 ? 0 : (float) -((n * sumTD - sumT * sumD) / denominator);
+    }
+
+    private float latestDistance(int track) {
+        return distances[track][(counts[track] - 1) & MASK];
+    }
+}
@@ -0,0 +1,203 @@
+package com.dji.sdk.sample.internal.controller;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import com.dji.sdk.sample.internal.utils.ConstantAccelerationFilter;
+import dji.common.flightcontroller.FlightControllerState;
+import dji.common.flightcontroller.LocationCoordinate3D;
+
+/**
+ * Smooths the aircraft position and makes up for the time it takes to reach us.
+ *
+ * Every flight controller update feeds one ConstantAccelerationFilter per axis of a local east, north, up frame
+ * centered on the first fix. A state describes the aircraft as it was when sampled, its age as measured by the
+ * LinkLatencyEstimator before it arrived, so it is filtered at that time, and {@link #getPose(long, Pose)}
+ * extrapolates the filtered state to whatever time is asked, usually now. Updates and queries do not allocate and
+ * may come from any thread at any rate.
+ */
+public class PositionEstimator {
+
+    /**
+     * A position and velocity estimate, filled in by {@link #getPose(long, Pose)} and reused by the caller.
+     */
+    public static class Pose {
+        private double latitude;
+        private double longitude;
+        private double altitude;
+        private double velocityEast;
+        private double velocityNorth;
+        private double velocityUp;
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+
+        /**
+         * @return meters above the take off point, like {@link LocationCoordinate3D#getAltitude()}
+         */
+        public double getAltitude() {
+            return altitude;
+        }
+
+        public double getVelocityEast() {
+            return velocityEast;
+        }
+
+        public double getVelocityNorth() {
+            return velocityNorth;
+        }
+
+        public double getVelocityUp() {
+            return velocityUp;
+        }
+    }
+
+    private static final double EARTH_RADIUS = 6378137;
+    // Measurement noise of the consumer GPS and barometer, and of the velocity estimate of the flight controller
+    private static final double HORIZONTAL_VARIANCE = 2.5 * 2.5;
+    private static final double VERTICAL_VARIANCE = 0.5 * 0.5;
+    private static final double VELOCITY_VARIANCE = 0.1 * 0.1;
+    private static final double JERK_DENSITY = 1;
+    // Extrapolating further than this only amplifies the acceleration noise
+    private static final long MAX_EXTRAPOLATION_NANOS = 1000000000L;
+    // A state arriving this much later than the last one starts the estimate over
+    private static final long MAX_GAP_NANOS = 2000000000L;
+    // Typical latency of the link the states arrive over, until the LinkLatencyEstimator has measured it
+    private static final long DEFAULT_LATENCY_NANOS = 120000000L;
+
+    private static PositionEstimator instance;
+
+    private final ConstantAccelerationFilter east = new ConstantAccelerationFilter(JERK_DENSITY);
+    private final ConstantAccelerationFilter north = new ConstantAccelerationFilter(JERK_DENSITY);
+    private final ConstantAccelerationFilter up = new ConstantAccelerationFilter(JERK_DENSITY);
+
+    // The local frame origin and its meters per degree
+    private double originLatitude;
+    private double originLongitude;
+    private double metersPerDegreeLatitude;
+    private double metersPerDegreeLongitude;
+
+    private volatile long latencyNanos = DEFAULT_LATENCY_NANOS;
+
+    private TelemetryHub.Subscription subscription;
+    private int startCount;
+
+    private final TelemetryHub.StateListener stateListener = new TelemetryHub.StateListener() {
+        @Override
+        public void onUpdate(@NonNull FlightControllerState state) {
+            LocationCoordinate3D location = state.getAircraftLocation();
+            if (location == null) return;
+            long arrivalNanos = SystemClock.elapsedRealtimeNanos();
+            LinkLatencyEstimator link = LinkLatencyEstimator.getInstance();
+            long ageNanos = link.hasEstimate() ? link.getStateAgeNanos(arrivalNanos) : latencyNanos;
+            // velocity is north east down
+            update(arrivalNanos - ageNanos,
+                   location.getLatitude(),
+                   location.getLongitude(),
+                   location.getAltitude(),
+                   state.getVelocityY(),
+                   state.getVelocityX(),
+                   -state.getVelocityZ());
+        }
+    };
+
+    public static synchronized PositionEstimator getInstance() {
+        if (null == instance) {
+            instance = new PositionEstimator();
+        }
+        return instance;
+    }
+
+    private PositionEstimator() {
+    }
+
+    /**
+     * Starts estimating. Every call needs a matching {@link #stop()}, estimating goes on until the last one.
+     */
+    public synchronized void start() {
+        if (startCount++ == 0) {
+            LinkLatencyEstimator.getInstance().start();
+            subscription = TelemetryHub.getInstance().subscribe(stateListener);
+        }
+    }
+
+    public synchronized void stop() {
+        if (startCount == 0) return;
+        if (--startCount == 0) {
+            TelemetryHub.getInstance().unsubscribe(subscription);
+            subscription = null;
+            east.clear();
+            north.clear();
+            up.clear();
+            LinkLatencyEstimator.getInstance().stop();
+        }
+    }
+
+    /**
+     * Sets how old a state is on arrival, used until the LinkLatencyEstimator has an estimate.
+     */
+    public void setLatencyNanos(long latencyNanos) {
+        this.latencyNanos = Math.max(0, latencyNanos);
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * Feeds a measurement taken at a time. Also meant for tests and replays; a missing horizontal fix (NaN or 0, 0)
+     * still updates the altitude and the velocities.
+     */
+    public synchronized void update(long timeNanos, double latitude, double longitude, double altitude,
+                                    double velocityEast, double velocityNorth, double velocityUp) {
+        boolean hasFix = !Double.isNaN(latitude) && !Double.isNaN(longitude) && (latitude != 0 || longitude != 0);
+        if (!east.isInitialized() || timeNanos - east.getTimeNanos() > MAX_GAP_NANOS) {
+            if (!hasFix) return;
+            originLatitude = latitude;
+            originLongitude = longitude;
+            metersPerDegreeLatitude = Math.toRadians(EARTH_RADIUS);
+            metersPerDegreeLongitude = metersPerDegreeLatitude * Math.cos(Math.toRadians(latitude));
+            east.reset(timeNanos, 0, HORIZONTAL_VARIANCE, velocityEast, VELOCITY_VARIANCE);
+            north.reset(timeNanos, 0, HORIZONTAL_VARIANCE, velocityNorth, VELOCITY_VARIANCE);
+            up.reset(timeNanos, Double.isNaN(altitude) ? 0 : altitude, VERTICAL_VARIANCE, velocityUp,
+                     VELOCITY_VARIANCE);
+            return;
+        }
+
+        east.predict(timeNanos);
+        north.predict(timeNanos);
+        up.predict(timeNanos);
+        if (hasFix) {
+            east.updatePosition((longitude - originLongitude) * metersPerDegreeLongitude, HORIZONTAL_VARIANCE);
+            north.updatePosition((latitude - originLatitude) * metersPerDegreeLatitude, HORIZONTAL_VARIANCE);
+        }
+        if (!Double.isNaN(altitude)) {
+            up.updatePosition(altitude, VERTICAL_VARIANCE);
+        }
+        east.updateVelocity(velocityEast, VELOCITY_VARIANCE);
+        north.updateVelocity(velocityNorth, VELOCITY_VARIANCE);
+        up.updateVelocity(velocityUp, VELOCITY_VARIANCE);
+    }
+
+    /**
+     * Estimates the pose at a time, extrapolating from the latest state by at most a second.
+     *
+     * @param timeNanos elapsed realtime, e.g. {@link SystemClock#elapsedRealtimeNanos()} for now
+     * @return false if there is no estimate yet, out is left untouched then
+     */
+    public synchronized boolean getPose(long timeNanos, @NonNull Pose out) {
+        if (!east.isInitialized()) return false;
+        long time = Math.min(timeNanos, east.getTimeNanos() + MAX_EXTRAPOLATION_NANOS);
+        out.latitude = originLatitude + north.extrapolatePosition(time) / metersPerDegreeLatitude;
+        out.longitude = originLongitude + east.extrapolatePosition(time) / metersPerDegreeLongitude;
+        out.altitude = up.extrapolatePosition(time);
+        out.velocityEast = east.extrapolateVelocity(time);
+        out.velocityNorth = north.extrapolateVelocity(time);
+        out.velocityUp = up.extrapolateVelocity(time);
+        return true;
+    }
+}
@@ -0,0 +1,224 @@
+package com.dji.sdk.sample.internal.controller;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import com.dji.sdk.sample.internal.utils.CusumDetector;
+import dji.common.battery.BatteryState;
+import dji.common.flightcontroller.Attitude;
+import dji.common.flightcontroller.FlightControllerState;
+import dji.common.flightcontroller.FlightMode;
+
+/**
+ * Watches the flight controller and battery updates for sudden altitude loss, voltage sag, abnormal current draw
+ * and attitude oscillation while started, and posts an {@link AnomalyEvent} on the event bus for each one found.
+ *
+ * Every update is checked on its SDK callback thread against a CusumDetector per signal, in constant time and
+ * without allocating; only a found anomaly creates an event. The baselines restart on every take off, so the
+ * motors spinning up is not taken for an anomaly.
+ */
+public class TelemetryAnomalyDetector {
+
+    public enum Anomaly {
+        ALTITUDE_LOSS, VOLTAGE_SAG, CURRENT_DRAW, ATTITUDE_OSCILLATION
+    }
+
+    /**
+     * Posted on the event bus from an SDK callback thread.
+     */
+    public static class AnomalyEvent {
+        private final Anomaly anomaly;
+        private final double value;
+        private final double baseline;
+        private final long timeNanos;
+
+        public AnomalyEvent(@NonNull Anomaly anomaly, double value, double baseline, long timeNanos) {
+            this.anomaly = anomaly;
+            this.value = value;
+            this.baseline = baseline;
+            this.timeNanos = timeNanos;
+        }
+
+        @NonNull
+        public Anomaly getAnomaly() {
+            return anomaly;
+        }
+
+        /**
+         * @return the sample completing the anomaly: descent rate in m/s, voltage in mV, current draw in mA or
+         * attitude reversal in degrees per update
+         */
+        public double getValue() {
+            return value;
+        }
+
+        /**
+         * @return the normal value of the signal before the anomaly, in the units of {@link #getValue()}
+         */
+        public double getBaseline() {
+            return baseline;
+        }
+
+        /**
+         * @return elapsed realtime of the sample
+         */
+        public long getTimeNanos() {
+            return timeNanos;
+        }
+    }
+
+    // Descending faster than this on top of the baseline is never a normal stick input
+    private static final float MIN_ALTITUDE_LOSS_RATE = 2f;
+
+    private static TelemetryAnomalyDetector instance;
+
+    // Flight controller callback thread only
+    private final CusumDetector descentRate = new CusumDetector(0.02, 20, 0.5, 0.5, 5, CusumDetector.UP);
+    private final CusumDetector attitudeReversal = new CusumDetector(0.02, 50, 0.5, 0.5, 8, CusumDetector.UP);
+    private boolean wasFlying;
+    private float previousPitch = Float.NaN;
+    private float previousRoll = Float.NaN;
+    private float pitchChange;
+    private float rollChange;
+
+    // Battery callback thread only
+    private final CusumDetector voltage = new CusumDetector(0.05, 10, 150, 0.5, 5, CusumDetector.DOWN);
+    private final CusumDetector currentDraw = new CusumDetector(0.05, 10, 1000, 0.5, 5, CusumDetector.UP);
+    private int batteryFlightNumber;
+
+    // Counts take offs, the battery thread restarts its baselines when it changes
+    private volatile int flightNumber;
+    private volatile boolean flying;
+
+    private TelemetryHub.Subscription stateSubscription;
+    private TelemetryHub.Subscription batterySubscription;
+    private int startCount;
+
+    private final TelemetryHub.StateListener stateListener = new TelemetryHub.StateListener() {
+        @Override
+        public void onUpdate(@NonNull FlightControllerState state) {
+            checkFlightState(state);
+        }
+    };
+
+    private final TelemetryHub.BatteryStateListener batteryListener = new TelemetryHub.BatteryStateListener() {
+        @Override
+        public void onUpdate(@NonNull BatteryState state) {
+            checkBatteryState(state);
+        }
+    };
+
+    public static synchronized TelemetryAnomalyDetector getInstance() {
+        if (null == instance) {
+            instance = new TelemetryAnomalyDetector();
+        }
+        return instance;
+    }
+
+    private TelemetryAnomalyDetector() {
+    }
+
+    /**
+     * Starts detecting. Every call needs a matching {@link #stop()}, detection goes on until the last one.
+     */
+    public synchronized void start() {
+        if (startCount++ > 0) return;
+        TelemetryHub hub = TelemetryHub.getInstance();
+        stateSubscription = hub.subscribe(stateListener);
+        batterySubscription = hub.subscribeBattery(batteryListener, 0, null);
+    }
+
+    public synchronized void stop() {
+        if (startCount == 0) return;
+        if (--startCount == 0) {
+            TelemetryHub hub = TelemetryHub.getInstance();
+            hub.unsubscribe(stateSubscription);
+            hub.unsubscribe(batterySubscription);
+            stateSubscription = null;
+            batterySubscription = null;
+        }
+    }
+
+    public synchronized boolean isStarted() {
+        return startCount > 0;
+    }
+
+    private void checkFlightState(FlightControllerState state) {
+        boolean isFlying = state.isFlying();
+        if (isFlying && !wasFlying) {
+            descentRate.reset();
+            attitudeReversal.reset();
+            previousPitch = Float.NaN;
+            previousRoll = Float.NaN;
+            pitchChange = 0;
+            rollChange = 0;
+            flightNumber++;
+        }
+        wasFlying = isFlying;
+        flying = isFlying;
+        if (!isFlying) return;
+
+        long timeNanos = SystemClock.elapsedRealtimeNanos();
+        // velocity is north east down, a positive z is a descent
+        float descent = state.getVelocityZ();
+        double baseline = descentRate.getMean();
+        if (state.getFlightMode() != FlightMode.AUTO_LANDING
+            && descentRate.add(descent) == CusumDetector.UP
+            && descent - baseline >= MIN_ALTITUDE_LOSS_RATE) {
+            post(Anomaly.ALTITUDE_LOSS, descent, baseline, timeNanos);
+        }
+
+        Attitude attitude = state.getAttitude();
+        if (attitude != null) {
+            float reversal = reversal((float) attitude.pitch, previousPitch, pitchChange)
+                + reversal((float) attitude.roll, previousRoll, rollChange);
+            if (!Float.isNaN(previousPitch)) {
+                pitchChange = (float) attitude.pitch - previousPitch;
+                rollChange = (float) attitude.roll - previousRoll;
+            }
+            previousPitch = (float) attitude.pitch;
+            previousRoll = (float) attitude.roll;
+            baseline = attitudeReversal.getMean();
+            if (attitudeReversal.add(reversal) == CusumDetector.UP) {
+                post(Anomaly.ATTITUDE_OSCILLATION, reversal, baseline, timeNanos);
+            }
+        }
+    }
+
+    private void checkBatteryState(BatteryState state) {
+        if (!flying) return;
+        int currentFlight = flightNumber;
+        if (currentFlight != batteryFlightNumber) {
+            voltage.reset();
+            currentDraw.reset();
+            batteryFlightNumber = currentFlight;
+        }
+
+        long timeNanos = SystemClock.elapsedRealtimeNanos();
+        int millivolts = state.getVoltage();
+        double baseline = voltage.getMean();
+        if (voltage.add(millivolts) == CusumDetector.DOWN) {
+            post(Anomaly.VOLTAGE_SAG, millivolts, baseline, timeNanos);
+        }
+        // the current is negative while discharging
+        int milliamperes = Math.abs(state.getCurrent());
+        baseline = currentDraw.getMean();
+        if (currentDraw.add(milliamperes) == CusumDetector.UP) {
+            post(Anomaly.CURRENT_DRAW, milliamperes, baseline, timeNanos);
+        }
+    }
+
+    /**
+     * An oscillating axis keeps changing direction, a maneuver does not.
+     *
+     * @return the size of the change since the previous update if it reverses the change before, 0 otherwise
+     */
+    private static float reversal(float angle, float previousAngle, float previousChange) {
+        if (Float.isNaN(previousAngle)) return 0;
+        float change = angle - previousAngle;
+        return change * previousChange < 0 ? Math.abs(change) : 0;
+    }
+
+    private static void post(Anomaly anomaly, double value, double baseline, long timeNanos) {
+        DJISampleApplication.getEventBus().post(new AnomalyEvent(anomaly, value, baseline, timeNanos));
+    }
+}
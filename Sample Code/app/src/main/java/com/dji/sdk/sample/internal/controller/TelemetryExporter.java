@@ -0,0 +1,402 @@
+package com.dji.sdk.sample.internal.controller;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+import com.dji.sdk.sample.internal.utils.AsciiFormat;
+import com.dji.sdk.sample.internal.utils.FlightLogFormat;
+import com.dji.sdk.sample.internal.utils.FlightLogReader;
+import com.dji.sdk.sample.internal.utils.FlightLogWriter;
+import dji.common.flightcontroller.FlightMode;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Exports a recorded flight log session to CSV or to a flat binary file for analysis tools.
+ *
+ * The export streams: a reader thread formats the records into a few fixed buffers and hands them to a writer
+ * thread, which writes them to a file channel and hands them back. Only those buffers are ever held, whatever
+ * the length of the flight, and formatting does not allocate.
+ *
+ * CSV has one row per record with the columns of {@link #CSV_HEADER}; a row only fills the columns of its type,
+ * gimbal and simulator attitudes going to the pitch, roll and yaw columns and simulator coordinates to the
+ * latitude and longitude ones.
+ *
+ * The binary format is little endian: a header [int magic {@link #BINARY_MAGIC}][short version][short reserved]
+ * [long wall clock millis][long elapsed realtime nanos at that wall clock time] followed by records
+ * [byte type][payload], the type and payload exactly as in FlightLogFormat, whose payload length follows from the
+ * type. Records are in recording order.
+ */
+public class TelemetryExporter {
+
+    public static final String TAG = TelemetryExporter.class.getName();
+
+    public enum Format {
+        CSV(".csv"), BINARY(".ihsx");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Told on the export thread.
+     */
+    public interface Listener {
+        void onProgress(TelemetryExporter exporter, float progress);
+
+        /**
+         * @param error null if the export completed, the output is deleted if it failed or was cancelled
+         */
+        void onExportEnded(TelemetryExporter exporter, @Nullable IOException error);
+    }
+
+    public static final int BINARY_MAGIC = 0x58534849; // "IHSX"
+    public static final short BINARY_VERSION = 1;
+    public static final int BINARY_HEADER_LENGTH = 4 + 2 + 2 + 8 + 8;
+
+    public static final String CSV_HEADER = "time_ns,wall_clock_ms,type,latitude,longitude,altitude,pitch,roll,yaw,"
+        + "velocity_x,velocity_y,velocity_z,flight_mode,home_latitude,home_longitude,charge_percent,voltage_mv,"
+        + "current_ma,temperature,position_x,position_y,position_z,flying,motors_on\n";
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int BUFFER_COUNT = 4;
+    // Longest CSV row: 24 columns of at most a number each
+    private static final int MAX_ROW_LENGTH = 24 * (AsciiFormat.MAX_NUMBER_LENGTH + 1);
+    private static final int PROGRESS_INTERVAL = 10000;
+    // Marks the end of the filled buffers
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+    private static final FlightMode[] FLIGHT_MODES = FlightMode.values();
+
+    private final File[] segments;
+    private final File output;
+    private final Format format;
+    private Listener listener;
+    private Thread thread;
+
+    private final BlockingQueue<ByteBuffer> freeBuffers = new ArrayBlockingQueue<>(BUFFER_COUNT);
+    private final BlockingQueue<ByteBuffer> filledBuffers = new ArrayBlockingQueue<>(BUFFER_COUNT + 1);
+
+    private volatile boolean cancelled;
+    private volatile IOException writeError;
+    private volatile float progress;
+    private volatile long recordCount;
+
+    public TelemetryExporter(File[] segments, File output, Format format) {
+        this.segments = segments;
+        this.output = output;
+        this.format = format;
+    }
+
+    /**
+     * Exports a session of a flight log directory next to its segments. The session should not be the one
+     * FlightLogger is writing, its segments would be read while they change.
+     */
+    @NonNull
+    public static TelemetryExporter ofSession(File directory, long sessionId, Format format) {
+        return new TelemetryExporter(FlightLogWriter.listSessionSegments(directory, sessionId),
+                                     new File(directory, "flight_" + sessionId + format.getExtension()),
+                                     format);
+    }
+
+    public void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Export already started");
+        }
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                export();
+            }
+        }, "TelemetryExporter");
+        thread.start();
+    }
+
+    /**
+     * Stops the export soon, the partial output is deleted.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public synchronized boolean isRunning() {
+        return thread != null && thread.isAlive();
+    }
+
+    @NonNull
+    public File getOutput() {
+        return output;
+    }
+
+    /**
+     * @return share of the log read so far, from 0 to 1
+     */
+    public float getProgress() {
+        return progress;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    private void export() {
+        IOException error = null;
+        Thread writer = null;
+        try {
+            final FileChannel channel = new FileOutputStream(output).getChannel();
+            writer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    write(channel);
+                }
+            }, "TelemetryExporterWriter");
+            for (int i = 0; i < BUFFER_COUNT; i++) {
+                freeBuffers.add(ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN));
+            }
+            writer.start();
+            read();
+        } catch (IOException e) {
+            error = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled = true;
+        } finally {
+            if (writer != null) {
+                filledBuffers.offer(END);
+                joinUninterruptibly(writer);
+            }
+        }
+
+        if (error == null) {
+            error = writeError;
+        }
+        if (error == null && cancelled) {
+            error = new IOException("Export cancelled");
+        }
+        if (error != null) {
+            Log.e(TAG, "Flight log export failed", error);
+            output.delete();
+        } else {
+            progress = 1;
+        }
+        Listener current = listener;
+        if (current != null) {
+            current.onExportEnded(this, error);
+        }
+    }
+
+    /**
+     * Formats every record into the free buffers and queues them for the writer.
+     */
+    private void read() throws IOException, InterruptedException {
+        long totalLength = 0;
+        for (File segment : segments) {
+            totalLength += segment.length();
+        }
+        FlightLogReader reader = new FlightLogReader(segments);
+        ByteBuffer buffer = freeBuffers.take();
+        try {
+            boolean hasRecord = reader.next();
+            if (format == Format.CSV) {
+                AsciiFormat.putAscii(buffer, CSV_HEADER);
+            } else {
+                buffer.putInt(BINARY_MAGIC);
+                buffer.putShort(BINARY_VERSION);
+                buffer.putShort((short) 0);
+                buffer.putLong(hasRecord ? reader.getSegmentWallClockMillis() : 0);
+                buffer.putLong(hasRecord ? reader.getSegmentElapsedNanos() : 0);
+            }
+
+            long count = 0;
+            while (hasRecord && !cancelled && writeError == null) {
+                if (buffer.remaining() < MAX_ROW_LENGTH) {
+                    buffer.flip();
+                    filledBuffers.put(buffer);
+                    buffer = freeBuffers.take();
+                }
+                if (format == Format.CSV) {
+                    putCsvRow(reader, buffer);
+                } else {
+                    buffer.put(reader.getType());
+                    reader.copyPayload(buffer);
+                }
+                if (++count % PROGRESS_INTERVAL == 0) {
+                    recordCount = count;
+                    reportProgress(totalLength == 0 ? 1 : (float) reader.getBytesRead() / totalLength);
+                }
+                hasRecord = reader.next();
+            }
+            recordCount = count;
+        } finally {
+            reader.close();
+            buffer.flip();
+            filledBuffers.put(buffer);
+        }
+    }
+
+    /**
+     * Writes the filled buffers until the end marker. After a failure the buffers are still taken and handed
+     * back, so the reader never waits forever.
+     */
+    private void write(FileChannel channel) {
+        try {
+            while (true) {
+                ByteBuffer buffer = filledBuffers.take();
+                if (buffer == END) break;
+                try {
+                    while (writeError == null && buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                } catch (IOException e) {
+                    writeError = e;
+                }
+                buffer.clear();
+                freeBuffers.put(buffer);
+            }
+        } catch (InterruptedException e) {
+            writeError = new IOException("Export interrupted");
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                if (writeError == null) {
+                    writeError = e;
+                }
+            }
+        }
+    }
+
+    private void reportProgress(float progress) {
+        this.progress = progress;
+        Listener current = listener;
+        if (current != null) {
+            current.onProgress(this, progress);
+        }
+    }
+
+    private static void putCsvRow(FlightLogReader reader, ByteBuffer buffer) {
+        long timeNanos = reader.getTimeNanos();
+        AsciiFormat.putLong(buffer, timeNanos);
+        buffer.put((byte) ',');
+        AsciiFormat.putLong(buffer,
+                            reader.getSegmentWallClockMillis()
+                                + (timeNanos - reader.getSegmentElapsedNanos()) / 1000000);
+        switch (reader.getType()) {
+            case FlightLogFormat.TYPE_FLIGHT:
+                AsciiFormat.putAscii(buffer, ",flight,");
+                AsciiFormat.putFixed(buffer, reader.getDouble(FlightLogFormat.FLIGHT_LATITUDE), 8);
+                buffer.put((byte) ',');
+                AsciiFormat.putFixed(buffer, reader.getDouble(FlightLogFormat.FLIGHT_LONGITUDE), 8);
+                buffer.put((byte) ',');
+                AsciiFormat.putFixed(buffer, reader.getFloat(FlightLogFormat.FLIGHT_ALTITUDE), 2);
+                buffer.put((byte) ',');
+                putAttitude(reader,
+                            buffer,
+                            FlightLogFormat.FLIGHT_PITCH,
+                            FlightLogFormat.FLIGHT_ROLL,
+                            FlightLogFormat.FLIGHT_YAW);
+                buffer.put((byte) ',');
+                AsciiFormat.putFixed(buffer, reader.getFloat(FlightLogFormat.FLIGHT_VELOCITY_X), 2);
+                buffer.put((byte) ',');
+                AsciiFormat.putFixed(buffer, reader.getFloat(FlightLogFormat.FLIGHT_VELOCITY_Y), 2);
+                buffer.put((byte) ',');
+                AsciiFormat.putFixed(buffer, reader.getFloat(FlightLogFormat.FLIGHT_VELOCITY_Z), 2);
+                buffer.put((byte) ',');
+                int mode = reader.getByte(FlightLogFormat.FLIGHT_MODE);
+                if (mode >= 0 && mode < FLIGHT_MODES.length) {
+                    AsciiFormat.putAscii(buffer, FLIGHT_MODES[mode].name());
+                }
+                buffer.put((byte) ',');
+                AsciiFormat.putFixed(buffer, reader.getDouble(FlightLogFormat.FLIGHT_HOME_LATITUDE), 8);
+                buffer.put((byte) ',');
+                AsciiFormat.putFixed(buffer, reader.getDouble(FlightLogFormat.FLIGHT_HOME_LONGITUDE), 8);
+                AsciiFormat.putAscii(buffer, ",,,,,,,,,\n");
+                break;
+            case FlightLogFormat.TYPE_GIMBAL:
+                AsciiFormat.putAscii(buffer, ",gimbal,,,,");
+                putAttitude(reader,
+                            buffer,
+                            FlightLogFormat.GIMBAL_PITCH,
+                            FlightLogFormat.GIMBAL_ROLL,
+                            FlightLogFormat.GIMBAL_YAW);
+                AsciiFormat.putAscii(buffer, ",,,,,,,,,,,,,,,\n");
+                break;
+            case FlightLogFormat.TYPE_BATTERY:
+                AsciiFormat.putAscii(buffer, ",battery,,,,,,,,,,,,,");
+                AsciiFormat.putLong(buffer, reader.getInt(FlightLogFormat.BATTERY_CHARGE_PERCENT));
+                buffer.put((byte) ',');
+                AsciiFormat.putLong(buffer, reader.getInt(FlightLogFormat.BATTERY_VOLTAGE));
+                buffer.put((byte) ',');
+                AsciiFormat.putLong(buffer, reader.getInt(FlightLogFormat.BATTERY_CURRENT));
+                buffer.put((byte) ',');
+                AsciiFormat.putLong(buffer, reader.getInt(FlightLogFormat.BATTERY_TEMPERATURE));
+                AsciiFormat.putAscii(buffer, ",,,,,\n");
+                break;
+            case FlightLogFormat.TYPE_SIMULATOR:
+                AsciiFormat.putAscii(buffer, ",simulator,");
+                AsciiFormat.putFixed(buffer, reader.getDouble(FlightLogFormat.SIMULATOR_LATITUDE), 8);
+                buffer.put((byte) ',');
+                AsciiFormat.putFixed(buffer, reader.getDouble(FlightLogFormat.SIMULATOR_LONGITUDE), 8);
+                AsciiFormat.putAscii(buffer, ",,");
+                putAttitude(reader,
+                            buffer,
+                            FlightLogFormat.SIMULATOR_PITCH,
+                            FlightLogFormat.SIMULATOR_ROLL,
+                            FlightLogFormat.SIMULATOR_YAW);
+                AsciiFormat.putAscii(buffer, ",,,,,,,,,,,");
+                AsciiFormat.putFixed(buffer, reader.getFloat(FlightLogFormat.SIMULATOR_POSITION_X), 2);
+                buffer.put((byte) ',');
+                AsciiFormat.putFixed(buffer, reader.getFloat(FlightLogFormat.SIMULATOR_POSITION_Y), 2);
+                buffer.put((byte) ',');
+                AsciiFormat.putFixed(buffer, reader.getFloat(FlightLogFormat.SIMULATOR_POSITION_Z), 2);
+                buffer.put((byte) ',');
+                AsciiFormat.putLong(buffer, reader.getByte(FlightLogFormat.SIMULATOR_FLYING));
+                buffer.put((byte) ',');
+                AsciiFormat.putLong(buffer, reader.getByte(FlightLogFormat.SIMULATOR_MOTORS_ON));
+                buffer.put((byte) '\n');
+                break;
+            default:
+                AsciiFormat.putAscii(buffer, ",unknown,,,,,,,,,,,,,,,,,,,,,\n");
+                break;
+        }
+    }
+
+    private static void putAttitude(FlightLogReader reader, ByteBuffer buffer, int pitch, int roll, int yaw) {
+        AsciiFormat.putFixed(buffer, reader.getFloat(pitch), 2);
+        buffer.put((byte) ',');
+        AsciiFormat.putFixed(buffer, reader.getFloat(roll), 2);
+        buffer.put((byte) ',');
+        AsciiFormat.putFixed(buffer, reader.getFloat(yaw), 2);
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
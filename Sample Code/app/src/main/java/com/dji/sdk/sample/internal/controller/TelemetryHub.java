@@ -0,0 +1,662 @@
+package com.dji.sdk.sample.internal.controller;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.dji.sdk.sample.internal.utils.ModuleVerificationUtil;
+import com.squareup.otto.Subscribe;
+import dji.common.battery.BatteryState;
+import dji.common.camera.SystemState;
+import dji.common.flightcontroller.FlightControllerState;
+import dji.common.flightcontroller.VisionDetectionState;
+import dji.common.flightcontroller.simulator.SimulatorState;
+import dji.common.gimbal.GimbalState;
+import dji.common.remotecontroller.HardwareState;
+import dji.sdk.base.BaseProduct;
+import dji.sdk.battery.Battery;
+import dji.sdk.camera.Camera;
+import dji.sdk.flightcontroller.FlightAssistant;
+import dji.sdk.flightcontroller.FlightController;
+import dji.sdk.flightcontroller.Simulator;
+import dji.sdk.gimbal.Gimbal;
+import dji.sdk.remotecontroller.RemoteController;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Owner of the state callbacks the SDK allows only one of: flight controller, gimbal, battery, simulator,
+ * vision detection, camera system state and remote controller hardware state.
+ * Every update is fanned out to any number of subscribers, so views, loggers and missions can watch the
+ * aircraft state at the same time instead of stealing the callback from each other.
+ *
+ * While replaying, the aircraft callbacks are released and subscribers receive the injected states instead.
+ */
+public class TelemetryHub {
+
+    /**
+     * Receives flight controller state updates from the hub.
+     */
+    public interface StateListener {
+        void onUpdate(@NonNull FlightControllerState state);
+    }
+
+    /**
+     * Receives gimbal state updates from the hub.
+     */
+    public interface GimbalStateListener {
+        void onUpdate(@NonNull GimbalState state);
+    }
+
+    /**
+     * Receives battery state updates from the hub.
+     */
+    public interface BatteryStateListener {
+        void onUpdate(@NonNull BatteryState state);
+    }
+
+    /**
+     * Receives simulator state updates from the hub.
+     */
+    public interface SimulatorStateListener {
+        void onUpdate(@NonNull SimulatorState state);
+    }
+
+    /**
+     * Receives obstacle detection updates of the vision system from the hub.
+     */
+    public interface VisionDetectionStateListener {
+        void onUpdate(@NonNull VisionDetectionState state);
+    }
+
+    /**
+     * Receives camera system state updates from the hub.
+     */
+    public interface CameraSystemStateListener {
+        void onUpdate(@NonNull SystemState state);
+    }
+
+    /**
+     * Receives remote controller hardware state updates from the hub.
+     */
+    public interface RemoteControllerStateListener {
+        void onUpdate(@NonNull HardwareState state);
+    }
+
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+
+    private static TelemetryHub instance;
+
+    private final Channel<FlightControllerState> flightControllerChannel = new Channel<>();
+    private final Channel<GimbalState> gimbalChannel = new Channel<>();
+    private final Channel<BatteryState> batteryChannel = new Channel<>();
+    private final Channel<SimulatorState> simulatorChannel = new Channel<>();
+    private final Channel<VisionDetectionState> visionChannel = new Channel<>();
+    private final Channel<SystemState> cameraChannel = new Channel<>();
+    private final Channel<HardwareState> remoteControllerChannel = new Channel<>();
+
+    private FlightController attachedFlightController;
+    private Gimbal attachedGimbal;
+    private Battery attachedBattery;
+    private Simulator attachedSimulator;
+    private FlightAssistant attachedFlightAssistant;
+    private Camera attachedCamera;
+    private RemoteController attachedRemoteController;
+    private volatile boolean replaying;
+
+    private final FlightControllerState.Callback flightControllerCallback = new FlightControllerState.Callback() {
+        @Override
+        public void onUpdate(@NonNull FlightControllerState state) {
+            flightControllerChannel.publish(state);
+        }
+    };
+
+    private final GimbalState.Callback gimbalCallback = new GimbalState.Callback() {
+        @Override
+        public void onUpdate(@NonNull GimbalState state) {
+            gimbalChannel.publish(state);
+        }
+    };
+
+    private final BatteryState.Callback batteryCallback = new BatteryState.Callback() {
+        @Override
+        public void onUpdate(BatteryState state) {
+            if (state != null) {
+                batteryChannel.publish(state);
+            }
+        }
+    };
+
+    private final SimulatorState.Callback simulatorCallback = new SimulatorState.Callback() {
+        @Override
+        public void onUpdate(@NonNull SimulatorState state) {
+            simulatorChannel.publish(state);
+        }
+    };
+
+    private final VisionDetectionState.Callback visionCallback = new VisionDetectionState.Callback() {
+        @Override
+        public void onUpdate(@NonNull VisionDetectionState state) {
+            visionChannel.publish(state);
+        }
+    };
+
+    private final SystemState.Callback cameraCallback = new SystemState.Callback() {
+        @Override
+        public void onUpdate(SystemState state) {
+            if (state != null) {
+                cameraChannel.publish(state);
+            }
+        }
+    };
+
+    private final HardwareState.HardwareStateCallback remoteControllerCallback =
+        new HardwareState.HardwareStateCallback() {
+            @Override
+            public void onUpdate(@NonNull HardwareState state) {
+                remoteControllerChannel.publish(state);
+            }
+        };
+
+    public static synchronized TelemetryHub getInstance() {
+        if (null == instance) {
+            instance = new TelemetryHub();
+        }
+        return instance;
+    }
+
+    private TelemetryHub() {
+        DJISampleApplication.getEventBus().register(this);
+    }
+
+    /**
+     * Subscribes to every flight controller update, delivered on the SDK callback thread.
+     */
+    public Subscription subscribe(@NonNull StateListener listener) {
+        return subscribe(listener, 0, null);
+    }
+
+    /**
+     * Subscribes to flight controller state updates.
+     *
+     * @param minIntervalMillis updates arriving sooner than this after the last delivered one are skipped,
+     *                          0 to get every update
+     * @param handler handler to deliver on, or null to deliver on the SDK callback thread. When the handler
+     *                falls behind only the latest state is delivered.
+     */
+    public Subscription subscribe(@NonNull final StateListener listener,
+                                  long minIntervalMillis,
+                                  @Nullable Handler handler) {
+        return add(flightControllerChannel, new Delivery<FlightControllerState>() {
+            @Override
+            public void deliver(FlightControllerState state) {
+                listener.onUpdate(state);
+            }
+        }, minIntervalMillis, handler);
+    }
+
+    /**
+     * Subscribes to gimbal state updates, see {@link #subscribe(StateListener, long, Handler)}.
+     */
+    public Subscription subscribeGimbal(@NonNull final GimbalStateListener listener,
+                                        long minIntervalMillis,
+                                        @Nullable Handler handler) {
+        return add(gimbalChannel, new Delivery<GimbalState>() {
+            @Override
+            public void deliver(GimbalState state) {
+                listener.onUpdate(state);
+            }
+        }, minIntervalMillis, handler);
+    }
+
+    /**
+     * Subscribes to battery state updates, see {@link #subscribe(StateListener, long, Handler)}.
+     */
+    public Subscription subscribeBattery(@NonNull final BatteryStateListener listener,
+                                         long minIntervalMillis,
+                                         @Nullable Handler handler) {
+        return add(batteryChannel, new Delivery<BatteryState>() {
+            @Override
+            public void deliver(BatteryState state) {
+                listener.onUpdate(state);
+            }
+        }, minIntervalMillis, handler);
+    }
+
+    /**
+     * Subscribes to simulator state updates, see {@link #subscribe(StateListener, long, Handler)}.
+     */
+    public Subscription subscribeSimulator(@NonNull final SimulatorStateListener listener,
+                                           long minIntervalMillis,
+                                           @Nullable Handler handler) {
+        return add(simulatorChannel, new Delivery<SimulatorState>() {
+            @Override
+            public void deliver(SimulatorState state) {
+                listener.onUpdate(state);
+            }
+        }, minIntervalMillis, handler);
+    }
+
+    /**
+     * Subscribes to vision detection updates, see {@link #subscribe(StateListener, long, Handler)}.
+     */
+    public Subscription subscribeVision(@NonNull final VisionDetectionStateListener listener,
+                                        long minIntervalMillis,
+                                        @Nullable Handler handler) {
+        return add(visionChannel, new Delivery<VisionDetectionState>() {
+            @Override
+            public void deliver(VisionDetectionState state) {
+                listener.onUpdate(state);
+            }
+        }, minIntervalMillis, handler);
+    }
+
+    /**
+     * Subscribes to camera system state updates, see {@link #subscribe(StateListener, long, Handler)}.
+     */
+    public Subscription subscribeCamera(@NonNull final CameraSystemStateListener listener,
+                                        long minIntervalMillis,
+                                        @Nullable Handler handler) {
+        return add(cameraChannel, new Delivery<SystemState>() {
+            @Override
+            public void deliver(SystemState state) {
+                listener.onUpdate(state);
+            }
+        }, minIntervalMillis, handler);
+    }
+
+    /**
+     * Subscribes to remote controller hardware state updates, see {@link #subscribe(StateListener, long, Handler)}.
+     */
+    public Subscription subscribeRemoteController(@NonNull final RemoteControllerStateListener listener,
+                                                  long minIntervalMillis,
+                                                  @Nullable Handler handler) {
+        return add(remoteControllerChannel, new Delivery<HardwareState>() {
+            @Override
+            public void deliver(HardwareState state) {
+                listener.onUpdate(state);
+            }
+        }, minIntervalMillis, handler);
+    }
+
+    public void unsubscribe(@Nullable Subscription subscription) {
+        if (subscription == null) return;
+        subscription.active = false;
+        if (subscription.channel.remove(subscription)) {
+            refreshAttachment();
+        }
+    }
+
+    /**
+     * @return the last flight controller state received from the aircraft, or null if none arrived yet
+     */
+    @Nullable
+    public FlightControllerState getLatestState() {
+        return flightControllerChannel.latest;
+    }
+
+    @Nullable
+    public GimbalState getLatestGimbalState() {
+        return gimbalChannel.latest;
+    }
+
+    @Nullable
+    public BatteryState getLatestBatteryState() {
+        return batteryChannel.latest;
+    }
+
+    @Nullable
+    public SimulatorState getLatestSimulatorState() {
+        return simulatorChannel.latest;
+    }
+
+    @Nullable
+    public VisionDetectionState getLatestVisionDetectionState() {
+        return visionChannel.latest;
+    }
+
+    @Nullable
+    public SystemState getLatestCameraSystemState() {
+        return cameraChannel.latest;
+    }
+
+    @Nullable
+    public HardwareState getLatestRemoteControllerState() {
+        return remoteControllerChannel.latest;
+    }
+
+    public int getSubscriberCount() {
+        return flightControllerChannel.subscriptions.get().length
+            + gimbalChannel.subscriptions.get().length
+            + batteryChannel.subscriptions.get().length
+            + simulatorChannel.subscriptions.get().length
+            + visionChannel.subscriptions.get().length
+            + cameraChannel.subscriptions.get().length
+            + remoteControllerChannel.subscriptions.get().length;
+    }
+
+    /**
+     * Switches between the aircraft and injected states. While replaying, the SDK callbacks are released so
+     * a connected aircraft does not mix its updates into the replayed ones.
+     */
+    public synchronized void setReplaying(boolean replaying) {
+        if (this.replaying == replaying) return;
+        this.replaying = replaying;
+        flightControllerChannel.latest = null;
+        gimbalChannel.latest = null;
+        batteryChannel.latest = null;
+        simulatorChannel.latest = null;
+        visionChannel.latest = null;
+        cameraChannel.latest = null;
+        remoteControllerChannel.latest = null;
+        refreshAttachment();
+    }
+
+    public boolean isReplaying() {
+        return replaying;
+    }
+
+    //region Replay
+    /**
+     * Hands a state to the subscribers as if it came from the aircraft. Meant for replays, see
+     * {@link #setReplaying(boolean)}. Delivery happens on the calling thread.
+     */
+    public void inject(@NonNull FlightControllerState state) {
+        flightControllerChannel.publish(state);
+    }
+
+    public void inject(@NonNull GimbalState state) {
+        gimbalChannel.publish(state);
+    }
+
+    public void inject(@NonNull BatteryState state) {
+        batteryChannel.publish(state);
+    }
+
+    public void inject(@NonNull SimulatorState state) {
+        simulatorChannel.publish(state);
+    }
+
+    public void inject(@NonNull VisionDetectionState state) {
+        visionChannel.publish(state);
+    }
+
+    public void inject(@NonNull SystemState state) {
+        cameraChannel.publish(state);
+    }
+
+    public void inject(@NonNull HardwareState state) {
+        remoteControllerChannel.publish(state);
+    }
+    //endregion
+
+    @Subscribe
+    public void onProductTopologyChange(DJISampleApplication.ProductTopologyChangeEvent event) {
+        // the callbacks are attached to the instances, their state does not matter
+        if (!event.isTopologyChanged()) return;
+        refreshAttachment();
+    }
+
+    private <T> Subscription add(Channel<T> channel, Delivery<T> delivery, long minIntervalMillis, Handler handler) {
+        Subscription subscription = new Subscription(channel, delivery, minIntervalMillis, handler);
+        channel.add(subscription);
+        refreshAttachment();
+        return subscription;
+    }
+
+    /**
+     * Holds each SDK callback while its channel has at least one subscriber and follows the components across
+     * product changes. Nothing is held while replaying.
+     */
+    private synchronized void refreshAttachment() {
+        BaseProduct product = !replaying && ModuleVerificationUtil.isProductModuleAvailable()
+                              ? DJISampleApplication.getProductInstance()
+                              : null;
+        FlightController availableFlightController =
+            !replaying && ModuleVerificationUtil.isFlightControllerAvailable()
+            ? DJISampleApplication.getAircraftInstance().getFlightController()
+            : null;
+
+        FlightController flightController =
+            flightControllerChannel.hasSubscriptions() ? availableFlightController : null;
+        if (flightController != attachedFlightController) {
+            if (attachedFlightController != null) {
+                attachedFlightController.setStateCallback(null);
+            }
+            if (flightController != null) {
+                flightController.setStateCallback(flightControllerCallback);
+            } else {
+                flightControllerChannel.latest = null;
+            }
+            attachedFlightController = flightController;
+        }
+
+        Gimbal gimbal = gimbalChannel.hasSubscriptions() && product != null ? product.getGimbal() : null;
+        if (gimbal != attachedGimbal) {
+            if (attachedGimbal != null) {
+                attachedGimbal.setStateCallback(null);
+            }
+            if (gimbal != null) {
+                gimbal.setStateCallback(gimbalCallback);
+            } else {
+                gimbalChannel.latest = null;
+            }
+            attachedGimbal = gimbal;
+        }
+
+        Battery battery = batteryChannel.hasSubscriptions() && product != null ? product.getBattery() : null;
+        if (battery != attachedBattery) {
+            if (attachedBattery != null) {
+                attachedBattery.setStateCallback(null);
+            }
+            if (battery != null) {
+                battery.setStateCallback(batteryCallback);
+            } else {
+                batteryChannel.latest = null;
+            }
+            attachedBattery = battery;
+        }
+
+        Simulator simulator = simulatorChannel.hasSubscriptions() && availableFlightController != null
+                              ? availableFlightController.getSimulator()
+                              : null;
+        if (simulator != attachedSimulator) {
+            if (attachedSimulator != null) {
+                attachedSimulator.setStateCallback(null);
+            }
+            if (simulator != null) {
+                simulator.setStateCallback(simulatorCallback);
+            } else {
+                simulatorChannel.latest = null;
+            }
+            attachedSimulator = simulator;
+        }
+
+        FlightAssistant flightAssistant = visionChannel.hasSubscriptions() && availableFlightController != null
+                                          ? availableFlightController.getFlightAssistant()
+                                          : null;
+        if (flightAssistant != attachedFlightAssistant) {
+            if (attachedFlightAssistant != null) {
+                attachedFlightAssistant.setVisionDetectionStateUpdatedCallback(null);
+            }
+            if (flightAssistant != null) {
+                flightAssistant.setVisionDetectionStateUpdatedCallback(visionCallback);
+            } else {
+                visionChannel.latest = null;
+            }
+            attachedFlightAssistant = flightAssistant;
+        }
+
+        Camera camera = cameraChannel.hasSubscriptions() && product != null ? product.getCamera() : null;
+        if (camera != attachedCamera) {
+            if (attachedCamera != null) {
+                attachedCamera.setSystemStateCallback(null);
+            }
+            if (camera != null) {
+                camera.setSystemStateCallback(cameraCallback);
+            } else {
+                cameraChannel.latest = null;
+            }
+            attachedCamera = camera;
+        }
+
+        RemoteController remoteController = remoteControllerChannel.hasSubscriptions()
+                                            && !replaying
+                                            && ModuleVerificationUtil.isRemoteControllerAvailable()
+                                            ? DJISampleApplication.getAircraftInstance().getRemoteController()
+                                            : null;
+        if (remoteController != attachedRemoteController) {
+            if (attachedRemoteController != null) {
+                attachedRemoteController.setHardwareStateCallback(null);
+            }
+            if (remoteController != null) {
+                remoteController.setHardwareStateCallback(remoteControllerCallback);
+            } else {
+                remoteControllerChannel.latest = null;
+            }
+            attachedRemoteController = remoteController;
+        }
+    }
+
+    /**
+     * Hands a state to the typed listener of a subscription.
+     */
+    private interface Delivery<T> {
+        void deliver(T state);
+    }
+
+    /**
+     * Subscribers of one kind of state, kept in a copy-on-write array so publishing never locks.
+     */
+    private static final class Channel<T> {
+
+        private final AtomicReference<Subscription[]> subscriptions = new AtomicReference<>(NO_SUBSCRIPTIONS);
+        private volatile T latest;
+
+        private void publish(T state) {
+            latest = state;
+            long now = SystemClock.elapsedRealtime();
+            for (Subscription subscription : subscriptions.get()) {
+                subscription.offer(state, now);
+            }
+        }
+
+        private boolean hasSubscriptions() {
+            return subscriptions.get().length > 0;
+        }
+
+        private void add(Subscription subscription) {
+            Subscription[] current;
+            Subscription[] updated;
+            do {
+                current = subscriptions.get();
+                updated = new Subscription[current.length + 1];
+                System.arraycopy(current, 0, updated, 0, current.length);
+                updated[current.length] = subscription;
+            } while (!subscriptions.compareAndSet(current, updated));
+        }
+
+        private boolean remove(Subscription subscription) {
+            Subscription[] current;
+            Subscription[] updated;
+            do {
+                current = subscriptions.get();
+                int index = -1;
+                for (int i = 0; i < current.length; i++) {
+                    if (current[i] == subscription) {
+                        index = i;
+                        break;
+                    }
+                }
+                if (index < 0) return false;
+                if (current.length == 1) {
+                    updated = NO_SUBSCRIPTIONS;
+                } else {
+                    updated = new Subscription[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, index);
+                    System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+                }
+            } while (!subscriptions.compareAndSet(current, updated));
+            return true;
+        }
+    }
+
+    /**
+     * A single consumer of the hub. Keep it to unsubscribe later.
+     */
+    public static final class Subscription implements Runnable {
+
+        private final Channel<?> channel;
+        @SuppressWarnings("rawtypes")
+        private final Delivery delivery;
+        private volatile long minIntervalMillis;
+        private final Handler handler;
+        private final AtomicReference<Object> pending = new AtomicReference<>();
+
+        // Only touched from the SDK callback thread.
+        private long lastOfferMillis;
+
+        private volatile boolean active = true;
+        private volatile long droppedCount;
+
+        private Subscription(Channel<?> channel, Delivery<?> delivery, long minIntervalMillis, Handler handler) {
+            this.channel = channel;
+            this.delivery = delivery;
+            this.minIntervalMillis = minIntervalMillis;
+            this.handler = handler;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void offer(Object state, long now) {
+            if (!active) return;
+            long interval = minIntervalMillis;
+            if (interval > 0 && now - lastOfferMillis < interval) {
+                droppedCount++;
+                return;
+            }
+            lastOfferMillis = now;
+
+            if (handler == null) {
+                delivery.deliver(state);
+            } else if (pending.getAndSet(state) == null) {
+                handler.post(this);
+            } else {
+                // The handler has not caught up yet, the newer state replaces the queued one.
+                droppedCount++;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void run() {
+            Object state = pending.getAndSet(null);
+            if (state != null && active) {
+                delivery.deliver(state);
+            }
+        }
+
+        /**
+         * Changes the rate limit, e.g. to slow a view down while it cannot be seen. Takes effect from the next
+         * update.
+         *
+         * @param minIntervalMillis see {@link TelemetryHub#subscribe(StateListener, long, Handler)}
+         */
+        public void setMinIntervalMillis(long minIntervalMillis) {
+            this.minIntervalMillis = minIntervalMillis;
+        }
+
+        public long getMinIntervalMillis() {
+            return minIntervalMillis;
+        }
+
+        /**
+         * @return number of updates skipped by the rate limit or replaced before the handler ran
+         */
+        public long getDroppedCount() {
+            return droppedCount;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+    }
+}
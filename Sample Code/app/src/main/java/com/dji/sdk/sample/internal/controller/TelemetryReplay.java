@@ -0,0 +1,370 @@
+package com.dji.sdk.sample.internal.controller;
+
+import android.support.annotation.Nullable;
+import android.util.Log;
+import com.dji.sdk.sample.internal.utils.FlightLogFormat;
+import com.dji.sdk.sample.internal.utils.FlightLogIndex;
+import com.dji.sdk.sample.internal.utils.FlightLogReader;
+import com.dji.sdk.sample.internal.utils.FlightLogWriter;
+import dji.common.battery.BatteryState;
+import dji.common.flightcontroller.Attitude;
+import dji.common.flightcontroller.FlightControllerState;
+import dji.common.flightcontroller.FlightMode;
+import dji.common.flightcontroller.LocationCoordinate3D;
+import dji.common.flightcontroller.simulator.SimulatorState;
+import dji.common.gimbal.GimbalState;
+import dji.common.model.LocationCoordinate2D;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays flight log segments back through the TelemetryHub, so every subscriber sees the recorded flight
+ * controller, gimbal, battery and simulator states as if an aircraft was connected.
+ * Records are replayed on a background thread with their recorded spacing divided by the speed. The log is indexed
+ * before replaying, so a seek anywhere in a log of hours reads a few hundred records only.
+ */
+public class TelemetryReplay {
+
+    public static final String TAG = TelemetryReplay.class.getName();
+
+    public static final float MAX_SPEED = 100;
+    /** Replays records as fast as subscribers take them. */
+    public static final float UNLIMITED_SPEED = Float.POSITIVE_INFINITY;
+
+    private static final long NO_SEEK = -1;
+    private static final FlightMode[] FLIGHT_MODES = FlightMode.values();
+
+    /**
+     * Told on the replay thread when the replay ends, whether it was finished or stopped.
+     */
+    public interface Listener {
+        void onReplayEnded(TelemetryReplay replay);
+    }
+
+    private final File[] segments;
+    private final Object lock = new Object();
+    private Listener listener;
+    private Thread thread;
+
+    // Guarded by lock.
+    private float speed = 1;
+    private boolean paused;
+    private boolean looping;
+    private boolean stopped;
+    private long seekOffsetNanos = NO_SEEK;
+    private long anchorTimeNanos;
+    private long anchorRealtimeNanos;
+
+    private volatile long startTimeNanos = -1;
+    private volatile long endTimeNanos = -1;
+    private volatile long positionTimeNanos = -1;
+
+    public TelemetryReplay(File[] segments) {
+        this.segments = segments;
+    }
+
+    /**
+     * Replays the last session found in a flight log directory.
+     *
+     * @return null if there is no recorded session
+     */
+    @Nullable
+    public static TelemetryReplay ofLatestSession(File directory) {
+        long[] sessions = FlightLogWriter.listSessions(directory);
+        if (sessions.length == 0) return null;
+        return new TelemetryReplay(FlightLogWriter.listSessionSegments(directory, sessions[sessions.length - 1]));
+    }
+
+    public void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Starts the replay. The hub stops listening to the aircraft until the replay ends.
+     * Only one replay should run at a time.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Replay already started");
+        }
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                replay();
+            }
+        }, "TelemetryReplay");
+        thread.start();
+    }
+
+    public void stop() {
+        synchronized (lock) {
+            stopped = true;
+            lock.notifyAll();
+        }
+    }
+
+    public void pause() {
+        synchronized (lock) {
+            paused = true;
+            lock.notifyAll();
+        }
+    }
+
+    public void resume() {
+        synchronized (lock) {
+            if (!paused) return;
+            paused = false;
+            anchor(currentTimeNanos());
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * @param speed between 1 and {@link #MAX_SPEED}, or {@link #UNLIMITED_SPEED}
+     */
+    public void setSpeed(float speed) {
+        if (speed != UNLIMITED_SPEED && !(speed >= 1 && speed <= MAX_SPEED)) {
+            throw new IllegalArgumentException("Unsupported replay speed " + speed);
+        }
+        synchronized (lock) {
+            this.speed = speed;
+            anchor(currentTimeNanos());
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Starts over from the beginning instead of ending when the last record was replayed.
+     */
+    public void setLooping(boolean looping) {
+        synchronized (lock) {
+            this.looping = looping;
+        }
+    }
+
+    /**
+     * Continues the replay from an offset in the log, forward or backward.
+     *
+     * @param offsetNanos time since the first record
+     */
+    public void seekTo(long offsetNanos) {
+        synchronized (lock) {
+            seekOffsetNanos = Math.max(0, offsetNanos);
+            lock.notifyAll();
+        }
+    }
+
+    public float getSpeed() {
+        synchronized (lock) {
+            return speed;
+        }
+    }
+
+    public boolean isPaused() {
+        synchronized (lock) {
+            return paused;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return thread != null && thread.isAlive();
+    }
+
+    /**
+     * @return time between the first and the last record, or -1 until the log was scanned
+     */
+    public long getDurationNanos() {
+        long start = startTimeNanos;
+        long end = endTimeNanos;
+        return start < 0 ? -1 : end - start;
+    }
+
+    /**
+     * @return time of the last replayed record since the first record, or -1 before the first one
+     */
+    public long getPositionNanos() {
+        long start = startTimeNanos;
+        long position = positionTimeNanos;
+        return start < 0 || position < 0 ? -1 : position - start;
+    }
+
+    private void replay() {
+        TelemetryHub hub = TelemetryHub.getInstance();
+        FlightLogReader reader = new FlightLogReader(segments);
+        hub.setReplaying(true);
+        try {
+            FlightLogIndex index = FlightLogIndex.build(reader);
+            if (index.getRecordCount() == 0) return;
+            endTimeNanos = index.getLastTimeNanos();
+            startTimeNanos = index.getFirstTimeNanos();
+
+            reader.rewind();
+            boolean hasRecord = reader.next();
+            synchronized (lock) {
+                anchor(startTimeNanos);
+            }
+            while (true) {
+                long seek;
+                synchronized (lock) {
+                    if (!hasRecord && looping && !stopped) {
+                        seekOffsetNanos = 0;
+                    }
+                    seek = seekOffsetNanos;
+                    seekOffsetNanos = NO_SEEK;
+                }
+                if (seek != NO_SEEK) {
+                    long timeNanos = startTimeNanos + seek;
+                    hasRecord = index.seek(reader, timeNanos);
+                    positionTimeNanos = Math.min(timeNanos, endTimeNanos);
+                    synchronized (lock) {
+                        anchor(positionTimeNanos);
+                    }
+                }
+                if (!hasRecord) break;
+
+                long timeNanos = reader.getTimeNanos();
+                if (!awaitRecordTime(timeNanos)) {
+                    if (isStopped()) break;
+                    // a seek came in while waiting
+                    continue;
+                }
+                positionTimeNanos = timeNanos;
+                inject(hub, reader);
+                hasRecord = reader.next();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Replay failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            reader.close();
+            hub.setReplaying(false);
+            Listener current = listener;
+            if (current != null) {
+                current.onReplayEnded(this);
+            }
+        }
+    }
+
+    /**
+     * Blocks until a record is due at the current speed.
+     *
+     * @return false if the replay was stopped or a seek was requested meanwhile
+     */
+    private boolean awaitRecordTime(long timeNanos) throws InterruptedException {
+        synchronized (lock) {
+            while (true) {
+                if (stopped || seekOffsetNanos != NO_SEEK) {
+                    return false;
+                }
+                if (paused) {
+                    lock.wait();
+                    continue;
+                }
+                if (speed == UNLIMITED_SPEED) {
+                    return true;
+                }
+                long dueNanos = anchorRealtimeNanos + (long) ((timeNanos - anchorTimeNanos) / speed);
+                long waitNanos = dueNanos - System.nanoTime();
+                if (waitNanos <= 0) {
+                    return true;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, waitNanos);
+            }
+        }
+    }
+
+    private boolean isStopped() {
+        synchronized (lock) {
+            return stopped;
+        }
+    }
+
+    /**
+     * @return time of the last replayed record, or of the first one before replaying started
+     */
+    private long currentTimeNanos() {
+        long position = positionTimeNanos;
+        return position >= 0 ? position : startTimeNanos;
+    }
+
+    /**
+     * Pins the replay clock: the record at timeNanos is due now. Call with the lock held.
+     */
+    private void anchor(long timeNanos) {
+        anchorTimeNanos = timeNanos;
+        anchorRealtimeNanos = System.nanoTime();
+    }
+
+    //region State conversion
+    private static void inject(TelemetryHub hub, FlightLogReader reader) {
+        switch (reader.getType()) {
+            case FlightLogFormat.TYPE_FLIGHT:
+                hub.inject(toFlightControllerState(reader));
+                break;
+            case FlightLogFormat.TYPE_GIMBAL:
+                hub.inject(toGimbalState(reader));
+                break;
+            case FlightLogFormat.TYPE_BATTERY:
+                hub.inject(toBatteryState(reader));
+                break;
+            case FlightLogFormat.TYPE_SIMULATOR:
+                hub.inject(toSimulatorState(reader));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static FlightControllerState toFlightControllerState(FlightLogReader reader) {
+        FlightControllerState state = new FlightControllerState();
+        state.setAircraftLocation(new LocationCoordinate3D(reader.getDouble(FlightLogFormat.FLIGHT_LATITUDE),
+                                                           reader.getDouble(FlightLogFormat.FLIGHT_LONGITUDE),
+                                                           reader.getFloat(FlightLogFormat.FLIGHT_ALTITUDE)));
+        state.setAttitude(new Attitude(reader.getFloat(FlightLogFormat.FLIGHT_PITCH),
+                                       reader.getFloat(FlightLogFormat.FLIGHT_ROLL),
+                                       reader.getFloat(FlightLogFormat.FLIGHT_YAW)));
+        state.setVelocityX(reader.getFloat(FlightLogFormat.FLIGHT_VELOCITY_X));
+        state.setVelocityY(reader.getFloat(FlightLogFormat.FLIGHT_VELOCITY_Y));
+        state.setVelocityZ(reader.getFloat(FlightLogFormat.FLIGHT_VELOCITY_Z));
+        int mode = reader.getByte(FlightLogFormat.FLIGHT_MODE);
+        if (mode >= 0 && mode < FLIGHT_MODES.length) {
+            state.setFlightMode(FLIGHT_MODES[mode]);
+        }
+        state.setHomeLocation(new LocationCoordinate2D(reader.getDouble(FlightLogFormat.FLIGHT_HOME_LATITUDE),
+                                                       reader.getDouble(FlightLogFormat.FLIGHT_HOME_LONGITUDE)));
+        return state;
+    }
+
+    private static GimbalState toGimbalState(FlightLogReader reader) {
+        return new GimbalState.Builder().attitudeInDegrees(new dji.common.gimbal.Attitude(
+            reader.getFloat(FlightLogFormat.GIMBAL_PITCH),
+            reader.getFloat(FlightLogFormat.GIMBAL_ROLL),
+            reader.getFloat(FlightLogFormat.GIMBAL_YAW))).build();
+    }
+
+    private static BatteryState toBatteryState(FlightLogReader reader) {
+        return new BatteryState.Builder().chargeRemainingInPercent(reader.getInt(FlightLogFormat.BATTERY_CHARGE_PERCENT))
+                                         .voltage(reader.getInt(FlightLogFormat.BATTERY_VOLTAGE))
+                                         .current(reader.getInt(FlightLogFormat.BATTERY_CURRENT))
+                                         .temperature(reader.getInt(FlightLogFormat.BATTERY_TEMPERATURE))
+                                         .build();
+    }
+
+    private static SimulatorState toSimulatorState(FlightLogReader reader) {
+        return new SimulatorState.Builder().pitch(reader.getFloat(FlightLogFormat.SIMULATOR_PITCH))
+                                           .roll(reader.getFloat(FlightLogFormat.SIMULATOR_ROLL))
+                                           .yaw(reader.getFloat(FlightLogFormat.SIMULATOR_YAW))
+                                           .positionX(reader.getFloat(FlightLogFormat.SIMULATOR_POSITION_X))
+                                           .positionY(reader.getFloat(FlightLogFormat.SIMULATOR_POSITION_Y))
+                                           .positionZ(reader.getFloat(FlightLogFormat.SIMULATOR_POSITION_Z))
+                                           .location(new LocationCoordinate2D(
+                                               reader.getDouble(FlightLogFormat.SIMULATOR_LATITUDE),
+                                               reader.getDouble(FlightLogFormat.SIMULATOR_LONGITUDE)))
+                                           .isFlying(reader.getByte(FlightLogFormat.SIMULATOR_FLYING) != 0)
+                                           .areMotorsOn(reader.getByte(FlightLogFormat.SIMULATOR_MOTORS_ON) != 0)
+                                           .build();
+    }
+    //endregion
+}
@@ -0,0 +1,448 @@
+package com.dji.sdk.sample.internal.controller;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.util.Log;
+import com.dji.sdk.sample.internal.utils.FlightLogFormat;
+import dji.common.battery.BatteryState;
+import dji.common.flightcontroller.Attitude;
+import dji.common.flightcontroller.FlightControllerState;
+import dji.common.flightcontroller.LocationCoordinate3D;
+import dji.common.flightcontroller.simulator.SimulatorState;
+import dji.common.gimbal.GimbalState;
+import dji.common.model.LocationCoordinate2D;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+/**
+ * Streams live telemetry to ground station clients over WebSocket.
+ *
+ * Clients pick topics with text commands: "subscribe &lt;topic&gt; [rate in Hz]" and "unsubscribe &lt;topic&gt;",
+ * topics being flight, gimbal, battery and simulator. A rate of 0 or none forwards every update.
+ * Each update is sent as a binary frame [byte record type][payload], laid out like the flight log records of
+ * FlightLogFormat, little endian.
+ *
+ * Only the latest frame of each topic is kept. A dispatcher thread hands it to every client that is due and has
+ * nothing left in its send buffer, so a slow client skips stale frames without delaying the others. The dispatcher
+ * sleeps until a frame is published while clients are connected, or until a client rate limit or a busy send buffer
+ * asks for another try, so an idle server does not wake the phone.
+ *
+ * Start and stop do not block: stopping the socket threads joins them, which happens on a thread of its own.
+ */
+public class TelemetryServer {
+
+    public static final String TAG = TelemetryServer.class.getName();
+
+    public static final int DEFAULT_PORT = 8787;
+
+    // Retry delay for a client whose send buffer was not drained yet
+    private static final long BUSY_RETRY_MILLIS = 5;
+
+    private static final String[] TOPIC_NAMES = { "flight", "gimbal", "battery", "simulator" };
+    private static final byte[] TOPIC_TYPES = {
+        FlightLogFormat.TYPE_FLIGHT, FlightLogFormat.TYPE_GIMBAL, FlightLogFormat.TYPE_BATTERY,
+        FlightLogFormat.TYPE_SIMULATOR
+    };
+    private static final int TOPIC_FLIGHT = 0;
+    private static final int TOPIC_GIMBAL = 1;
+    private static final int TOPIC_BATTERY = 2;
+    private static final int TOPIC_SIMULATOR = 3;
+
+    private static TelemetryServer instance;
+
+    // Latest frame of each topic with its sequence number, replaced as a whole on every update.
+    private final AtomicReferenceArray<Frame> latestFrames = new AtomicReferenceArray<>(TOPIC_NAMES.length);
+    private final ConcurrentHashMap<WebSocket, Client> clients = new ConcurrentHashMap<>();
+
+    private Server server;
+    private volatile Exception failure;
+    private Thread dispatcher;
+    private final Object dispatchLock = new Object();
+    // Guarded by dispatchLock
+    private boolean dispatchRequested;
+    private TelemetryHub.Subscription stateSubscription;
+    private TelemetryHub.Subscription gimbalSubscription;
+    private TelemetryHub.Subscription batterySubscription;
+    private TelemetryHub.Subscription simulatorSubscription;
+
+    private final Runnable dispatchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            long waitMillis = 0;
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    synchronized (dispatchLock) {
+                        if (!dispatchRequested) {
+                            // 0 waits until the next request
+                            dispatchLock.wait(waitMillis);
+                        }
+                        dispatchRequested = false;
+                    }
+                    try {
+                        waitMillis = dispatch();
+                    } catch (RuntimeException e) {
+                        // an escaping exception would end the dispatcher
+                        Log.e(TAG, "Dispatch failed", e);
+                        waitMillis = BUSY_RETRY_MILLIS;
+                    }
+                }
+            } catch (InterruptedException e) {
+                // stopped
+            }
+        }
+    };
+
+    public static synchronized TelemetryServer getInstance() {
+        if (null == instance) {
+            instance = new TelemetryServer();
+        }
+        return instance;
+    }
+
+    private TelemetryServer() {
+    }
+
+    /**
+     * Starts listening on all interfaces. Does nothing if already running.
+     */
+    public synchronized void start(int port) {
+        if (server != null) return;
+
+        failure = null;
+        server = new Server(new InetSocketAddress(port));
+        server.start();
+        dispatcher = new Thread(dispatchRunnable, "TelemetryDispatcher");
+        dispatcher.start();
+
+        TelemetryHub hub = TelemetryHub.getInstance();
+        stateSubscription = hub.subscribe(new TelemetryHub.StateListener() {
+            @Override
+            public void onUpdate(@NonNull FlightControllerState state) {
+                publish(TOPIC_FLIGHT, encodeFlight(state));
+            }
+        });
+        gimbalSubscription = hub.subscribeGimbal(new TelemetryHub.GimbalStateListener() {
+            @Override
+            public void onUpdate(@NonNull GimbalState state) {
+                if (state.getAttitudeInDegrees() != null) {
+                    publish(TOPIC_GIMBAL, encodeGimbal(state));
+                }
+            }
+        }, 0, null);
+        batterySubscription = hub.subscribeBattery(new TelemetryHub.BatteryStateListener() {
+            @Override
+            public void onUpdate(@NonNull BatteryState state) {
+                publish(TOPIC_BATTERY, encodeBattery(state));
+            }
+        }, 0, null);
+        simulatorSubscription = hub.subscribeSimulator(new TelemetryHub.SimulatorStateListener() {
+            @Override
+            public void onUpdate(@NonNull SimulatorState state) {
+                publish(TOPIC_SIMULATOR, encodeSimulator(state));
+            }
+        }, 0, null);
+    }
+
+    /**
+     * Stops listening and disconnects the clients, in the background. The port may stay in use for a moment, a start
+     * right away may fail with the port in use and has to be tried again.
+     */
+    public synchronized void stop() {
+        if (server == null) return;
+
+        TelemetryHub hub = TelemetryHub.getInstance();
+        hub.unsubscribe(stateSubscription);
+        hub.unsubscribe(gimbalSubscription);
+        hub.unsubscribe(batterySubscription);
+        hub.unsubscribe(simulatorSubscription);
+        stateSubscription = null;
+        gimbalSubscription = null;
+        batterySubscription = null;
+        simulatorSubscription = null;
+
+        dispatcher.interrupt();
+        dispatcher = null;
+        final Server stopping = server;
+        // joins the socket threads without a timeout, the caller may be the UI thread
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    stopping.stop();
+                } catch (IOException e) {
+                    Log.e(TAG, "Failed to stop telemetry server", e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "TelemetryServerStop").start();
+        server = null;
+        clients.clear();
+        for (int i = 0; i < TOPIC_NAMES.length; i++) {
+            latestFrames.set(i, null);
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * @return why the running server stopped listening, e.g. the port being in use, or null
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    public synchronized int getPort() {
+        return server == null ? -1 : server.getPort();
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    /**
+     * Replaces the latest frame of a topic. Each topic is updated by a single SDK callback thread.
+     */
+    private void publish(int topic, byte[] data) {
+        Frame previous = latestFrames.get(topic);
+        latestFrames.set(topic, new Frame(data, previous == null ? 1 : previous.sequence + 1));
+        requestDispatch();
+    }
+
+    /**
+     * Wakes the dispatcher, unless nobody is connected to send to.
+     */
+    private void requestDispatch() {
+        if (clients.isEmpty()) return;
+        synchronized (dispatchLock) {
+            dispatchRequested = true;
+            dispatchLock.notify();
+        }
+    }
+
+    /**
+     * Sends every client the newest frame of its topics, unless it is not due yet or still sending.
+     *
+     * @return milliseconds until a frame held back becomes due or a busy client should be tried again, 0 if none
+     */
+    private long dispatch() {
+        long nextMillis = Long.MAX_VALUE;
+        long now = SystemClock.elapsedRealtime();
+        for (Client client : clients.values()) {
+            WebSocket connection = client.connection;
+            if (!connection.isOpen()) continue;
+            // a client still sending the previous frame is tried again shortly, by then a newer frame may be due
+            if (connection.hasBufferedData()) {
+                nextMillis = Math.min(nextMillis, BUSY_RETRY_MILLIS);
+                continue;
+            }
+            synchronized (client) {
+                for (int topic = 0; topic < TOPIC_NAMES.length; topic++) {
+                    long interval = client.intervalMillis[topic];
+                    Frame frame = latestFrames.get(topic);
+                    if (interval < 0 || frame == null || frame.sequence == client.sentSequence[topic]) continue;
+                    long dueMillis = interval - (now - client.sentMillis[topic]);
+                    if (dueMillis > 0) {
+                        nextMillis = Math.min(nextMillis, dueMillis);
+                        continue;
+                    }
+                    connection.send(frame.data);
+                    client.sentSequence[topic] = frame.sequence;
+                    client.sentMillis[topic] = now;
+                }
+            }
+        }
+        return nextMillis == Long.MAX_VALUE ? 0 : nextMillis;
+    }
+
+    /**
+     * Applies a text command of a client.
+     */
+    private void handleCommand(Client client, String message) {
+        String[] words = message.trim().toLowerCase(Locale.US).split("\\s+");
+        int topic = words.length > 1 ? topicIndex(words[1]) : -1;
+        if (topic < 0) {
+            client.connection.send("error unknown topic in: " + message);
+            return;
+        }
+        if ("subscribe".equals(words[0])) {
+            double rate = 0;
+            if (words.length > 2) {
+                try {
+                    rate = Double.parseDouble(words[2]);
+                } catch (NumberFormatException e) {
+                    client.connection.send("error bad rate in: " + message);
+                    return;
+                }
+            }
+            client.intervalMillis[topic] = rate > 0 ? (long) (1000 / rate) : 0;
+            // deliver the current state right away
+            client.sentSequence[topic] = 0;
+            client.sentMillis[topic] = 0;
+            requestDispatch();
+        } else if ("unsubscribe".equals(words[0])) {
+            client.intervalMillis[topic] = -1;
+        } else {
+            client.connection.send("error unknown command: " + message);
+        }
+    }
+
+    private static int topicIndex(String name) {
+        for (int i = 0; i < TOPIC_NAMES.length; i++) {
+            if (TOPIC_NAMES[i].equals(name)) return i;
+        }
+        return -1;
+    }
+
+    //region Encoding
+    private static ByteBuffer frame(int topic, int payloadLength) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + payloadLength).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(0, TOPIC_TYPES[topic]);
+        buffer.putLong(1 + FlightLogFormat.TIME, SystemClock.elapsedRealtimeNanos());
+        return buffer;
+    }
+
+    private static byte[] encodeFlight(FlightControllerState state) {
+        ByteBuffer buffer = frame(TOPIC_FLIGHT, FlightLogFormat.FLIGHT_PAYLOAD_LENGTH);
+        LocationCoordinate3D location = state.getAircraftLocation();
+        Attitude attitude = state.getAttitude();
+        LocationCoordinate2D home = state.getHomeLocation();
+        buffer.putDouble(1 + FlightLogFormat.FLIGHT_LATITUDE, location == null ? Double.NaN : location.getLatitude());
+        buffer.putDouble(1 + FlightLogFormat.FLIGHT_LONGITUDE,
+                         location == null ? Double.NaN : location.getLongitude());
+        buffer.putFloat(1 + FlightLogFormat.FLIGHT_ALTITUDE, location == null ? Float.NaN : location.getAltitude());
+        buffer.putFloat(1 + FlightLogFormat.FLIGHT_PITCH, attitude == null ? Float.NaN : (float) attitude.pitch);
+        buffer.putFloat(1 + FlightLogFormat.FLIGHT_ROLL, attitude == null ? Float.NaN : (float) attitude.roll);
+        buffer.putFloat(1 + FlightLogFormat.FLIGHT_YAW, attitude == null ? Float.NaN : (float) attitude.yaw);
+        buffer.putFloat(1 + FlightLogFormat.FLIGHT_VELOCITY_X, state.getVelocityX());
+        buffer.putFloat(1 + FlightLogFormat.FLIGHT_VELOCITY_Y, state.getVelocityY());
+        buffer.putFloat(1 + FlightLogFormat.FLIGHT_VELOCITY_Z, state.getVelocityZ());
+        buffer.put(1 + FlightLogFormat.FLIGHT_MODE,
+                   state.getFlightMode() == null ? -1 : (byte) state.getFlightMode().ordinal());
+        buffer.putDouble(1 + FlightLogFormat.FLIGHT_HOME_LATITUDE, home == null ? Double.NaN : home.getLatitude());
+        buffer.putDouble(1 + FlightLogFormat.FLIGHT_HOME_LONGITUDE, home == null ? Double.NaN : home.getLongitude());
+        return buffer.array();
+    }
+
+    private static byte[] encodeGimbal(GimbalState state) {
+        ByteBuffer buffer = frame(TOPIC_GIMBAL, FlightLogFormat.GIMBAL_PAYLOAD_LENGTH);
+        buffer.putFloat(1 + FlightLogFormat.GIMBAL_PITCH, state.getAttitudeInDegrees().getPitch());
+        buffer.putFloat(1 + FlightLogFormat.GIMBAL_ROLL, state.getAttitudeInDegrees().getRoll());
+        buffer.putFloat(1 + FlightLogFormat.GIMBAL_YAW, state.getAttitudeInDegrees().getYaw());
+        return buffer.array();
+    }
+
+    private static byte[] encodeBattery(BatteryState state) {
+        ByteBuffer buffer = frame(TOPIC_BATTERY, FlightLogFormat.BATTERY_PAYLOAD_LENGTH);
+        buffer.putInt(1 + FlightLogFormat.BATTERY_CHARGE_PERCENT, state.getChargeRemainingInPercent());
+        buffer.putInt(1 + FlightLogFormat.BATTERY_VOLTAGE, state.getVoltage());
+        buffer.putInt(1 + FlightLogFormat.BATTERY_CURRENT, state.getCurrent());
+        buffer.putInt(1 + FlightLogFormat.BATTERY_TEMPERATURE, state.getTemperature());
+        return buffer.array();
+    }
+
+    private static byte[] encodeSimulator(SimulatorState state) {
+        ByteBuffer buffer = frame(TOPIC_SIMULATOR, FlightLogFormat.SIMULATOR_PAYLOAD_LENGTH);
+        LocationCoordinate2D location = state.getLocation();
+        buffer.putFloat(1 + FlightLogFormat.SIMULATOR_PITCH, state.getPitch());
+        buffer.putFloat(1 + FlightLogFormat.SIMULATOR_ROLL, state.getRoll());
+        buffer.putFloat(1 + FlightLogFormat.SIMULATOR_YAW, state.getYaw());
+        buffer.putFloat(1 + FlightLogFormat.SIMULATOR_POSITION_X, state.getPositionX());
+        buffer.putFloat(1 + FlightLogFormat.SIMULATOR_POSITION_Y, state.getPositionY());
+        buffer.putFloat(1 + FlightLogFormat.SIMULATOR_POSITION_Z, state.getPositionZ());
+        buffer.putDouble(1 + FlightLogFormat.SIMULATOR_LATITUDE,
+                         location == null ? Double.NaN : location.getLatitude());
+        buffer.putDouble(1 + FlightLogFormat.SIMULATOR_LONGITUDE,
+                         location == null ? Double.NaN : location.getLongitude());
+        buffer.put(1 + FlightLogFormat.SIMULATOR_FLYING, (byte) (state.isFlying() ? 1 : 0));
+        buffer.put(1 + FlightLogFormat.SIMULATOR_MOTORS_ON, (byte) (state.areMotorsOn() ? 1 : 0));
+        return buffer.array();
+    }
+    //endregion
+
+    /**
+     * An encoded update, shared by all clients and never modified.
+     */
+    private static final class Frame {
+        private final byte[] data;
+        private final long sequence;
+
+        private Frame(byte[] data, long sequence) {
+            this.data = data;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Subscriptions of one connection. Commands are applied on the socket thread, frames sent by the dispatcher,
+     * both holding the client lock.
+     */
+    private static final class Client {
+        private final WebSocket connection;
+        // -1 when not subscribed
+        private final long[] intervalMillis = new long[TOPIC_NAMES.length];
+        private final long[] sentMillis = new long[TOPIC_NAMES.length];
+        private final long[] sentSequence = new long[TOPIC_NAMES.length];
+
+        private Client(WebSocket connection) {
+            this.connection = connection;
+            for (int i = 0; i < intervalMillis.length; i++) {
+                intervalMillis[i] = -1;
+            }
+        }
+    }
+
+    private final class Server extends WebSocketServer {
+
+        private Server(InetSocketAddress address) {
+            super(address);
+        }
+
+        @Override
+        public void onOpen(WebSocket connection, ClientHandshake handshake) {
+            clients.put(connection, new Client(connection));
+        }
+
+        @Override
+        public void onClose(WebSocket connection, int code, String reason, boolean remote) {
+            clients.remove(connection);
+        }
+
+        @Override
+        public void onMessage(WebSocket connection, String message) {
+            Client client = clients.get(connection);
+            if (client != null) {
+                synchronized (client) {
+                    handleCommand(client, message);
+                }
+            }
+        }
+
+        @Override
+        public void onError(WebSocket connection, Exception e) {
+            if (connection == null) {
+                // the listening socket itself failed, stop() still has to be called to clean up
+                Log.e(TAG, "Telemetry server failed", e);
+                synchronized (TelemetryServer.this) {
+                    // not a server being stopped in the background
+                    if (server == this) {
+                        failure = e;
+                    }
+                }
+            } else {
+                Log.e(TAG, "Telemetry client error", e);
+                clients.remove(connection);
+            }
+        }
+    }
+}
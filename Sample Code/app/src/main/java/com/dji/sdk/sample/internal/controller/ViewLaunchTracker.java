@@ -0,0 +1,114 @@
+package com.dji.sdk.sample.internal.controller;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Measures how long each demo view takes from the tap on its list item to its first frame, i.e. creating the view,
+ * pushing it and the first layout and draw of the window with it. Every launch is logged with the running figures
+ * of its view class, so a demo that got slower shows up in logcat.
+ *
+ * Main thread only.
+ */
+public class ViewLaunchTracker {
+
+    private static final String TAG = ViewLaunchTracker.class.getName();
+
+    private static ViewLaunchTracker instance;
+
+    /**
+     * Launch latencies of one view class.
+     */
+    public static final class Stats {
+        private int count;
+        private long lastNanos;
+        private long maxNanos;
+        private long totalNanos;
+
+        private Stats() {
+        }
+
+        private Stats(Stats other) {
+            count = other.count;
+            lastNanos = other.lastNanos;
+            maxNanos = other.maxNanos;
+            totalNanos = other.totalNanos;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getLastNanos() {
+            return lastNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getAverageNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+    }
+
+    private final Map<String, Stats> stats = new HashMap<>();
+
+    public static synchronized ViewLaunchTracker getInstance() {
+        if (null == instance) {
+            instance = new ViewLaunchTracker();
+        }
+        return instance;
+    }
+
+    private ViewLaunchTracker() {
+    }
+
+    /**
+     * Records the launch of a view once the first frame with it is drawn. Call it before the view is attached.
+     *
+     * @param tapNanos elapsed realtime of the tap that launched the view
+     */
+    public void track(@NonNull final View view, final long tapNanos) {
+        view.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                view.getViewTreeObserver().removeOnPreDrawListener(this);
+                record(view.getClass().getSimpleName(), SystemClock.elapsedRealtimeNanos() - tapNanos);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * @return a copy of the figures of every view class launched so far, by simple class name
+     */
+    @NonNull
+    public Map<String, Stats> getStats() {
+        Map<String, Stats> copy = new HashMap<>();
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            copy.put(entry.getKey(), new Stats(entry.getValue()));
+        }
+        return copy;
+    }
+
+    private void record(String name, long latencyNanos) {
+        Stats entry = stats.get(name);
+        if (entry == null) {
+            entry = new Stats();
+            stats.put(name, entry);
+        }
+        entry.count++;
+        entry.lastNanos = latencyNanos;
+        entry.maxNanos = Math.max(entry.maxNanos, latencyNanos);
+        entry.totalNanos += latencyNanos;
+        Log.d(TAG, name + " first frame after " + latencyNanos / 1000000 + " ms, average "
+            + entry.getAverageNanos() / 1000000 + " ms, max " + entry.maxNanos / 1000000 + " ms over "
+            + entry.count + " launches");
+    }
+}
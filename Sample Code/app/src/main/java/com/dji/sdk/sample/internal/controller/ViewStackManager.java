@@ -0,0 +1,201 @@
+package com.dji.sdk.sample.internal.controller;
+
+import android.animation.LayoutTransition;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Parcelable;
+import android.support.annotation.NonNull;
+import android.util.Log;
+import android.util.SparseArray;
+import android.view.SurfaceView;
+import android.view.TextureView;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+import com.dji.sdk.sample.internal.model.ViewWrapper;
+import java.util.ArrayList;
+
+/**
+ * The stack of views shown in the content of MainActivity, kept within a memory budget.
+ *
+ * After each push, {@link #trim()} estimates the memory each view retains. While the views alive exceed the budget,
+ * covered views are hibernated from the bottom of the stack up, so the view the user goes back to first stays alive
+ * longest. Hibernating saves the hierarchy state of a view, removes it, which detaches it and so releases its SDK
+ * callbacks, and drops it. {@link #wake(int)} creates it again with the factory of its ViewWrapper and restores the
+ * state when it is uncovered. Only views pushed with a factory can hibernate, the others stay alive: in this app
+ * the demo list and the demo views can, the main content at the bottom cannot. A view that keeps state outside of
+ * its hierarchy state, e.g. the search query of the demo list, saves it in onSaveInstanceState and needs an id.
+ *
+ * The retained size is an estimate: a fixed cost per view plus the bitmaps of its drawables, its text and the
+ * buffers of its surfaces. It is logged for every view of the stack on each trim.
+ *
+ * Main thread only.
+ */
+public class ViewStackManager {
+
+    private static final String TAG = ViewStackManager.class.getName();
+
+    // The view object, its render node, listeners and layout params
+    private static final long VIEW_BYTES = 1024;
+    // A surface has at least a front and a back buffer of 4 bytes per pixel
+    private static final int SURFACE_BUFFERS = 2;
+
+    private static final class Entry {
+        private final ViewWrapper wrapper;
+        private SparseArray<Parcelable> hibernatedState;
+        private long retainedBytes;
+
+        private Entry(ViewWrapper wrapper) {
+            this.wrapper = wrapper;
+        }
+    }
+
+    private final ViewGroup container;
+    private final long budgetBytes;
+    private final ArrayList<Entry> entries = new ArrayList<>();
+
+    /**
+     * @param container the parent the views of the stack are added to
+     * @param budgetBytes the memory the views alive may retain before covered ones hibernate
+     */
+    public ViewStackManager(@NonNull ViewGroup container, long budgetBytes) {
+        this.container = container;
+        this.budgetBytes = budgetBytes;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public ViewWrapper peek() {
+        return entries.get(entries.size() - 1).wrapper;
+    }
+
+    /**
+     * Adds a view on top of the stack. The caller adds it to the container.
+     */
+    public void push(@NonNull ViewWrapper wrapper) {
+        entries.add(new Entry(wrapper));
+    }
+
+    /**
+     * Removes the top view. The caller removes it from the container, then shows the new top with
+     * {@link #wake(int)}.
+     */
+    public ViewWrapper pop() {
+        return entries.remove(entries.size() - 1).wrapper;
+    }
+
+    /**
+     * Makes sure the top view is alive and in the container, creating it again if it hibernated.
+     *
+     * @param index where to add the view in the container if it has to be added, e.g. below the view leaving
+     * @return the view
+     */
+    @NonNull
+    public View wake(int index) {
+        Entry entry = entries.get(entries.size() - 1);
+        if (entry.hibernatedState == null) {
+            return entry.wrapper.getView();
+        }
+        View view = entry.wrapper.getFactory().create(container.getContext());
+        entry.wrapper.setView(view);
+        LayoutTransition transition = container.getLayoutTransition();
+        container.setLayoutTransition(null);
+        container.addView(view, index);
+        container.setLayoutTransition(transition);
+        view.restoreHierarchyState(entry.hibernatedState);
+        entry.hibernatedState = null;
+        return view;
+    }
+
+    /**
+     * Hibernates covered views, from the bottom of the stack up, until the views alive fit the budget.
+     */
+    public void trim() {
+        long totalBytes = 0;
+        for (Entry entry : entries) {
+            View view = entry.wrapper.getView();
+            entry.retainedBytes = view == null ? 0 : estimateRetainedBytes(view);
+            totalBytes += entry.retainedBytes;
+        }
+        for (int i = 0; i < entries.size() - 1 && totalBytes > budgetBytes; i++) {
+            Entry entry = entries.get(i);
+            if (entry.hibernatedState == null && entry.wrapper.getFactory() != null) {
+                hibernate(entry);
+                totalBytes -= entry.retainedBytes;
+                entry.retainedBytes = 0;
+            }
+        }
+        logRetainedSizes(totalBytes);
+    }
+
+    /**
+     * @return the memory the view at a level of the stack retained at the last trim, 0 while it hibernates
+     */
+    public long getRetainedBytes(int level) {
+        return entries.get(level).retainedBytes;
+    }
+
+    /**
+     * Estimates the memory a view hierarchy retains, see the class comment.
+     */
+    public static long estimateRetainedBytes(@NonNull View view) {
+        long bytes = VIEW_BYTES + drawableBytes(view.getBackground());
+        if (view instanceof ImageView) {
+            bytes += drawableBytes(((ImageView) view).getDrawable());
+        }
+        if (view instanceof TextView) {
+            CharSequence text = ((TextView) view).getText();
+            bytes += text == null ? 0 : 2L * text.length();
+        }
+        if (view instanceof SurfaceView || view instanceof TextureView) {
+            bytes += 4L * SURFACE_BUFFERS * view.getWidth() * view.getHeight();
+        }
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                bytes += estimateRetainedBytes(group.getChildAt(i));
+            }
+        }
+        return bytes;
+    }
+
+    private static long drawableBytes(Drawable drawable) {
+        if (drawable instanceof BitmapDrawable && ((BitmapDrawable) drawable).getBitmap() != null) {
+            return ((BitmapDrawable) drawable).getBitmap().getByteCount();
+        }
+        return 0;
+    }
+
+    private void hibernate(Entry entry) {
+        View view = entry.wrapper.getView();
+        SparseArray<Parcelable> state = new SparseArray<>();
+        view.saveHierarchyState(state);
+        LayoutTransition transition = container.getLayoutTransition();
+        container.setLayoutTransition(null);
+        container.removeView(view);
+        container.setLayoutTransition(transition);
+        entry.wrapper.setView(null);
+        entry.hibernatedState = state;
+    }
+
+    private void logRetainedSizes(long totalBytes) {
+        StringBuilder report = new StringBuilder();
+        report.append("View stack retains ").append(totalBytes / 1024).append(" KB of ").append(budgetBytes / 1024);
+        report.append(" KB");
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            View view = entry.wrapper.getView();
+            report.append("\n  ").append(i).append(' ');
+            if (view == null) {
+                report.append("hibernated");
+            } else {
+                report.append(view.getClass().getSimpleName()).append(": ");
+                report.append(entry.retainedBytes / 1024).append(" KB");
+            }
+        }
+        Log.d(TAG, report.toString());
+    }
+}
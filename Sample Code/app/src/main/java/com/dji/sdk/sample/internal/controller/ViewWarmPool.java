@@ -0,0 +1,270 @@
+package com.dji.sdk.sample.internal.controller;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.annotation.LayoutRes;
+import android.support.annotation.NonNull;
+import android.util.Log;
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+import android.widget.RelativeLayout;
+import java.util.ArrayDeque;
+
+/**
+ * Inflates the layouts of the heavy demo views ahead of time, so pushing one of them does not inflate on the main
+ * thread at tap time.
+ *
+ * Whenever the main looper goes idle, the registered layouts missing from the pool are inflated into a holder of
+ * the same layout class as the demo view, so the children get the right layout params. A demo view then calls
+ * {@link #inflate(int, ViewGroup)} instead of inflating its layout, which moves the children of a ready holder into
+ * it, or inflates as before if none is ready. The pool fills up again on the next idle.
+ *
+ * Layouts are inflated on a background thread unless registered for the main thread. Those with views that bind to
+ * the thread creating them, e.g. a SurfaceView and its Handler, must be inflated on the main thread, one per idle
+ * pass. Views of either kind must not start anything in their constructors, say register an SDK callback, as they
+ * may wait in the pool for a long time.
+ */
+public class ViewWarmPool {
+
+    private static final String TAG = ViewWarmPool.class.getName();
+
+    private static ViewWarmPool instance;
+
+    /**
+     * Creates the holder a layout is inflated into, of the same layout class as the view that takes it.
+     */
+    public interface HolderFactory {
+        @NonNull
+        ViewGroup create(@NonNull Context context);
+    }
+
+    public static final HolderFactory LINEAR_LAYOUT = new HolderFactory() {
+        @NonNull
+        @Override
+        public ViewGroup create(@NonNull Context context) {
+            return new LinearLayout(context);
+        }
+    };
+
+    public static final HolderFactory RELATIVE_LAYOUT = new HolderFactory() {
+        @NonNull
+        @Override
+        public ViewGroup create(@NonNull Context context) {
+            return new RelativeLayout(context);
+        }
+    };
+
+    private static final class Pool {
+        private final int layoutId;
+        private final HolderFactory holderFactory;
+        private final int size;
+        private final boolean background;
+        private final ArrayDeque<ViewGroup> ready = new ArrayDeque<>();
+        private int inflating;
+        private boolean failed;
+
+        private Pool(int layoutId, HolderFactory holderFactory, int size, boolean background) {
+            this.layoutId = layoutId;
+            this.holderFactory = holderFactory;
+            this.size = size;
+            this.background = background;
+        }
+
+        private boolean isMissing() {
+            return !failed && ready.size() + inflating < size;
+        }
+    }
+
+    // Guarded by this
+    private final SparseArray<Pool> pools = new SparseArray<>();
+    private Context context;
+    private HandlerThread thread;
+    private Handler handler;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Changed on stop, tells inflations of an earlier start apart
+    private int generation;
+    private int hitCount;
+    private int missCount;
+
+    private final Runnable nextIdleRunnable = new Runnable() {
+        @Override
+        public void run() {
+            // nothing, the queue goes idle again after it
+        }
+    };
+
+    private final MessageQueue.IdleHandler idleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            fill();
+            // stays registered until stop
+            return true;
+        }
+    };
+
+    public static synchronized ViewWarmPool getInstance() {
+        if (null == instance) {
+            instance = new ViewWarmPool();
+        }
+        return instance;
+    }
+
+    private ViewWarmPool() {
+    }
+
+    /**
+     * Keeps up to size views of a layout ready. Register before or after starting.
+     *
+     * @param background false to inflate the layout on the main thread
+     */
+    public synchronized void register(@LayoutRes int layoutId,
+                                      @NonNull HolderFactory holderFactory,
+                                      int size,
+                                      boolean background) {
+        pools.put(layoutId, new Pool(layoutId, holderFactory, size, background));
+    }
+
+    /**
+     * Starts warming the registered layouts for the views of an activity, on the main thread.
+     *
+     * @param context the context the demo views are created with, usually the activity
+     */
+    public synchronized void start(@NonNull Context context) {
+        if (thread != null) return;
+        this.context = context;
+        thread = new HandlerThread("ViewWarmPool");
+        thread.start();
+        handler = new Handler(thread.getLooper());
+        Looper.myQueue().addIdleHandler(idleHandler);
+    }
+
+    /**
+     * Stops warming and drops the ready views, which hold on to the context. On the main thread.
+     */
+    public synchronized void stop() {
+        if (thread == null) return;
+        Looper.myQueue().removeIdleHandler(idleHandler);
+        thread.quit();
+        thread = null;
+        handler = null;
+        context = null;
+        generation++;
+        for (int i = 0; i < pools.size(); i++) {
+            pools.valueAt(i).ready.clear();
+            pools.valueAt(i).inflating = 0;
+        }
+    }
+
+    /**
+     * Puts the views of a layout into a demo view, taking them from the pool if one is ready and inflating them
+     * otherwise. Call it where the view would inflate its layout with attachToRoot.
+     */
+    public void inflate(@LayoutRes int layoutId, @NonNull ViewGroup root) {
+        ViewGroup holder = take(layoutId, root);
+        if (holder == null) {
+            LayoutInflater.from(root.getContext()).inflate(layoutId, root, true);
+            return;
+        }
+        while (holder.getChildCount() > 0) {
+            View child = holder.getChildAt(0);
+            holder.removeViewAt(0);
+            root.addView(child);
+        }
+    }
+
+    /**
+     * @return views taken from the pool so far
+     */
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return views of registered layouts that had to be inflated at once as none was ready
+     */
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+    private synchronized ViewGroup take(int layoutId, ViewGroup root) {
+        Pool pool = pools.get(layoutId);
+        if (pool == null) return null;
+        ViewGroup holder = pool.ready.poll();
+        // a holder of another layout class or context would give the children the wrong params or theme
+        if (holder == null || !holder.getClass().isInstance(root) || holder.getContext() != root.getContext()) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return holder;
+    }
+
+    /**
+     * Asks the background thread for the views missing from the pools and inflates one view of the main thread
+     * pools. Called on main looper idle.
+     */
+    private void fill() {
+        Pool mainPool = null;
+        Context inflateContext;
+        int inflateGeneration;
+        synchronized (this) {
+            if (handler == null) return;
+            inflateContext = context;
+            inflateGeneration = generation;
+            for (int i = 0; i < pools.size(); i++) {
+                final Pool pool = pools.valueAt(i);
+                while (pool.background && pool.isMissing()) {
+                    pool.inflating++;
+                    final Context backgroundContext = context;
+                    final int backgroundGeneration = generation;
+                    handler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            inflate(pool, backgroundContext, backgroundGeneration);
+                        }
+                    });
+                }
+                if (!pool.background && mainPool == null && pool.isMissing()) {
+                    mainPool = pool;
+                    pool.inflating++;
+                }
+            }
+        }
+        if (mainPool != null) {
+            inflate(mainPool, inflateContext, inflateGeneration);
+            // the others wait for another idle pass, so input in between is not held up
+            mainHandler.post(nextIdleRunnable);
+        }
+    }
+
+    /**
+     * Inflates one view of a pool, on the background thread or on main looper idle.
+     */
+    private void inflate(Pool pool, Context inflateContext, int inflateGeneration) {
+        ViewGroup holder = null;
+        try {
+            holder = pool.holderFactory.create(inflateContext);
+            // a clone keeps the factories of the activity, e.g. the AppCompat widgets
+            LayoutInflater.from(inflateContext).cloneInContext(inflateContext).inflate(pool.layoutId, holder, true);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Cannot inflate layout " + pool.layoutId + " ahead of time", e);
+            holder = null;
+        }
+        synchronized (this) {
+            // stopped, or stopped and started again, in the meantime
+            if (generation != inflateGeneration) return;
+            pool.inflating--;
+            if (holder == null) {
+                pool.failed = true;
+            } else {
+                pool.ready.add(holder);
+            }
+        }
+    }
+}
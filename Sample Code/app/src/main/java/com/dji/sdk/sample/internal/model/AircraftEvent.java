@@ -0,0 +1,148 @@
+package com.dji.sdk.sample.internal.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import dji.common.flightcontroller.FlightControllerState;
+import dji.common.flightcontroller.FlightMode;
+import dji.common.flightcontroller.LocationCoordinate3D;
+import dji.common.model.LocationCoordinate2D;
+
+/**
+ * Something that happened to the aircraft or was asked of it. Events are immutable and only carry plain values,
+ * so the log of them can be replayed onto any earlier snapshot to get the same later one.
+ */
+public abstract class AircraftEvent {
+
+    private final long timeNanos;
+
+    protected AircraftEvent(long timeNanos) {
+        this.timeNanos = timeNanos;
+    }
+
+    /**
+     * @return elapsed realtime the event happened at
+     */
+    public long getTimeNanos() {
+        return timeNanos;
+    }
+
+    /**
+     * Changes a copy of the previous snapshot the way this event does.
+     */
+    public abstract void applyTo(@NonNull AircraftSnapshot.Builder builder);
+
+    /**
+     * A flight controller state update.
+     */
+    public static final class StateUpdate extends AircraftEvent {
+        private final double latitude;
+        private final double longitude;
+        private final float altitude;
+        private final float velocityX;
+        private final float velocityY;
+        private final float velocityZ;
+        private final double homeLatitude;
+        private final double homeLongitude;
+        private final FlightMode flightMode;
+        private final boolean flying;
+        private final boolean motorsOn;
+
+        public StateUpdate(long timeNanos, @NonNull FlightControllerState state) {
+            super(timeNanos);
+            LocationCoordinate3D location = state.getAircraftLocation();
+            latitude = location == null ? AircraftSnapshot.INVALID_COORDINATE : location.getLatitude();
+            longitude = location == null ? AircraftSnapshot.INVALID_COORDINATE : location.getLongitude();
+            altitude = location == null ? Float.NaN : location.getAltitude();
+            velocityX = state.getVelocityX();
+            velocityY = state.getVelocityY();
+            velocityZ = state.getVelocityZ();
+            LocationCoordinate2D home = state.getHomeLocation();
+            homeLatitude = home == null ? AircraftSnapshot.INVALID_COORDINATE : home.getLatitude();
+            homeLongitude = home == null ? AircraftSnapshot.INVALID_COORDINATE : home.getLongitude();
+            flightMode = state.getFlightMode();
+            flying = state.isFlying();
+            motorsOn = state.areMotorsOn();
+        }
+
+        @Override
+        public void applyTo(@NonNull AircraftSnapshot.Builder builder) {
+            builder.flightState(latitude, longitude, altitude, velocityX, velocityY, velocityZ)
+                   .home(homeLatitude, homeLongitude)
+                   .flightMode(flightMode, flying, motorsOn);
+        }
+    }
+
+    /**
+     * New virtual stick input.
+     */
+    public static final class SticksMoved extends AircraftEvent {
+        private final float pitch;
+        private final float roll;
+        private final float yaw;
+        private final float throttle;
+
+        public SticksMoved(long timeNanos, float pitch, float roll, float yaw, float throttle) {
+            super(timeNanos);
+            this.pitch = pitch;
+            this.roll = roll;
+            this.yaw = yaw;
+            this.throttle = throttle;
+        }
+
+        @Override
+        public void applyTo(@NonNull AircraftSnapshot.Builder builder) {
+            builder.sticks(pitch, roll, yaw, throttle);
+        }
+    }
+
+    /**
+     * A command sent to the aircraft, its result follows as a {@link CommandAcknowledged}.
+     */
+    public static final class CommandIssued extends AircraftEvent {
+        private final String command;
+
+        public CommandIssued(long timeNanos, @NonNull String command) {
+            super(timeNanos);
+            this.command = command;
+        }
+
+        @Override
+        public void applyTo(@NonNull AircraftSnapshot.Builder builder) {
+            builder.commandIssued(command);
+        }
+    }
+
+    public static final class CommandAcknowledged extends AircraftEvent {
+        private final String error;
+
+        /**
+         * @param error description of the error the command failed with, null on success
+         */
+        public CommandAcknowledged(long timeNanos, @Nullable String error) {
+            super(timeNanos);
+            this.error = error;
+        }
+
+        @Override
+        public void applyTo(@NonNull AircraftSnapshot.Builder builder) {
+            builder.commandAcknowledged(error);
+        }
+    }
+
+    /**
+     * A mission started, changed state or finished.
+     */
+    public static final class MissionEvent extends AircraftEvent {
+        private final String description;
+
+        public MissionEvent(long timeNanos, @NonNull String description) {
+            super(timeNanos);
+            this.description = description;
+        }
+
+        @Override
+        public void applyTo(@NonNull AircraftSnapshot.Builder builder) {
+            builder.missionEvent(description);
+        }
+    }
+}
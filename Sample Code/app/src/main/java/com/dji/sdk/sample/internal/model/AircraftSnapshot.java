@@ -0,0 +1,319 @@
+package com.dji.sdk.sample.internal.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import dji.common.flightcontroller.FlightMode;
+
+/**
+ * Immutable state of the aircraft and of what the app asked of it, as built by applying AircraftEvents in order.
+ * Every value of one instance comes from the same point in the event log, so a reader holding an instance sees a
+ * consistent state whatever thread it is on. Changes go through a {@link Builder} copying the previous snapshot.
+ */
+public final class AircraftSnapshot {
+
+    /**
+     * Coordinate of an unknown location, outside the valid range like in the mission demos.
+     */
+    public static final double INVALID_COORDINATE = 181;
+
+    /**
+     * The state before any event.
+     */
+    public static final AircraftSnapshot EMPTY = new Builder(null).build();
+
+    private final long sequence;
+    private final long timeNanos;
+
+    private final boolean hasFlightState;
+    private final double latitude;
+    private final double longitude;
+    private final float altitude;
+    private final float velocityX;
+    private final float velocityY;
+    private final float velocityZ;
+    private final double homeLatitude;
+    private final double homeLongitude;
+    private final FlightMode flightMode;
+    private final boolean flying;
+    private final boolean motorsOn;
+
+    private final float pitch;
+    private final float roll;
+    private final float yaw;
+    private final float throttle;
+
+    private final String lastCommand;
+    private final String lastCommandError;
+    private final int pendingCommandCount;
+
+    private final String missionEvent;
+
+    private AircraftSnapshot(Builder builder) {
+        sequence = builder.sequence;
+        timeNanos = builder.timeNanos;
+        hasFlightState = builder.hasFlightState;
+        latitude = builder.latitude;
+        longitude = builder.longitude;
+        altitude = builder.altitude;
+        velocityX = builder.velocityX;
+        velocityY = builder.velocityY;
+        velocityZ = builder.velocityZ;
+        homeLatitude = builder.homeLatitude;
+        homeLongitude = builder.homeLongitude;
+        flightMode = builder.flightMode;
+        flying = builder.flying;
+        motorsOn = builder.motorsOn;
+        pitch = builder.pitch;
+        roll = builder.roll;
+        yaw = builder.yaw;
+        throttle = builder.throttle;
+        lastCommand = builder.lastCommand;
+        lastCommandError = builder.lastCommandError;
+        pendingCommandCount = builder.pendingCommandCount;
+        missionEvent = builder.missionEvent;
+    }
+
+    /**
+     * @return number of events applied to get this snapshot, 0 for {@link #EMPTY}
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return elapsed realtime of the last event applied
+     */
+    public long getTimeNanos() {
+        return timeNanos;
+    }
+
+    /**
+     * @return false until the first flight controller state, the flight values are meaningless until then
+     */
+    public boolean hasFlightState() {
+        return hasFlightState;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public float getAltitude() {
+        return altitude;
+    }
+
+    /**
+     * @return velocity north in m/s
+     */
+    public float getVelocityX() {
+        return velocityX;
+    }
+
+    /**
+     * @return velocity east in m/s
+     */
+    public float getVelocityY() {
+        return velocityY;
+    }
+
+    /**
+     * @return velocity down in m/s
+     */
+    public float getVelocityZ() {
+        return velocityZ;
+    }
+
+    /**
+     * @return latitude of the home point, {@link #INVALID_COORDINATE} if unknown
+     */
+    public double getHomeLatitude() {
+        return homeLatitude;
+    }
+
+    public double getHomeLongitude() {
+        return homeLongitude;
+    }
+
+    @Nullable
+    public FlightMode getFlightMode() {
+        return flightMode;
+    }
+
+    public boolean isFlying() {
+        return flying;
+    }
+
+    public boolean areMotorsOn() {
+        return motorsOn;
+    }
+
+    //region Stick input of the virtual sticks, in the units sent to the flight controller
+    public float getPitch() {
+        return pitch;
+    }
+
+    public float getRoll() {
+        return roll;
+    }
+
+    public float getYaw() {
+        return yaw;
+    }
+
+    public float getThrottle() {
+        return throttle;
+    }
+    //endregion
+
+    /**
+     * @return the command issued last, null if none
+     */
+    @Nullable
+    public String getLastCommand() {
+        return lastCommand;
+    }
+
+    /**
+     * @return description of the error the last acknowledged command failed with, null if it succeeded
+     */
+    @Nullable
+    public String getLastCommandError() {
+        return lastCommandError;
+    }
+
+    /**
+     * @return commands issued but not acknowledged yet
+     */
+    public int getPendingCommandCount() {
+        return pendingCommandCount;
+    }
+
+    /**
+     * @return the last mission event, null if none
+     */
+    @Nullable
+    public String getMissionEvent() {
+        return missionEvent;
+    }
+
+    /**
+     * A mutable copy of a snapshot for an event to change.
+     */
+    public static final class Builder {
+        private long sequence;
+        private long timeNanos;
+        private boolean hasFlightState;
+        private double latitude;
+        private double longitude;
+        private float altitude;
+        private float velocityX;
+        private float velocityY;
+        private float velocityZ;
+        private double homeLatitude = INVALID_COORDINATE;
+        private double homeLongitude = INVALID_COORDINATE;
+        private FlightMode flightMode;
+        private boolean flying;
+        private boolean motorsOn;
+        private float pitch;
+        private float roll;
+        private float yaw;
+        private float throttle;
+        private String lastCommand;
+        private String lastCommandError;
+        private int pendingCommandCount;
+        private String missionEvent;
+
+        /**
+         * @param snapshot values to start from, null for those of an empty snapshot
+         */
+        public Builder(@Nullable AircraftSnapshot snapshot) {
+            if (snapshot == null) return;
+            sequence = snapshot.sequence;
+            timeNanos = snapshot.timeNanos;
+            hasFlightState = snapshot.hasFlightState;
+            latitude = snapshot.latitude;
+            longitude = snapshot.longitude;
+            altitude = snapshot.altitude;
+            velocityX = snapshot.velocityX;
+            velocityY = snapshot.velocityY;
+            velocityZ = snapshot.velocityZ;
+            homeLatitude = snapshot.homeLatitude;
+            homeLongitude = snapshot.homeLongitude;
+            flightMode = snapshot.flightMode;
+            flying = snapshot.flying;
+            motorsOn = snapshot.motorsOn;
+            pitch = snapshot.pitch;
+            roll = snapshot.roll;
+            yaw = snapshot.yaw;
+            throttle = snapshot.throttle;
+            lastCommand = snapshot.lastCommand;
+            lastCommandError = snapshot.lastCommandError;
+            pendingCommandCount = snapshot.pendingCommandCount;
+            missionEvent = snapshot.missionEvent;
+        }
+
+        public Builder sequence(long sequence, long timeNanos) {
+            this.sequence = sequence;
+            this.timeNanos = timeNanos;
+            return this;
+        }
+
+        public Builder flightState(double latitude, double longitude, float altitude, float velocityX,
+                                   float velocityY, float velocityZ) {
+            this.hasFlightState = true;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.altitude = altitude;
+            this.velocityX = velocityX;
+            this.velocityY = velocityY;
+            this.velocityZ = velocityZ;
+            return this;
+        }
+
+        public Builder home(double homeLatitude, double homeLongitude) {
+            this.homeLatitude = homeLatitude;
+            this.homeLongitude = homeLongitude;
+            return this;
+        }
+
+        public Builder flightMode(@Nullable FlightMode flightMode, boolean flying, boolean motorsOn) {
+            this.flightMode = flightMode;
+            this.flying = flying;
+            this.motorsOn = motorsOn;
+            return this;
+        }
+
+        public Builder sticks(float pitch, float roll, float yaw, float throttle) {
+            this.pitch = pitch;
+            this.roll = roll;
+            this.yaw = yaw;
+            this.throttle = throttle;
+            return this;
+        }
+
+        public Builder commandIssued(@NonNull String command) {
+            this.lastCommand = command;
+            this.pendingCommandCount++;
+            return this;
+        }
+
+        public Builder commandAcknowledged(@Nullable String error) {
+            this.lastCommandError = error;
+            this.pendingCommandCount = Math.max(0, pendingCommandCount - 1);
+            return this;
+        }
+
+        public Builder missionEvent(@Nullable String missionEvent) {
+            this.missionEvent = missionEvent;
+            return this;
+        }
+
+        public AircraftSnapshot build() {
+            return new AircraftSnapshot(this);
+        }
+    }
+}
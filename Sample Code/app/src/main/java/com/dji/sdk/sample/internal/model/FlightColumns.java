@@ -0,0 +1,104 @@
+package com.dji.sdk.sample.internal.model;
+
+/**
+ * A reusable batch of flight samples stored column by column in primitive arrays.
+ * Used to move decoded flight history around without allocating an object per sample.
+ */
+public class FlightColumns {
+
+    public static final byte UNKNOWN_FLIGHT_MODE = -1;
+
+    public final long[] timeNanos;
+    public final double[] latitude;
+    public final double[] longitude;
+    public final float[] altitude;
+    public final float[] pitch;
+    public final float[] roll;
+    public final float[] yaw;
+    public final float[] velocityX;
+    public final float[] velocityY;
+    public final float[] velocityZ;
+    public final byte[] flightMode;
+    public final double[] homeLatitude;
+    public final double[] homeLongitude;
+
+    private int size;
+
+    public FlightColumns(int capacity) {
+        timeNanos = new long[capacity];
+        latitude = new double[capacity];
+        longitude = new double[capacity];
+        altitude = new float[capacity];
+        pitch = new float[capacity];
+        roll = new float[capacity];
+        yaw = new float[capacity];
+        velocityX = new float[capacity];
+        velocityY = new float[capacity];
+        velocityZ = new float[capacity];
+        flightMode = new byte[capacity];
+        homeLatitude = new double[capacity];
+        homeLongitude = new double[capacity];
+    }
+
+    public int capacity() {
+        return timeNanos.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == timeNanos.length;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Sets the number of valid samples after the arrays were filled directly.
+     */
+    public void setSize(int size) {
+        if (size < 0 || size > timeNanos.length) {
+            throw new IllegalArgumentException("size " + size + ", capacity " + timeNanos.length);
+        }
+        this.size = size;
+    }
+
+    /**
+     * Appends a sample.
+     *
+     * @return false if the batch is full
+     */
+    public boolean add(long timeNanos,
+                       double latitude,
+                       double longitude,
+                       float altitude,
+                       float pitch,
+                       float roll,
+                       float yaw,
+                       float velocityX,
+                       float velocityY,
+                       float velocityZ,
+                       byte flightMode,
+                       double homeLatitude,
+                       double homeLongitude) {
+        if (isFull()) return false;
+        int i = size++;
+        this.timeNanos[i] = timeNanos;
+        this.latitude[i] = latitude;
+        this.longitude[i] = longitude;
+        this.altitude[i] = altitude;
+        this.pitch[i] = pitch;
+        this.roll[i] = roll;
+        this.yaw[i] = yaw;
+        this.velocityX[i] = velocityX;
+        this.velocityY[i] = velocityY;
+        this.velocityZ[i] = velocityZ;
+        this.flightMode[i] = flightMode;
+        this.homeLatitude[i] = homeLatitude;
+        this.homeLongitude[i] = homeLongitude;
+        return true;
+    }
+}
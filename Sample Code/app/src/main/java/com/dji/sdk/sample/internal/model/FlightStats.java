@@ -0,0 +1,142 @@
+package com.dji.sdk.sample.internal.model;
+
+import java.util.Arrays;
+
+/**
+ * Aggregates of one column over a range of flight samples. Missing values (NaN) are not counted.
+ *
+ * Count, min, max and mean are exact. Percentiles come from a histogram of fixed size, about 50KB whatever the
+ * number of values: the distance of every value to the first one is counted in log-linear buckets, 128 per power
+ * of two from 2^-24 to 2^25, so a percentile is off by at most 0.4% of its distance to the first value, e.g. about
+ * a meter for a latitude a kilometer away. Closer values count as the first one, farther ones as the farthest
+ * bucket. A cleared instance reuses its histogram.
+ */
+public class FlightStats {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MIN_EXPONENT = -24;
+    private static final int MAX_EXPONENT = 24;
+    private static final int BUCKETS_PER_SIGN = (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+    // Bucket of the values equal to the first one, those below it come before, those above after
+    private static final int ANCHOR_BUCKET = BUCKETS_PER_SIGN;
+    private static final long MANTISSA_MASK = (1L << 52) - 1;
+
+    private final int[] buckets = new int[2 * BUCKETS_PER_SIGN + 1];
+    // Range of the buckets in use
+    private int lowestBucket;
+    private int highestBucket;
+    private double anchor;
+    private int count;
+    private double min;
+    private double max;
+    private double sum;
+
+    public FlightStats() {
+        clear();
+    }
+
+    public void clear() {
+        if (count > 0) {
+            Arrays.fill(buckets, lowestBucket, highestBucket + 1, 0);
+        }
+        lowestBucket = ANCHOR_BUCKET;
+        highestBucket = ANCHOR_BUCKET;
+        count = 0;
+        min = Double.NaN;
+        max = Double.NaN;
+        sum = 0;
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) return;
+        if (count++ == 0) {
+            anchor = value;
+            min = value;
+            max = value;
+        } else {
+            if (value < min) min = value;
+            if (value > max) max = value;
+        }
+        sum += value;
+
+        int bucket = bucketOf(value - anchor);
+        buckets[bucket]++;
+        if (bucket < lowestBucket) lowestBucket = bucket;
+        if (bucket > highestBucket) highestBucket = bucket;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the smallest value, NaN if there is none
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return the largest value, NaN if there is none
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * @return the mean value, NaN if there is none
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    /**
+     * Nearest rank percentile, e.g. 50 for the median, within the histogram precision described in the class
+     * comment. The first and last rank are the exact min and max.
+     *
+     * @return NaN if there is no value
+     */
+    public double getPercentile(double percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("percent " + percent);
+        }
+        if (count == 0) return Double.NaN;
+        int rank = Math.max(1, (int) Math.ceil(percent / 100 * count));
+        if (rank == 1) return min;
+        if (rank == count) return max;
+        int seen = 0;
+        for (int bucket = lowestBucket; bucket < highestBucket; bucket++) {
+            seen += buckets[bucket];
+            if (seen >= rank) {
+                return Math.min(max, Math.max(min, anchor + offsetOf(bucket)));
+            }
+        }
+        return Math.min(max, Math.max(min, anchor + offsetOf(highestBucket)));
+    }
+
+    private static int bucketOf(double offset) {
+        double magnitude = Math.abs(offset);
+        int exponent = Math.getExponent(magnitude);
+        if (exponent < MIN_EXPONENT) return ANCHOR_BUCKET;
+        int bucket;
+        if (exponent > MAX_EXPONENT) {
+            bucket = BUCKETS_PER_SIGN - 1;
+        } else {
+            int subBucket = (int) ((Double.doubleToRawLongBits(magnitude) & MANTISSA_MASK) >>> (52 - SUB_BUCKET_BITS));
+            bucket = (exponent - MIN_EXPONENT) * SUB_BUCKETS + subBucket;
+        }
+        return offset > 0 ? ANCHOR_BUCKET + 1 + bucket : ANCHOR_BUCKET - 1 - bucket;
+    }
+
+    /**
+     * @return the middle of the offsets counted in a bucket
+     */
+    private static double offsetOf(int bucket) {
+        if (bucket == ANCHOR_BUCKET) return 0;
+        int magnitudeBucket = bucket > ANCHOR_BUCKET ? bucket - ANCHOR_BUCKET - 1 : ANCHOR_BUCKET - 1 - bucket;
+        int exponent = magnitudeBucket / SUB_BUCKETS + MIN_EXPONENT;
+        double magnitude = Math.scalb(1 + (magnitudeBucket % SUB_BUCKETS + 0.5) / SUB_BUCKETS, exponent);
+        return bucket > ANCHOR_BUCKET ? magnitude : -magnitude;
+    }
+}
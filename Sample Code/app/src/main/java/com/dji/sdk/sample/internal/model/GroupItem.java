@@ -2,7 +2,6 @@ package com.dji.sdk.sample.internal.model;
 
 import android.support.annotation.NonNull;
 import android.support.annotation.StringRes;
-import android.view.View;
 import com.dji.sdk.sample.internal.view.PresentableView;
 
 /**
@@ -12,21 +11,15 @@ import com.dji.sdk.sample.internal.view.PresentableView;
 
 public class GroupItem extends ListItem {
 
-    private final @NonNull Class<? extends PresentableView> linkedViewClass;
+    private final @NonNull PresentableView.Factory viewFactory;
 
-    public GroupItem(@StringRes int titleStringId, @NonNull Class<? extends PresentableView> linkedView) {
+    public GroupItem(@StringRes int titleStringId, @NonNull PresentableView.Factory viewFactory) {
         super(titleStringId);
-        if (View.class.isAssignableFrom(linkedView)) {
-            this.linkedViewClass = linkedView;
-        } else {
-            throw new RuntimeException("Class "
-                                           + linkedView.getClass().getSimpleName()
-                                           + " needs to extend from a View!");
-        }
+        this.viewFactory = viewFactory;
     }
 
     @NonNull
-    public Class<? extends PresentableView> getLinkedViewClass() {
-        return linkedViewClass;
+    public PresentableView.Factory getViewFactory() {
+        return viewFactory;
     }
 }
@@ -34,14 +34,8 @@ public abstract class ListItem {
          * Ands a stand alone first level item
          */
         private ListBuilder singleItem(@StringRes int titleString,
-                                       @NonNull Class<? extends PresentableView> linkedDemoView) {
-            try {
-                demos.add(new SingleItem(titleString, linkedDemoView));
-            } catch (Exception e) {
-                throw new RuntimeException("Class "
-                                               + linkedDemoView.getSimpleName()
-                                               + " is missing a constructor that takes Context");
-            }
+                                       @NonNull PresentableView.Factory linkedDemoView) {
+            demos.add(new SingleItem(titleString, linkedDemoView));
             return this;
         }
 
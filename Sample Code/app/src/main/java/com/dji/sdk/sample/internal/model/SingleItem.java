@@ -2,9 +2,7 @@ package com.dji.sdk.sample.internal.model;
 
 import android.support.annotation.NonNull;
 import android.support.annotation.StringRes;
-import android.view.View;
 import com.dji.sdk.sample.internal.view.PresentableView;
-import java.util.ArrayList;
 
 /**
  * List item that has no children.
@@ -14,21 +12,15 @@ import java.util.ArrayList;
 
 public class SingleItem extends GroupHeader {
 
-    private final @NonNull Class<? extends PresentableView> linkedViewClass;
+    private final @NonNull PresentableView.Factory viewFactory;
 
-    public SingleItem(@StringRes int titleStringId, @NonNull Class<? extends PresentableView> linkedViewClass) {
-        super(titleStringId, new GroupItem[1]);
-        if (View.class.isAssignableFrom(linkedViewClass)) {
-            this.linkedViewClass = linkedViewClass;
-        } else {
-            throw new RuntimeException("Class "
-                                           + linkedViewClass.getClass().getSimpleName()
-                                           + " needs to extend from a View!");
-        }
+    public SingleItem(@StringRes int titleStringId, @NonNull PresentableView.Factory viewFactory) {
+        super(titleStringId, new GroupItem[0]);
+        this.viewFactory = viewFactory;
     }
 
     @NonNull
-    public Class<? extends PresentableView> getLinkedViewClass() {
-        return linkedViewClass;
+    public PresentableView.Factory getViewFactory() {
+        return viewFactory;
     }
 }
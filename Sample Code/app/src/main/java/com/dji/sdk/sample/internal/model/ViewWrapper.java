@@ -1,22 +1,54 @@
 package com.dji.sdk.sample.internal.model;
 
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.view.View;
 
 public class ViewWrapper {
 
+    /**
+     * Creates the view of a wrapper again, with the same class and layout.
+     */
+    public interface Factory {
+        @NonNull
+        View create(@NonNull Context context);
+    }
+
     private int titleId;
     private View view;
+    private final Factory factory;
 
     public ViewWrapper(View layoutView, int titleId) {
+        this(layoutView, titleId, null);
+    }
+
+    /**
+     * @param factory creates the view again, lets the view stack drop the view while it is covered
+     */
+    public ViewWrapper(View layoutView, int titleId, @Nullable Factory factory) {
         view = layoutView;
         this.titleId = titleId;
+        this.factory = factory;
     }
 
     public int getTitleId() {
         return titleId;
     }
 
+    /**
+     * @return the view, null while the view stack has dropped it
+     */
     public View getView() {
         return view;
     }
+
+    public void setView(@Nullable View view) {
+        this.view = view;
+    }
+
+    @Nullable
+    public Factory getFactory() {
+        return factory;
+    }
 }
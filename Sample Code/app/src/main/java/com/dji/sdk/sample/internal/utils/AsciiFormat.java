@@ -0,0 +1,91 @@
+package com.dji.sdk.sample.internal.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writes numbers and plain ASCII text straight into a byte buffer, without the strings and boxing of
+ * String.valueOf or String.format. Decimals are written in fixed point, rounded half up.
+ * The caller makes sure the buffer has room, a number takes at most {@link #MAX_NUMBER_LENGTH} bytes.
+ */
+public final class AsciiFormat {
+
+    public static final int MAX_NUMBER_LENGTH = 40;
+
+    // 10^0 to 10^18, all that fit a long
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        long power = 1;
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = power;
+            power *= 10;
+        }
+    }
+
+    private AsciiFormat() {
+    }
+
+    public static void putLong(ByteBuffer buffer, long value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+            if (value == Long.MIN_VALUE) {
+                // its magnitude does not fit a long
+                putAscii(buffer, "9223372036854775808");
+                return;
+            }
+            value = -value;
+        }
+        putDigits(buffer, value, 1);
+    }
+
+    /**
+     * Writes a value with a fixed number of decimals, nothing for NaN. Values too large for the decimals fall back
+     * to {@link Double#toString(double)}.
+     *
+     * @param decimals between 0 and 9
+     */
+    public static void putFixed(ByteBuffer buffer, double value, int decimals) {
+        if (Double.isNaN(value)) return;
+        long scale = POWERS_OF_TEN[decimals];
+        double scaled = Math.abs(value) * scale + 0.5;
+        if (scaled >= Long.MAX_VALUE) {
+            putAscii(buffer, Double.toString(value));
+            return;
+        }
+        long units = (long) scaled;
+        if (value < 0 && units != 0) {
+            buffer.put((byte) '-');
+        }
+        putDigits(buffer, units / scale, 1);
+        if (decimals > 0) {
+            buffer.put((byte) '.');
+            putDigits(buffer, units % scale, decimals);
+        }
+    }
+
+    /**
+     * Writes text known to be ASCII, e.g. a header or an enum name.
+     */
+    public static void putAscii(ByteBuffer buffer, String text) {
+        for (int i = 0, length = text.length(); i < length; i++) {
+            buffer.put((byte) text.charAt(i));
+        }
+    }
+
+    /**
+     * Writes a non negative value with at least minDigits digits, zero padded.
+     */
+    private static void putDigits(ByteBuffer buffer, long value, int minDigits) {
+        int digits = 1;
+        while (digits < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        digits = Math.max(digits, minDigits);
+        int end = buffer.position() + digits;
+        for (int i = end - 1; i >= end - digits; i--) {
+            buffer.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(end);
+    }
+}
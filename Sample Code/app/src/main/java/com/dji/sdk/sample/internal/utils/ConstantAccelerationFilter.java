@@ -0,0 +1,182 @@
+package com.dji.sdk.sample.internal.utils;
+
+/**
+ * Kalman filter of one axis under a constant acceleration model, the state being position, velocity and
+ * acceleration. The acceleration changes by white noise jerk of the given spectral density.
+ *
+ * Position and velocity measurements are applied one at a time as scalar updates, which is exact for independent
+ * measurement noise and needs no matrix inversion. The state and covariance live in fixed primitive arrays, so
+ * filtering does not allocate. Instances are not thread safe.
+ */
+public class ConstantAccelerationFilter {
+
+    private final double jerkDensity;
+
+    // position, velocity, acceleration
+    private final double[] x = new double[3];
+    // covariance, row major 3x3
+    private final double[] p = new double[9];
+    private final double[] scratch = new double[9];
+    private long timeNanos;
+    private boolean initialized;
+
+    /**
+     * @param jerkDensity spectral density of the jerk in (m/s^3)^2/Hz, larger values follow maneuvers sooner but
+     *                    smooth less
+     */
+    public ConstantAccelerationFilter(double jerkDensity) {
+        this.jerkDensity = jerkDensity;
+    }
+
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    /**
+     * @return time of the state, that of the last measurement
+     */
+    public long getTimeNanos() {
+        return timeNanos;
+    }
+
+    public double getPosition() {
+        return x[0];
+    }
+
+    public double getVelocity() {
+        return x[1];
+    }
+
+    public double getAcceleration() {
+        return x[2];
+    }
+
+    /**
+     * @return variance of the position estimate
+     */
+    public double getPositionVariance() {
+        return p[0];
+    }
+
+    /**
+     * Starts over from a measured position and velocity.
+     */
+    public void reset(long timeNanos, double position, double positionVariance, double velocity,
+                      double velocityVariance) {
+        x[0] = position;
+        x[1] = velocity;
+        x[2] = 0;
+        for (int i = 0; i < 9; i++) {
+            p[i] = 0;
+        }
+        p[0] = positionVariance;
+        p[4] = velocityVariance;
+        // nothing is known about the acceleration yet, allow a few m/s^2
+        p[8] = 10;
+        this.timeNanos = timeNanos;
+        initialized = true;
+    }
+
+    public void clear() {
+        initialized = false;
+    }
+
+    /**
+     * Advances the state to a time. Times before the state are ignored, the measurements are expected in order.
+     */
+    public void predict(long toNanos) {
+        if (toNanos <= timeNanos) return;
+        double dt = (toNanos - timeNanos) / 1e9;
+        timeNanos = toNanos;
+
+        double halfDt2 = dt * dt / 2;
+        x[0] += x[1] * dt + x[2] * halfDt2;
+        x[1] += x[2] * dt;
+
+        // P = F P F' + Q, F = [[1, dt, dt^2/2], [0, 1, dt], [0, 0, 1]]
+        // scratch = F P
+        for (int column = 0; column < 3; column++) {
+            double p0 = p[column];
+            double p1 = p[3 + column];
+            double p2 = p[6 + column];
+            scratch[column] = p0 + dt * p1 + halfDt2 * p2;
+            scratch[3 + column] = p1 + dt * p2;
+            scratch[6 + column] = p2;
+        }
+        // P = scratch F'
+        for (int row = 0; row < 3; row++) {
+            double s0 = scratch[row * 3];
+            double s1 = scratch[row * 3 + 1];
+            double s2 = scratch[row * 3 + 2];
+            p[row * 3] = s0 + dt * s1 + halfDt2 * s2;
+            p[row * 3 + 1] = s1 + dt * s2;
+            p[row * 3 + 2] = s2;
+        }
+
+        double q = jerkDensity;
+        double dt2 = dt * dt;
+        double dt3 = dt2 * dt;
+        double dt4 = dt3 * dt;
+        double dt5 = dt4 * dt;
+        p[0] += q * dt5 / 20;
+        p[1] += q * dt4 / 8;
+        p[2] += q * dt3 / 6;
+        p[3] += q * dt4 / 8;
+        p[4] += q * dt3 / 3;
+        p[5] += q * dt2 / 2;
+        p[6] += q * dt3 / 6;
+        p[7] += q * dt2 / 2;
+        p[8] += q * dt;
+    }
+
+    public void updatePosition(double position, double variance) {
+        update(0, position, variance);
+    }
+
+    public void updateVelocity(double velocity, double variance) {
+        update(1, velocity, variance);
+    }
+
+    /**
+     * Extrapolates the position to a time without changing the state.
+     */
+    public double extrapolatePosition(long toNanos) {
+        double dt = (toNanos - timeNanos) / 1e9;
+        return x[0] + x[1] * dt + x[2] * dt * dt / 2;
+    }
+
+    public double extrapolateVelocity(long toNanos) {
+        double dt = (toNanos - timeNanos) / 1e9;
+        return x[1] + x[2] * dt;
+    }
+
+    /**
+     * Scalar update of a measurement of state element i.
+     */
+    private void update(int i, double measurement, double variance) {
+        double innovation = measurement - x[i];
+        double s = p[i * 4] + variance;
+        if (s <= 0) return;
+        // gain K = P[:, i] / s
+        double k0 = p[i] / s;
+        double k1 = p[3 + i] / s;
+        double k2 = p[6 + i] / s;
+        x[0] += k0 * innovation;
+        x[1] += k1 * innovation;
+        x[2] += k2 * innovation;
+
+        // P = P - K P[i, :]
+        double r0 = p[i * 3];
+        double r1 = p[i * 3 + 1];
+        double r2 = p[i * 3 + 2];
+        p[0] -= k0 * r0;
+        p[1] -= k0 * r1;
+        p[2] -= k0 * r2;
+        p[3] -= k1 * r0;
+        p[4] -= k1 * r1;
+        p[5] -= k1 * r2;
+        p[6] -= k2 * r0;
+        p[7] -= k2 * r1;
+        p[8] -= k2 * r2;
+    }
+}
@@ -0,0 +1,138 @@
+package com.dji.sdk.sample.internal.utils;
+
+/**
+ * Detects a sustained shift of a signal away from its recent baseline, in constant time and memory per sample.
+ *
+ * The baseline mean and variance start with Welford's algorithm over the warm up samples and then follow the
+ * signal as exponentially weighted moving averages. Each sample is standardized against the baseline and fed to a
+ * CUSUM: the deviations beyond the slack are summed, and a shift is reported once the sum passes the threshold.
+ * Samples are not taken into the baseline while a shift is building up, so a slow drift does not hide it.
+ * Instances are not thread safe.
+ */
+public class CusumDetector {
+
+    /**
+     * No shift.
+     */
+    public static final int NONE = 0;
+    /**
+     * The signal rose above its baseline.
+     */
+    public static final int UP = 1;
+    /**
+     * The signal fell below its baseline.
+     */
+    public static final int DOWN = -1;
+
+    private final double alpha;
+    private final int warmUpCount;
+    private final double minDeviation;
+    private final double slack;
+    private final double threshold;
+    private final boolean detectUp;
+    private final boolean detectDown;
+
+    private long count;
+    private double mean;
+    private double variance;
+    // Welford's sum of squared differences, during the warm up only
+    private double squares;
+    private double upperSum;
+    private double lowerSum;
+
+    /**
+     * @param alpha weight of a new sample in the baseline, e.g. 0.01 to follow the last hundred or so samples
+     * @param warmUpCount samples averaged before the baseline is trusted and detection starts
+     * @param minDeviation floor of the baseline standard deviation, in signal units. The smallest shift of interest
+     * is a few of these, it keeps a very steady signal from reporting noise.
+     * @param slack deviation in standard deviations tolerated without accumulating, usually 0.5
+     * @param threshold accumulated standard deviations that report a shift, usually 4 to 5
+     * @param direction {@link #UP}, {@link #DOWN}, or {@link #NONE} to detect both
+     */
+    public CusumDetector(double alpha, int warmUpCount, double minDeviation, double slack, double threshold,
+                         int direction) {
+        if (alpha <= 0 || alpha >= 1 || warmUpCount < 1 || minDeviation <= 0 || threshold <= 0) {
+            throw new IllegalArgumentException("alpha " + alpha + ", warmUpCount " + warmUpCount
+                                                   + ", minDeviation " + minDeviation + ", threshold " + threshold);
+        }
+        this.alpha = alpha;
+        this.warmUpCount = warmUpCount;
+        this.minDeviation = minDeviation;
+        this.slack = slack;
+        this.threshold = threshold;
+        this.detectUp = direction != DOWN;
+        this.detectDown = direction != UP;
+    }
+
+    /**
+     * Adds the next sample, NaN being ignored.
+     *
+     * @return {@link #UP} or {@link #DOWN} for the sample completing a shift, {@link #NONE} otherwise.
+     * The sums restart after a report, a shift that persists is reported again once it accumulates anew.
+     */
+    public int add(double value) {
+        if (Double.isNaN(value)) return NONE;
+        if (count < warmUpCount) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            squares += delta * (value - mean);
+            variance = squares / count;
+            return NONE;
+        }
+
+        double deviation = Math.max(Math.sqrt(variance), minDeviation);
+        double z = (value - mean) / deviation;
+        if (detectUp) upperSum = Math.max(0, upperSum + z - slack);
+        if (detectDown) lowerSum = Math.max(0, lowerSum - z - slack);
+
+        int result = NONE;
+        if (upperSum > threshold) {
+            result = UP;
+        } else if (lowerSum > threshold) {
+            result = DOWN;
+        }
+        if (result != NONE) {
+            // the signal settled somewhere else, take that as the new normal
+            upperSum = 0;
+            lowerSum = 0;
+            mean = value;
+        } else if (upperSum == 0 && lowerSum == 0) {
+            double delta = value - mean;
+            mean += alpha * delta;
+            variance = (1 - alpha) * (variance + alpha * delta * delta);
+        }
+        count++;
+        return result;
+    }
+
+    /**
+     * @return the baseline mean, NaN before the first sample
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * @return the baseline standard deviation, without the floor
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(variance);
+    }
+
+    public boolean isWarmedUp() {
+        return count >= warmUpCount;
+    }
+
+    /**
+     * Forgets the baseline, e.g. when a new flight starts.
+     */
+    public void reset() {
+        count = 0;
+        mean = 0;
+        variance = 0;
+        squares = 0;
+        upperSum = 0;
+        lowerSum = 0;
+    }
+}
@@ -0,0 +1,276 @@
+package com.dji.sdk.sample.internal.utils;
+
+import com.dji.sdk.sample.internal.model.FlightColumns;
+import java.io.IOException;
+
+/**
+ * Compact encoding of a block of flight samples for long term archives.
+ *
+ * Each column is encoded on its own:
+ * - time in microseconds as delta-of-delta,
+ * - position, altitude, attitude and velocity as scaled integers, delta encoded,
+ * - flight mode and home point run-length encoded.
+ * Integers are written as zig-zag varints. Missing values (NaN) survive the round trip, everything else is
+ * rounded to the column scale. A codec keeps its scratch buffer between blocks and is not thread safe.
+ *
+ * An archive file is a header [int magic][short version][short reserved][long wall clock millis]
+ * [long elapsed realtime nanos at that wall clock time] followed by blocks of
+ * [int encoded length][int sample count][long first time][long last time][int CRC32 of encoded][encoded],
+ * all big endian. The block headers double as a sparse time index of the archive.
+ */
+public class FlightArchiveCodec {
+
+    public static final String FILE_EXTENSION = ".ihsarc";
+
+    public static final int MAGIC = 0x49485341; // "IHSA"
+    public static final short VERSION = 1;
+    public static final int FILE_HEADER_LENGTH = 4 + 2 + 2 + 8 + 8;
+    public static final int BLOCK_HEADER_LENGTH = 4 + 4 + 8 + 8 + 4;
+
+    /** 1e-7 degree, about 1cm */
+    public static final double LAT_LON_SCALE = 1e7;
+    /** centimeters */
+    public static final double ALTITUDE_SCALE = 100;
+    /** hundredths of a degree */
+    public static final double ATTITUDE_SCALE = 100;
+    /** centimeters per second */
+    public static final double VELOCITY_SCALE = 100;
+
+    private static final long NAN_SENTINEL = Long.MIN_VALUE;
+
+    private byte[] out = new byte[4096];
+    private int outPosition;
+
+    private byte[] in;
+    private int inPosition;
+
+    /**
+     * Encodes the samples of a batch. The result stays valid until the next call.
+     *
+     * @return length of the encoded block in {@link #getEncoded()}
+     */
+    public int encode(FlightColumns columns) {
+        outPosition = 0;
+        int count = columns.size();
+
+        encodeTime(columns.timeNanos, count);
+        encodeDeltas(columns.latitude, count, LAT_LON_SCALE);
+        encodeDeltas(columns.longitude, count, LAT_LON_SCALE);
+        encodeDeltas(columns.altitude, count, ALTITUDE_SCALE);
+        encodeDeltas(columns.pitch, count, ATTITUDE_SCALE);
+        encodeDeltas(columns.roll, count, ATTITUDE_SCALE);
+        encodeDeltas(columns.yaw, count, ATTITUDE_SCALE);
+        encodeDeltas(columns.velocityX, count, VELOCITY_SCALE);
+        encodeDeltas(columns.velocityY, count, VELOCITY_SCALE);
+        encodeDeltas(columns.velocityZ, count, VELOCITY_SCALE);
+        encodeRuns(columns.flightMode, count);
+        encodeRuns(columns.homeLatitude, count, LAT_LON_SCALE);
+        encodeRuns(columns.homeLongitude, count, LAT_LON_SCALE);
+
+        return outPosition;
+    }
+
+    public byte[] getEncoded() {
+        return out;
+    }
+
+    /**
+     * Decodes a block written by {@link #encode(FlightColumns)} into a batch, replacing its content.
+     *
+     * @throws IOException if the block is damaged or the batch is too small
+     */
+    public void decode(byte[] block, int offset, int length, int count, FlightColumns into) throws IOException {
+        if (count > into.capacity()) {
+            throw new IOException("Block of " + count + " samples does not fit in " + into.capacity());
+        }
+        in = block;
+        inPosition = offset;
+        try {
+            decodeTime(into.timeNanos, count);
+            decodeDeltas(into.latitude, count, LAT_LON_SCALE);
+            decodeDeltas(into.longitude, count, LAT_LON_SCALE);
+            decodeDeltas(into.altitude, count, ALTITUDE_SCALE);
+            decodeDeltas(into.pitch, count, ATTITUDE_SCALE);
+            decodeDeltas(into.roll, count, ATTITUDE_SCALE);
+            decodeDeltas(into.yaw, count, ATTITUDE_SCALE);
+            decodeDeltas(into.velocityX, count, VELOCITY_SCALE);
+            decodeDeltas(into.velocityY, count, VELOCITY_SCALE);
+            decodeDeltas(into.velocityZ, count, VELOCITY_SCALE);
+            decodeRuns(into.flightMode, count);
+            decodeRuns(into.homeLatitude, count, LAT_LON_SCALE);
+            decodeRuns(into.homeLongitude, count, LAT_LON_SCALE);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Damaged block");
+        } finally {
+            in = null;
+        }
+        if (inPosition != offset + length) {
+            throw new IOException("Damaged block");
+        }
+        into.setSize(count);
+    }
+
+    //region Encoding
+    private void encodeTime(long[] timeNanos, int count) {
+        long previous = 0;
+        long previousDelta = 0;
+        for (int i = 0; i < count; i++) {
+            long micros = timeNanos[i] / 1000;
+            long delta = micros - previous;
+            writeVarLong(zigZag(delta - previousDelta));
+            previousDelta = delta;
+            previous = micros;
+        }
+    }
+
+    private void encodeDeltas(double[] values, int count, double scale) {
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long value = quantize(values[i], scale);
+            writeVarLong(zigZag(value - previous));
+            previous = value;
+        }
+    }
+
+    private void encodeDeltas(float[] values, int count, double scale) {
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long value = quantize(values[i], scale);
+            writeVarLong(zigZag(value - previous));
+            previous = value;
+        }
+    }
+
+    private void encodeRuns(byte[] values, int count) {
+        int i = 0;
+        while (i < count) {
+            byte value = values[i];
+            int run = 1;
+            while (i + run < count && values[i + run] == value) {
+                run++;
+            }
+            writeVarLong(zigZag(value));
+            writeVarLong(run);
+            i += run;
+        }
+    }
+
+    private void encodeRuns(double[] values, int count, double scale) {
+        long previous = 0;
+        int i = 0;
+        while (i < count) {
+            long value = quantize(values[i], scale);
+            int run = 1;
+            while (i + run < count && quantize(values[i + run], scale) == value) {
+                run++;
+            }
+            writeVarLong(zigZag(value - previous));
+            writeVarLong(run);
+            previous = value;
+            i += run;
+        }
+    }
+
+    private void writeVarLong(long value) {
+        if (outPosition + 10 > out.length) {
+            byte[] grown = new byte[out.length * 2];
+            System.arraycopy(out, 0, grown, 0, outPosition);
+            out = grown;
+        }
+        while ((value & ~0x7FL) != 0) {
+            out[outPosition++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[outPosition++] = (byte) value;
+    }
+    //endregion
+
+    //region Decoding
+    private void decodeTime(long[] timeNanos, int count) {
+        long previous = 0;
+        long previousDelta = 0;
+        for (int i = 0; i < count; i++) {
+            long delta = previousDelta + unZigZag(readVarLong());
+            previous += delta;
+            previousDelta = delta;
+            timeNanos[i] = previous * 1000;
+        }
+    }
+
+    private void decodeDeltas(double[] values, int count, double scale) {
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += unZigZag(readVarLong());
+            values[i] = previous == NAN_SENTINEL ? Double.NaN : previous / scale;
+        }
+    }
+
+    private void decodeDeltas(float[] values, int count, double scale) {
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += unZigZag(readVarLong());
+            values[i] = previous == NAN_SENTINEL ? Float.NaN : (float) (previous / scale);
+        }
+    }
+
+    private void decodeRuns(byte[] values, int count) {
+        int i = 0;
+        while (i < count) {
+            byte value = (byte) unZigZag(readVarLong());
+            int end = i + (int) readVarLong();
+            if (end > count || end <= i) {
+                throw new ArrayIndexOutOfBoundsException(end);
+            }
+            while (i < end) {
+                values[i++] = value;
+            }
+        }
+    }
+
+    private void decodeRuns(double[] values, int count, double scale) {
+        long previous = 0;
+        int i = 0;
+        while (i < count) {
+            previous += unZigZag(readVarLong());
+            double value = previous == NAN_SENTINEL ? Double.NaN : previous / scale;
+            int end = i + (int) readVarLong();
+            if (end > count || end <= i) {
+                throw new ArrayIndexOutOfBoundsException(end);
+            }
+            while (i < end) {
+                values[i++] = value;
+            }
+        }
+    }
+
+    private long readVarLong() {
+        byte[] bytes = in;
+        int position = inPosition;
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[position++];
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        inPosition = position;
+        return result;
+    }
+    //endregion
+
+    private static long quantize(double value, double scale) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return NAN_SENTINEL;
+        }
+        return Math.round(value * scale);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
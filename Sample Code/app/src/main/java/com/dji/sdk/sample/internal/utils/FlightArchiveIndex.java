@@ -0,0 +1,99 @@
+package com.dji.sdk.sample.internal.utils;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Sparse time index of a flight archive: the offset, time range and sample count of every block.
+ * Built from the block headers alone, so indexing an archive does not decode any sample.
+ */
+public class FlightArchiveIndex {
+
+    private long[] offsets = new long[64];
+    private long[] firstTimeNanos = new long[64];
+    private long[] lastTimeNanos = new long[64];
+    private int[] sampleCounts = new int[64];
+    private int size;
+    private int maxSampleCount;
+
+    private FlightArchiveIndex() {
+    }
+
+    /**
+     * Indexes the blocks of an archive, leaving the reader after its last block.
+     */
+    public static FlightArchiveIndex build(FlightArchiveReader reader) throws IOException {
+        FlightArchiveIndex index = new FlightArchiveIndex();
+        boolean hasBlock = reader.seekBlock(FlightArchiveCodec.FILE_HEADER_LENGTH);
+        while (hasBlock) {
+            index.add(reader.getBlockOffset(),
+                      reader.getBlockFirstTimeNanos(),
+                      reader.getBlockLastTimeNanos(),
+                      reader.getBlockSampleCount());
+            hasBlock = reader.nextBlock();
+        }
+        return index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getOffset(int block) {
+        return offsets[block];
+    }
+
+    public long getFirstTimeNanos(int block) {
+        return firstTimeNanos[block];
+    }
+
+    public long getLastTimeNanos(int block) {
+        return lastTimeNanos[block];
+    }
+
+    public int getSampleCount(int block) {
+        return sampleCounts[block];
+    }
+
+    /**
+     * @return the largest block, to size the batch blocks are decoded into
+     */
+    public int getMaxSampleCount() {
+        return maxSampleCount;
+    }
+
+    /**
+     * Binary searches the first block that has samples at or after a time.
+     *
+     * @return index of the block, or {@link #size()} if every block ends earlier
+     */
+    public int firstBlockEndingAtOrAfter(long timeNanos) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lastTimeNanos[middle] < timeNanos) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void add(long offset, long firstTime, long lastTime, int sampleCount) {
+        if (size == offsets.length) {
+            int capacity = size * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            firstTimeNanos = Arrays.copyOf(firstTimeNanos, capacity);
+            lastTimeNanos = Arrays.copyOf(lastTimeNanos, capacity);
+            sampleCounts = Arrays.copyOf(sampleCounts, capacity);
+        }
+        offsets[size] = offset;
+        firstTimeNanos[size] = firstTime;
+        lastTimeNanos[size] = lastTime;
+        sampleCounts[size] = sampleCount;
+        maxSampleCount = Math.max(maxSampleCount, sampleCount);
+        size++;
+    }
+}
@@ -0,0 +1,153 @@
+package com.dji.sdk.sample.internal.utils;
+
+import com.dji.sdk.sample.internal.model.FlightColumns;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Reads a flight archive written by FlightArchiveWriter block by block.
+ * Block headers can be walked without decoding the samples, which keeps scanning an archive cheap.
+ */
+public class FlightArchiveReader implements Closeable {
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final FlightArchiveCodec codec = new FlightArchiveCodec();
+    private final ByteBuffer header = ByteBuffer.allocate(FlightArchiveCodec.BLOCK_HEADER_LENGTH);
+    private final CRC32 crc = new CRC32();
+    private final long wallClockMillis;
+    private final long elapsedNanos;
+
+    private byte[] encoded = new byte[4096];
+    private long nextBlockOffset = FlightArchiveCodec.FILE_HEADER_LENGTH;
+
+    private long blockOffset = -1;
+    private int blockLength;
+    private int blockCount;
+    private long blockFirstTimeNanos;
+    private long blockLastTimeNanos;
+    private int blockCrc;
+
+    public FlightArchiveReader(File archive) throws IOException {
+        file = new RandomAccessFile(archive, "r");
+        channel = file.getChannel();
+
+        ByteBuffer fileHeader = ByteBuffer.allocate(FlightArchiveCodec.FILE_HEADER_LENGTH);
+        if (!readFully(fileHeader, 0)
+            || fileHeader.getInt(0) != FlightArchiveCodec.MAGIC
+            || fileHeader.getShort(4) != FlightArchiveCodec.VERSION) {
+            file.close();
+            throw new IOException("Not a flight archive: " + archive);
+        }
+        wallClockMillis = fileHeader.getLong(8);
+        elapsedNanos = fileHeader.getLong(16);
+    }
+
+    /**
+     * Moves to the next block and reads its header, the samples are decoded on demand.
+     *
+     * @return false at the end of the archive or at a truncated block
+     */
+    public boolean nextBlock() throws IOException {
+        return seekBlock(nextBlockOffset);
+    }
+
+    /**
+     * Moves to the block starting at an offset previously returned by {@link #getBlockOffset()}.
+     */
+    public boolean seekBlock(long offset) throws IOException {
+        header.clear();
+        if (!readFully(header, offset)) {
+            blockOffset = -1;
+            return false;
+        }
+        int length = header.getInt(0);
+        if (length < 0 || offset + FlightArchiveCodec.BLOCK_HEADER_LENGTH + length > channel.size()) {
+            blockOffset = -1;
+            return false;
+        }
+        blockOffset = offset;
+        blockLength = length;
+        blockCount = header.getInt(4);
+        blockFirstTimeNanos = header.getLong(8);
+        blockLastTimeNanos = header.getLong(16);
+        blockCrc = header.getInt(24);
+        nextBlockOffset = offset + FlightArchiveCodec.BLOCK_HEADER_LENGTH + length;
+        return true;
+    }
+
+    /**
+     * Decodes the samples of the current block into a batch, replacing its content.
+     *
+     * @throws IOException if the block is damaged
+     */
+    public void decodeBlock(FlightColumns into) throws IOException {
+        if (blockOffset < 0) {
+            throw new IllegalStateException("No current block");
+        }
+        if (encoded.length < blockLength) {
+            encoded = new byte[Math.max(blockLength, encoded.length * 2)];
+        }
+        ByteBuffer target = ByteBuffer.wrap(encoded, 0, blockLength);
+        if (!readFully(target, blockOffset + FlightArchiveCodec.BLOCK_HEADER_LENGTH)) {
+            throw new IOException("Truncated block at " + blockOffset);
+        }
+        crc.reset();
+        crc.update(encoded, 0, blockLength);
+        if ((int) crc.getValue() != blockCrc) {
+            throw new IOException("Damaged block at " + blockOffset);
+        }
+        codec.decode(encoded, 0, blockLength, blockCount, into);
+    }
+
+    public long getBlockOffset() {
+        return blockOffset;
+    }
+
+    public int getBlockSampleCount() {
+        return blockCount;
+    }
+
+    public long getBlockFirstTimeNanos() {
+        return blockFirstTimeNanos;
+    }
+
+    public long getBlockLastTimeNanos() {
+        return blockLastTimeNanos;
+    }
+
+    /**
+     * @return wall clock time at which the archived session started
+     */
+    public long getWallClockMillis() {
+        return wallClockMillis;
+    }
+
+    /**
+     * @return elapsed realtime matching {@link #getWallClockMillis()}, sample times are on the same clock
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    private boolean readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                return false;
+            }
+            position += read;
+        }
+        return true;
+    }
+}
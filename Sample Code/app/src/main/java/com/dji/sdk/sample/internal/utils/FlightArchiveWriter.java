@@ -0,0 +1,160 @@
+package com.dji.sdk.sample.internal.utils;
+
+import com.dji.sdk.sample.internal.model.FlightColumns;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Streams flight samples into a compact archive file, one encoded block at a time.
+ * See FlightArchiveCodec for the encoding and the file layout.
+ */
+public class FlightArchiveWriter implements Closeable {
+
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    private final FileOutputStream outputStream;
+    private final FileChannel channel;
+    private final FlightColumns pending;
+    private final FlightArchiveCodec codec = new FlightArchiveCodec();
+    private final ByteBuffer header = ByteBuffer.allocate(FlightArchiveCodec.BLOCK_HEADER_LENGTH);
+    private final CRC32 crc = new CRC32();
+
+    private long sampleCount;
+
+    /**
+     * @param wallClockMillis wall clock time matching elapsedNanos, so readers can convert sample times
+     * @param elapsedNanos elapsed realtime at wallClockMillis
+     */
+    public FlightArchiveWriter(File file, long wallClockMillis, long elapsedNanos, int blockSize)
+        throws IOException {
+        outputStream = new FileOutputStream(file);
+        channel = outputStream.getChannel();
+        pending = new FlightColumns(blockSize);
+
+        ByteBuffer fileHeader = ByteBuffer.allocate(FlightArchiveCodec.FILE_HEADER_LENGTH);
+        fileHeader.putInt(FlightArchiveCodec.MAGIC);
+        fileHeader.putShort(FlightArchiveCodec.VERSION);
+        fileHeader.putShort((short) 0);
+        fileHeader.putLong(wallClockMillis);
+        fileHeader.putLong(elapsedNanos);
+        fileHeader.flip();
+        writeFully(fileHeader);
+    }
+
+    public void add(long timeNanos,
+                    double latitude,
+                    double longitude,
+                    float altitude,
+                    float pitch,
+                    float roll,
+                    float yaw,
+                    float velocityX,
+                    float velocityY,
+                    float velocityZ,
+                    byte flightMode,
+                    double homeLatitude,
+                    double homeLongitude) throws IOException {
+        pending.add(timeNanos, latitude, longitude, altitude, pitch, roll, yaw, velocityX, velocityY, velocityZ,
+                    flightMode, homeLatitude, homeLongitude);
+        if (pending.isFull()) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Adds all samples of a batch.
+     */
+    public void addAll(FlightColumns columns) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            add(columns.timeNanos[i],
+                columns.latitude[i],
+                columns.longitude[i],
+                columns.altitude[i],
+                columns.pitch[i],
+                columns.roll[i],
+                columns.yaw[i],
+                columns.velocityX[i],
+                columns.velocityY[i],
+                columns.velocityZ[i],
+                columns.flightMode[i],
+                columns.homeLatitude[i],
+                columns.homeLongitude[i]);
+        }
+    }
+
+    public long getSampleCount() {
+        return sampleCount + pending.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writeBlock();
+            channel.force(false);
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        int count = pending.size();
+        if (count == 0) return;
+
+        int length = codec.encode(pending);
+        crc.reset();
+        crc.update(codec.getEncoded(), 0, length);
+
+        header.clear();
+        header.putInt(length);
+        header.putInt(count);
+        // times are stored with microsecond resolution, keep the index consistent with decoded samples
+        header.putLong(pending.timeNanos[0] / 1000 * 1000);
+        header.putLong(pending.timeNanos[count - 1] / 1000 * 1000);
+        header.putInt((int) crc.getValue());
+        header.flip();
+        writeFully(header);
+        writeFully(ByteBuffer.wrap(codec.getEncoded(), 0, length));
+
+        sampleCount += count;
+        pending.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Compacts flight log segments into an archive. Gimbal and battery records are not archived.
+     *
+     * @return number of samples archived
+     */
+    public static long archive(File[] segments, File archive) throws IOException {
+        FlightLogReader reader = new FlightLogReader(segments);
+        FlightColumns batch = new FlightColumns(DEFAULT_BLOCK_SIZE);
+        FlightArchiveWriter writer = null;
+        try {
+            while (reader.readFlightSamples(batch) > 0) {
+                if (writer == null) {
+                    writer = new FlightArchiveWriter(archive,
+                                                     reader.getSegmentWallClockMillis(),
+                                                     reader.getSegmentElapsedNanos(),
+                                                     DEFAULT_BLOCK_SIZE);
+                }
+                writer.addAll(batch);
+            }
+            return writer == null ? 0 : writer.getSampleCount();
+        } finally {
+            reader.close();
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+}
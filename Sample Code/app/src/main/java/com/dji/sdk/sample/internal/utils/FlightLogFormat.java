@@ -0,0 +1,201 @@
+package com.dji.sdk.sample.internal.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of the flight log segment files written by FlightLogWriter.
+ *
+ * A segment starts with a fixed header followed by records. Every record is
+ * [int payload length][byte type][payload][int CRC32 of type and payload] in little endian.
+ * A sealed segment ends with a footer record and is trimmed to its used length; a zero length marks the
+ * unwritten tail of a segment that was never sealed.
+ */
+public final class FlightLogFormat {
+
+    public static final String FILE_EXTENSION = ".ihslog";
+
+    public static final int MAGIC = 0x46534849; // "IHSF"
+    public static final short VERSION = 1;
+
+    // Header: magic, version, header length, session id, segment index, wall clock at creation,
+    // elapsed realtime at creation, CRC32 of everything before it
+    public static final int HEADER_LENGTH = 40;
+    public static final int HEADER_SESSION_ID = 8;
+    public static final int HEADER_SEGMENT_INDEX = 16;
+    public static final int HEADER_WALL_CLOCK_MILLIS = 20;
+    public static final int HEADER_ELAPSED_NANOS = 28;
+    public static final int HEADER_CRC = 36;
+
+    public static final int RECORD_OVERHEAD = 4 + 1 + 4;
+
+    public static final byte TYPE_FLIGHT = 1;
+    public static final byte TYPE_GIMBAL = 2;
+    public static final byte TYPE_BATTERY = 3;
+    public static final byte TYPE_SIMULATOR = 4;
+    public static final byte TYPE_FOOTER = 0x7F;
+
+    // Every data record payload starts with the elapsed realtime of the sample in nanoseconds
+    public static final int TIME = 0;
+
+    public static final int FLIGHT_LATITUDE = 8;
+    public static final int FLIGHT_LONGITUDE = 16;
+    public static final int FLIGHT_ALTITUDE = 24;
+    public static final int FLIGHT_PITCH = 28;
+    public static final int FLIGHT_ROLL = 32;
+    public static final int FLIGHT_YAW = 36;
+    public static final int FLIGHT_VELOCITY_X = 40;
+    public static final int FLIGHT_VELOCITY_Y = 44;
+    public static final int FLIGHT_VELOCITY_Z = 48;
+    public static final int FLIGHT_MODE = 52;
+    public static final int FLIGHT_HOME_LATITUDE = 53;
+    public static final int FLIGHT_HOME_LONGITUDE = 61;
+    public static final int FLIGHT_PAYLOAD_LENGTH = 69;
+
+    public static final int GIMBAL_PITCH = 8;
+    public static final int GIMBAL_ROLL = 12;
+    public static final int GIMBAL_YAW = 16;
+    public static final int GIMBAL_PAYLOAD_LENGTH = 20;
+
+    public static final int BATTERY_CHARGE_PERCENT = 8;
+    public static final int BATTERY_VOLTAGE = 12;
+    public static final int BATTERY_CURRENT = 16;
+    public static final int BATTERY_TEMPERATURE = 20;
+    public static final int BATTERY_PAYLOAD_LENGTH = 24;
+
+    public static final int SIMULATOR_PITCH = 8;
+    public static final int SIMULATOR_ROLL = 12;
+    public static final int SIMULATOR_YAW = 16;
+    public static final int SIMULATOR_POSITION_X = 20;
+    public static final int SIMULATOR_POSITION_Y = 24;
+    public static final int SIMULATOR_POSITION_Z = 28;
+    public static final int SIMULATOR_LATITUDE = 32;
+    public static final int SIMULATOR_LONGITUDE = 40;
+    public static final int SIMULATOR_FLYING = 48;
+    public static final int SIMULATOR_MOTORS_ON = 49;
+    public static final int SIMULATOR_PAYLOAD_LENGTH = 50;
+
+    // record count, time of the last record
+    public static final int FOOTER_PAYLOAD_LENGTH = 8 + 8;
+
+    private static final int[] CRC_TABLE = new int[256];
+
+    static {
+        for (int n = 0; n < 256; n++) {
+            int c = n;
+            for (int k = 0; k < 8; k++) {
+                c = (c & 1) != 0 ? 0xEDB88320 ^ (c >>> 1) : c >>> 1;
+            }
+            CRC_TABLE[n] = c;
+        }
+    }
+
+    private FlightLogFormat() {
+    }
+
+    /**
+     * @return payload length of a record type, or -1 if the type is unknown
+     */
+    public static int payloadLength(byte type) {
+        switch (type) {
+            case TYPE_FLIGHT:
+                return FLIGHT_PAYLOAD_LENGTH;
+            case TYPE_GIMBAL:
+                return GIMBAL_PAYLOAD_LENGTH;
+            case TYPE_BATTERY:
+                return BATTERY_PAYLOAD_LENGTH;
+            case TYPE_SIMULATOR:
+                return SIMULATOR_PAYLOAD_LENGTH;
+            case TYPE_FOOTER:
+                return FOOTER_PAYLOAD_LENGTH;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * CRC32 of buffer[from, to) using absolute reads, so the buffer position is left untouched.
+     */
+    public static int crc32(ByteBuffer buffer, int from, int to) {
+        int c = 0xFFFFFFFF;
+        for (int i = from; i < to; i++) {
+            c = CRC_TABLE[(c ^ buffer.get(i)) & 0xFF] ^ (c >>> 8);
+        }
+        return ~c;
+    }
+
+    public static void writeHeader(ByteBuffer buffer, long sessionId, int segmentIndex, long wallClockMillis,
+                                   long elapsedNanos) {
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, VERSION);
+        buffer.putShort(6, (short) HEADER_LENGTH);
+        buffer.putLong(HEADER_SESSION_ID, sessionId);
+        buffer.putInt(HEADER_SEGMENT_INDEX, segmentIndex);
+        buffer.putLong(HEADER_WALL_CLOCK_MILLIS, wallClockMillis);
+        buffer.putLong(HEADER_ELAPSED_NANOS, elapsedNanos);
+        buffer.putInt(HEADER_CRC, crc32(buffer, 0, HEADER_CRC));
+    }
+
+    public static boolean isHeaderValid(ByteBuffer buffer) {
+        return buffer.limit() >= HEADER_LENGTH
+            && buffer.getInt(0) == MAGIC
+            && buffer.getShort(4) == VERSION
+            && buffer.getShort(6) == HEADER_LENGTH
+            && buffer.getInt(HEADER_CRC) == crc32(buffer, 0, HEADER_CRC);
+    }
+
+    /**
+     * @return the offset just past the last intact record, starting at the end of the header
+     */
+    public static int scanValidEnd(ByteBuffer buffer) {
+        int offset = HEADER_LENGTH;
+        int end;
+        while ((end = nextRecord(buffer, offset)) > 0) {
+            offset = end;
+        }
+        return offset;
+    }
+
+    /**
+     * Checks the record at offset.
+     *
+     * @return the offset just past the record, or -1 if there is no intact record there
+     */
+    public static int nextRecord(ByteBuffer buffer, int offset) {
+        if (offset + RECORD_OVERHEAD > buffer.limit()) return -1;
+        int length = buffer.getInt(offset);
+        if (length <= 0) return -1;
+        byte type = buffer.get(offset + 4);
+        if (payloadLength(type) != length) return -1;
+        int crcOffset = offset + 5 + length;
+        if (crcOffset + 4 > buffer.limit()) return -1;
+        if (buffer.getInt(crcOffset) != crc32(buffer, offset + 4, crcOffset)) return -1;
+        return crcOffset + 4;
+    }
+
+    /**
+     * Writes a complete footer record at offset.
+     *
+     * @return the offset just past the footer
+     */
+    public static int writeFooter(ByteBuffer buffer, int offset, long recordCount, long lastTimeNanos) {
+        int payload = payloadOffset(offset);
+        buffer.putInt(offset, FOOTER_PAYLOAD_LENGTH);
+        buffer.put(offset + 4, TYPE_FOOTER);
+        buffer.putLong(payload, recordCount);
+        buffer.putLong(payload + 8, lastTimeNanos);
+        int crcOffset = payload + FOOTER_PAYLOAD_LENGTH;
+        buffer.putInt(crcOffset, crc32(buffer, offset + 4, crcOffset));
+        return crcOffset + 4;
+    }
+
+    public static byte recordType(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + 4);
+    }
+
+    /**
+     * @return offset of the first payload byte of the record at offset
+     */
+    public static int payloadOffset(int offset) {
+        return offset + 5;
+    }
+}
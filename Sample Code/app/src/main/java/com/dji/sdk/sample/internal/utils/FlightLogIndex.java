@@ -0,0 +1,108 @@
+package com.dji.sdk.sample.internal.utils;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Sparse time index of flight log segments: the position of every {@link #INTERVAL}th data record with the latest
+ * time of the records before it. Built in one pass over the log, it lets a seek start next to the record it looks
+ * for instead of at the first one, so seeking reads at most {@link #INTERVAL} records however long the log is.
+ *
+ * Records of different types are not strictly in time order, which is why an entry keeps the latest time before it
+ * rather than the time of its record: a seek starts at the last entry all records before which are earlier.
+ */
+public class FlightLogIndex {
+
+    public static final int INTERVAL = 256;
+
+    private long[] positions = new long[64];
+    private long[] latestTimesBefore = new long[64];
+    private int size;
+    private long recordCount;
+    private long firstTimeNanos = -1;
+    private long lastTimeNanos = -1;
+
+    private FlightLogIndex() {
+    }
+
+    /**
+     * Indexes the data records of a log, leaving the reader after its last record.
+     */
+    public static FlightLogIndex build(FlightLogReader reader) throws IOException {
+        FlightLogIndex index = new FlightLogIndex();
+        reader.rewind();
+        long latestTime = Long.MIN_VALUE;
+        while (reader.next()) {
+            long time = reader.getTimeNanos();
+            if (index.recordCount % INTERVAL == 0) {
+                index.add(reader.getPosition(), latestTime);
+            }
+            if (index.recordCount == 0) {
+                index.firstTimeNanos = time;
+            }
+            latestTime = Math.max(latestTime, time);
+            index.recordCount++;
+        }
+        if (index.recordCount > 0) {
+            index.lastTimeNanos = latestTime;
+        }
+        return index;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return time of the first record, -1 if the log has none
+     */
+    public long getFirstTimeNanos() {
+        return firstTimeNanos;
+    }
+
+    /**
+     * @return latest time of all records, -1 if the log has none
+     */
+    public long getLastTimeNanos() {
+        return lastTimeNanos;
+    }
+
+    /**
+     * Moves a reader of the indexed segments to the first data record at or after a time, like
+     * {@link FlightLogReader#seek(long)} but starting from the nearest entry.
+     *
+     * @return false if no record is that late
+     */
+    public boolean seek(FlightLogReader reader, long timeNanos) throws IOException {
+        if (size == 0) return false;
+        // the last entry all records before which are earlier, the first entry always is
+        int low = 1;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (latestTimesBefore[middle] < timeNanos) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        reader.moveTo(positions[low - 1]);
+        while (reader.next()) {
+            if (reader.getTimeNanos() >= timeNanos) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void add(long position, long latestTimeBefore) {
+        if (size == positions.length) {
+            int capacity = size * 2;
+            positions = Arrays.copyOf(positions, capacity);
+            latestTimesBefore = Arrays.copyOf(latestTimesBefore, capacity);
+        }
+        positions[size] = position;
+        latestTimesBefore[size] = latestTimeBefore;
+        size++;
+    }
+}
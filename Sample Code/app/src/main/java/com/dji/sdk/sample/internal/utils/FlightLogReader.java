@@ -0,0 +1,236 @@
+package com.dji.sdk.sample.internal.utils;
+
+import com.dji.sdk.sample.internal.model.FlightColumns;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Walks the records of flight log segments in order, see FlightLogFormat for the layout.
+ * Reading stops at the first damaged record of a segment and goes on with the next segment.
+ */
+public class FlightLogReader implements Closeable {
+
+    private final File[] segments;
+    private int segmentIndex = -1;
+
+    private MappedByteBuffer buffer;
+    private ByteBuffer payloadView;
+    private int offset;
+    private int nextOffset;
+    private long previousSegmentsLength;
+
+    private long segmentWallClockMillis;
+    private long segmentElapsedNanos;
+
+    public FlightLogReader(File[] segments) {
+        this.segments = segments;
+    }
+
+    /**
+     * Moves to the next data record, skipping footers.
+     *
+     * @return false when all segments are read
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (buffer == null && !openNextSegment()) {
+                return false;
+            }
+            int end = FlightLogFormat.nextRecord(buffer, nextOffset);
+            if (end < 0) {
+                previousSegmentsLength += buffer.capacity();
+                buffer = null;
+                continue;
+            }
+            offset = nextOffset;
+            nextOffset = end;
+            if (getType() != FlightLogFormat.TYPE_FOOTER) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Moves back before the first record of the first segment.
+     */
+    public void rewind() {
+        buffer = null;
+        segmentIndex = -1;
+        previousSegmentsLength = 0;
+    }
+
+    /**
+     * Moves to the first data record at or after a time, reading from the first record. See FlightLogIndex to seek
+     * often in a long log.
+     *
+     * @return false if no record is that late
+     */
+    public boolean seek(long timeNanos) throws IOException {
+        rewind();
+        while (next()) {
+            if (getTimeNanos() >= timeNanos) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return where the current record is, to come back to it with {@link #moveTo(long)}
+     */
+    public long getPosition() {
+        return ((long) segmentIndex << 32) | offset;
+    }
+
+    /**
+     * Moves back before a record, so {@link #next()} reads it.
+     *
+     * @param position from {@link #getPosition()} of a reader of the same segments
+     */
+    public void moveTo(long position) throws IOException {
+        int segment = (int) (position >>> 32);
+        rewind();
+        for (int i = 0; i < segment; i++) {
+            previousSegmentsLength += segments[i].length();
+        }
+        segmentIndex = segment - 1;
+        if (openNextSegment() && segmentIndex == segment) {
+            nextOffset = (int) position;
+        } else {
+            // the segment changed since the position was taken, read from the start
+            rewind();
+        }
+    }
+
+    /**
+     * Moves to the next flight record, skipping the other records.
+     */
+    public boolean nextFlight() throws IOException {
+        while (next()) {
+            if (getType() == FlightLogFormat.TYPE_FLIGHT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fills a batch with the following flight records, replacing its content.
+     *
+     * @return number of samples read, 0 at the end of the log
+     */
+    public int readFlightSamples(FlightColumns into) throws IOException {
+        into.clear();
+        while (!into.isFull() && nextFlight()) {
+            into.add(getTimeNanos(),
+                     getDouble(FlightLogFormat.FLIGHT_LATITUDE),
+                     getDouble(FlightLogFormat.FLIGHT_LONGITUDE),
+                     getFloat(FlightLogFormat.FLIGHT_ALTITUDE),
+                     getFloat(FlightLogFormat.FLIGHT_PITCH),
+                     getFloat(FlightLogFormat.FLIGHT_ROLL),
+                     getFloat(FlightLogFormat.FLIGHT_YAW),
+                     getFloat(FlightLogFormat.FLIGHT_VELOCITY_X),
+                     getFloat(FlightLogFormat.FLIGHT_VELOCITY_Y),
+                     getFloat(FlightLogFormat.FLIGHT_VELOCITY_Z),
+                     getByte(FlightLogFormat.FLIGHT_MODE),
+                     getDouble(FlightLogFormat.FLIGHT_HOME_LATITUDE),
+                     getDouble(FlightLogFormat.FLIGHT_HOME_LONGITUDE));
+        }
+        return into.size();
+    }
+
+    public byte getType() {
+        return FlightLogFormat.recordType(buffer, offset);
+    }
+
+    public long getTimeNanos() {
+        return getLong(FlightLogFormat.TIME);
+    }
+
+    public long getLong(int payloadField) {
+        return buffer.getLong(FlightLogFormat.payloadOffset(offset) + payloadField);
+    }
+
+    public double getDouble(int payloadField) {
+        return buffer.getDouble(FlightLogFormat.payloadOffset(offset) + payloadField);
+    }
+
+    public float getFloat(int payloadField) {
+        return buffer.getFloat(FlightLogFormat.payloadOffset(offset) + payloadField);
+    }
+
+    public int getInt(int payloadField) {
+        return buffer.getInt(FlightLogFormat.payloadOffset(offset) + payloadField);
+    }
+
+    public byte getByte(int payloadField) {
+        return buffer.get(FlightLogFormat.payloadOffset(offset) + payloadField);
+    }
+
+    /**
+     * Copies the payload of the current record, little endian like in the log, see FlightLogFormat.
+     */
+    public void copyPayload(ByteBuffer into) {
+        int from = FlightLogFormat.payloadOffset(offset);
+        payloadView.limit(from + FlightLogFormat.payloadLength(getType())).position(from);
+        into.put(payloadView);
+    }
+
+    /**
+     * @return bytes of the segments read so far, to compare with their total length for progress
+     */
+    public long getBytesRead() {
+        return previousSegmentsLength + (buffer == null ? 0 : nextOffset);
+    }
+
+    /**
+     * @return wall clock time at which the current segment was created
+     */
+    public long getSegmentWallClockMillis() {
+        return segmentWallClockMillis;
+    }
+
+    /**
+     * @return elapsed realtime at which the current segment was created, pairs with the wall clock time
+     */
+    public long getSegmentElapsedNanos() {
+        return segmentElapsedNanos;
+    }
+
+    @Override
+    public void close() {
+        buffer = null;
+        segmentIndex = segments.length;
+    }
+
+    private boolean openNextSegment() throws IOException {
+        while (++segmentIndex < segments.length) {
+            RandomAccessFile file = new RandomAccessFile(segments[segmentIndex], "r");
+            try {
+                FileChannel channel = file.getChannel();
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                mapped.order(ByteOrder.LITTLE_ENDIAN);
+                if (!FlightLogFormat.isHeaderValid(mapped)) {
+                    previousSegmentsLength += mapped.capacity();
+                } else {
+                    buffer = mapped;
+                    payloadView = mapped.duplicate();
+                    nextOffset = FlightLogFormat.HEADER_LENGTH;
+                    segmentWallClockMillis = mapped.getLong(FlightLogFormat.HEADER_WALL_CLOCK_MILLIS);
+                    segmentElapsedNanos = mapped.getLong(FlightLogFormat.HEADER_ELAPSED_NANOS);
+                    return true;
+                }
+            } finally {
+                // the mapping stays valid after the file is closed
+                file.close();
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,400 @@
+package com.dji.sdk.sample.internal.utils;
+
+import android.os.SystemClock;
+import android.util.Log;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Appends telemetry records to memory mapped flight log segments, see FlightLogFormat for the layout.
+ *
+ * Records are written straight into the mapping, so there is no system call per record. When a segment is
+ * full it is sealed with a footer, trimmed and the next one is mapped. {@link #flush()} forces the mapping to
+ * storage and should be called periodically, the kernel keeps everything written so far if the app is killed.
+ * The disk sync runs outside the lock of the write methods, so it never holds up the threads writing records.
+ */
+public class FlightLogWriter {
+
+    public static final String TAG = FlightLogWriter.class.getName();
+
+    public static final int DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+
+    private static final int FOOTER_LENGTH = FlightLogFormat.RECORD_OVERHEAD + FlightLogFormat.FOOTER_PAYLOAD_LENGTH;
+
+    private final File directory;
+    private final int segmentSize;
+    private final long sessionId;
+
+    private int segmentIndex;
+    private RandomAccessFile segmentFile;
+    private MappedByteBuffer buffer;
+    private int position;
+    private long recordCount;
+    private long lastTimeNanos;
+    private boolean dirty;
+    private boolean failed;
+
+    public FlightLogWriter(File directory, int segmentSize) throws IOException {
+        if (segmentSize < FlightLogFormat.HEADER_LENGTH + 2 * FOOTER_LENGTH + FlightLogFormat.FLIGHT_PAYLOAD_LENGTH) {
+            throw new IllegalArgumentException("segment size too small: " + segmentSize);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.sessionId = System.currentTimeMillis();
+        openSegment();
+    }
+
+    public synchronized void writeFlightSample(long timeNanos,
+                                               double latitude,
+                                               double longitude,
+                                               float altitude,
+                                               float pitch,
+                                               float roll,
+                                               float yaw,
+                                               float velocityX,
+                                               float velocityY,
+                                               float velocityZ,
+                                               byte flightMode,
+                                               double homeLatitude,
+                                               double homeLongitude) {
+        int start = begin(FlightLogFormat.TYPE_FLIGHT, FlightLogFormat.FLIGHT_PAYLOAD_LENGTH);
+        if (start < 0) return;
+        int p = FlightLogFormat.payloadOffset(start);
+        buffer.putLong(p + FlightLogFormat.TIME, timeNanos);
+        buffer.putDouble(p + FlightLogFormat.FLIGHT_LATITUDE, latitude);
+        buffer.putDouble(p + FlightLogFormat.FLIGHT_LONGITUDE, longitude);
+        buffer.putFloat(p + FlightLogFormat.FLIGHT_ALTITUDE, altitude);
+        buffer.putFloat(p + FlightLogFormat.FLIGHT_PITCH, pitch);
+        buffer.putFloat(p + FlightLogFormat.FLIGHT_ROLL, roll);
+        buffer.putFloat(p + FlightLogFormat.FLIGHT_YAW, yaw);
+        buffer.putFloat(p + FlightLogFormat.FLIGHT_VELOCITY_X, velocityX);
+        buffer.putFloat(p + FlightLogFormat.FLIGHT_VELOCITY_Y, velocityY);
+        buffer.putFloat(p + FlightLogFormat.FLIGHT_VELOCITY_Z, velocityZ);
+        buffer.put(p + FlightLogFormat.FLIGHT_MODE, flightMode);
+        buffer.putDouble(p + FlightLogFormat.FLIGHT_HOME_LATITUDE, homeLatitude);
+        buffer.putDouble(p + FlightLogFormat.FLIGHT_HOME_LONGITUDE, homeLongitude);
+        commit(start, FlightLogFormat.FLIGHT_PAYLOAD_LENGTH, timeNanos);
+    }
+
+    public synchronized void writeGimbalSample(long timeNanos, float pitch, float roll, float yaw) {
+        int start = begin(FlightLogFormat.TYPE_GIMBAL, FlightLogFormat.GIMBAL_PAYLOAD_LENGTH);
+        if (start < 0) return;
+        int p = FlightLogFormat.payloadOffset(start);
+        buffer.putLong(p + FlightLogFormat.TIME, timeNanos);
+        buffer.putFloat(p + FlightLogFormat.GIMBAL_PITCH, pitch);
+        buffer.putFloat(p + FlightLogFormat.GIMBAL_ROLL, roll);
+        buffer.putFloat(p + FlightLogFormat.GIMBAL_YAW, yaw);
+        commit(start, FlightLogFormat.GIMBAL_PAYLOAD_LENGTH, timeNanos);
+    }
+
+    public synchronized void writeBatterySample(long timeNanos,
+                                                int chargePercent,
+                                                int voltage,
+                                                int current,
+                                                int temperature) {
+        int start = begin(FlightLogFormat.TYPE_BATTERY, FlightLogFormat.BATTERY_PAYLOAD_LENGTH);
+        if (start < 0) return;
+        int p = FlightLogFormat.payloadOffset(start);
+        buffer.putLong(p + FlightLogFormat.TIME, timeNanos);
+        buffer.putInt(p + FlightLogFormat.BATTERY_CHARGE_PERCENT, chargePercent);
+        buffer.putInt(p + FlightLogFormat.BATTERY_VOLTAGE, voltage);
+        buffer.putInt(p + FlightLogFormat.BATTERY_CURRENT, current);
+        buffer.putInt(p + FlightLogFormat.BATTERY_TEMPERATURE, temperature);
+        commit(start, FlightLogFormat.BATTERY_PAYLOAD_LENGTH, timeNanos);
+    }
+
+    public synchronized void writeSimulatorSample(long timeNanos,
+                                                  float pitch,
+                                                  float roll,
+                                                  float yaw,
+                                                  float positionX,
+                                                  float positionY,
+                                                  float positionZ,
+                                                  double latitude,
+                                                  double longitude,
+                                                  boolean flying,
+                                                  boolean motorsOn) {
+        int start = begin(FlightLogFormat.TYPE_SIMULATOR, FlightLogFormat.SIMULATOR_PAYLOAD_LENGTH);
+        if (start < 0) return;
+        int p = FlightLogFormat.payloadOffset(start);
+        buffer.putLong(p + FlightLogFormat.TIME, timeNanos);
+        buffer.putFloat(p + FlightLogFormat.SIMULATOR_PITCH, pitch);
+        buffer.putFloat(p + FlightLogFormat.SIMULATOR_ROLL, roll);
+        buffer.putFloat(p + FlightLogFormat.SIMULATOR_YAW, yaw);
+        buffer.putFloat(p + FlightLogFormat.SIMULATOR_POSITION_X, positionX);
+        buffer.putFloat(p + FlightLogFormat.SIMULATOR_POSITION_Y, positionY);
+        buffer.putFloat(p + FlightLogFormat.SIMULATOR_POSITION_Z, positionZ);
+        buffer.putDouble(p + FlightLogFormat.SIMULATOR_LATITUDE, latitude);
+        buffer.putDouble(p + FlightLogFormat.SIMULATOR_LONGITUDE, longitude);
+        buffer.put(p + FlightLogFormat.SIMULATOR_FLYING, (byte) (flying ? 1 : 0));
+        buffer.put(p + FlightLogFormat.SIMULATOR_MOTORS_ON, (byte) (motorsOn ? 1 : 0));
+        commit(start, FlightLogFormat.SIMULATOR_PAYLOAD_LENGTH, timeNanos);
+    }
+
+    /**
+     * Forces everything written so far to storage. Records written meanwhile may or may not be part of it, the next
+     * flush takes them.
+     */
+    public void flush() {
+        MappedByteBuffer mapping;
+        synchronized (this) {
+            if (buffer == null || !dirty) return;
+            mapping = buffer;
+            dirty = false;
+        }
+        // a segment sealed meanwhile was forced by the seal, forcing its mapping again is harmless
+        mapping.force();
+    }
+
+    /**
+     * Seals the current segment. The writer can not be used afterwards.
+     */
+    public synchronized void close() {
+        try {
+            sealSegment();
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to seal segment " + segmentIndex, e);
+        }
+        failed = true;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Reserves room for a record and writes its length and type.
+     *
+     * @return the offset of the record, or -1 if the log is unusable
+     */
+    private int begin(byte type, int payloadLength) {
+        if (failed) return -1;
+        int length = FlightLogFormat.RECORD_OVERHEAD + payloadLength;
+        if (position + length + FOOTER_LENGTH > segmentSize) {
+            try {
+                sealSegment();
+                segmentIndex++;
+                openSegment();
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to roll over to segment " + segmentIndex, e);
+                failed = true;
+                return -1;
+            }
+        }
+        int start = position;
+        buffer.put(start + 4, type);
+        return start;
+    }
+
+    /**
+     * Writes the checksum and finally the length, which makes the record visible to a recovery scan.
+     */
+    private void commit(int start, int payloadLength, long timeNanos) {
+        int crcOffset = FlightLogFormat.payloadOffset(start) + payloadLength;
+        buffer.putInt(crcOffset, FlightLogFormat.crc32(buffer, start + 4, crcOffset));
+        buffer.putInt(start, payloadLength);
+        position = crcOffset + 4;
+        recordCount++;
+        lastTimeNanos = timeNanos;
+        dirty = true;
+    }
+
+    private void openSegment() throws IOException {
+        File file = new File(directory, segmentName(sessionId, segmentIndex));
+        segmentFile = new RandomAccessFile(file, "rw");
+        segmentFile.setLength(segmentSize);
+        buffer = segmentFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        FlightLogFormat.writeHeader(buffer,
+                                    sessionId,
+                                    segmentIndex,
+                                    System.currentTimeMillis(),
+                                    SystemClock.elapsedRealtimeNanos());
+        position = FlightLogFormat.HEADER_LENGTH;
+        recordCount = 0;
+        dirty = true;
+    }
+
+    private void sealSegment() throws IOException {
+        if (segmentFile == null) return;
+        try {
+            position = FlightLogFormat.writeFooter(buffer, position, recordCount, lastTimeNanos);
+            buffer.force();
+            segmentFile.getChannel().truncate(position);
+        } finally {
+            segmentFile.close();
+            segmentFile = null;
+            buffer = null;
+            dirty = false;
+        }
+    }
+
+    static String segmentName(long sessionId, int segmentIndex) {
+        return String.format(Locale.US, "flight_%d_%04d%s", sessionId, segmentIndex, FlightLogFormat.FILE_EXTENSION);
+    }
+
+    /**
+     * @return all flight log segments in the directory, oldest first
+     */
+    public static File[] listSegments(File directory) {
+        return listSegments(directory, "flight_");
+    }
+
+    /**
+     * @return the segments written by one session, in order
+     */
+    public static File[] listSessionSegments(File directory, long sessionId) {
+        return listSegments(directory, "flight_" + sessionId + "_");
+    }
+
+    /**
+     * @return ids of all sessions with segments in the directory, oldest first
+     */
+    public static long[] listSessions(File directory) {
+        File[] segments = listSegments(directory);
+        long[] sessions = new long[segments.length];
+        int count = 0;
+        for (File segment : segments) {
+            String name = segment.getName();
+            int end = name.indexOf('_', "flight_".length());
+            if (end < 0) continue;
+            try {
+                long sessionId = Long.parseLong(name.substring("flight_".length(), end));
+                if (count == 0 || sessions[count - 1] != sessionId) {
+                    sessions[count++] = sessionId;
+                }
+            } catch (NumberFormatException ignored) {
+                // not one of ours
+            }
+        }
+        long[] result = Arrays.copyOf(sessions, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static File[] listSegments(File directory, final String prefix) {
+        File[] files = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.isFile()
+                    && file.getName().startsWith(prefix)
+                    && file.getName().endsWith(FlightLogFormat.FILE_EXTENSION);
+            }
+        });
+        if (files == null) return new File[0];
+        Arrays.sort(files);
+        return files;
+    }
+
+    /**
+     * Seals segments left open by a crash: the torn tail after the last intact record is cut off and a footer
+     * is appended. Segments whose header is damaged hold nothing usable and are deleted. Sealed segments, which end
+     * with their footer, are recognized from their header and last bytes and not read any further, so recovery
+     * costs a scan of the segments left open only, however many sessions the directory keeps.
+     *
+     * @return number of segments repaired or deleted
+     */
+    public static int recover(File directory) {
+        int repaired = 0;
+        for (File file : listSegments(directory)) {
+            try {
+                if (recoverSegment(file)) {
+                    repaired++;
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to recover " + file, e);
+            }
+        }
+        return repaired;
+    }
+
+    private static boolean recoverSegment(File file) throws IOException {
+        RandomAccessFile segment = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = segment.getChannel();
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE || isSealed(channel, size)) {
+                return false;
+            }
+            ByteBuffer content = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+            while (content.hasRemaining() && channel.read(content, content.position()) > 0) {
+                // keep reading until the whole segment is in memory
+            }
+            content.flip();
+
+            if (!FlightLogFormat.isHeaderValid(content)) {
+                segment.close();
+                segment = null;
+                if (!file.delete()) {
+                    Log.e(TAG, "Failed to delete damaged segment " + file);
+                }
+                return true;
+            }
+
+            int offset = FlightLogFormat.HEADER_LENGTH;
+            long recordCount = 0;
+            long lastTimeNanos = 0;
+            int end;
+            while ((end = FlightLogFormat.nextRecord(content, offset)) > 0) {
+                if (FlightLogFormat.recordType(content, offset) == FlightLogFormat.TYPE_FOOTER) {
+                    // Already sealed, only trim anything left behind the footer
+                    if (end < size) {
+                        channel.truncate(end);
+                        return true;
+                    }
+                    return false;
+                }
+                recordCount++;
+                lastTimeNanos = content.getLong(FlightLogFormat.payloadOffset(offset) + FlightLogFormat.TIME);
+                offset = end;
+            }
+
+            ByteBuffer footer = ByteBuffer.allocate(FOOTER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+            FlightLogFormat.writeFooter(footer, 0, recordCount, lastTimeNanos);
+            channel.truncate(offset);
+            channel.write(footer, offset);
+            channel.force(true);
+            Log.i(TAG, "Recovered " + recordCount + " records from " + file.getName());
+            return true;
+        } finally {
+            if (segment != null) {
+                segment.close();
+            }
+        }
+    }
+
+    /**
+     * @return whether the segment has a valid header and ends with an intact footer, reading only those
+     */
+    private static boolean isSealed(FileChannel channel, long size) throws IOException {
+        if (size < FlightLogFormat.HEADER_LENGTH + FOOTER_LENGTH) return false;
+        if (!FlightLogFormat.isHeaderValid(read(channel, 0, FlightLogFormat.HEADER_LENGTH))) return false;
+        ByteBuffer footer = read(channel, size - FOOTER_LENGTH, FOOTER_LENGTH);
+        return FlightLogFormat.nextRecord(footer, 0) == FOOTER_LENGTH
+            && FlightLogFormat.recordType(footer, 0) == FlightLogFormat.TYPE_FOOTER;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer content = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (content.hasRemaining() && channel.read(content, offset + content.position()) > 0) {
+            // keep reading until the range is in memory
+        }
+        content.flip();
+        return content;
+    }
+}
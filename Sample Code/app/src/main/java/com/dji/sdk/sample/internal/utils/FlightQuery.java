@@ -0,0 +1,224 @@
+package com.dji.sdk.sample.internal.utils;
+
+import android.support.annotation.NonNull;
+import com.dji.sdk.sample.internal.model.FlightColumns;
+import com.dji.sdk.sample.internal.model.FlightStats;
+import dji.common.flightcontroller.FlightMode;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Answers time range questions about an archived flight, e.g. the altitude between two wall clock times or the
+ * first time the aircraft went home. Only the blocks overlapping the range are read and decoded, they are found
+ * with a binary search on the block index.
+ *
+ * Times are elapsed realtime nanoseconds like the recorded samples, use {@link #toTimeNanos(long)} to query by
+ * wall clock time. Ranges include both ends. Not thread safe.
+ */
+public class FlightQuery implements Closeable {
+
+    /**
+     * Numeric flight sample columns.
+     */
+    public enum Column {
+        LATITUDE, LONGITUDE, ALTITUDE, PITCH, ROLL, YAW, VELOCITY_X, VELOCITY_Y, VELOCITY_Z, HORIZONTAL_SPEED
+    }
+
+    private final FlightArchiveReader reader;
+    private final FlightArchiveIndex index;
+    private final FlightColumns block;
+    private int decodedBlock = -1;
+
+    public FlightQuery(File archive) throws IOException {
+        reader = new FlightArchiveReader(archive);
+        try {
+            index = FlightArchiveIndex.build(reader);
+        } catch (IOException e) {
+            reader.close();
+            throw e;
+        }
+        block = new FlightColumns(Math.max(1, index.getMaxSampleCount()));
+    }
+
+    public FlightArchiveIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * @return time of the first sample, -1 if the archive is empty
+     */
+    public long getStartTimeNanos() {
+        return index.size() == 0 ? -1 : index.getFirstTimeNanos(0);
+    }
+
+    /**
+     * @return time of the last sample, -1 if the archive is empty
+     */
+    public long getEndTimeNanos() {
+        return index.size() == 0 ? -1 : index.getLastTimeNanos(index.size() - 1);
+    }
+
+    /**
+     * Converts a wall clock time of the flight to the sample clock.
+     */
+    public long toTimeNanos(long wallClockMillis) {
+        return reader.getElapsedNanos() + (wallClockMillis - reader.getWallClockMillis()) * 1000000L;
+    }
+
+    public long toWallClockMillis(long timeNanos) {
+        return reader.getWallClockMillis() + (timeNanos - reader.getElapsedNanos()) / 1000000L;
+    }
+
+    /**
+     * Computes the aggregates of a column over a time range.
+     */
+    @NonNull
+    public FlightStats aggregate(@NonNull Column column, long fromNanos, long toNanos) throws IOException {
+        FlightStats stats = new FlightStats();
+        aggregate(column, fromNanos, toNanos, stats);
+        return stats;
+    }
+
+    /**
+     * Computes the aggregates of a column over a time range into a reused instance, replacing its content.
+     */
+    public void aggregate(@NonNull Column column, long fromNanos, long toNanos, @NonNull FlightStats into)
+        throws IOException {
+        into.clear();
+        int last = index.size() - 1;
+        for (int i = index.firstBlockEndingAtOrAfter(fromNanos); i <= last; i++) {
+            if (index.getFirstTimeNanos(i) > toNanos) break;
+            decode(i);
+            int start = firstSampleAtOrAfter(fromNanos);
+            int end = firstSampleAfter(toNanos);
+            accumulate(column, start, end, into);
+        }
+    }
+
+    /**
+     * Finds the first sample of a range where the flight mode switched to a given mode. A range starting while the
+     * aircraft is already in that mode does not count, the mode has to change within the range.
+     *
+     * @return time of the sample, or -1 if the mode was not entered within the range
+     */
+    public long findFlightModeEntered(@NonNull FlightMode mode, long fromNanos, long toNanos) throws IOException {
+        byte wanted = (byte) mode.ordinal();
+        byte previous = FlightColumns.UNKNOWN_FLIGHT_MODE;
+        boolean hasPrevious = false;
+        int last = index.size() - 1;
+        int first = index.firstBlockEndingAtOrAfter(fromNanos);
+        if (first > 0 && first <= last && index.getFirstTimeNanos(first) >= fromNanos) {
+            // the sample before the range sits at the end of the previous block
+            decode(first - 1);
+            previous = block.flightMode[block.size() - 1];
+            hasPrevious = true;
+        }
+        for (int i = first; i <= last; i++) {
+            if (index.getFirstTimeNanos(i) > toNanos) break;
+            decode(i);
+            int start = firstSampleAtOrAfter(fromNanos);
+            int end = firstSampleAfter(toNanos);
+            if (start > 0) {
+                previous = block.flightMode[start - 1];
+                hasPrevious = true;
+            }
+            for (int j = start; j < end; j++) {
+                byte current = block.flightMode[j];
+                if (current == wanted && hasPrevious && previous != wanted) {
+                    return block.timeNanos[j];
+                }
+                previous = current;
+                hasPrevious = true;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void decode(int blockIndex) throws IOException {
+        if (blockIndex == decodedBlock) return;
+        decodedBlock = -1;
+        if (!reader.seekBlock(index.getOffset(blockIndex))) {
+            throw new IOException("Missing block " + blockIndex);
+        }
+        reader.decodeBlock(block);
+        decodedBlock = blockIndex;
+    }
+
+    private int firstSampleAtOrAfter(long timeNanos) {
+        long[] times = block.timeNanos;
+        int low = 0;
+        int high = block.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (times[middle] < timeNanos) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int firstSampleAfter(long timeNanos) {
+        return timeNanos == Long.MAX_VALUE ? block.size() : firstSampleAtOrAfter(timeNanos + 1);
+    }
+
+    private void accumulate(Column column, int start, int end, FlightStats into) {
+        switch (column) {
+            case LATITUDE:
+                accumulate(block.latitude, start, end, into);
+                break;
+            case LONGITUDE:
+                accumulate(block.longitude, start, end, into);
+                break;
+            case ALTITUDE:
+                accumulate(block.altitude, start, end, into);
+                break;
+            case PITCH:
+                accumulate(block.pitch, start, end, into);
+                break;
+            case ROLL:
+                accumulate(block.roll, start, end, into);
+                break;
+            case YAW:
+                accumulate(block.yaw, start, end, into);
+                break;
+            case VELOCITY_X:
+                accumulate(block.velocityX, start, end, into);
+                break;
+            case VELOCITY_Y:
+                accumulate(block.velocityY, start, end, into);
+                break;
+            case VELOCITY_Z:
+                accumulate(block.velocityZ, start, end, into);
+                break;
+            case HORIZONTAL_SPEED:
+                for (int i = start; i < end; i++) {
+                    float x = block.velocityX[i];
+                    float y = block.velocityY[i];
+                    into.add(Math.sqrt(x * x + y * y));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void accumulate(double[] values, int start, int end, FlightStats into) {
+        for (int i = start; i < end; i++) {
+            into.add(values[i]);
+        }
+    }
+
+    private static void accumulate(float[] values, int start, int end, FlightStats into) {
+        for (int i = start; i < end; i++) {
+            into.add(values[i]);
+        }
+    }
+}
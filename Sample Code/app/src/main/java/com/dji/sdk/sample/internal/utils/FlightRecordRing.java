@@ -0,0 +1,279 @@
+package com.dji.sdk.sample.internal.utils;
+
+import android.support.annotation.NonNull;
+import dji.common.flightcontroller.FlightMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fixed size ring of flight samples kept in one preallocated direct buffer.
+ * Every field is stored in its own column, so appending and reading a sample never allocates.
+ *
+ * One thread appends, any thread may read through a {@link Snapshot}, which captures the samples held at one moment
+ * so all the columns of an index belong to the same sample. Once the ring is full, appending overwrites the oldest
+ * sample, also while a reader reads it: the append claims the slot before writing it, and
+ * {@link Snapshot#isIntact(int)} tells after the read whether a sample may have been torn, like a seqlock.
+ */
+public class FlightRecordRing {
+
+    private static final FlightMode[] FLIGHT_MODES = FlightMode.values();
+    private static final byte UNKNOWN_FLIGHT_MODE = -1;
+
+    private final int capacity;
+    private final ByteBuffer buffer;
+
+    // Start offset of each column inside the buffer
+    private final int timeColumn;
+    private final int latitudeColumn;
+    private final int longitudeColumn;
+    private final int altitudeColumn;
+    private final int pitchColumn;
+    private final int rollColumn;
+    private final int yawColumn;
+    private final int velocityXColumn;
+    private final int velocityYColumn;
+    private final int velocityZColumn;
+    private final int homeLatitudeColumn;
+    private final int homeLongitudeColumn;
+    private final int flightModeColumn;
+
+    // Total number of samples ever appended, published after the columns are written
+    private volatile long writeCount;
+    // Total number of samples whose writing started, published before the columns are written
+    private volatile long claimCount;
+    // Write count at the last clear, the samples before it are gone
+    private volatile long clearedCount;
+
+    public FlightRecordRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+
+        int offset = 0;
+        timeColumn = offset;
+        offset += 8 * capacity;
+        latitudeColumn = offset;
+        offset += 8 * capacity;
+        longitudeColumn = offset;
+        offset += 8 * capacity;
+        homeLatitudeColumn = offset;
+        offset += 8 * capacity;
+        homeLongitudeColumn = offset;
+        offset += 8 * capacity;
+        altitudeColumn = offset;
+        offset += 4 * capacity;
+        pitchColumn = offset;
+        offset += 4 * capacity;
+        rollColumn = offset;
+        offset += 4 * capacity;
+        yawColumn = offset;
+        offset += 4 * capacity;
+        velocityXColumn = offset;
+        offset += 4 * capacity;
+        velocityYColumn = offset;
+        offset += 4 * capacity;
+        velocityZColumn = offset;
+        offset += 4 * capacity;
+        flightModeColumn = offset;
+        offset += capacity;
+
+        buffer = ByteBuffer.allocateDirect(offset).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Appends one sample, overwriting the oldest one once the ring is full. Must only be called by a single thread.
+     */
+    public void append(long timeNanos,
+                       double latitude,
+                       double longitude,
+                       float altitude,
+                       float pitch,
+                       float roll,
+                       float yaw,
+                       float velocityX,
+                       float velocityY,
+                       float velocityZ,
+                       FlightMode flightMode,
+                       double homeLatitude,
+                       double homeLongitude) {
+        long count = writeCount;
+        claimCount = count + 1;
+        // a volatile read after the claim, so the column writes below cannot move before it
+        if (writeCount != count) {
+            throw new IllegalStateException("Samples appended from several threads");
+        }
+        int slot = (int) (count % capacity);
+
+        buffer.putLong(timeColumn + slot * 8, timeNanos);
+        buffer.putDouble(latitudeColumn + slot * 8, latitude);
+        buffer.putDouble(longitudeColumn + slot * 8, longitude);
+        buffer.putDouble(homeLatitudeColumn + slot * 8, homeLatitude);
+        buffer.putDouble(homeLongitudeColumn + slot * 8, homeLongitude);
+        buffer.putFloat(altitudeColumn + slot * 4, altitude);
+        buffer.putFloat(pitchColumn + slot * 4, pitch);
+        buffer.putFloat(rollColumn + slot * 4, roll);
+        buffer.putFloat(yawColumn + slot * 4, yaw);
+        buffer.putFloat(velocityXColumn + slot * 4, velocityX);
+        buffer.putFloat(velocityYColumn + slot * 4, velocityY);
+        buffer.putFloat(velocityZColumn + slot * 4, velocityZ);
+        buffer.put(flightModeColumn + slot, flightMode == null ? UNKNOWN_FLIGHT_MODE : (byte) flightMode.ordinal());
+
+        writeCount = count + 1;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of samples currently held, at most the capacity
+     */
+    public int size() {
+        long cleared = clearedCount;
+        return (int) Math.min(writeCount - cleared, capacity);
+    }
+
+    /**
+     * @return total number of samples appended since creation or the last clear
+     */
+    public long getWriteCount() {
+        long cleared = clearedCount;
+        return writeCount - cleared;
+    }
+
+    /**
+     * Drops the samples held. Safe from any thread, the writer never sees it: the samples stay in the buffer and
+     * snapshots just start after them.
+     */
+    public void clear() {
+        clearedCount = writeCount;
+    }
+
+    /**
+     * Captures the samples held now.
+     *
+     * @param into the snapshot to fill, reused across reads so reading does not allocate
+     * @return into
+     */
+    @NonNull
+    public Snapshot snapshot(@NonNull Snapshot into) {
+        long cleared = clearedCount;
+        long count = writeCount;
+        into.ring = this;
+        into.first = Math.max(cleared, count - capacity);
+        into.size = (int) (count - into.first);
+        return into;
+    }
+
+    /**
+     * The samples of a ring at one moment, see {@link #snapshot(Snapshot)}. Index 0 is the oldest sample of the
+     * snapshot. Create one per reading thread.
+     */
+    public static final class Snapshot {
+
+        private FlightRecordRing ring;
+        // Number of the sample at index 0, counted since the ring was created
+        private long first;
+        private int size;
+        // Written by isIntact before it reads the claim count, so the reads of the columns cannot move after it
+        private volatile int fence;
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Tells whether samples read from this snapshot can be trusted. Call it after reading them: the samples from
+         * index i on are intact if the writer had not started to overwrite sample i by then. Only the oldest samples
+         * of a full ring are ever overwritten, so a reader that gets false can skip ahead or take a new snapshot.
+         */
+        public boolean isIntact(int i) {
+            fence = i;
+            return ring.claimCount <= first + i + ring.capacity;
+        }
+
+        public long timeNanosAt(int i) {
+            return ring.buffer.getLong(ring.timeColumn + slot(i) * 8);
+        }
+
+        public double latitudeAt(int i) {
+            return ring.buffer.getDouble(ring.latitudeColumn + slot(i) * 8);
+        }
+
+        public double longitudeAt(int i) {
+            return ring.buffer.getDouble(ring.longitudeColumn + slot(i) * 8);
+        }
+
+        public float altitudeAt(int i) {
+            return ring.buffer.getFloat(ring.altitudeColumn + slot(i) * 4);
+        }
+
+        public float pitchAt(int i) {
+            return ring.buffer.getFloat(ring.pitchColumn + slot(i) * 4);
+        }
+
+        public float rollAt(int i) {
+            return ring.buffer.getFloat(ring.rollColumn + slot(i) * 4);
+        }
+
+        public float yawAt(int i) {
+            return ring.buffer.getFloat(ring.yawColumn + slot(i) * 4);
+        }
+
+        public float velocityXAt(int i) {
+            return ring.buffer.getFloat(ring.velocityXColumn + slot(i) * 4);
+        }
+
+        public float velocityYAt(int i) {
+            return ring.buffer.getFloat(ring.velocityYColumn + slot(i) * 4);
+        }
+
+        public float velocityZAt(int i) {
+            return ring.buffer.getFloat(ring.velocityZColumn + slot(i) * 4);
+        }
+
+        public double homeLatitudeAt(int i) {
+            return ring.buffer.getDouble(ring.homeLatitudeColumn + slot(i) * 8);
+        }
+
+        public double homeLongitudeAt(int i) {
+            return ring.buffer.getDouble(ring.homeLongitudeColumn + slot(i) * 8);
+        }
+
+        /**
+         * @return the flight mode of the sample, or null if it was not known when recorded
+         */
+        public FlightMode flightModeAt(int i) {
+            byte ordinal = ring.buffer.get(ring.flightModeColumn + slot(i));
+            return ordinal < 0 || ordinal >= FLIGHT_MODES.length ? null : FLIGHT_MODES[ordinal];
+        }
+
+        /**
+         * @return the index of the newest sample taken at or before the given time, or -1 if there is none. The
+         * search may read the oldest samples, check {@link #isIntact(int)} of index 0 afterwards.
+         */
+        public int indexAtOrBefore(long timeNanos) {
+            int low = 0;
+            int high = size - 1;
+            int result = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (timeNanosAt(mid) <= timeNanos) {
+                    result = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return result;
+        }
+
+        private int slot(int i) {
+            if (i < 0 || i >= size) {
+                throw new IndexOutOfBoundsException("index " + i + ", size " + size);
+            }
+            return (int) ((first + i) % ring.capacity);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.dji.sdk.sample.internal.utils;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling of (x, y) series for plotting. Keeps the visual shape, peaks
+ * included, with a fraction of the points.
+ *
+ * The static {@link #downsample} method reduces a whole series at once. An instance downsamples a series as it
+ * streams in: every full bucket of samples yields one point, so a live chart only pays for the new samples, and the
+ * buckets still filling get a point of their own when the points are copied. When the points reach the maximum, they
+ * are reduced to half and the bucket size doubles, which keeps the output bounded however long the series grows. A
+ * bucket keeps the size it started filling with, so the buckets filling while the bucket size doubles are not cut
+ * differently half way. A bucket keeps at most {@link #MAX_CANDIDATES} samples, or its starting size if larger: a
+ * larger bucket keeps only the lowest and highest sample of each of half as many equal slices as candidates for its
+ * point, which almost always include the point LTTB would pick and always its extremes. The memory of an instance is
+ * allocated up front. Instances are not thread safe.
+ */
+public class LttbDownsampler {
+
+    private static final int MAX_CANDIDATES = 128;
+
+    private final int maxPoints;
+    private int bucketSize;
+
+    private double[] pointX;
+    private double[] pointY;
+    private int pointCount;
+
+    // The bucket waiting for its point and the one after it, whose average decides that point.
+    private Bucket bucket;
+    private Bucket next;
+
+    private double[] scratchX;
+    private double[] scratchY;
+
+    private double lastX;
+    private double lastY;
+    private long sampleCount;
+
+    /**
+     * @param bucketSize samples per point to start with
+     * @param maxPoints bound of the selected points, at least 6
+     */
+    public LttbDownsampler(int bucketSize, int maxPoints) {
+        if (bucketSize < 1 || maxPoints < 6) {
+            throw new IllegalArgumentException("bucketSize " + bucketSize + ", maxPoints " + maxPoints);
+        }
+        this.bucketSize = bucketSize;
+        this.maxPoints = maxPoints;
+        pointX = new double[maxPoints];
+        pointY = new double[maxPoints];
+        scratchX = new double[maxPoints];
+        scratchY = new double[maxPoints];
+        // even, so the candidates split in slices of a lowest and a highest sample
+        int capacity = Math.max(MAX_CANDIDATES, bucketSize + (bucketSize & 1));
+        bucket = new Bucket(capacity);
+        next = new Bucket(capacity);
+        bucket.start(bucketSize);
+        next.start(bucketSize);
+    }
+
+    /**
+     * Downsamples x[offset, offset + length) and y alike into at most threshold points, threshold being at least 3.
+     * x must be ascending.
+     *
+     * @return number of points written to outX and outY, which must not be the input arrays
+     */
+    public static int downsample(double[] x, double[] y, int offset, int length, int threshold,
+                                 double[] outX, double[] outY) {
+        if (threshold < 3) {
+            throw new IllegalArgumentException("threshold " + threshold);
+        }
+        if (threshold >= length) {
+            System.arraycopy(x, offset, outX, 0, length);
+            System.arraycopy(y, offset, outY, 0, length);
+            return length;
+        }
+
+        double every = (double) (length - 2) / (threshold - 2);
+        int a = offset;
+        int n = 0;
+        outX[n] = x[a];
+        outY[n++] = y[a];
+
+        for (int i = 0; i < threshold - 2; i++) {
+            int averageStart = offset + (int) ((i + 1) * every) + 1;
+            int averageEnd = Math.min(offset + (int) ((i + 2) * every) + 1, offset + length);
+            double averageX = 0;
+            double averageY = 0;
+            for (int j = averageStart; j < averageEnd; j++) {
+                averageX += x[j];
+                averageY += y[j];
+            }
+            averageX /= averageEnd - averageStart;
+            averageY /= averageEnd - averageStart;
+
+            int rangeStart = offset + (int) (i * every) + 1;
+            int rangeEnd = offset + (int) ((i + 1) * every) + 1;
+            int selected = selectPoint(x, y, rangeStart, rangeEnd, x[a], y[a], averageX, averageY);
+            outX[n] = x[selected];
+            outY[n++] = y[selected];
+            a = selected;
+        }
+
+        outX[n] = x[offset + length - 1];
+        outY[n++] = y[offset + length - 1];
+        return n;
+    }
+
+    /**
+     * Adds the next sample, x must not go backwards.
+     */
+    public void add(double x, double y) {
+        lastX = x;
+        lastY = y;
+        if (sampleCount++ == 0) {
+            appendPoint(x, y);
+            return;
+        }
+        if (!bucket.isFull()) {
+            bucket.add(x, y);
+            return;
+        }
+        next.add(x, y);
+        if (next.isFull()) {
+            closeBucket();
+        }
+    }
+
+    /**
+     * @return the most points {@link #copyTo} can copy, at most maxPoints + 3
+     */
+    public int size() {
+        return sampleCount > 1 ? pointCount + 3 : pointCount;
+    }
+
+    /**
+     * Copies the points, followed by a point for each of the buckets still filling, picked as if the newest sample
+     * ended the series, and by the newest sample, so the series always reaches the latest data and shows a recent
+     * peak before its bucket closes.
+     *
+     * @return number of points copied, at most {@link #size()}
+     */
+    public int copyTo(double[] outX, double[] outY) {
+        System.arraycopy(pointX, 0, outX, 0, pointCount);
+        System.arraycopy(pointY, 0, outY, 0, pointCount);
+        int n = pointCount;
+        if (sampleCount > 1) {
+            double ax = pointX[pointCount - 1];
+            double ay = pointY[pointCount - 1];
+            if (bucket.count > 0) {
+                boolean nextFilling = next.sampleCount > 0;
+                int selected = selectPoint(bucket.x, bucket.y, 0, bucket.count, ax, ay,
+                                           nextFilling ? next.sumX / next.sampleCount : lastX,
+                                           nextFilling ? next.sumY / next.sampleCount : lastY);
+                // the newest sample follows anyway
+                if (bucket.x[selected] != lastX) {
+                    ax = bucket.x[selected];
+                    ay = bucket.y[selected];
+                    outX[n] = ax;
+                    outY[n++] = ay;
+                }
+            }
+            if (next.count > 0) {
+                int selected = selectPoint(next.x, next.y, 0, next.count, ax, ay, lastX, lastY);
+                if (next.x[selected] != lastX) {
+                    outX[n] = next.x[selected];
+                    outY[n++] = next.y[selected];
+                }
+            }
+            outX[n] = lastX;
+            outY[n++] = lastY;
+        }
+        return n;
+    }
+
+    public int getBucketSize() {
+        return bucketSize;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public void clear() {
+        pointCount = 0;
+        bucket.start(bucketSize);
+        next.start(bucketSize);
+        sampleCount = 0;
+    }
+
+    private void closeBucket() {
+        double averageX = next.sumX / next.sampleCount;
+        double averageY = next.sumY / next.sampleCount;
+        int selected = selectPoint(bucket.x, bucket.y, 0, bucket.count,
+                                   pointX[pointCount - 1], pointY[pointCount - 1], averageX, averageY);
+        appendPoint(bucket.x[selected], bucket.y[selected]);
+
+        // the next bucket waits for its point now
+        Bucket swap = bucket;
+        bucket = next;
+        next = swap;
+        next.start(bucketSize);
+    }
+
+    private void appendPoint(double x, double y) {
+        if (pointCount == maxPoints) {
+            halvePoints();
+        }
+        pointX[pointCount] = x;
+        pointY[pointCount++] = y;
+    }
+
+    private void halvePoints() {
+        pointCount = downsample(pointX, pointY, 0, pointCount, maxPoints / 2, scratchX, scratchY);
+        double[] swapX = pointX;
+        double[] swapY = pointY;
+        pointX = scratchX;
+        pointY = scratchY;
+        scratchX = swapX;
+        scratchY = swapY;
+
+        // the buckets being filled keep their size, the next one starts with the new size
+        bucketSize *= 2;
+    }
+
+    /**
+     * @return index in [start, end) of the point forming the largest triangle with a and the average point.
+     * NaN values are only picked when the range has nothing else.
+     */
+    private static int selectPoint(double[] x, double[] y, int start, int end,
+                                   double ax, double ay, double averageX, double averageY) {
+        int selected = start;
+        double maxArea = -1;
+        for (int j = start; j < end; j++) {
+            // twice the triangle area, the factor does not change the comparison
+            double area = Math.abs((ax - averageX) * (y[j] - ay) - (ax - x[j]) * (averageY - ay));
+            if (area > maxArea) {
+                maxArea = area;
+                selected = j;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Candidate samples of a bucket, with the sums of all its samples for the average.
+     */
+    private static final class Bucket {
+
+        private final double[] x;
+        private final double[] y;
+        private int size;
+        private int count;
+        private int sampleCount;
+        private double sumX;
+        private double sumY;
+
+        private Bucket(int capacity) {
+            x = new double[capacity];
+            y = new double[capacity];
+        }
+
+        private boolean isFull() {
+            return sampleCount == size;
+        }
+
+        private void add(double sampleX, double sampleY) {
+            if (size <= x.length) {
+                x[count] = sampleX;
+                y[count++] = sampleY;
+            } else {
+                // the lowest and the highest sample of the slice, a NaN only while the slice has nothing else
+                int low = 2 * (int) ((long) sampleCount * (x.length / 2) / size);
+                int high = low + 1;
+                if (count <= low) {
+                    x[low] = sampleX;
+                    y[low] = sampleY;
+                    x[high] = sampleX;
+                    y[high] = sampleY;
+                    count = high + 1;
+                } else {
+                    if (sampleY < y[low] || Double.isNaN(y[low])) {
+                        x[low] = sampleX;
+                        y[low] = sampleY;
+                    }
+                    if (sampleY > y[high] || Double.isNaN(y[high])) {
+                        x[high] = sampleX;
+                        y[high] = sampleY;
+                    }
+                }
+            }
+            sampleCount++;
+            sumX += sampleX;
+            sumY += sampleY;
+        }
+
+        private void start(int size) {
+            this.size = size;
+            count = 0;
+            sampleCount = 0;
+            sumX = 0;
+            sumY = 0;
+        }
+    }
+}
@@ -31,7 +31,10 @@ import android.graphics.Color;
 import android.graphics.PixelFormat;
 import android.graphics.PorterDuff;
 import android.graphics.Rect;
+import android.os.SystemClock;
 import android.util.AttributeSet;
+import android.util.Log;
+import android.view.Choreographer;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
@@ -40,14 +43,25 @@ import android.view.View.OnTouchListener;
 
 import com.dji.sdk.sample.R;
 
+/**
+ * The knob is drawn by a render thread that waits while nothing changes. A change of the knob position asks for a
+ * frame on the next vsync, and the thread then draws the latest position once, however many touch events came in
+ * between. {@link #getRenderCount()} and {@link #getRenderTimeNanos()} tell how much drawing that took.
+ */
 public class OnScreenJoystick extends SurfaceView implements
 		SurfaceHolder.Callback, OnTouchListener {
 
+	private static final String TAG = "OnScreenJoystick";
+
 	private Bitmap mJoystick;
 	private SurfaceHolder mHolder;
 	private Rect mKnobBounds;
 
-	private JoystickThread mThread;
+	// Replaced with a new thread whenever the surface is created again
+	private volatile JoystickThread mThread;
+	// Totals of the threads of earlier surfaces
+	private long mRenderCount;
+	private long mRenderTimeNanos;
 
 	private int mKnobX, mKnobY;
 	private int mKnobSize;
@@ -58,6 +72,19 @@ public class OnScreenJoystick extends SurfaceView implements
 
 	private boolean mAutoCentering = true;
 
+	// Main thread only
+	private boolean mFrameRequested;
+
+	private final Choreographer.FrameCallback mFrameCallback = new Choreographer.FrameCallback() {
+		@Override
+		public void doFrame(long frameTimeNanos) {
+			mFrameRequested = false;
+			if (mThread != null) {
+				mThread.requestRender(mKnobX, mKnobY);
+			}
+		}
+	};
+
 	public OnScreenJoystick(Context context, AttributeSet attrs) {
 		super(context, attrs);
 
@@ -89,8 +116,6 @@ public class OnScreenJoystick extends SurfaceView implements
 		mHolder = getHolder();
 		mHolder.addCallback(this);
 
-		mThread = new JoystickThread();
-
 		setZOrderOnTop(true);
 		mHolder.setFormat(PixelFormat.TRANSPARENT);
 		setOnTouchListener(this);
@@ -106,6 +131,22 @@ public class OnScreenJoystick extends SurfaceView implements
 		return mAutoCentering;
 	}
 
+	/**
+	 * @return frames drawn since the view was created
+	 */
+	public long getRenderCount() {
+		JoystickThread thread = mThread;
+		return mRenderCount + (thread == null ? 0 : thread.getRenderCount());
+	}
+
+	/**
+	 * @return time spent drawing those frames, from locking the canvas to posting it
+	 */
+	public long getRenderTimeNanos() {
+		JoystickThread thread = mThread;
+		return mRenderTimeNanos + (thread == null ? 0 : thread.getRenderTimeNanos());
+	}
+
 	public void setJoystickListener(
 			final OnScreenJoystickListener pJoystickListener) {
 		mJoystickListener = pJoystickListener;
@@ -115,39 +156,62 @@ public class OnScreenJoystick extends SurfaceView implements
 	public void surfaceChanged(final SurfaceHolder arg0, final int arg1,
 			final int arg2, final int arg3) {
 
-//		mThread.setRunning(false);
+		// the new surface has nothing drawn on it yet
+		requestFrame();
 	}
 
 	@Override
 	public void surfaceCreated(final SurfaceHolder arg0) {
+		// a thread runs only once, the surface may be created again after the view was covered
+		mThread = new JoystickThread();
 		mThread.start();
-
+		requestFrame();
 	}
 
 	@Override
 	public void surfaceDestroyed(final SurfaceHolder arg0) {
 		boolean retry = true;
-		mThread.setRunning(false);
+		JoystickThread thread = mThread;
+		thread.setRunning(false);
 
 		while (retry) {
 			try {
 				// code to kill Thread
-				mThread.join();
+				thread.join();
 				retry = false;
 			} catch (InterruptedException e) {
 			}
 		}
+		mThread = null;
+		mRenderCount += thread.getRenderCount();
+		mRenderTimeNanos += thread.getRenderTimeNanos();
+		if (mRenderCount > 0) {
+			Log.d(TAG, "Frames drawn: " + mRenderCount + ", average render time: "
+					+ mRenderTimeNanos / mRenderCount / 1000 + " us");
+		}
+	}
 
+	/**
+	 * Asks the render thread to draw the knob on the next vsync, once however often it is called until then.
+	 */
+	private void requestFrame() {
+		if (!mFrameRequested) {
+			mFrameRequested = true;
+			Choreographer.getInstance().postFrameCallback(mFrameCallback);
+		}
 	}
 
 	public void doDraw(final Canvas pCanvas) {
 		if (mKnobBounds == null) {
 			initBounds(pCanvas);
 		}
+		doDraw(pCanvas, mKnobX, mKnobY);
+	}
 
+	private void doDraw(final Canvas pCanvas, final int pKnobX, final int pKnobY) {
 		// pCanvas.drawBitmap(mJoystickBg, null, mBgBounds, null);
 
-		mKnobBounds.set(mKnobX, mKnobY, mKnobX + mKnobSize, mKnobY + mKnobSize);
+		mKnobBounds.set(pKnobX, pKnobY, pKnobX + mKnobSize, pKnobY + mKnobSize);
 		pCanvas.drawBitmap(mJoystick, null, mKnobBounds, null);
 	}
 
@@ -179,6 +243,8 @@ public class OnScreenJoystick extends SurfaceView implements
 			}
 		}
 
+		requestFrame();
+
 		if (mJoystickListener != null) {
 			mJoystickListener.onTouch(this,
 					(0.5f - (mKnobX / (mRadius * 2 - mKnobSize))) * -2,
@@ -206,7 +272,14 @@ public class OnScreenJoystick extends SurfaceView implements
 
 	private class JoystickThread extends Thread {
 
+		// Guarded by this
 		private boolean running = false;
+		private boolean dirty = false;
+		private int knobX;
+		private int knobY;
+
+		private volatile long renderCount;
+		private volatile long renderTimeNanos;
 
 		@Override
 		public synchronized void start() {
@@ -214,40 +287,75 @@ public class OnScreenJoystick extends SurfaceView implements
 			super.start();
 		}
 
-		public void setRunning(final boolean pRunning) {
+		public synchronized void setRunning(final boolean pRunning) {
 			running = pRunning;
+			notifyAll();
+		}
+
+		/**
+		 * Wakes the thread to draw the knob at a position, called on vsync.
+		 */
+		public synchronized void requestRender(final int pKnobX, final int pKnobY) {
+			knobX = pKnobX;
+			knobY = pKnobY;
+			dirty = true;
+			notifyAll();
+		}
+
+		public long getRenderCount() {
+			return renderCount;
+		}
+
+		public long getRenderTimeNanos() {
+			return renderTimeNanos;
 		}
 
 		@Override
 		public void run() {
-			while (running) {
+			while (true) {
+				int x;
+				int y;
+				synchronized (this) {
+					// parked until the knob moves
+					while (running && !dirty) {
+						try {
+							wait();
+						} catch (InterruptedException e) {
+							return;
+						}
+					}
+					if (!running) return;
+					dirty = false;
+					x = knobX;
+					y = knobY;
+				}
+
 				// draw everything to the canvas
+				long start = SystemClock.elapsedRealtimeNanos();
 				Canvas canvas = null;
 				try {
 					canvas = mHolder.lockCanvas(null);
+					if (canvas == null) continue;
 					synchronized (mHolder) {
+						if (mKnobBounds == null) {
+							initBounds(canvas);
+							// the position the frame asked for was taken before the bounds were known
+							x = mKnobX;
+							y = mKnobY;
+						}
 						// reset canvas
 						canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
-						doDraw(canvas);
+						doDraw(canvas, x, y);
 					}
 				} 
 				catch(Exception e){}
 				finally {
 					if (canvas != null) {
 						mHolder.unlockCanvasAndPost(canvas);
+						renderTimeNanos += SystemClock.elapsedRealtimeNanos() - start;
+						renderCount++;
 					}
 				}
-				
-//				pushTouchEvent();
-				
-//				try 
-//                {
-//                    Thread.sleep(100);
-//                } catch (InterruptedException e)
-//                {
-//                    // TODO Auto-generated catch block
-//                    e.printStackTrace();
-//                }
 			}
 		}
 	}
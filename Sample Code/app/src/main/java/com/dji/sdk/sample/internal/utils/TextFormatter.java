@@ -0,0 +1,184 @@
+package com.dji.sdk.sample.internal.utils;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Builds a text from labels and primitive values in a reused char array, the char counterpart of
+ * {@link AsciiFormat}. Once the array is large enough, {@link #clear()} and the appends allocate nothing:
+ * no boxing, no Float.toString, no concatenation. Decimals are written in fixed point, rounded half up.
+ *
+ * The appends are synchronized like those of a StringBuffer. To read a consistent text while another thread may
+ * still append, e.g. when handing it to {@link TextRenderScheduler#copyText(android.widget.TextView,
+ * CharSequence)}, hold the lock of the formatter.
+ */
+public final class TextFormatter implements CharSequence {
+
+    // 10^0 to 10^18, all that fit a long
+    private static final long[] POWERS_OF_TEN = new long[19];
+    private static final int MAX_DECIMALS = 9;
+
+    static {
+        long power = 1;
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = power;
+            power *= 10;
+        }
+    }
+
+    private char[] chars;
+    private int length;
+
+    public TextFormatter() {
+        this(256);
+    }
+
+    public TextFormatter(int capacity) {
+        chars = new char[Math.max(16, capacity)];
+    }
+
+    public synchronized TextFormatter clear() {
+        length = 0;
+        return this;
+    }
+
+    /**
+     * Writes "name: ", the start of a line as GeneralUtils.addLineToSB writes it.
+     */
+    public synchronized TextFormatter label(@NonNull String name) {
+        return append(name).append(':').append(' ');
+    }
+
+    public synchronized TextFormatter newLine() {
+        return append('\n');
+    }
+
+    public synchronized TextFormatter append(char c) {
+        ensureCapacity(1);
+        chars[length++] = c;
+        return this;
+    }
+
+    /**
+     * Writes a text, nothing for null.
+     */
+    public synchronized TextFormatter append(CharSequence text) {
+        if (text == null) return this;
+        int count = text.length();
+        ensureCapacity(count);
+        if (text instanceof String) {
+            ((String) text).getChars(0, count, chars, length);
+        } else {
+            for (int i = 0; i < count; i++) {
+                chars[length + i] = text.charAt(i);
+            }
+        }
+        length += count;
+        return this;
+    }
+
+    /**
+     * Writes the name of a constant, nothing for null. Unlike toString the name is a constant string.
+     */
+    public synchronized TextFormatter append(Enum<?> value) {
+        return value == null ? this : append(value.name());
+    }
+
+    public synchronized TextFormatter append(boolean value) {
+        return append(value ? "true" : "false");
+    }
+
+    public synchronized TextFormatter append(long value) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                // its magnitude does not fit a long
+                return append("-9223372036854775808");
+            }
+            append('-');
+            value = -value;
+        }
+        appendDigits(value, 1);
+        return this;
+    }
+
+    /**
+     * Writes a value with a fixed number of decimals, "NaN" for NaN. Values too large for the decimals fall back to
+     * {@link Double#toString(double)}.
+     *
+     * @param decimals between 0 and 9
+     */
+    public synchronized TextFormatter append(double value, int decimals) {
+        if (Double.isNaN(value)) return append("NaN");
+        decimals = Math.max(0, Math.min(MAX_DECIMALS, decimals));
+        long scale = POWERS_OF_TEN[decimals];
+        double scaled = Math.abs(value) * scale + 0.5;
+        if (scaled >= Long.MAX_VALUE) {
+            return append(Double.toString(value));
+        }
+        long units = (long) scaled;
+        if (value < 0 && units != 0) {
+            append('-');
+        }
+        appendDigits(units / scale, 1);
+        if (decimals > 0) {
+            append('.');
+            appendDigits(units % scale, decimals);
+        }
+        return this;
+    }
+
+    @Override
+    public synchronized int length() {
+        return length;
+    }
+
+    @Override
+    public synchronized char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return chars[index];
+    }
+
+    /**
+     * Copies the text to the start of an array large enough for it.
+     */
+    public synchronized void getChars(@NonNull char[] destination) {
+        System.arraycopy(chars, 0, destination, 0, length);
+    }
+
+    @Override
+    public synchronized CharSequence subSequence(int start, int end) {
+        return new String(chars, start, end - start);
+    }
+
+    @NonNull
+    @Override
+    public synchronized String toString() {
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * Writes a non negative value with at least minDigits digits, zero padded.
+     */
+    private void appendDigits(long value, int minDigits) {
+        int digits = 1;
+        while (digits < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        digits = Math.max(digits, minDigits);
+        ensureCapacity(digits);
+        for (int i = length + digits - 1; i >= length; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > chars.length) {
+            char[] larger = new char[Math.max(chars.length * 2, length + extra)];
+            System.arraycopy(chars, 0, larger, 0, length);
+            chars = larger;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.dji.sdk.sample.internal.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+import android.widget.TextView;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Sets the text of TextViews from any thread, once per frame.
+ *
+ * Updates are kept per TextView until the next vsync and then applied together on the main thread. For
+ * {@link #setText(TextView, CharSequence)} the latest text wins, the texts it replaced before they were shown are
+ * counted as dropped; {@link #append(TextView, CharSequence)} collects everything appended in between. However
+ * fast the updates come, the main looper gets at most one frame callback per frame instead of a message per update.
+ *
+ * {@link #copyText(TextView, CharSequence)} copies the text into arrays kept per TextView and shows it with
+ * {@link TextView#setText(char[], int, int)}, which does not copy it again, so a caller formatting into a reused
+ * buffer such as a {@link TextFormatter} updates the view without allocating anything.
+ */
+public class TextRenderScheduler {
+
+    private static TextRenderScheduler instance;
+
+    private static final int NONE = 0;
+    private static final int TEXT = 1;
+    private static final int CHARS = 2;
+
+    /**
+     * The state of one TextView, kept as long as the view is.
+     */
+    private static final class Entry {
+        // Guarded by lock, what waits for the next frame
+        private TextView view;
+        private int mode = NONE;
+        private CharSequence text;
+        private char[] chars = new char[0];
+        private int charCount;
+        private final StringBuilder appended = new StringBuilder();
+
+        // Main thread only, what this frame applies. The view holds on to display, which is only changed right
+        // before it is set again.
+        private TextView displayView;
+        private int displayMode = NONE;
+        private CharSequence displayText;
+        private char[] display = new char[0];
+        private int displayCount;
+        private final StringBuilder displayAppended = new StringBuilder();
+    }
+
+    private final Object lock = new Object();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Guarded by lock
+    private final Map<TextView, Entry> entries = new WeakHashMap<>();
+    private ArrayList<Entry> queued = new ArrayList<>();
+    private boolean frameScheduled;
+    private long updateCount;
+    private long droppedCount;
+    private long frameCount;
+
+    // Main thread only, swapped with queued every frame
+    private ArrayList<Entry> applying = new ArrayList<>();
+
+    // Set on the main thread, the Choreographer is thread local but may be posted to from any thread
+    private volatile Choreographer choreographer;
+
+    private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            apply();
+        }
+    };
+
+    private final Runnable attachRunnable = new Runnable() {
+        @Override
+        public void run() {
+            choreographer = Choreographer.getInstance();
+            choreographer.postFrameCallback(frameCallback);
+        }
+    };
+
+    public static synchronized TextRenderScheduler getInstance() {
+        if (null == instance) {
+            instance = new TextRenderScheduler();
+        }
+        return instance;
+    }
+
+    private TextRenderScheduler() {
+    }
+
+    /**
+     * Shows a text from the next frame on, replacing whatever text is still waiting for that TextView.
+     * The text must not change afterwards, see {@link #copyText(TextView, CharSequence)} for reused buffers.
+     */
+    public void setText(@NonNull TextView view, @NonNull CharSequence text) {
+        synchronized (lock) {
+            Entry entry = replace(view);
+            entry.mode = TEXT;
+            entry.text = text;
+        }
+    }
+
+    /**
+     * Like {@link #setText(TextView, CharSequence)}, but copies the text right away, so the caller may change or
+     * reuse it as soon as this returns.
+     */
+    public void copyText(@NonNull TextView view, @NonNull CharSequence text) {
+        synchronized (lock) {
+            Entry entry = replace(view);
+            int count = text.length();
+            if (entry.chars.length < count) {
+                entry.chars = new char[Math.max(count, entry.chars.length * 2)];
+            }
+            if (text instanceof TextFormatter) {
+                ((TextFormatter) text).getChars(entry.chars);
+            } else if (text instanceof String) {
+                ((String) text).getChars(0, count, entry.chars, 0);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    entry.chars[i] = text.charAt(i);
+                }
+            }
+            entry.mode = CHARS;
+            entry.charCount = count;
+        }
+    }
+
+    /**
+     * Appends a text in the next frame, after anything set or appended before.
+     */
+    public void append(@NonNull TextView view, @NonNull CharSequence text) {
+        synchronized (lock) {
+            obtain(view).appended.append(text);
+        }
+    }
+
+    /**
+     * @return texts set, copied or appended so far
+     */
+    public long getUpdateCount() {
+        synchronized (lock) {
+            return updateCount;
+        }
+    }
+
+    /**
+     * @return texts replaced by a later one before they were shown
+     */
+    public long getDroppedCount() {
+        synchronized (lock) {
+            return droppedCount;
+        }
+    }
+
+    /**
+     * @return frames that applied at least one update
+     */
+    public long getFrameCount() {
+        synchronized (lock) {
+            return frameCount;
+        }
+    }
+
+    /**
+     * Gets the entry of a TextView for a new text, dropping what was waiting. Called with the lock held.
+     */
+    private Entry replace(TextView view) {
+        Entry entry = obtain(view);
+        if (entry.mode != NONE || entry.appended.length() > 0) {
+            droppedCount++;
+        }
+        entry.text = null;
+        entry.appended.setLength(0);
+        return entry;
+    }
+
+    /**
+     * Gets the entry of a TextView, queues it and makes sure a frame is coming. Called with the lock held.
+     */
+    private Entry obtain(TextView view) {
+        updateCount++;
+        Entry entry = entries.get(view);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(view, entry);
+        }
+        if (entry.view == null) {
+            entry.view = view;
+            queued.add(entry);
+        }
+        if (!frameScheduled) {
+            frameScheduled = true;
+            Choreographer current = choreographer;
+            if (current != null) {
+                current.postFrameCallback(frameCallback);
+            } else {
+                mainHandler.post(attachRunnable);
+            }
+        }
+        return entry;
+    }
+
+    private void apply() {
+        synchronized (lock) {
+            ArrayList<Entry> swap = applying;
+            applying = queued;
+            queued = swap;
+            frameScheduled = false;
+            if (!applying.isEmpty()) {
+                frameCount++;
+            }
+            for (int i = 0; i < applying.size(); i++) {
+                take(applying.get(i));
+            }
+        }
+        // outside the lock, setting a text may measure and lay out
+        for (int i = 0; i < applying.size(); i++) {
+            Entry entry = applying.get(i);
+            if (entry.displayMode == TEXT) {
+                entry.displayView.setText(entry.displayText);
+            } else if (entry.displayMode == CHARS) {
+                entry.displayView.setText(entry.display, 0, entry.displayCount);
+            }
+            if (entry.displayAppended.length() > 0) {
+                entry.displayView.append(entry.displayAppended);
+            }
+            entry.displayView = null;
+            entry.displayMode = NONE;
+            entry.displayText = null;
+            entry.displayAppended.setLength(0);
+        }
+        applying.clear();
+    }
+
+    /**
+     * Moves what waits in an entry to its main thread side. Called with the lock held.
+     */
+    private static void take(Entry entry) {
+        entry.displayView = entry.view;
+        entry.displayMode = entry.mode;
+        if (entry.mode == TEXT) {
+            entry.displayText = entry.text;
+        } else if (entry.mode == CHARS) {
+            if (entry.display.length < entry.charCount) {
+                entry.display = new char[entry.chars.length];
+            }
+            System.arraycopy(entry.chars, 0, entry.display, 0, entry.charCount);
+            entry.displayCount = entry.charCount;
+        }
+        entry.displayAppended.append(entry.appended);
+        entry.view = null;
+        entry.mode = NONE;
+        entry.text = null;
+        entry.appended.setLength(0);
+    }
+}
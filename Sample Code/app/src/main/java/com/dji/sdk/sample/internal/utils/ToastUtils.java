@@ -22,16 +22,14 @@ public class ToastUtils {
         });
     }
 
+    /**
+     * Shows a text in the next frame, a newer text for the same TextView before then replaces it.
+     */
     public static void setResultToText(final TextView tv, final String s) {
-        mUIHandler.post(new Runnable() {
-            @Override
-            public void run() {
-                if (tv == null) {
-                    Toast.makeText(DJISampleApplication.getInstance(), "tv is null", Toast.LENGTH_SHORT).show();
-                } else {
-                    tv.setText(s);
-                }
-            }
-        });
+        if (tv == null) {
+            setResultToToast("tv is null");
+        } else {
+            TextRenderScheduler.getInstance().setText(tv, s);
+        }
     }
 }
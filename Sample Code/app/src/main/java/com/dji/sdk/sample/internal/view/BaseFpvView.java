@@ -51,7 +51,12 @@ public class BaseFpvView extends FrameLayout implements TextureView.SurfaceTextu
                 }
             };
         }
+    }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        // not in the constructor, a view inflated ahead of time would take the video feed from the one shown
         initSDKCallback();
     }
 
@@ -4,28 +4,61 @@ import android.app.Service;
 import android.content.Context;
 import android.support.annotation.NonNull;
 import android.view.LayoutInflater;
+import android.view.View;
 import android.widget.RelativeLayout;
 import android.widget.TextView;
 import com.dji.sdk.sample.R;
+import com.dji.sdk.sample.internal.controller.TelemetryHub;
+import com.dji.sdk.sample.internal.utils.TextFormatter;
+import com.dji.sdk.sample.internal.utils.TextRenderScheduler;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Created by dji on 15/12/28.
+ *
+ * Subscriptions handed to {@link #throttle(TelemetryHub.Subscription)} run at the full rate while the view is
+ * shown, at most once per {@link #setCoveredIntervalMillis(long)} while another view covers it or the app is in
+ * the background, and are dropped when the view is detached.
  */
 public abstract class BasePushDataView extends RelativeLayout implements PresentableView {
 
-    protected StringBuffer stringBuffer;
+    private static final long DEFAULT_COVERED_INTERVAL_MILLIS = 1000;
+
+    /**
+     * Formats the text of the view, shown with {@link #showFormattedText()}.
+     */
+    protected final TextFormatter textFormatter = new TextFormatter();
 
     protected TextView textViewOSD;
 
+    private final List<TelemetryHub.Subscription> subscriptions = new ArrayList<>();
+    private long coveredIntervalMillis = DEFAULT_COVERED_INTERVAL_MILLIS;
+
     public BasePushDataView(Context context) {
         super(context);
         init(context);
     }
 
     @Override
-    protected void onAttachedToWindow() {
-        super.onAttachedToWindow();
-        stringBuffer = new StringBuffer();
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        for (TelemetryHub.Subscription subscription : subscriptions) {
+            TelemetryHub.getInstance().unsubscribe(subscription);
+        }
+        subscriptions.clear();
+    }
+
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        refreshIntervals();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        refreshIntervals();
     }
 
     @NonNull
@@ -34,6 +67,36 @@ public abstract class BasePushDataView extends RelativeLayout implements Present
         return this.getClass().getSimpleName() + ".java";
     }
 
+    /**
+     * Sets how often the updates still come while the view cannot be seen, 0 for the full rate.
+     */
+    public void setCoveredIntervalMillis(long coveredIntervalMillis) {
+        this.coveredIntervalMillis = Math.max(0, coveredIntervalMillis);
+        refreshIntervals();
+    }
+
+    /**
+     * Keeps the rate of a subscription in line with the visibility of the view and unsubscribes it on detach.
+     * Call it right after subscribing in {@link #onAttachedToWindow()}.
+     */
+    protected void throttle(@NonNull TelemetryHub.Subscription subscription) {
+        subscriptions.add(subscription);
+        subscription.setMinIntervalMillis(getSubscriptionIntervalMillis());
+    }
+
+    private void refreshIntervals() {
+        // the view constructor may get here before the fields are set
+        if (subscriptions == null) return;
+        long interval = getSubscriptionIntervalMillis();
+        for (TelemetryHub.Subscription subscription : subscriptions) {
+            subscription.setMinIntervalMillis(interval);
+        }
+    }
+
+    private long getSubscriptionIntervalMillis() {
+        return isShown() && getWindowVisibility() == VISIBLE ? 0 : coveredIntervalMillis;
+    }
+
     private void init(Context context) {
         setClickable(true);
         LayoutInflater layoutInflater = (LayoutInflater) context.getSystemService(Service.LAYOUT_INFLATER_SERVICE);
@@ -45,12 +108,12 @@ public abstract class BasePushDataView extends RelativeLayout implements Present
         textViewOSD.setText(context.getString(getDescription()));
     }
 
-    protected void showStringBufferResult() {
-        post(new Runnable() {
-            @Override
-            public void run() {
-                textViewOSD.setText(stringBuffer.toString());
-            }
-        });
+    /**
+     * Shows the text of the formatter in the next frame. It is copied, so the formatter may be cleared right away.
+     */
+    protected void showFormattedText() {
+        synchronized (textFormatter) {
+            TextRenderScheduler.getInstance().copyText(textViewOSD, textFormatter);
+        }
     }
 }
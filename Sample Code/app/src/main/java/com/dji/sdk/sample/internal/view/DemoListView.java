@@ -1,44 +1,22 @@
 package com.dji.sdk.sample.internal.view;
 
 import android.content.Context;
+import android.os.Bundle;
+import android.os.Parcelable;
+import android.support.annotation.NonNull;
+import android.support.annotation.StringRes;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.ExpandableListView;
 import android.widget.FrameLayout;
 import com.dji.sdk.sample.R;
-import com.dji.sdk.sample.demo.airlink.RebootWiFiAirlinkView;
-import com.dji.sdk.sample.demo.airlink.SetGetWiFiLinkSSIDView;
-import com.dji.sdk.sample.demo.battery.PushBatteryDataView;
-import com.dji.sdk.sample.demo.battery.SetGetDischargeDayView;
-import com.dji.sdk.sample.demo.camera.FetchMediaView;
-import com.dji.sdk.sample.demo.camera.MediaPlaybackView;
-import com.dji.sdk.sample.demo.camera.PlaybackCommandsView;
-import com.dji.sdk.sample.demo.camera.PlaybackDownloadView;
-import com.dji.sdk.sample.demo.camera.PlaybackPushInfoView;
-import com.dji.sdk.sample.demo.camera.PushCameraDataView;
-import com.dji.sdk.sample.demo.camera.RecordVideoView;
-import com.dji.sdk.sample.demo.camera.SetGetISOView;
-import com.dji.sdk.sample.demo.camera.ShootSinglePhotoView;
-import com.dji.sdk.sample.demo.flightcontroller.CompassCalibrationView;
-import com.dji.sdk.sample.demo.flightcontroller.FlightAssistantPushDataView;
-import com.dji.sdk.sample.demo.flightcontroller.FlightLimitationView;
-import com.dji.sdk.sample.demo.flightcontroller.OrientationModeView;
-import com.dji.sdk.sample.demo.flightcontroller.VirtualStickView;
-import com.dji.sdk.sample.demo.gimbal.GimbalCapabilityView;
-import com.dji.sdk.sample.demo.gimbal.MoveGimbalWithSpeedView;
-import com.dji.sdk.sample.demo.gimbal.PushGimbalDataView;
-import com.dji.sdk.sample.demo.ihs.IHSView;
-import com.dji.sdk.sample.demo.key.KeyedInterfaceView;
-import com.dji.sdk.sample.demo.missionoperator.WaypointMissionOperatorView;
-import com.dji.sdk.sample.demo.mobileremotecontroller.MobileRemoteControllerView;
-import com.dji.sdk.sample.demo.remotecontroller.PushRemoteControllerDataView;
-import com.dji.sdk.sample.demo.timeline.TimelineMissionControlView;
 import com.dji.sdk.sample.internal.controller.DJISampleApplication;
 import com.dji.sdk.sample.internal.controller.ExpandableListAdapter;
 import com.dji.sdk.sample.internal.controller.MainActivity;
 import com.dji.sdk.sample.internal.model.GroupHeader;
 import com.dji.sdk.sample.internal.model.GroupItem;
+import com.dji.sdk.sample.internal.model.ViewWrapper;
 import com.squareup.otto.Subscribe;
 
 import static com.dji.sdk.sample.internal.model.ListItem.ListBuilder;
@@ -49,8 +27,24 @@ import static com.dji.sdk.sample.internal.model.ListItem.ListBuilder;
 
 public class DemoListView extends FrameLayout {
 
+    /**
+     * Creates the list again after the view stack dropped it. The search query, the expanded groups and the scroll
+     * position come back with the saved hierarchy state.
+     */
+    public static final ViewWrapper.Factory FACTORY = new ViewWrapper.Factory() {
+        @NonNull
+        @Override
+        public View create(@NonNull Context context) {
+            return new DemoListView(context);
+        }
+    };
+
+    private static final String KEY_SUPER_STATE = "superState";
+    private static final String KEY_QUERY = "query";
+
     private ExpandableListAdapter listAdapter;
     private ExpandableListView expandableListView;
+    private String query;
 
     public DemoListView(Context context) {
         this(context, null, 0);
@@ -68,91 +62,132 @@ public class DemoListView extends FrameLayout {
     private void initView(Context context) {
         final LayoutInflater inflater = LayoutInflater.from(context);
         View view = inflater.inflate(R.layout.demo_list_view, this);
+        // the hierarchy state of a view is only saved with an id
+        setId(R.id.demo_list_view);
 
         // Build model for ListView
         ListBuilder builder = new ListBuilder();
 
-        builder.addGroup(R.string.ihs_group_title, false, new GroupItem(R.string.ihs_page_title, IHSView.class));
+        builder.addGroup(R.string.ihs_group_title,
+                         false,
+                         demo(R.string.ihs_page_title),
+                         demo(R.string.ihs_telemetry_chart_title),
+                         demo(R.string.ihs_telemetry_replay_title),
+                         demo(R.string.ihs_telemetry_server_title),
+                         demo(R.string.ihs_telemetry_export_title));
 
         builder.addGroup(R.string.component_listview_sdk_4_0,
                          false,
-                         new GroupItem(R.string.component_listview_waypoint_mission_operator,
-                                       WaypointMissionOperatorView.class),
-                         new GroupItem(R.string.component_listview_keyed_interface, KeyedInterfaceView.class),
-                         new GroupItem(R.string.component_listview_timeline_mission_control,
-                     TimelineMissionControlView.class));
+                         demo(R.string.component_listview_waypoint_mission_operator),
+                         demo(R.string.component_listview_keyed_interface),
+                         demo(R.string.component_listview_timeline_mission_control));
 
         builder.addGroup(R.string.component_listview_camera,
                          false,
-                         new GroupItem(R.string.camera_listview_push_info, PushCameraDataView.class),
-                         new GroupItem(R.string.camera_listview_iso, SetGetISOView.class),
-                         new GroupItem(R.string.camera_listview_shoot_single_photo, ShootSinglePhotoView.class),
-                         new GroupItem(R.string.camera_listview_record_video, RecordVideoView.class),
-                         new GroupItem(R.string.camera_listview_playback_push_info, PlaybackPushInfoView.class),
-                         new GroupItem(R.string.camera_listview_playback_command, PlaybackCommandsView.class),
-                         new GroupItem(R.string.camera_listview_playback_download, PlaybackDownloadView.class),
-                         new GroupItem(R.string.camera_listview_download_media, FetchMediaView.class),
-                         new GroupItem(R.string.camera_listview_media_playback, MediaPlaybackView.class));
+                         demo(R.string.camera_listview_push_info),
+                         demo(R.string.camera_listview_iso),
+                         demo(R.string.camera_listview_shoot_single_photo),
+                         demo(R.string.camera_listview_record_video),
+                         demo(R.string.camera_listview_playback_push_info),
+                         demo(R.string.camera_listview_playback_command),
+                         demo(R.string.camera_listview_playback_download),
+                         demo(R.string.camera_listview_download_media),
+                         demo(R.string.camera_listview_media_playback));
 
         builder.addGroup(R.string.component_listview_camera,
                          false,
-                         new GroupItem(R.string.camera_listview_push_info, PushCameraDataView.class),
-                         new GroupItem(R.string.camera_listview_iso, SetGetISOView.class),
-                         new GroupItem(R.string.camera_listview_shoot_single_photo, ShootSinglePhotoView.class),
-                         new GroupItem(R.string.camera_listview_record_video, RecordVideoView.class),
-                         new GroupItem(R.string.camera_listview_playback_push_info, PlaybackPushInfoView.class),
-                         new GroupItem(R.string.camera_listview_playback_command, PlaybackCommandsView.class),
-                         new GroupItem(R.string.camera_listview_playback_download, PlaybackDownloadView.class),
-                         new GroupItem(R.string.camera_listview_download_media, FetchMediaView.class),
-                         new GroupItem(R.string.camera_listview_media_playback, MediaPlaybackView.class));
+                         demo(R.string.camera_listview_push_info),
+                         demo(R.string.camera_listview_iso),
+                         demo(R.string.camera_listview_shoot_single_photo),
+                         demo(R.string.camera_listview_record_video),
+                         demo(R.string.camera_listview_playback_push_info),
+                         demo(R.string.camera_listview_playback_command),
+                         demo(R.string.camera_listview_playback_download),
+                         demo(R.string.camera_listview_download_media),
+                         demo(R.string.camera_listview_media_playback));
 
         builder.addGroup(R.string.component_listview_gimbal,
                          false,
-                         new GroupItem(R.string.gimbal_listview_push_info, PushGimbalDataView.class),
-                         new GroupItem(R.string.gimbal_listview_rotate_gimbal, MoveGimbalWithSpeedView.class),
-                         new GroupItem(R.string.gimbal_listview_gimbal_capability, GimbalCapabilityView.class));
+                         demo(R.string.gimbal_listview_push_info),
+                         demo(R.string.gimbal_listview_rotate_gimbal),
+                         demo(R.string.gimbal_listview_gimbal_capability));
 
         builder.addGroup(R.string.component_listview_battery,
                          false,
-                         new GroupItem(R.string.battery_listview_push_info, PushBatteryDataView.class),
-                         new GroupItem(R.string.battery_listview_set_get_discharge_day, SetGetDischargeDayView.class));
+                         demo(R.string.battery_listview_push_info),
+                         demo(R.string.battery_listview_set_get_discharge_day));
 
         builder.addGroup(R.string.component_listview_airlink,
                          false,
-                         new GroupItem(R.string.airlink_listview_wifi_set_get_ssid, SetGetWiFiLinkSSIDView.class),
-                         new GroupItem(R.string.airlink_listview_wifi_reboot_wifi, RebootWiFiAirlinkView.class),
-                         new GroupItem(R.string.airlink_listview_lb_set_get_channel, SetGetWiFiLinkSSIDView.class));
+                         demo(R.string.airlink_listview_wifi_set_get_ssid),
+                         demo(R.string.airlink_listview_wifi_reboot_wifi),
+                         demo(R.string.airlink_listview_lb_set_get_channel));
 
         builder.addGroup(R.string.component_listview_flight_controller,
                          false,
-                         new GroupItem(R.string.flight_controller_listview_compass_calibration,
-                                       CompassCalibrationView.class),
-                         new GroupItem(R.string.flight_controller_listview_flight_limitation,
-                                       FlightLimitationView.class),
-                         new GroupItem(R.string.flight_controller_listview_orientation_mode, OrientationModeView.class),
-                         new GroupItem(R.string.flight_controller_listview_virtual_stick, VirtualStickView.class),
-                         new GroupItem(R.string.flight_controller_listview_intelligent_flight_assistant,
-                                       FlightAssistantPushDataView.class));
+                         demo(R.string.flight_controller_listview_compass_calibration),
+                         demo(R.string.flight_controller_listview_flight_limitation),
+                         demo(R.string.flight_controller_listview_orientation_mode),
+                         demo(R.string.flight_controller_listview_virtual_stick),
+                         demo(R.string.flight_controller_listview_intelligent_flight_assistant));
 
         builder.addGroup(R.string.component_listview_remote_controller,
                          false,
-                         new GroupItem(R.string.remote_controller_listview_push_info,
-                                       PushRemoteControllerDataView.class),
-                         new GroupItem(R.string.component_listview_mobile_remote_controller,
-                                       MobileRemoteControllerView.class));
+                         demo(R.string.remote_controller_listview_push_info),
+                         demo(R.string.component_listview_mobile_remote_controller));
 
         // Set-up ExpandableListView
         expandableListView = (ExpandableListView) view.findViewById(R.id.expandable_list);
         listAdapter = new ExpandableListAdapter(context, builder.build());
         expandableListView.setAdapter(listAdapter);
-        DJISampleApplication.getEventBus().register(this);
         expandAllGroupIfNeeded();
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        DJISampleApplication.getEventBus().register(this);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        // the bus would otherwise keep a list the view stack dropped
+        DJISampleApplication.getEventBus().unregister(this);
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        Bundle state = new Bundle();
+        state.putParcelable(KEY_SUPER_STATE, super.onSaveInstanceState());
+        state.putString(KEY_QUERY, query);
+        return state;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        Bundle bundle = (Bundle) state;
+        super.onRestoreInstanceState(bundle.getParcelable(KEY_SUPER_STATE));
+        query = bundle.getString(KEY_QUERY);
+        // filtered before the list view restores its expanded groups, which are positions in the filtered list
+        if (query != null) {
+            listAdapter.filterData(query);
+        }
+    }
+
+    /**
+     * An item for the demo view registered under its title in {@link DemoViewFactory}.
+     */
+    private static GroupItem demo(@StringRes int titleStringId) {
+        return new GroupItem(titleStringId, new DemoViewFactory(titleStringId));
+    }
+
     @Subscribe
     public void onSearchQueryEvent(MainActivity.SearchQueryEvent event) {
-        listAdapter.filterData(event.getQuery());
-        expandAllGroup();
+        query = event.getQuery();
+        if (listAdapter.filterData(query)) {
+            expandAllGroup();
+        }
     }
 
     /**
@@ -0,0 +1,134 @@
+package com.dji.sdk.sample.internal.view;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.StringRes;
+import com.dji.sdk.sample.R;
+import com.dji.sdk.sample.demo.airlink.RebootWiFiAirlinkView;
+import com.dji.sdk.sample.demo.airlink.SetGetWiFiLinkSSIDView;
+import com.dji.sdk.sample.demo.battery.PushBatteryDataView;
+import com.dji.sdk.sample.demo.battery.SetGetDischargeDayView;
+import com.dji.sdk.sample.demo.camera.FetchMediaView;
+import com.dji.sdk.sample.demo.camera.MediaPlaybackView;
+import com.dji.sdk.sample.demo.camera.PlaybackCommandsView;
+import com.dji.sdk.sample.demo.camera.PlaybackDownloadView;
+import com.dji.sdk.sample.demo.camera.PlaybackPushInfoView;
+import com.dji.sdk.sample.demo.camera.PushCameraDataView;
+import com.dji.sdk.sample.demo.camera.RecordVideoView;
+import com.dji.sdk.sample.demo.camera.SetGetISOView;
+import com.dji.sdk.sample.demo.camera.ShootSinglePhotoView;
+import com.dji.sdk.sample.demo.flightcontroller.CompassCalibrationView;
+import com.dji.sdk.sample.demo.flightcontroller.FlightAssistantPushDataView;
+import com.dji.sdk.sample.demo.flightcontroller.FlightLimitationView;
+import com.dji.sdk.sample.demo.flightcontroller.OrientationModeView;
+import com.dji.sdk.sample.demo.flightcontroller.VirtualStickView;
+import com.dji.sdk.sample.demo.gimbal.GimbalCapabilityView;
+import com.dji.sdk.sample.demo.gimbal.MoveGimbalWithSpeedView;
+import com.dji.sdk.sample.demo.gimbal.PushGimbalDataView;
+import com.dji.sdk.sample.demo.ihs.IHSView;
+import com.dji.sdk.sample.demo.ihs.TelemetryChartView;
+import com.dji.sdk.sample.demo.ihs.TelemetryExportView;
+import com.dji.sdk.sample.demo.ihs.TelemetryReplayView;
+import com.dji.sdk.sample.demo.ihs.TelemetryServerView;
+import com.dji.sdk.sample.demo.key.KeyedInterfaceView;
+import com.dji.sdk.sample.demo.missionoperator.WaypointMissionOperatorView;
+import com.dji.sdk.sample.demo.mobileremotecontroller.MobileRemoteControllerView;
+import com.dji.sdk.sample.demo.remotecontroller.PushRemoteControllerDataView;
+import com.dji.sdk.sample.demo.timeline.TimelineMissionControlView;
+
+/**
+ * The table of all demo views, keyed by the title of their list item.
+ *
+ * Creating a view is a switch and a plain constructor call, no reflection. A demo class is only loaded when its
+ * view is first created, not when the list is built. To add a demo, add a case for its title here and list the
+ * title in {@link DemoListView}.
+ */
+public final class DemoViewFactory implements PresentableView.Factory {
+
+    private final @StringRes int titleId;
+
+    public DemoViewFactory(@StringRes int titleId) {
+        this.titleId = titleId;
+    }
+
+    @NonNull
+    @Override
+    public PresentableView create(@NonNull Context context) {
+        switch (titleId) {
+            case R.string.ihs_page_title:
+                return new IHSView(context);
+            case R.string.ihs_telemetry_chart_title:
+                return new TelemetryChartView(context);
+            case R.string.ihs_telemetry_replay_title:
+                return new TelemetryReplayView(context);
+            case R.string.ihs_telemetry_server_title:
+                return new TelemetryServerView(context);
+            case R.string.ihs_telemetry_export_title:
+                return new TelemetryExportView(context);
+
+            case R.string.component_listview_waypoint_mission_operator:
+                return new WaypointMissionOperatorView(context);
+            case R.string.component_listview_keyed_interface:
+                return new KeyedInterfaceView(context);
+            case R.string.component_listview_timeline_mission_control:
+                return new TimelineMissionControlView(context);
+
+            case R.string.camera_listview_push_info:
+                return new PushCameraDataView(context);
+            case R.string.camera_listview_iso:
+                return new SetGetISOView(context);
+            case R.string.camera_listview_shoot_single_photo:
+                return new ShootSinglePhotoView(context);
+            case R.string.camera_listview_record_video:
+                return new RecordVideoView(context);
+            case R.string.camera_listview_playback_push_info:
+                return new PlaybackPushInfoView(context);
+            case R.string.camera_listview_playback_command:
+                return new PlaybackCommandsView(context);
+            case R.string.camera_listview_playback_download:
+                return new PlaybackDownloadView(context);
+            case R.string.camera_listview_download_media:
+                return new FetchMediaView(context);
+            case R.string.camera_listview_media_playback:
+                return new MediaPlaybackView(context);
+
+            case R.string.gimbal_listview_push_info:
+                return new PushGimbalDataView(context);
+            case R.string.gimbal_listview_rotate_gimbal:
+                return new MoveGimbalWithSpeedView(context);
+            case R.string.gimbal_listview_gimbal_capability:
+                return new GimbalCapabilityView(context);
+
+            case R.string.battery_listview_push_info:
+                return new PushBatteryDataView(context);
+            case R.string.battery_listview_set_get_discharge_day:
+                return new SetGetDischargeDayView(context);
+
+            case R.string.airlink_listview_wifi_set_get_ssid:
+            case R.string.airlink_listview_lb_set_get_channel:
+                return new SetGetWiFiLinkSSIDView(context);
+            case R.string.airlink_listview_wifi_reboot_wifi:
+                return new RebootWiFiAirlinkView(context);
+
+            case R.string.flight_controller_listview_compass_calibration:
+                return new CompassCalibrationView(context);
+            case R.string.flight_controller_listview_flight_limitation:
+                return new FlightLimitationView(context);
+            case R.string.flight_controller_listview_orientation_mode:
+                return new OrientationModeView(context);
+            case R.string.flight_controller_listview_virtual_stick:
+                return new VirtualStickView(context);
+            case R.string.flight_controller_listview_intelligent_flight_assistant:
+                return new FlightAssistantPushDataView(context);
+
+            case R.string.remote_controller_listview_push_info:
+                return new PushRemoteControllerDataView(context);
+            case R.string.component_listview_mobile_remote_controller:
+                return new MobileRemoteControllerView(context);
+
+            default:
+                throw new IllegalStateException("No demo view is registered for "
+                                                    + context.getResources().getResourceEntryName(titleId));
+        }
+    }
+}
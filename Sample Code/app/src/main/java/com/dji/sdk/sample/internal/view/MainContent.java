@@ -76,7 +76,8 @@ public class MainContent extends RelativeLayout {
                 if (GeneralUtils.isFastDoubleClick()) return;
                 DJISampleApplication.getEventBus()
                                     .post(new ViewWrapper(new DemoListView(getContext()),
-                                                          R.string.activity_component_list));
+                                                          R.string.activity_component_list,
+                                                          DemoListView.FACTORY));
             }
         });
         mBtnBluetooth.setOnClickListener(new OnClickListener() {
@@ -172,13 +173,8 @@ public class MainContent extends RelativeLayout {
     }
 
     @Subscribe
-    public void onConnectivityChange(DJISampleApplication.ConnectivityChangeEvent event) {
-        post(new Runnable() {
-            @Override
-            public void run() {
-                refreshSDKRelativeUI();
-            }
-        });
+    public void onProductTopologyChange(DJISampleApplication.ProductTopologyChangeEvent event) {
+        refreshSDKRelativeUI();
     }
 
     private void refreshSDKRelativeUI() {
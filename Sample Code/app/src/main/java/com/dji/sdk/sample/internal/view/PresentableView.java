@@ -1,5 +1,6 @@
 package com.dji.sdk.sample.internal.view;
 
+import android.content.Context;
 import android.support.annotation.NonNull;
 import android.support.annotation.StringRes;
 
@@ -20,4 +21,12 @@ public interface PresentableView {
      */
     @NonNull
     String getHint();
+
+    /**
+     * Creates a PresentableView, which must be a View. Replaces looking up a constructor that takes Context.
+     */
+    interface Factory {
+        @NonNull
+        PresentableView create(@NonNull Context context);
+    }
 }
@@ -0,0 +1,90 @@
+package com.dji.sdk.sample.internal.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class LttbDownsamplerTest {
+
+    private static final int SAMPLES = 2000;
+    private static final double SPIKE = 100;
+
+    @Test
+    public void keepsSpikeAtEveryPosition() {
+        int[][] configurations = {{1, 6}, {3, 8}, {128, 6}, {200, 6}, {1, 64}};
+        for (int[] configuration : configurations) {
+            for (int spikeIndex = 0; spikeIndex < SAMPLES; spikeIndex++) {
+                assertKeepsSpike(configuration[0], configuration[1], spikeIndex);
+            }
+        }
+    }
+
+    @Test
+    public void keepsSpikeAroundHalving() {
+        // large enough buckets to be cut in slices after the first halving
+        int bucketSize = 128;
+        int maxPoints = 6;
+        List<Integer> halvings = findHalvings(bucketSize, maxPoints);
+        assertTrue("no halving in " + SAMPLES + " samples", halvings.size() >= 2);
+        for (int halving : halvings) {
+            for (int spikeIndex = Math.max(0, halving - 2 * bucketSize);
+                 spikeIndex < Math.min(SAMPLES, halving + 2 * bucketSize);
+                 spikeIndex++) {
+                assertKeepsSpike(bucketSize, maxPoints, spikeIndex);
+            }
+        }
+    }
+
+    @Test
+    public void keepsPointsBounded() {
+        LttbDownsampler downsampler = new LttbDownsampler(1, 64);
+        for (int i = 0; i < 1000000; i++) {
+            downsampler.add(i, Math.sin(i / 1000.0));
+        }
+        assertTrue(downsampler.size() <= 64 + 3);
+        assertEquals(1000000, downsampler.getSampleCount());
+
+        double[] x = new double[downsampler.size()];
+        double[] y = new double[downsampler.size()];
+        int count = downsampler.copyTo(x, y);
+        assertEquals(0, x[0], 0);
+        assertEquals(999999, x[count - 1], 0);
+        for (int i = 1; i < count; i++) {
+            assertTrue(x[i] > x[i - 1]);
+        }
+    }
+
+    private static void assertKeepsSpike(int bucketSize, int maxPoints, int spikeIndex) {
+        LttbDownsampler downsampler = new LttbDownsampler(bucketSize, maxPoints);
+        for (int i = 0; i < SAMPLES; i++) {
+            downsampler.add(i, i == spikeIndex ? SPIKE : 0);
+        }
+        double[] x = new double[downsampler.size()];
+        double[] y = new double[downsampler.size()];
+        int count = downsampler.copyTo(x, y);
+        for (int i = 0; i < count; i++) {
+            if (x[i] == spikeIndex && y[i] == SPIKE) return;
+        }
+        throw new AssertionError("spike at " + spikeIndex + " lost, bucket size " + bucketSize + ", max points "
+                                     + maxPoints);
+    }
+
+    /**
+     * @return indexes of the samples whose addition doubled the bucket size
+     */
+    private static List<Integer> findHalvings(int bucketSize, int maxPoints) {
+        List<Integer> halvings = new ArrayList<>();
+        LttbDownsampler downsampler = new LttbDownsampler(bucketSize, maxPoints);
+        for (int i = 0; i < SAMPLES; i++) {
+            int before = downsampler.getBucketSize();
+            downsampler.add(i, 0);
+            if (downsampler.getBucketSize() != before) {
+                halvings.add(i);
+            }
+        }
+        return halvings;
+    }
+}
@@ -0,0 +1,107 @@
+package com.dji.sdk.sample.internal.utils;
+
+import com.dji.sdk.sample.internal.model.FlightColumns;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Encode and decode throughput of the flight archive codec, in samples per second, on a synthetic 10 minute flight
+ * at 50 Hz cut into blocks of FlightArchiveWriter.DEFAULT_BLOCK_SIZE samples. The setup prints how much smaller the
+ * encoded blocks with their headers are than the raw flight records of the log segments.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FlightArchiveCodecBenchmark {
+
+    private static final int BLOCK_SIZE = 1024;
+    private static final int SAMPLE_RATE_HZ = 50;
+    private static final int SAMPLES = 10 * 60 * SAMPLE_RATE_HZ;
+    private static final int BLOCKS = (SAMPLES + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+    private final FlightArchiveCodec codec = new FlightArchiveCodec();
+    private final FlightColumns batch = new FlightColumns(BLOCK_SIZE);
+    private FlightColumns[] flight;
+    private byte[][] blocks;
+
+    @Setup
+    public void setUp() {
+        flight = createFlight(new Random(42));
+        blocks = new byte[BLOCKS][];
+        long encodedLength = 0;
+        for (int i = 0; i < BLOCKS; i++) {
+            int length = codec.encode(flight[i]);
+            blocks[i] = Arrays.copyOf(codec.getEncoded(), length);
+            encodedLength += FlightArchiveCodec.BLOCK_HEADER_LENGTH + length;
+        }
+        long rawLength = (long) SAMPLES * (FlightLogFormat.RECORD_OVERHEAD + FlightLogFormat.FLIGHT_PAYLOAD_LENGTH);
+        System.out.printf("%n%d samples: %d bytes raw, %d bytes encoded, %.1fx smaller%n",
+                          SAMPLES, rawLength, encodedLength, (double) rawLength / encodedLength);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public FlightColumns decode() throws IOException {
+        for (int i = 0; i < BLOCKS; i++) {
+            codec.decode(blocks[i], 0, blocks[i].length, flight[i].size(), batch);
+        }
+        return batch;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public int encode() {
+        int length = 0;
+        for (int i = 0; i < BLOCKS; i++) {
+            length += codec.encode(flight[i]);
+        }
+        return length;
+    }
+
+    /**
+     * A flight circling a home point at 8 m/s with sensor noise on the attitude, velocity and altitude, switching
+     * flight mode every minute.
+     */
+    private static FlightColumns[] createFlight(Random random) {
+        FlightColumns[] flight = new FlightColumns[BLOCKS];
+        double homeLatitude = 22.5428;
+        double homeLongitude = 113.9589;
+        double metersPerDegree = 111320;
+        double radius = 150;
+        double speed = 8;
+        long timeNanos = 1000000000L;
+        for (int i = 0; i < SAMPLES; i++) {
+            if (i % BLOCK_SIZE == 0) {
+                flight[i / BLOCK_SIZE] = new FlightColumns(BLOCK_SIZE);
+            }
+            double seconds = (double) i / SAMPLE_RATE_HZ;
+            double angle = speed * seconds / radius;
+            // the samples arrive with some jitter around the nominal rate
+            timeNanos += 1000000000L / SAMPLE_RATE_HZ + (long) (random.nextGaussian() * 500000);
+            flight[i / BLOCK_SIZE].add(timeNanos,
+                                       homeLatitude + radius * Math.sin(angle) / metersPerDegree,
+                                       homeLongitude + radius * Math.cos(angle) / metersPerDegree,
+                                       (float) (50 + random.nextGaussian() * 0.05),
+                                       (float) (-8 + random.nextGaussian() * 0.2),
+                                       (float) (12 + random.nextGaussian() * 0.2),
+                                       (float) (Math.toDegrees(angle) % 360 - 180),
+                                       (float) (speed * Math.cos(angle) + random.nextGaussian() * 0.05),
+                                       (float) (-speed * Math.sin(angle) + random.nextGaussian() * 0.05),
+                                       (float) (random.nextGaussian() * 0.05),
+                                       (byte) (seconds / 60 % 3),
+                                       homeLatitude,
+                                       homeLongitude);
+        }
+        return flight;
+    }
+}